@@ -0,0 +1,71 @@
+package com.thnkscj.flick.benchmarks;
+
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.providers.caching.CachingFeatureFlagProvider;
+import com.thnkscj.flick.providers.caching.strategy.ConcurrentCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CachingFeatureFlagProvider} lookups that hit the cache and lookups that
+ * miss and fall through to the delegate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachingProviderBenchmark {
+
+    private static final int FLAG_COUNT = 10_000;
+
+    private ConcurrentCache<String, FlagValue> cache;
+    private CachingFeatureFlagProvider provider;
+    private String[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cache = new ConcurrentCache<>(null);
+        provider = new CachingFeatureFlagProvider(new SyntheticProvider(FLAG_COUNT), cache, 0, TimeUnit.SECONDS);
+        keys = new String[FLAG_COUNT];
+        for (int i = 0; i < FLAG_COUNT; i++) {
+            keys[i] = SyntheticProvider.key(i);
+            provider.getValue(keys[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        provider.shutdown();
+    }
+
+    @Benchmark
+    public FlagValue hit(Cursor cursor) {
+        return provider.getValue(keys[cursor.next++ % FLAG_COUNT]);
+    }
+
+    @Benchmark
+    public FlagValue miss(Cursor cursor) {
+        String key = keys[cursor.next++ % FLAG_COUNT];
+        cache.invalidate(key);
+        return provider.getValue(key);
+    }
+}
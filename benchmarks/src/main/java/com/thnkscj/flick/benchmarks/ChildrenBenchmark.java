@@ -0,0 +1,46 @@
+package com.thnkscj.flick.benchmarks;
+
+import com.thnkscj.flick.core.FlagValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code getChildren} prefix scans as the total flag count grows from 1k to 1M.
+ * The scanned prefix always matches {@value SyntheticProvider#GROUP_SIZE} flags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ChildrenBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int flagCount;
+
+    private SyntheticProvider provider;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        provider = new SyntheticProvider(flagCount);
+    }
+
+    @Benchmark
+    public Map<String, FlagValue> getChildren() {
+        return provider.getChildren("group0");
+    }
+}
@@ -0,0 +1,73 @@
+package com.thnkscj.flick.benchmarks;
+
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.providers.composite.CompositeFeatureFlagProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CompositeFeatureFlagProvider} resolution across 1 to 8 layers, for a key owned
+ * by the first layer, a key only the last layer defines, and a key no layer defines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositeProviderBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int layers;
+
+    private CompositeFeatureFlagProvider composite;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<FeatureFlagProvider> providers = new ArrayList<>();
+        for (int i = 0; i < layers - 1; i++) {
+            providers.add(new LayerProvider("first.layer.flag"));
+        }
+        providers.add(new LayerProvider("first.layer.flag", "last.layer.flag"));
+        composite = new CompositeFeatureFlagProvider(providers, true);
+    }
+
+    @Benchmark
+    public FlagValue firstLayerHit() {
+        return composite.getValue("first.layer.flag");
+    }
+
+    @Benchmark
+    public FlagValue lastLayerHit() {
+        return composite.getValue("last.layer.flag");
+    }
+
+    @Benchmark
+    public FlagValue missEverywhere() {
+        return composite.getValue("missing.flag");
+    }
+
+    static class LayerProvider extends SyntheticProvider {
+        LayerProvider(String... ownedKeys) {
+            super(1000);
+            for (String key : ownedKeys) {
+                updateFlag(key, true);
+            }
+        }
+    }
+}
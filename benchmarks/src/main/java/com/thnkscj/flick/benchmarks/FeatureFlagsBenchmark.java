@@ -0,0 +1,62 @@
+package com.thnkscj.flick.benchmarks;
+
+import com.thnkscj.flick.core.FeatureFlags;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the global read path, {@code FeatureFlags.get(key).asBoolean()}, on its own and
+ * with eight threads reading the same provider.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeatureFlagsBenchmark {
+
+    private String presentKey;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FeatureFlags.setProvider(new SyntheticProvider(10_000));
+        presentKey = SyntheticProvider.key(3);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FeatureFlags.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean getAsBoolean() {
+        return FeatureFlags.get(presentKey).asBoolean(false);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean getMissingAsBoolean() {
+        return FeatureFlags.get("missing.flag").asBoolean(false);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean getAsBooleanContended() {
+        return FeatureFlags.get(presentKey).asBoolean(false);
+    }
+}
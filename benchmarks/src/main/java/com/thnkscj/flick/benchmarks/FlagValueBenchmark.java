@@ -0,0 +1,112 @@
+package com.thnkscj.flick.benchmarks;
+
+import com.thnkscj.flick.core.FlagType;
+import com.thnkscj.flick.core.FlagValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every {@code FlagValue.asXxx} conversion, both from natively typed values and
+ * from their string forms, which is what file- and network-backed providers usually hold.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlagValueBenchmark {
+
+    private final FlagValue booleanValue = FlagValue.of(true);
+    private final FlagValue booleanString = FlagValue.of("true");
+    private final FlagValue intValue = FlagValue.of(42);
+    private final FlagValue intString = FlagValue.of("42");
+    private final FlagValue longValue = FlagValue.of(42L);
+    private final FlagValue longString = FlagValue.of("42");
+    private final FlagValue doubleValue = FlagValue.of(0.25);
+    private final FlagValue doubleString = FlagValue.of("0.25");
+    private final FlagValue stringValue = FlagValue.of("variant-a");
+    private final FlagValue nullValue = FlagValue.nullValue();
+    private final FlagValue listValue = FlagValue.of(Arrays.asList(1L, 2L, 3L));
+    private final FlagType<List<Integer>> intList = FlagType.listOf(Integer.class);
+
+    @Benchmark
+    public boolean asBoolean() {
+        return booleanValue.asBoolean(false);
+    }
+
+    @Benchmark
+    public boolean asBooleanFromString() {
+        return booleanString.asBoolean(false);
+    }
+
+    @Benchmark
+    public int asInt() {
+        return intValue.asInt(0);
+    }
+
+    @Benchmark
+    public int asIntFromString() {
+        return intString.asInt(0);
+    }
+
+    @Benchmark
+    public long asLong() {
+        return longValue.asLong(0L);
+    }
+
+    @Benchmark
+    public long asLongFromString() {
+        return longString.asLong(0L);
+    }
+
+    @Benchmark
+    public double asDouble() {
+        return doubleValue.asDouble(0.0);
+    }
+
+    @Benchmark
+    public double asDoubleFromString() {
+        return doubleString.asDouble(0.0);
+    }
+
+    @Benchmark
+    public String asString() {
+        return stringValue.asString(null);
+    }
+
+    @Benchmark
+    public String asStringFromInt() {
+        return intValue.asString(null);
+    }
+
+    @Benchmark
+    public Optional<String> asType() {
+        return stringValue.as(String.class);
+    }
+
+    /**
+     * Reads a typed list decoded on the first call and cached in the value afterwards.
+     */
+    @Benchmark
+    public Optional<List<Integer>> asDecodedList() {
+        return listValue.as(intList);
+    }
+
+    @Benchmark
+    public boolean asBooleanFromNull() {
+        return nullValue.asBoolean(true);
+    }
+}
@@ -0,0 +1,78 @@
+package com.thnkscj.flick.benchmarks;
+
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.providers.caching.CachingFeatureFlagProvider;
+import com.thnkscj.flick.providers.caching.strategy.ConcurrentCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reads that run concurrently with full refreshes: seven reader threads hit the
+ * {@link CachingFeatureFlagProvider} while one thread refreshes it back to back, so read latency
+ * and refresh latency are reported side by side.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshBenchmark {
+
+    @Param({"10000"})
+    public int flagCount;
+
+    private SyntheticProvider source;
+    private CachingFeatureFlagProvider provider;
+    private String[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        source = new SyntheticProvider(flagCount);
+        provider = new CachingFeatureFlagProvider(source, new ConcurrentCache<>(null), 0, TimeUnit.SECONDS);
+        keys = new String[flagCount];
+        for (int i = 0; i < flagCount; i++) {
+            keys[i] = SyntheticProvider.key(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        provider.shutdown();
+    }
+
+    @Benchmark
+    @Group("readDuringRefresh")
+    @GroupThreads(7)
+    public boolean read(Cursor cursor) {
+        FlagValue value = provider.getValue(keys[cursor.next++ % flagCount]);
+        return value != null && value.isPresent();
+    }
+
+    @Benchmark
+    @Group("readDuringRefresh")
+    @GroupThreads(1)
+    public void refresh() {
+        provider.refresh();
+    }
+}
@@ -0,0 +1,59 @@
+package com.thnkscj.flick.benchmarks;
+
+import com.thnkscj.flick.providers.generic.GenericFeatureFlagProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory {@link GenericFeatureFlagProvider} filled with a synthetic flag hierarchy.
+ * Keys take the form {@code group<g>.flag<i>} with a mix of boolean, integer and string values,
+ * so both the point-lookup and prefix-scan paths see realistic data.
+ */
+public class SyntheticProvider extends GenericFeatureFlagProvider {
+
+    /** Number of flags per {@code group<g>} prefix. */
+    public static final int GROUP_SIZE = 1000;
+
+    private final int flagCount;
+    private int generation;
+
+    public SyntheticProvider(int flagCount) {
+        this.flagCount = flagCount;
+        initialize();
+        initialized = true;
+    }
+
+    /**
+     * Returns the key of the {@code i}-th synthetic flag.
+     *
+     * @param i the flag index
+     * @return the flag key
+     */
+    public static String key(int i) {
+        return "group" + (i / GROUP_SIZE) + ".flag" + i;
+    }
+
+    @Override
+    protected void initialize() {
+        loadFlags();
+    }
+
+    @Override
+    protected void loadFlags() {
+        Map<String, Object> values = new HashMap<>(flagCount * 2);
+        for (int i = 0; i < flagCount; i++) {
+            values.put(key(i), valueFor(i, generation));
+        }
+        generation++;
+        bulkUpdateFlags(values);
+    }
+
+    private static Object valueFor(int i, int generation) {
+        switch (i % 3) {
+            case 0: return ((i + generation) & 1) == 0;
+            case 1: return i + generation;
+            default: return "variant-" + ((i + generation) % 4);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.thnkscj.flick.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates an {@code AbstractFlagSet} implementation for every interface annotated with
+ * {@code com.thnkscj.flick.codegen.FlagSet}.
+ * <p>
+ * Each getter is assigned a slot in a dense array of its type. The generated {@code decode}
+ * method converts raw values into those slots, and each getter returns its slot, so lookups do
+ * no string hashing and the generated code uses no reflection. Default values are parsed and
+ * checked here, so a malformed default fails the build instead of the first read.
+ * </p>
+ */
+public class FlagSetProcessor extends AbstractProcessor {
+
+    static final String FLAG_SET = "com.thnkscj.flick.codegen.FlagSet";
+    static final String FLAG = "com.thnkscj.flick.codegen.Flag";
+
+    private static final String FLAG_VALUE = "com.thnkscj.flick.core.FlagValue";
+
+    /**
+     * The slot arrays of {@code AbstractFlagSet.Slots}, in constructor order.
+     */
+    private enum Kind {
+        BOOLEAN("booleans", "boolean", "toBoolean"),
+        INT("ints", "int", "toInt"),
+        LONG("longs", "long", "toLong"),
+        DOUBLE("doubles", "double", "toDouble"),
+        STRING("objects", "String", "toStringValue"),
+        FLAG_VALUE("objects", FlagSetProcessor.FLAG_VALUE, null);
+
+        final String array;
+        final String javaType;
+        final String converter;
+
+        Kind(String array, String javaType, String converter) {
+            this.array = array;
+            this.javaType = javaType;
+            this.converter = converter;
+        }
+    }
+
+    private static final class Getter {
+        final String method;
+        final String key;
+        final Kind kind;
+        final String defaultLiteral;
+        int slot;
+
+        Getter(String method, String key, Kind kind, String defaultLiteral) {
+            this.method = method;
+            this.key = key;
+            this.kind = kind;
+            this.defaultLiteral = defaultLiteral;
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(FLAG_SET);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement flagSet = processingEnv.getElementUtils().getTypeElement(FLAG_SET);
+        if (flagSet == null) return false;
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(flagSet)) {
+            if (element.getKind() != ElementKind.INTERFACE) {
+                error(element, "@FlagSet can only be applied to interfaces");
+                continue;
+            }
+            generate((TypeElement) element);
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) {
+        String prefix = stringAttribute(type, FLAG_SET, "prefix");
+        List<Getter> getters = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        boolean valid = true;
+
+        for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+            if (member.getKind() != ElementKind.METHOD
+                    || !member.getModifiers().contains(Modifier.ABSTRACT)
+                    || !(member.getEnclosingElement().getKind() == ElementKind.INTERFACE)) {
+                continue;
+            }
+
+            ExecutableElement method = (ExecutableElement) member;
+            Getter getter = toGetter(method, prefix);
+            if (getter == null) {
+                valid = false;
+            } else if (!keys.add(getter.key)) {
+                error(method, "Duplicate flag key '" + getter.key + "'");
+                valid = false;
+            } else {
+                getters.add(getter);
+            }
+        }
+        if (!valid) return;
+
+        int[] counts = new int[5];
+        for (Getter getter : getters) {
+            int array = getter.kind.ordinal() < Kind.STRING.ordinal() ? getter.kind.ordinal() : 4;
+            getter.slot = counts[array]++;
+        }
+
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String simpleName = generatedName(type);
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        try (Writer out = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            out.write(render(type, packageName, simpleName, getters, counts));
+        } catch (IOException e) {
+            error(type, "Failed to write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private Getter toGetter(ExecutableElement method, String prefix) {
+        if (!method.getParameters().isEmpty() || !method.getTypeParameters().isEmpty()) {
+            error(method, "@FlagSet getters must not take parameters");
+            return null;
+        }
+
+        Kind kind = kindOf(method.getReturnType());
+        if (kind == null) {
+            error(method, "Unsupported flag type " + method.getReturnType()
+                    + "; use boolean, int, long, double, String or FlagValue");
+            return null;
+        }
+
+        String name = method.getSimpleName().toString();
+        String key = stringAttribute(method, FLAG, "key");
+        key = key.isEmpty() ? name : key;
+        if (!prefix.isEmpty()) {
+            key = prefix + "." + key;
+        }
+
+        String defaultValue = stringAttribute(method, FLAG, "defaultValue");
+        String literal = defaultLiteral(method, kind, defaultValue);
+        return literal != null ? new Getter(name, key, kind, literal) : null;
+    }
+
+    private Kind kindOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN: return Kind.BOOLEAN;
+            case INT: return Kind.INT;
+            case LONG: return Kind.LONG;
+            case DOUBLE: return Kind.DOUBLE;
+            case DECLARED:
+                String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+                if (name.equals("java.lang.String")) return Kind.STRING;
+                if (name.equals(FLAG_VALUE)) return Kind.FLAG_VALUE;
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private String defaultLiteral(ExecutableElement method, Kind kind, String value) {
+        try {
+            switch (kind) {
+                case BOOLEAN:
+                    if (value.isEmpty() || value.equals("false")) return "false";
+                    if (value.equals("true")) return "true";
+                    throw new IllegalArgumentException();
+                case INT:
+                    return value.isEmpty() ? "0" : Integer.toString(Integer.parseInt(value.trim()));
+                case LONG:
+                    return value.isEmpty() ? "0L" : Long.parseLong(value.trim()) + "L";
+                case DOUBLE:
+                    if (value.isEmpty()) return "0.0d";
+                    double d = Double.parseDouble(value.trim());
+                    if (Double.isNaN(d) || Double.isInfinite(d)) throw new IllegalArgumentException();
+                    return d + "d";
+                case STRING:
+                    return value.isEmpty() ? "null" : quote(value);
+                default:
+                    if (!value.isEmpty()) {
+                        error(method, "FlagValue getters cannot declare a default value");
+                        return null;
+                    }
+                    return "null";
+            }
+        } catch (IllegalArgumentException e) {
+            error(method, "Default value '" + value + "' is not a valid " + kind.javaType);
+            return null;
+        }
+    }
+
+    private String render(TypeElement type, String packageName, String simpleName,
+                          List<Getter> getters, int[] counts) {
+        StringBuilder src = new StringBuilder(1024);
+        src.append("// Generated by flick-processor from ").append(type.getQualifiedName()).append(". Do not edit.\n");
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n");
+        }
+        src.append('\n');
+        src.append("public final class ").append(simpleName)
+                .append(" extends com.thnkscj.flick.codegen.AbstractFlagSet implements ")
+                .append(type.getQualifiedName()).append(" {\n\n");
+
+        src.append("    private static final String[] KEYS = {\n");
+        for (Getter getter : getters) {
+            src.append("        ").append(quote(getter.key)).append(",\n");
+        }
+        src.append("    };\n\n");
+
+        src.append("    public ").append(simpleName).append("() {\n");
+        src.append("        this(com.thnkscj.flick.core.FeatureFlags.getProvider());\n");
+        src.append("    }\n\n");
+
+        src.append("    public ").append(simpleName).append("(com.thnkscj.flick.core.FeatureFlagProvider provider) {\n");
+        src.append("        super(provider, KEYS, ").append(counts[0]).append(", ").append(counts[1]).append(", ")
+                .append(counts[2]).append(", ").append(counts[3]).append(", ").append(counts[4]).append(");\n");
+        src.append("    }\n\n");
+
+        src.append("    @Override\n");
+        src.append("    protected void decode(").append(FLAG_VALUE).append("[] values, Slots target) {\n");
+        for (int i = 0; i < getters.size(); i++) {
+            Getter getter = getters.get(i);
+            src.append("        target.").append(getter.kind.array).append('[').append(getter.slot).append("] = ");
+            if (getter.kind == Kind.FLAG_VALUE) {
+                src.append("values[").append(i).append("];\n");
+            } else {
+                src.append(getter.kind.converter).append("(values[").append(i).append("], ")
+                        .append(getter.defaultLiteral).append(");\n");
+            }
+        }
+        src.append("    }\n");
+
+        for (Getter getter : getters) {
+            src.append("\n    @Override\n");
+            src.append("    public ").append(getter.kind.javaType).append(' ').append(getter.method).append("() {\n");
+            src.append("        return ");
+            if (getter.kind == Kind.STRING || getter.kind == Kind.FLAG_VALUE) {
+                src.append('(').append(getter.kind.javaType).append(") ");
+            }
+            src.append("slots.").append(getter.kind.array).append('[').append(getter.slot).append("];\n");
+            src.append("    }\n");
+        }
+        src.append("}\n");
+        return src.toString();
+    }
+
+    /**
+     * Returns {@code <Interface>Impl}, prefixed with enclosing type names for nested interfaces.
+     */
+    private static String generatedName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement();
+             enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, '_').insert(0, enclosing.getSimpleName());
+        }
+        return name.append("Impl").toString();
+    }
+
+    private static String stringAttribute(Element element, String annotation, String attribute) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotationType.getQualifiedName().contentEquals(annotation)) continue;
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+                    return String.valueOf(entry.getValue().getValue());
+                }
+            }
+        }
+        return "";
+    }
+
+    private static String quote(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
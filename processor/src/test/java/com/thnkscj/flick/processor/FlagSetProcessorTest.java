@@ -0,0 +1,147 @@
+package com.thnkscj.flick.processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.core.FlagChangeListener;
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.core.ObservableFeatureFlagProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class FlagSetProcessorTest {
+
+    static class MapProvider implements ObservableFeatureFlagProvider {
+        final Map<String, FlagValue> flags = new ConcurrentHashMap<>();
+        final List<FlagChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+        void set(String key, Object value) {
+            flags.put(key, FlagValue.of(value));
+            listeners.forEach(l -> l.onFlagChange(key, FlagValue.of(value)));
+        }
+
+        @Override
+        public FlagValue getValue(String key) {
+            return flags.getOrDefault(key, FlagValue.nullValue());
+        }
+
+        @Override
+        public Map<String, FlagValue> getChildren(String prefix) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public void addChangeListener(FlagChangeListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeChangeListener(FlagChangeListener listener) {
+            listeners.remove(listener);
+        }
+    }
+
+    @Test
+    void testGeneratedAccessors(@TempDir Path dir) throws Exception {
+        String source = "package demo;\n"
+                + "import com.thnkscj.flick.codegen.*;\n"
+                + "import com.thnkscj.flick.core.FlagValue;\n"
+                + "@FlagSet(prefix = \"checkout\")\n"
+                + "public interface CheckoutFlags {\n"
+                + "    @Flag(defaultValue = \"true\") boolean newFlow();\n"
+                + "    @Flag(key = \"max-items\", defaultValue = \"50\") int maxItems();\n"
+                + "    long budget();\n"
+                + "    @Flag(defaultValue = \"0.25\") double ratio();\n"
+                + "    @Flag(defaultValue = \"blue\") String theme();\n"
+                + "    FlagValue raw();\n"
+                + "}\n";
+        assertTrue(compile(dir, source).isEmpty());
+
+        MapProvider provider = new MapProvider();
+        provider.set("checkout.max-items", "7");
+        provider.set("checkout.budget", 9_000_000_000L);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> impl = loader.loadClass("demo.CheckoutFlagsImpl");
+            Object flags = impl.getConstructor(com.thnkscj.flick.core.FeatureFlagProvider.class).newInstance(provider);
+
+            assertEquals(true, call(flags, "newFlow"));
+            assertEquals(7, call(flags, "maxItems"));
+            assertEquals(9_000_000_000L, call(flags, "budget"));
+            assertEquals(0.25, call(flags, "ratio"));
+            assertEquals("blue", call(flags, "theme"));
+            assertTrue(((FlagValue) call(flags, "raw")).isNull());
+
+            provider.set("checkout.newFlow", false);
+            provider.set("checkout.max-items", "not a number");
+            provider.set("checkout.raw", "x");
+            provider.set("unrelated", 1);
+            assertEquals(false, call(flags, "newFlow"));
+            assertEquals(50, call(flags, "maxItems"));
+            assertEquals("x", ((FlagValue) call(flags, "raw")).asString(null));
+        }
+    }
+
+    @Test
+    void testInvalidDeclarationsFailTheBuild(@TempDir Path dir) throws Exception {
+        String source = "package demo;\n"
+                + "import com.thnkscj.flick.codegen.*;\n"
+                + "@FlagSet\n"
+                + "public interface BadFlags {\n"
+                + "    @Flag(defaultValue = \"maybe\") boolean toggle();\n"
+                + "    java.util.Date when();\n"
+                + "    boolean enabled();\n"
+                + "    @Flag(key = \"enabled\") int duplicate();\n"
+                + "}\n";
+        List<String> errors = compile(dir, source);
+
+        assertEquals(3, errors.size(), errors::toString);
+        assertTrue(errors.stream().anyMatch(e -> e.contains("not a valid boolean")));
+        assertTrue(errors.stream().anyMatch(e -> e.contains("Unsupported flag type")));
+        assertTrue(errors.stream().anyMatch(e -> e.contains("Duplicate flag key")));
+    }
+
+    private static List<String> compile(Path dir, String source) throws IOException {
+        Path file = dir.resolve("demo").resolve(source.contains("BadFlags") ? "BadFlags.java" : "CheckoutFlags.java");
+        Files.createDirectories(file.getParent());
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                    Arrays.asList("-d", dir.toString(), "-s", dir.toString(),
+                            "-classpath", System.getProperty("java.class.path")),
+                    null, files.getJavaFileObjects(file.toFile()));
+            task.setProcessors(Collections.singletonList(new FlagSetProcessor()));
+            task.call();
+        }
+
+        return diagnostics.getDiagnostics().stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .map(d -> d.getMessage(null))
+                .collect(java.util.stream.Collectors.toList());
+    }
+
+    private static Object call(Object target, String method) throws Exception {
+        return target.getClass().getMethod(method).invoke(target);
+    }
+}
@@ -0,0 +1,272 @@
+package com.thnkscj.flick.binding;
+
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.core.exceptions.FlagTypeConversionException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds instances of a configuration class from a flat map of flag values.
+ * <p>
+ * A binder is created once per class and cached. Construction inspects the class reflectively
+ * and resolves a {@link MethodHandle} for the no-arg constructor and each field; binding itself
+ * only invokes those handles. Fields are bound by name:
+ * </p>
+ * <ul>
+ *     <li>Scalars ({@code String}, primitives and their wrappers, enums, {@link FlagValue}) read
+ *     the key equal to the field name.</li>
+ *     <li>{@code List} fields read a list value, a comma-separated string, or indexed keys
+ *     {@code name.0}, {@code name.1}, and so on. Elements may be scalars or nested classes.</li>
+ *     <li>Any other field type is bound as a nested object from the keys under {@code name.}.</li>
+ * </ul>
+ * <p>
+ * Fields whose keys are absent, or whose values cannot be converted, keep the value assigned
+ * by the constructor, which is how defaults are declared. Static and transient fields are skipped.
+ * </p>
+ * <p>
+ * Bound instances are shared by every reader, so every bound field must be {@code final}; they
+ * are written once, before the instance is published, and never again. A {@code final} field
+ * initialized with a constant expression, such as {@code final int size = 10}, is inlined by the
+ * compiler and cannot be bound; assign such defaults in the constructor instead.
+ * </p>
+ *
+ * @param <T> the configuration type
+ */
+final class Binder<T> {
+
+    private static final ClassValue<Binder<?>> CACHE = new ClassValue<Binder<?>>() {
+        @Override
+        protected Binder<?> computeValue(Class<?> type) {
+            return new Binder<>(type);
+        }
+    };
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final List<Property> properties = new ArrayList<>();
+
+    private Binder(Class<T> type) {
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Constructor<T> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(ctor).asType(CONSTRUCTOR_TYPE);
+
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    if (!Modifier.isFinal(modifiers)) {
+                        throw new IllegalArgumentException("Field " + field.getName() + " of " + type.getName()
+                                + " must be final so bound instances stay immutable");
+                    }
+                    field.setAccessible(true);
+                    properties.add(new Property(field, lookup.unreflectSetter(field).asType(SETTER_TYPE)));
+                }
+            }
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + " needs a no-arg constructor to be bound", e);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Cannot bind " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Returns the cached binder for a class, creating it on first use.
+     *
+     * @param type the configuration class
+     * @param <T>  the configuration type
+     * @return the binder
+     * @throws IllegalArgumentException if the class cannot be bound
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Binder<T> of(Class<T> type) {
+        return (Binder<T>) CACHE.get(type);
+    }
+
+    /**
+     * Creates a new instance from flag values keyed relative to the bound prefix.
+     *
+     * @param values the flag values
+     * @return the bound instance
+     */
+    T bind(Map<String, FlagValue> values) {
+        return bind("", values);
+    }
+
+    private T bind(String prefix, Map<String, FlagValue> values) {
+        Object instance;
+        try {
+            instance = constructor.invokeExact();
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to instantiate " + type.getName(), t);
+        }
+        for (Property property : properties) {
+            property.apply(instance, prefix, values);
+        }
+        return type.cast(instance);
+    }
+
+    private static boolean hasKeysUnder(String prefix, Map<String, FlagValue> values) {
+        for (String key : values.keySet()) {
+            if (key.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isScalar(Class<?> type) {
+        return type.isPrimitive() || type == String.class || type == FlagValue.class || type.isEnum()
+                || type == Boolean.class || type == Integer.class || type == Long.class || type == Double.class
+                || type == Float.class || type == Short.class || type == Byte.class || type == Character.class;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<FlagValue, Object> converter(Class<?> type) {
+        if (type == String.class) return v -> v.asString(null);
+        if (type == FlagValue.class) return v -> v;
+        if (type == boolean.class || type == Boolean.class) return FlagValue::asBoolean;
+        if (type == int.class || type == Integer.class) return FlagValue::asInt;
+        if (type == long.class || type == Long.class) return FlagValue::asLong;
+        if (type == double.class || type == Double.class) return FlagValue::asDouble;
+        if (type == float.class || type == Float.class) return v -> (float) v.asDouble();
+        if (type == short.class || type == Short.class) return v -> (short) v.asInt();
+        if (type == byte.class || type == Byte.class) return v -> (byte) v.asInt();
+        if (type == char.class || type == Character.class) {
+            return v -> {
+                String s = v.asString("");
+                if (s.length() != 1) throw new FlagTypeConversionException("Cannot convert '" + s + "' to char");
+                return s.charAt(0);
+            };
+        }
+        if (type.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+            return v -> {
+                String name = v.asString("").trim();
+                try {
+                    return Enum.valueOf(enumType, name);
+                } catch (IllegalArgumentException e) {
+                    return Enum.valueOf(enumType, name.toUpperCase(Locale.ROOT));
+                }
+            };
+        }
+        throw new IllegalArgumentException("Unsupported scalar type " + type.getName());
+    }
+
+    /**
+     * How one field is read from the flag values.
+     */
+    private static final class Property {
+        private final String name;
+        private final MethodHandle setter;
+        private final Class<?> type;
+        private final Class<?> elementType;
+        private final Function<FlagValue, Object> converter;
+
+        Property(Field field, MethodHandle setter) {
+            this.name = field.getName();
+            this.setter = setter;
+            this.type = field.getType();
+
+            if (List.class.isAssignableFrom(type) || type == Collection.class) {
+                this.elementType = elementType(field);
+                this.converter = isScalar(elementType) ? converter(elementType) : null;
+            } else {
+                this.elementType = null;
+                this.converter = isScalar(type) ? converter(type) : null;
+            }
+        }
+
+        void apply(Object instance, String prefix, Map<String, FlagValue> values) {
+            String key = prefix + name;
+            Object bound;
+            try {
+                if (elementType != null) {
+                    bound = bindList(key, values);
+                } else if (converter != null) {
+                    FlagValue value = values.get(key);
+                    bound = value != null && value.isPresent() ? converter.apply(value) : null;
+                } else {
+                    bound = hasKeysUnder(key + ".", values) ? Binder.of(type).bind(key + ".", values) : null;
+                }
+            } catch (FlagTypeConversionException | IllegalArgumentException e) {
+                bound = null;
+            }
+
+            if (bound != null) {
+                try {
+                    setter.invokeExact(instance, bound);
+                } catch (Throwable t) {
+                    throw new IllegalStateException("Failed to set " + name, t);
+                }
+            }
+        }
+
+        private List<Object> bindList(String key, Map<String, FlagValue> values) {
+            List<Object> list = new ArrayList<>();
+            FlagValue whole = values.get(key);
+
+            if (whole != null && whole.isPresent() && converter != null) {
+                Object raw = whole.as(Object.class).orElse(null);
+                Collection<?> items = raw instanceof Collection ? (Collection<?>) raw : splitCommas(whole.asString(""));
+                for (Object item : items) {
+                    list.add(converter.apply(FlagValue.of(item)));
+                }
+            } else {
+                for (int i = 0; ; i++) {
+                    String itemKey = key + "." + i;
+                    if (converter != null) {
+                        FlagValue item = values.get(itemKey);
+                        if (item == null || item.isNull()) break;
+                        list.add(converter.apply(item));
+                    } else {
+                        if (!hasKeysUnder(itemKey + ".", values)) break;
+                        list.add(Binder.of(elementType).bind(itemKey + ".", values));
+                    }
+                }
+                if (list.isEmpty()) return null;
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        private static List<String> splitCommas(String value) {
+            List<String> items = new ArrayList<>();
+            for (String item : value.split(",")) {
+                if (!item.trim().isEmpty()) items.add(item.trim());
+            }
+            return items;
+        }
+
+        private static Class<?> elementType(Field field) {
+            Type generic = field.getGenericType();
+            if (generic instanceof ParameterizedType) {
+                Type argument = ((ParameterizedType) generic).getActualTypeArguments()[0];
+                if (argument instanceof Class) {
+                    return (Class<?>) argument;
+                }
+            }
+            return String.class;
+        }
+    }
+}
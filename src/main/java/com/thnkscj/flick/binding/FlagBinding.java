@@ -0,0 +1,123 @@
+package com.thnkscj.flick.binding;
+
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagChangeListener;
+import com.thnkscj.flick.core.ObservableFeatureFlagProvider;
+
+/**
+ * A live configuration object bound to the flags under a prefix.
+ * <p>
+ * {@link #get()} returns an immutable instance built from the prefix's children; see
+ * {@link Binder} for the rules bound classes follow. When a flag under the prefix changes on an
+ * observable provider, the binding is only marked stale. The next {@link #get()} builds a new
+ * instance and swaps it in, so a burst of changes, such as a cache refresh that reports every
+ * key, costs a single rebuild, and listeners never run binding code. Otherwise readers only pay
+ * for a volatile read. Changes elsewhere in the flag tree do not trigger a rebuild. For providers
+ * that are not observable, call {@link #rebind()} after refreshing.
+ * </p>
+ * <pre>
+ * FlagBinding&lt;PoolConfig&gt; pool = FeatureFlags.bind("db.pool", PoolConfig.class);
+ * int maxSize = pool.get().maxSize;
+ * </pre>
+ * <p>
+ * See {@link Binder} for how fields map to keys. Thread-scoped overrides from
+ * {@link com.thnkscj.flick.core.FlagScope} do not apply to bindings.
+ * </p>
+ *
+ * @param <T> the configuration type
+ */
+public final class FlagBinding<T> implements AutoCloseable {
+
+    private final FeatureFlagProvider provider;
+    private final String prefix;
+    private final String keyPrefix;
+    private final Binder<T> binder;
+    private final FlagChangeListener listener;
+    private volatile T value;
+    private volatile boolean stale;
+
+    private FlagBinding(FeatureFlagProvider provider, String prefix, Class<T> type) {
+        this.provider = provider;
+        this.prefix = prefix;
+        this.keyPrefix = prefix.isEmpty() || prefix.endsWith(".") ? prefix : prefix + ".";
+        this.binder = Binder.of(type);
+
+        if (provider instanceof ObservableFeatureFlagProvider) {
+            listener = (key, newValue) -> {
+                if (key.startsWith(keyPrefix)) {
+                    stale = true;
+                }
+            };
+            ((ObservableFeatureFlagProvider) provider).addChangeListener(listener);
+        } else {
+            listener = null;
+        }
+
+        rebind();
+    }
+
+    /**
+     * Binds the flags under a prefix of the given provider to a configuration class.
+     *
+     * @param provider the provider to read from
+     * @param prefix   the key prefix, e.g. {@code "db.pool"}
+     * @param type     the configuration class; needs a no-arg constructor
+     * @param <T>      the configuration type
+     * @return the live binding
+     * @throws IllegalArgumentException if the class cannot be bound
+     */
+    public static <T> FlagBinding<T> of(FeatureFlagProvider provider, String prefix, Class<T> type) {
+        return new FlagBinding<>(provider, prefix == null ? "" : prefix, type);
+    }
+
+    /**
+     * Returns the current configuration instance, rebuilding it first if a flag under the
+     * prefix has changed since it was built. If the rebuild fails, the previous instance is
+     * returned until the next change.
+     *
+     * @return the bound instance, never null
+     */
+    public T get() {
+        if (stale) {
+            rebindStale();
+        }
+        return value;
+    }
+
+    /**
+     * Returns the prefix this binding reads from.
+     *
+     * @return the prefix
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Rebuilds the instance from the provider's current values.
+     */
+    public synchronized void rebind() {
+        // Cleared first, so a change that arrives while binding marks the new instance stale again
+        stale = false;
+        value = binder.bind(provider.getChildren(prefix));
+    }
+
+    private synchronized void rebindStale() {
+        if (!stale) return;
+        try {
+            rebind();
+        } catch (RuntimeException e) {
+            // Keep serving the last instance; the next change retries
+        }
+    }
+
+    /**
+     * Stops following provider changes. The last instance stays available.
+     */
+    @Override
+    public void close() {
+        if (listener != null) {
+            ((ObservableFeatureFlagProvider) provider).removeChangeListener(listener);
+        }
+    }
+}
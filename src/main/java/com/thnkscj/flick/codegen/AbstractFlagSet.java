@@ -0,0 +1,164 @@
+package com.thnkscj.flick.codegen;
+
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagChangeListener;
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.core.ObservableFeatureFlagProvider;
+import com.thnkscj.flick.core.exceptions.FlagTypeConversionException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base class of the implementations generated for {@link FlagSet} interfaces.
+ * <p>
+ * Flag values are decoded into dense, per-type arrays once per change, so generated getters
+ * reduce to a volatile read and an array load. The arrays are replaced as a whole, so a reader
+ * never sees a partially applied update. If the provider is observable, the set updates itself
+ * when one of its keys changes; otherwise call {@link #reload()} after refreshing the provider.
+ * </p>
+ * <p>
+ * Thread-scoped overrides from {@link com.thnkscj.flick.core.FlagScope} do not apply to flag sets.
+ * </p>
+ */
+public abstract class AbstractFlagSet implements AutoCloseable {
+
+    /**
+     * Decoded flag values, one array per getter type, indexed by the generated code.
+     */
+    protected static final class Slots {
+        public final boolean[] booleans;
+        public final int[] ints;
+        public final long[] longs;
+        public final double[] doubles;
+        public final Object[] objects;
+
+        Slots(int booleans, int ints, int longs, int doubles, int objects) {
+            this.booleans = new boolean[booleans];
+            this.ints = new int[ints];
+            this.longs = new long[longs];
+            this.doubles = new double[doubles];
+            this.objects = new Object[objects];
+        }
+    }
+
+    /**
+     * The current values; generated getters read from here.
+     */
+    protected volatile Slots slots;
+
+    private final FeatureFlagProvider provider;
+    private final String[] keys;
+    private final Map<String, Integer> indexes;
+    private final int[] slotCounts;
+    private final FlagChangeListener listener;
+    private FlagValue[] values;
+
+    /**
+     * Loads every flag of the set from the provider and subscribes to its changes.
+     *
+     * @param provider   the provider to read from
+     * @param keys       the full flag keys, in declaration order
+     * @param slotCounts the number of boolean, int, long, double and object slots
+     */
+    protected AbstractFlagSet(FeatureFlagProvider provider, String[] keys, int... slotCounts) {
+        this.provider = provider;
+        this.keys = keys;
+        this.slotCounts = slotCounts;
+        this.indexes = new HashMap<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            indexes.put(keys[i], i);
+        }
+
+        if (provider instanceof ObservableFeatureFlagProvider) {
+            listener = this::onFlagChange;
+            ((ObservableFeatureFlagProvider) provider).addChangeListener(listener);
+        } else {
+            listener = null;
+        }
+
+        reload();
+    }
+
+    /**
+     * Decodes raw flag values into typed slots.
+     *
+     * @param values the raw values, indexed like the keys
+     * @param target the slots to fill
+     */
+    protected abstract void decode(FlagValue[] values, Slots target);
+
+    /**
+     * Re-reads every flag of the set from the provider.
+     */
+    public synchronized void reload() {
+        FlagValue[] fresh = new FlagValue[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            FlagValue value = provider.getValue(keys[i]);
+            fresh[i] = value != null ? value : FlagValue.nullValue();
+        }
+        publish(fresh);
+    }
+
+    /**
+     * Stops following provider changes.
+     */
+    @Override
+    public void close() {
+        if (listener != null) {
+            ((ObservableFeatureFlagProvider) provider).removeChangeListener(listener);
+        }
+    }
+
+    private synchronized void onFlagChange(String key, FlagValue value) {
+        Integer index = indexes.get(key);
+        if (index == null || values == null) return;
+
+        FlagValue[] fresh = values.clone();
+        fresh[index] = value != null ? value : FlagValue.nullValue();
+        publish(fresh);
+    }
+
+    private void publish(FlagValue[] fresh) {
+        Slots next = new Slots(slotCounts[0], slotCounts[1], slotCounts[2], slotCounts[3], slotCounts[4]);
+        decode(fresh, next);
+        values = fresh;
+        slots = next;
+    }
+
+    protected static boolean toBoolean(FlagValue value, boolean defaultValue) {
+        try {
+            return value.asBoolean(defaultValue);
+        } catch (FlagTypeConversionException e) {
+            return defaultValue;
+        }
+    }
+
+    protected static int toInt(FlagValue value, int defaultValue) {
+        try {
+            return value.asInt(defaultValue);
+        } catch (FlagTypeConversionException e) {
+            return defaultValue;
+        }
+    }
+
+    protected static long toLong(FlagValue value, long defaultValue) {
+        try {
+            return value.asLong(defaultValue);
+        } catch (FlagTypeConversionException e) {
+            return defaultValue;
+        }
+    }
+
+    protected static double toDouble(FlagValue value, double defaultValue) {
+        try {
+            return value.asDouble(defaultValue);
+        } catch (FlagTypeConversionException e) {
+            return defaultValue;
+        }
+    }
+
+    protected static String toStringValue(FlagValue value, String defaultValue) {
+        return value.asString(defaultValue);
+    }
+}
@@ -0,0 +1,32 @@
+package com.thnkscj.flick.codegen;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Customizes a getter of a {@link FlagSet} interface. Getters without this annotation use
+ * their method name as the key and the type's zero value as the default.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface Flag {
+
+    /**
+     * The flag key relative to the set's prefix.
+     *
+     * @return the key, or an empty string to use the method name
+     */
+    String key() default "";
+
+    /**
+     * The value returned while the flag is absent or cannot be converted, parsed at compile
+     * time according to the getter's return type.
+     *
+     * @return the default value, or an empty string for the type's zero value
+     */
+    String defaultValue() default "";
+}
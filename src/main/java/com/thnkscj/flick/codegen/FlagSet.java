@@ -0,0 +1,39 @@
+package com.thnkscj.flick.codegen;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an interface as a typed view over a group of flags. The {@code flick-processor}
+ * annotation processor generates an implementation named {@code <Interface>Impl} whose getters
+ * are plain array loads, filled from a provider when created and whenever one of its flags changes.
+ * <pre>
+ * &#64;FlagSet(prefix = "checkout")
+ * public interface CheckoutFlags {
+ *     &#64;Flag(defaultValue = "false")
+ *     boolean newFlow();
+ *
+ *     &#64;Flag(key = "max-items", defaultValue = "50")
+ *     int maxItems();
+ * }
+ *
+ * CheckoutFlags flags = new CheckoutFlagsImpl(provider);
+ * </pre>
+ * Supported return types are {@code boolean}, {@code int}, {@code long}, {@code double},
+ * {@code String} and {@link com.thnkscj.flick.core.FlagValue}.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface FlagSet {
+
+    /**
+     * The key prefix shared by every flag in the set, without a trailing dot.
+     *
+     * @return the prefix, or an empty string for top-level keys
+     */
+    String prefix() default "";
+}
@@ -0,0 +1,171 @@
+package com.thnkscj.flick.core;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link FeatureFlagProvider}.
+ * <p>
+ * Every lookup returns a {@link CompletableFuture}, so callers on an event loop can compose
+ * on the result instead of parking their thread. Implementations that can answer from memory
+ * should return an already completed future.
+ * </p>
+ * <p>
+ * Use {@link #fromBlocking(FeatureFlagProvider, Executor)} and {@link #toBlocking(AsyncFeatureFlagProvider)}
+ * to adapt between the two interfaces.
+ * </p>
+ */
+public interface AsyncFeatureFlagProvider {
+
+    /**
+     * Retrieves the value of a feature flag by its key.
+     *
+     * @param key the key/name of the flag to retrieve
+     * @return a future of the {@link FlagValue}, completing with {@link FlagValue#nullValue()} if not found
+     */
+    CompletableFuture<FlagValue> getValueAsync(String key);
+
+    /**
+     * Retrieves all child flags with keys that start with the specified prefix.
+     *
+     * @param prefix the prefix to filter keys by
+     * @return a future of the map of child keys to values, completing with an empty map if none are found
+     */
+    CompletableFuture<Map<String, FlagValue>> getChildrenAsync(String prefix);
+
+    /**
+     * Refreshes the flags from the underlying source.
+     * Default implementation completes immediately.
+     *
+     * @return a future that completes when the refresh has finished
+     */
+    default CompletableFuture<Void> refreshAsync() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Shuts down any resources held by the provider.
+     * Default implementation is a no-op.
+     */
+    default void shutdown() {}
+
+    /**
+     * Adapts a blocking provider. Calls run on the given executor; pass {@code Runnable::run}
+     * to run them on the caller's thread when the provider answers from memory.
+     * <p>
+     * A provider that already implements this interface is returned as is.
+     * </p>
+     *
+     * @param provider the blocking provider
+     * @param executor the executor blocking calls run on
+     * @return an asynchronous view of the provider
+     */
+    static AsyncFeatureFlagProvider fromBlocking(FeatureFlagProvider provider, Executor executor) {
+        if (provider instanceof AsyncFeatureFlagProvider) {
+            return (AsyncFeatureFlagProvider) provider;
+        }
+        return new AsyncFeatureFlagProvider() {
+            @Override
+            public CompletableFuture<FlagValue> getValueAsync(String key) {
+                return call(() -> provider.getValue(key));
+            }
+
+            @Override
+            public CompletableFuture<Map<String, FlagValue>> getChildrenAsync(String prefix) {
+                return call(() -> provider.getChildren(prefix));
+            }
+
+            @Override
+            public CompletableFuture<Void> refreshAsync() {
+                return call(() -> {
+                    provider.refresh();
+                    return null;
+                });
+            }
+
+            @Override
+            public void shutdown() {
+                provider.shutdown();
+            }
+
+            private <T> CompletableFuture<T> call(Supplier<T> supplier) {
+                try {
+                    return CompletableFuture.supplyAsync(supplier, executor);
+                } catch (RuntimeException e) {
+                    CompletableFuture<T> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(e);
+                    return failed;
+                }
+            }
+        };
+    }
+
+    /**
+     * Adapts an asynchronous provider to the blocking interface. Each call waits for its future;
+     * a failure is rethrown as the original unchecked exception where possible.
+     * <p>
+     * A provider that already implements {@link FeatureFlagProvider} is returned as is. The
+     * returned view still implements this interface, so wrappers such as the composite provider
+     * keep using the non-blocking methods.
+     * </p>
+     *
+     * @param provider the asynchronous provider
+     * @return a blocking view of the provider
+     */
+    static FeatureFlagProvider toBlocking(AsyncFeatureFlagProvider provider) {
+        if (provider instanceof FeatureFlagProvider) {
+            return (FeatureFlagProvider) provider;
+        }
+        class Blocking implements FeatureFlagProvider, AsyncFeatureFlagProvider {
+            @Override
+            public CompletableFuture<FlagValue> getValueAsync(String key) {
+                return provider.getValueAsync(key);
+            }
+
+            @Override
+            public CompletableFuture<Map<String, FlagValue>> getChildrenAsync(String prefix) {
+                return provider.getChildrenAsync(prefix);
+            }
+
+            @Override
+            public CompletableFuture<Void> refreshAsync() {
+                return provider.refreshAsync();
+            }
+
+            @Override
+            public FlagValue getValue(String key) {
+                return join(provider.getValueAsync(key));
+            }
+
+            @Override
+            public Map<String, FlagValue> getChildren(String prefix) {
+                return join(provider.getChildrenAsync(prefix));
+            }
+
+            @Override
+            public void refresh() {
+                join(provider.refreshAsync());
+            }
+
+            @Override
+            public void shutdown() {
+                provider.shutdown();
+            }
+
+            private <T> T join(CompletableFuture<T> future) {
+                try {
+                    return future.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        }
+        return new Blocking();
+    }
+}
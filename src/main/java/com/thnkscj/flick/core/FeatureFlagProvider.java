@@ -1,6 +1,8 @@
 package com.thnkscj.flick.core;
 
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
 
 /**
  * Interface defining a provider of feature flags.
@@ -26,6 +28,29 @@ public interface FeatureFlagProvider {
      */
     Map<String, FlagValue> getChildren(String prefix);
 
+    /**
+     * Visits every flag with its full key, without collecting them into a map first.
+     * Default implementation iterates {@code getChildren("")}; providers that hold their flags
+     * in memory should override it to visit them in place.
+     *
+     * @param action the visitor, called once per flag
+     */
+    default void forEachFlag(BiConsumer<? super String, ? super FlagValue> action) {
+        getChildren("").forEach(action);
+    }
+
+    /**
+     * Returns a spliterator over every flag with its full key, e.g. for a parallel stream via
+     * {@link java.util.stream.StreamSupport#stream(Spliterator, boolean)}. Entries are read-only.
+     * Default implementation splits {@code getChildren("")}; providers that hold their flags in
+     * memory should override it to traverse and split them in place.
+     *
+     * @return a spliterator of flag entries
+     */
+    default Spliterator<Map.Entry<String, FlagValue>> flagSpliterator() {
+        return getChildren("").entrySet().spliterator();
+    }
+
     /**
      * Refreshes the flags from the underlying source.
      * Default implementation is a no-op.
@@ -1,10 +1,20 @@
 package com.thnkscj.flick.core;
 
+import com.thnkscj.flick.binding.FlagBinding;
+import com.thnkscj.flick.evaluation.EvaluationContext;
+import com.thnkscj.flick.evaluation.EvaluationResult;
+import com.thnkscj.flick.evaluation.FlagEvaluator;
+import com.thnkscj.flick.exposure.ExposurePipeline;
+import com.thnkscj.flick.jfr.FlickEvents;
+import com.thnkscj.flick.metrics.FlickMetrics;
+
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -24,7 +34,15 @@ public final class FeatureFlags {
     private static final AtomicReference<FeatureFlagProvider> providerRef =
             new AtomicReference<>(new NullProvider());
 
-    private static volatile ExecutorService listenerExecutor = createExecutor();
+    private static volatile ThreadPoolExecutor listenerExecutor = createExecutor();
+
+    private static volatile ExposurePipeline exposurePipeline;
+
+    private static final AtomicReference<FlagEvaluator> evaluatorRef = new AtomicReference<>();
+
+    static {
+        FlickMetrics.registry().gauge(FlickMetrics.LISTENER_QUEUE_DEPTH, FeatureFlags::listenerQueueDepth);
+    }
 
     private FeatureFlags() {}
 
@@ -58,20 +76,39 @@ public final class FeatureFlags {
         ensureExecutor();
     }
 
+    /**
+     * Returns the active feature flag provider.
+     *
+     * @return the current provider, never null
+     */
+    public static FeatureFlagProvider getProvider() {
+        return providerRef.get();
+    }
+
     /**
      * Creates a single-threaded executor for executing flag change listeners.
      * The thread is a daemon thread named "flick-listener".
      *
-     * @return the created {@link ExecutorService}
+     * @return the created {@link ThreadPoolExecutor}
      */
-    private static ExecutorService createExecutor() {
-        return Executors.newSingleThreadExecutor(r -> {
+    private static ThreadPoolExecutor createExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
             Thread t = new Thread(r, "flick-listener");
             t.setDaemon(true);
             return t;
         });
     }
 
+    /**
+     * Returns the number of change notifications waiting to be dispatched to global listeners.
+     *
+     * @return the current listener queue depth
+     */
+    private static long listenerQueueDepth() {
+        ThreadPoolExecutor executor = listenerExecutor;
+        return executor != null ? executor.getQueue().size() : 0L;
+    }
+
     /**
      * Ensures the listener executor is active.
      * If the executor is null or shut down, recreates it in a thread-safe manner.
@@ -94,7 +131,48 @@ public final class FeatureFlags {
      * @return the {@link FlagValue} for the given key, never null
      */
     public static FlagValue get(String key) {
-        return Optional.ofNullable(providerRef.get().getValue(key)).orElse(FlagValue.nullValue());
+        FeatureFlagProvider provider = providerRef.get();
+        if (FlickMetrics.isEnabled()) {
+            FlickMetrics.recordEvaluation(provider, key);
+        }
+        if (FlagScope.anyActive()) {
+            FlagValue overridden = FlagScope.lookup(key);
+            if (overridden != null) {
+                return overridden;
+            }
+        }
+        Object event = FlickEvents.beginEvaluation();
+        FlagValue value = provider.getValue(key);
+        FlickEvents.endEvaluation(event, provider, key, value);
+        return value != null ? value : FlagValue.nullValue();
+    }
+
+    /**
+     * Retrieves the value of the flag with the given key on behalf of a subject,
+     * and records the exposure if an {@link ExposurePipeline} is installed.
+     * Recording never blocks the caller.
+     *
+     * @param key       the key/name of the flag to retrieve
+     * @param subjectId the identifier of the subject (e.g. user) the value is served to
+     * @return the {@link FlagValue} for the given key, never null
+     */
+    public static FlagValue get(String key, String subjectId) {
+        FlagValue value = get(key);
+        ExposurePipeline pipeline = exposurePipeline;
+        if (pipeline != null) {
+            pipeline.record(key, subjectId, value);
+        }
+        return value;
+    }
+
+    /**
+     * Installs the pipeline that records exposures from {@link #get(String, String)}.
+     * Does not close the previous pipeline.
+     *
+     * @param pipeline the pipeline to use, or null to stop recording exposures
+     */
+    public static void setExposurePipeline(ExposurePipeline pipeline) {
+        exposurePipeline = pipeline;
     }
 
     /**
@@ -104,7 +182,95 @@ public final class FeatureFlags {
      * @return a map of flag keys to {@link FlagValue}s matching the prefix, never null
      */
     public static Map<String, FlagValue> getChildren(String prefix) {
-        return providerRef.get().getChildren(prefix);
+        Map<String, FlagValue> children = providerRef.get().getChildren(prefix);
+        return FlagScope.anyActive() ? FlagScope.overlayChildren(prefix, children) : children;
+    }
+
+    /**
+     * Overrides a single flag for the current thread until the returned scope is closed.
+     * The override is also visible to tasks submitted through {@link FlagScope#propagating(ExecutorService)}.
+     *
+     * @param key   the key/name of the flag to override
+     * @param value the value to serve, or null to make the flag appear absent
+     * @return the opened {@link FlagScope}, to be closed by the calling thread
+     */
+    public static FlagScope override(String key, Object value) {
+        return FlagScope.open(Collections.singletonMap(key, value));
+    }
+
+    /**
+     * Overrides several flags for the current thread until the returned scope is closed.
+     *
+     * @param values the flag values to serve, keyed by flag key
+     * @return the opened {@link FlagScope}, to be closed by the calling thread
+     */
+    public static FlagScope override(Map<String, ?> values) {
+        return FlagScope.open(values);
+    }
+
+    /**
+     * Binds the flags under a prefix of the current provider to a configuration class.
+     * The returned binding rebuilds its instance whenever a flag under the prefix changes.
+     *
+     * @param prefix the key prefix, e.g. {@code "db.pool"}
+     * @param type   the configuration class; needs a no-arg constructor
+     * @param <T>    the configuration type
+     * @return the live binding
+     * @throws IllegalArgumentException if the class cannot be bound
+     * @see FlagBinding
+     */
+    public static <T> FlagBinding<T> bind(String prefix, Class<T> type) {
+        return FlagBinding.of(providerRef.get(), prefix, type);
+    }
+
+    /**
+     * Evaluates every flag of the current provider for a context in a single pass.
+     *
+     * @param context the context to evaluate for
+     * @return the values of all flags, as a bitset of boolean flags and variant indexes of the rest
+     * @see FlagEvaluator
+     */
+    public static EvaluationResult evaluateAll(EvaluationContext context) {
+        return evaluator().evaluateAll(context);
+    }
+
+    /**
+     * Evaluates a single flag of the current provider for a context, caching the result per context.
+     *
+     * @param context the context to evaluate for
+     * @param key     the flag key
+     * @return the value, a {@link Boolean} for boolean flags, or {@code null} if the flag is unknown
+     * @see FlagEvaluator#evaluate(EvaluationContext, String)
+     */
+    public static Object evaluate(EvaluationContext context, String key) {
+        return evaluator().evaluate(context, key);
+    }
+
+    /**
+     * Returns the evaluator used by {@link #evaluateAll(EvaluationContext)}, e.g. to register rules.
+     * When the provider has been replaced, a new evaluator is created that keeps the previous
+     * rules and evaluation cache.
+     *
+     * @return the evaluator for the current provider
+     */
+    public static FlagEvaluator evaluator() {
+        FeatureFlagProvider provider = providerRef.get();
+        FlagEvaluator current = evaluatorRef.get();
+        while (current == null || current.getProvider() != provider) {
+            FlagEvaluator replacement = current == null
+                    ? new FlagEvaluator(provider)
+                    : new FlagEvaluator(provider, current.getRules(), current.getCache());
+            if (evaluatorRef.compareAndSet(current, replacement)) {
+                if (current != null) {
+                    current.close();
+                    replacement.getCache().invalidateAll();
+                }
+                return replacement;
+            }
+            replacement.close();
+            current = evaluatorRef.get();
+        }
+        return current;
     }
 
     /**
@@ -113,6 +279,10 @@ public final class FeatureFlags {
      */
     public static void refresh() {
         providerRef.get().refresh();
+        FlagEvaluator evaluator = evaluatorRef.get();
+        if (evaluator != null) {
+            evaluator.invalidate();
+        }
     }
 
     /**
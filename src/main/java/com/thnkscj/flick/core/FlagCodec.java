@@ -0,0 +1,26 @@
+package com.thnkscj.flick.core;
+
+import com.thnkscj.flick.core.exceptions.FlagTypeConversionException;
+
+/**
+ * Decodes the raw value of a flag into a typed object.
+ * <p>
+ * Codecs are registered with {@link FlagCodecs} and invoked by {@link FlagValue#as(Class)}.
+ * The raw value is whatever the provider stored: a {@code Map} or {@code List} for
+ * structured JSON, or a {@code String} for text-based sources.
+ * </p>
+ *
+ * @param <T> the decoded type
+ */
+@FunctionalInterface
+public interface FlagCodec<T> {
+
+    /**
+     * Decodes a raw flag value.
+     *
+     * @param raw the raw value, never null
+     * @return the decoded value, not null
+     * @throws FlagTypeConversionException if the raw value cannot be decoded
+     */
+    T decode(Object raw);
+}
@@ -0,0 +1,195 @@
+package com.thnkscj.flick.core;
+
+import com.thnkscj.flick.core.exceptions.FlagTypeConversionException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of {@link FlagCodec}s used by {@link FlagValue#as(Class)} and
+ * {@link FlagValue#as(FlagType)}.
+ * <p>
+ * A type is decoded by, in order:
+ * </p>
+ * <ul>
+ *     <li>the codec registered for exactly that type;</li>
+ *     <li>a built-in codec for {@code String}, primitives and their wrappers, and enums, which
+ *     converts like {@link FlagValue#asInt()} and friends;</li>
+ *     <li>for {@code List<E>} or {@code Collection<E>}, decoding each element of a raw
+ *     collection as {@code E};</li>
+ *     <li>for {@code Map<String, V>}, decoding each value of a raw map as {@code V};</li>
+ *     <li>otherwise, a cast if the raw value is an instance of the type.</li>
+ * </ul>
+ * <p>
+ * Registering a codec invalidates the decoded values cached by every {@link FlagValue}, so
+ * register codecs at startup.
+ * </p>
+ * <pre>
+ * FlagCodecs.register(RetryPolicy.class, raw -&gt; RetryPolicy.fromMap((Map&lt;String, ?&gt;) raw));
+ * RetryPolicy policy = FeatureFlags.get("http.retry").as(RetryPolicy.class).orElse(RetryPolicy.NONE);
+ * </pre>
+ */
+public final class FlagCodecs {
+
+    private static final Map<FlagType<?>, FlagCodec<?>> REGISTERED = new ConcurrentHashMap<>();
+    private static final Map<FlagType<?>, FlagCodec<?>> RESOLVED = new ConcurrentHashMap<>();
+    private static volatile int generation;
+
+    private FlagCodecs() {
+    }
+
+    /**
+     * Registers the codec for a class, replacing any previous one.
+     *
+     * @param type  the decoded class
+     * @param codec the codec
+     * @param <T>   the decoded type
+     */
+    public static <T> void register(Class<T> type, FlagCodec<? extends T> codec) {
+        register(FlagType.of(type), codec);
+    }
+
+    /**
+     * Registers the codec for a type, replacing any previous one.
+     *
+     * @param type  the decoded type
+     * @param codec the codec
+     * @param <T>   the decoded type
+     */
+    public static synchronized <T> void register(FlagType<T> type, FlagCodec<? extends T> codec) {
+        if (codec == null) throw new IllegalArgumentException("Codec must not be null");
+        REGISTERED.put(type, codec);
+        invalidate();
+    }
+
+    /**
+     * Removes the codec registered for a type, if any.
+     *
+     * @param type the decoded type
+     */
+    public static synchronized void unregister(FlagType<?> type) {
+        if (REGISTERED.remove(type) != null) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Returns the codec that decodes a type.
+     *
+     * @param type the decoded type
+     * @param <T>  the decoded type
+     * @return the codec, or {@code null} if the type cannot be decoded
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FlagCodec<T> codecFor(FlagType<T> type) {
+        FlagCodec<?> codec = RESOLVED.get(type);
+        if (codec != null) return (FlagCodec<T>) codec;
+
+        int resolvedAt = generation;
+        codec = resolve(type);
+        if (codec != null) {
+            synchronized (FlagCodecs.class) {
+                // Don't cache a resolution that raced with a registration
+                if (resolvedAt == generation) {
+                    RESOLVED.putIfAbsent(type, codec);
+                }
+            }
+        }
+        return (FlagCodec<T>) codec;
+    }
+
+    /**
+     * Returns a counter bumped by every registration, which {@link FlagValue} compares to
+     * discard values decoded by a replaced codec.
+     */
+    static int generation() {
+        return generation;
+    }
+
+    private static void invalidate() {
+        RESOLVED.clear();
+        generation++;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static FlagCodec<?> resolve(FlagType<?> type) {
+        FlagCodec<?> registered = REGISTERED.get(type);
+        if (registered != null) return registered;
+
+        Class<?> raw = type.getRawType();
+        List<FlagType<?>> arguments = type.getArguments();
+        if (arguments.isEmpty()) {
+            if (raw == String.class) return value -> FlagValue.of(value).asString();
+            if (raw == Boolean.class || raw == boolean.class) return value -> FlagValue.of(value).asBoolean();
+            if (raw == Integer.class || raw == int.class) return value -> FlagValue.of(value).asInt();
+            if (raw == Long.class || raw == long.class) return value -> FlagValue.of(value).asLong();
+            if (raw == Double.class || raw == double.class) return value -> FlagValue.of(value).asDouble();
+            if (raw.isEnum()) return enumCodec((Class<? extends Enum>) raw);
+            return value -> {
+                if (raw.isInstance(value)) return value;
+                throw new FlagTypeConversionException("Cannot convert '" + value + "' to " + raw.getName());
+            };
+        }
+
+        if ((raw == List.class || raw == Collection.class) && arguments.size() == 1) {
+            FlagCodec<?> element = codecFor(arguments.get(0));
+            if (element == null) return null;
+            return value -> {
+                if (!(value instanceof Collection)) {
+                    throw new FlagTypeConversionException("Cannot convert '" + value + "' to " + type);
+                }
+                List<Object> list = new ArrayList<>(((Collection<?>) value).size());
+                for (Object item : (Collection<?>) value) {
+                    list.add(decodeNested(element, item, type));
+                }
+                return Collections.unmodifiableList(list);
+            };
+        }
+
+        if (raw == Map.class && arguments.size() == 2 && arguments.get(0).getRawType() == String.class) {
+            FlagCodec<?> element = codecFor(arguments.get(1));
+            if (element == null) return null;
+            return value -> {
+                if (!(value instanceof Map)) {
+                    throw new FlagTypeConversionException("Cannot convert '" + value + "' to " + type);
+                }
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    map.put(String.valueOf(entry.getKey()), decodeNested(element, entry.getValue(), type));
+                }
+                return Collections.unmodifiableMap(map);
+            };
+        }
+        return null;
+    }
+
+    private static Object decodeNested(FlagCodec<?> codec, Object item, FlagType<?> type) {
+        Object decoded = item != null ? codec.decode(item) : null;
+        if (decoded == null) {
+            throw new FlagTypeConversionException("Cannot convert null element to " + type);
+        }
+        return decoded;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static FlagCodec<?> enumCodec(Class<? extends Enum> type) {
+        return value -> {
+            String name = value.toString().trim();
+            try {
+                return Enum.valueOf(type, name);
+            } catch (IllegalArgumentException e) {
+                try {
+                    return Enum.valueOf(type, name.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException again) {
+                    throw new FlagTypeConversionException("Cannot convert '" + value + "' to " + type.getName(), again);
+                }
+            }
+        };
+    }
+}
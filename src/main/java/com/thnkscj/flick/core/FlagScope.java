@@ -0,0 +1,238 @@
+package com.thnkscj.flick.core;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A set of flag overrides visible only to the thread that opened it, and to tasks
+ * submitted through an executor wrapped with {@link #propagating(ExecutorService)}.
+ * <p>
+ * Scopes are opened with {@link FeatureFlags#override(String, Object)} and must be closed
+ * on the same thread, innermost first, typically with try-with-resources:
+ * </p>
+ * <pre>
+ * try (FlagScope scope = FeatureFlags.override("newCheckout", true)) {
+ *     handleRequest();
+ * }
+ * </pre>
+ * <p>
+ * Nested scopes shadow outer ones. While no scope is open anywhere in the JVM,
+ * {@link FeatureFlags#get(String)} pays a single branch on a shared counter and never
+ * touches the thread-local.
+ * </p>
+ */
+public final class FlagScope implements AutoCloseable {
+
+    private static final ThreadLocal<FlagScope> CURRENT = new ThreadLocal<>();
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+
+    private final FlagScope parent;
+    private final Map<String, FlagValue> overrides;
+    private final Thread owner;
+    private boolean closed;
+
+    private FlagScope(FlagScope parent, Map<String, FlagValue> overrides) {
+        this.parent = parent;
+        this.overrides = overrides;
+        this.owner = Thread.currentThread();
+    }
+
+    /**
+     * Opens a new scope on the current thread, nested inside any scope already open.
+     *
+     * @param values the flag values to override; null values make the flag appear absent
+     * @return the opened scope
+     */
+    static FlagScope open(Map<String, ?> values) {
+        Map<String, FlagValue> overrides = new HashMap<>();
+        values.forEach((key, value) -> overrides.put(key, FlagValue.of(value)));
+
+        FlagScope scope = new FlagScope(CURRENT.get(), Collections.unmodifiableMap(overrides));
+        ACTIVE.incrementAndGet();
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Returns whether any scope is currently open on any thread.
+     *
+     * @return {@code true} if overrides may apply to the current read
+     */
+    static boolean anyActive() {
+        return ACTIVE.get() != 0;
+    }
+
+    /**
+     * Resolves an override for the given key from the current thread's scopes, innermost first.
+     *
+     * @param key the flag key
+     * @return the overriding value, or {@code null} if the key is not overridden
+     */
+    static FlagValue lookup(String key) {
+        for (FlagScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            FlagValue value = scope.overrides.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Overlays the current thread's overrides below the given prefix onto a children map.
+     *
+     * @param prefix   the prefix the children were resolved for
+     * @param children the provider's children, keyed relative to the prefix
+     * @return the children with overrides applied, or {@code children} itself if nothing matched
+     */
+    static Map<String, FlagValue> overlayChildren(String prefix, Map<String, FlagValue> children) {
+        FlagScope innermost = CURRENT.get();
+        if (innermost == null) return children;
+
+        String normalizedPrefix = prefix == null || prefix.isEmpty() ? ""
+                : prefix.endsWith(".") ? prefix : prefix + ".";
+        Map<String, FlagValue> result = null;
+        for (FlagScope scope = innermost; scope != null; scope = scope.parent) {
+            for (Map.Entry<String, FlagValue> entry : scope.overrides.entrySet()) {
+                if (!entry.getKey().startsWith(normalizedPrefix)) continue;
+                if (result == null) result = new HashMap<>(children);
+
+                String childKey = entry.getKey().substring(normalizedPrefix.length());
+                if (!isShadowed(innermost, scope, entry.getKey())) {
+                    if (entry.getValue().isNull()) {
+                        result.remove(childKey);
+                    } else {
+                        result.put(childKey, entry.getValue());
+                    }
+                }
+            }
+        }
+        return result != null ? Collections.unmodifiableMap(result) : children;
+    }
+
+    private static boolean isShadowed(FlagScope innermost, FlagScope scope, String key) {
+        for (FlagScope inner = innermost; inner != scope; inner = inner.parent) {
+            if (inner.overrides.containsKey(key)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the overrides held by this scope, excluding those of enclosing scopes.
+     *
+     * @return an unmodifiable map of overridden keys to values
+     */
+    public Map<String, FlagValue> getOverrides() {
+        return overrides;
+    }
+
+    /**
+     * Closes this scope, restoring the enclosing scope on the current thread.
+     * Closing an already closed scope is a no-op.
+     *
+     * @throws IllegalStateException if called from another thread or out of nesting order
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("FlagScope must be closed by the thread that opened it");
+        }
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("FlagScope closed out of order; close inner scopes first");
+        }
+
+        closed = true;
+        if (parent != null) {
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+        }
+        ACTIVE.decrementAndGet();
+    }
+
+    /**
+     * Wraps a task so that it runs with the scopes that are open on the calling thread right now.
+     * Returns the task unchanged if no scope is open.
+     *
+     * @param task the task to wrap
+     * @return a task that installs the captured scopes while it runs
+     */
+    public static Runnable wrap(Runnable task) {
+        FlagScope captured = CURRENT.get();
+        if (captured == null) return task;
+
+        return () -> {
+            FlagScope previous = install(captured);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Wraps a task so that it runs with the scopes that are open on the calling thread right now.
+     * Returns the task unchanged if no scope is open.
+     *
+     * @param <T>  the result type
+     * @param task the task to wrap
+     * @return a task that installs the captured scopes while it runs
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        FlagScope captured = CURRENT.get();
+        if (captured == null) return task;
+
+        return () -> {
+            FlagScope previous = install(captured);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns an executor that propagates the submitting thread's scopes into each task.
+     *
+     * @param executor the executor to wrap
+     * @return a scope-propagating executor
+     */
+    public static Executor propagating(Executor executor) {
+        return command -> executor.execute(wrap(command));
+    }
+
+    /**
+     * Returns an executor service that propagates the submitting thread's scopes into each task.
+     * Lifecycle methods are delegated to the wrapped service.
+     *
+     * @param executor the executor service to wrap
+     * @return a scope-propagating executor service
+     */
+    public static ExecutorService propagating(ExecutorService executor) {
+        return new ScopePropagatingExecutorService(executor);
+    }
+
+    private static FlagScope install(FlagScope captured) {
+        FlagScope previous = CURRENT.get();
+        ACTIVE.incrementAndGet();
+        CURRENT.set(captured);
+        return previous;
+    }
+
+    private static void restore(FlagScope previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+        ACTIVE.decrementAndGet();
+    }
+}
@@ -0,0 +1,147 @@
+package com.thnkscj.flick.core;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A possibly generic type to decode flag values into, such as {@code List<RetryPolicy>}.
+ * <p>
+ * Generic types are captured by subclassing, or built with {@link #listOf(Class)} and
+ * {@link #mapOf(Class)}:
+ * </p>
+ * <pre>
+ * List&lt;RetryPolicy&gt; policies = value.as(new FlagType&lt;List&lt;RetryPolicy&gt;&gt;() {}).orElse(defaults);
+ * Map&lt;String, Integer&gt; limits = value.as(FlagType.mapOf(Integer.class)).orElse(emptyMap());
+ * </pre>
+ * <p>
+ * Two types are equal if their raw classes and type arguments are equal.
+ * </p>
+ *
+ * @param <T> the type
+ */
+public abstract class FlagType<T> {
+
+    private final Class<?> rawType;
+    private final List<FlagType<?>> arguments;
+
+    /**
+     * Captures the type argument of an anonymous subclass.
+     *
+     * @throws IllegalArgumentException if the type argument is missing or is a type variable
+     */
+    protected FlagType() {
+        Type superclass = getClass().getGenericSuperclass();
+        if (!(superclass instanceof ParameterizedType)) {
+            throw new IllegalArgumentException("FlagType must be created with a type argument");
+        }
+        FlagType<?> captured = from(((ParameterizedType) superclass).getActualTypeArguments()[0]);
+        this.rawType = captured.rawType;
+        this.arguments = captured.arguments;
+    }
+
+    private FlagType(Class<?> rawType, List<FlagType<?>> arguments) {
+        this.rawType = rawType;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Returns the type of a plain class.
+     *
+     * @param type the class
+     * @param <T>  the type
+     * @return the flag type
+     */
+    public static <T> FlagType<T> of(Class<T> type) {
+        return new Resolved<>(type, Collections.emptyList());
+    }
+
+    /**
+     * Returns the type {@code List<E>}.
+     *
+     * @param elementType the element class
+     * @param <E>         the element type
+     * @return the flag type
+     */
+    public static <E> FlagType<List<E>> listOf(Class<E> elementType) {
+        return new Resolved<>(List.class, Collections.singletonList(of(elementType)));
+    }
+
+    /**
+     * Returns the type {@code Map<String, V>}.
+     *
+     * @param valueType the value class
+     * @param <V>       the value type
+     * @return the flag type
+     */
+    public static <V> FlagType<Map<String, V>> mapOf(Class<V> valueType) {
+        return new Resolved<>(Map.class, Arrays.asList(of(String.class), of(valueType)));
+    }
+
+    public Class<?> getRawType() {
+        return rawType;
+    }
+
+    /**
+     * @return the type arguments, empty for a plain class
+     */
+    public List<FlagType<?>> getArguments() {
+        return arguments;
+    }
+
+    private static FlagType<?> from(Type type) {
+        if (type instanceof Class) {
+            return new Resolved<>((Class<?>) type, Collections.emptyList());
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            List<FlagType<?>> arguments = new ArrayList<>();
+            for (Type argument : parameterized.getActualTypeArguments()) {
+                arguments.add(from(argument));
+            }
+            return new Resolved<>((Class<?>) parameterized.getRawType(), Collections.unmodifiableList(arguments));
+        }
+        if (type instanceof WildcardType) {
+            WildcardType wildcard = (WildcardType) type;
+            if (wildcard.getLowerBounds().length == 0 && wildcard.getUpperBounds().length == 1) {
+                return from(wildcard.getUpperBounds()[0]);
+            }
+        }
+        throw new IllegalArgumentException("Unsupported flag type " + type.getTypeName());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FlagType)) return false;
+        FlagType<?> other = (FlagType<?>) o;
+        return rawType == other.rawType && arguments.equals(other.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * rawType.hashCode() + arguments.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        if (arguments.isEmpty()) return rawType.getName();
+        StringBuilder out = new StringBuilder(rawType.getName()).append('<');
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) out.append(", ");
+            out.append(arguments.get(i));
+        }
+        return out.append('>').toString();
+    }
+
+    private static final class Resolved<T> extends FlagType<T> {
+        Resolved(Class<?> rawType, List<FlagType<?>> arguments) {
+            super(rawType, arguments);
+        }
+    }
+}
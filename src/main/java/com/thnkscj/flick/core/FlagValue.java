@@ -2,6 +2,11 @@ package com.thnkscj.flick.core;
 
 import com.thnkscj.flick.core.exceptions.FlagTypeConversionException;
 
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -12,10 +17,46 @@ import java.util.Optional;
  * Supports default values for conversions and throws {@link FlagTypeConversionException}
  * if a conversion cannot be performed.
  * </p>
+ * <p>
+ * {@link #of(Object)} returns shared instances for booleans, small integers and longs, and a
+ * few common strings, since large flag sets repeat these values many times. Two values are
+ * equal if their raw values are equal.
+ * </p>
+ * <p>
+ * Structured values are decoded by {@link #as(Class)} and {@link #as(FlagType)} through the
+ * codecs in {@link FlagCodecs}. A value keeps the result of its most recent decode, so reading
+ * it again as the same type is a field load. Since providers replace the {@code FlagValue}
+ * when a flag changes, each flag version is decoded once. The decoded object is held softly,
+ * and only one per value, so decodes that are rarely read do not pin memory.
+ * </p>
+ *
+ * @see FlagValueInterner
+ * @see FlagCodecs
  */
 public final class FlagValue {
     private final Object rawValue;
+    private volatile Decoded decoded;
     private static final FlagValue NULL_VALUE = new FlagValue(null);
+    private static final FlagValue TRUE = new FlagValue(Boolean.TRUE);
+    private static final FlagValue FALSE = new FlagValue(Boolean.FALSE);
+
+    private static final int SMALL_MIN = -128;
+    private static final int SMALL_MAX = 1024;
+    private static final FlagValue[] SMALL_INTS = new FlagValue[SMALL_MAX - SMALL_MIN];
+    private static final FlagValue[] SMALL_LONGS = new FlagValue[SMALL_MAX - SMALL_MIN];
+    private static final Map<String, FlagValue> COMMON_STRINGS;
+
+    static {
+        for (int i = 0; i < SMALL_INTS.length; i++) {
+            SMALL_INTS[i] = new FlagValue(SMALL_MIN + i);
+            SMALL_LONGS[i] = new FlagValue((long) (SMALL_MIN + i));
+        }
+        Map<String, FlagValue> common = new HashMap<>();
+        for (String s : new String[]{"", "true", "false", "on", "off", "yes", "no", "enabled", "disabled", "0", "1"}) {
+            common.put(s, new FlagValue(s));
+        }
+        COMMON_STRINGS = Collections.unmodifiableMap(common);
+    }
 
     /**
      * Constructs a {@code FlagValue} wrapping the given raw value.
@@ -29,12 +70,37 @@ public final class FlagValue {
     /**
      * Creates a {@code FlagValue} wrapping the given value.
      * If the value is null, returns a singleton instance representing a null value.
+     * Booleans, integers and longs between -128 and 1023, and common strings such as
+     * {@code "true"} or {@code "on"} return shared instances.
      *
      * @param value the value to wrap, may be null
      * @return a {@code FlagValue} wrapping the given value or a null value instance
      */
     public static FlagValue of(Object value) {
-        return value != null ? new FlagValue(value) : NULL_VALUE;
+        if (value == null) return NULL_VALUE;
+        FlagValue shared = shared(value);
+        return shared != null ? shared : new FlagValue(value);
+    }
+
+    /**
+     * Returns the shared instance for a value, or {@code null} if the value has none.
+     */
+    static FlagValue shared(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? TRUE : FALSE;
+        }
+        if (value instanceof Integer) {
+            int i = (Integer) value;
+            return i >= SMALL_MIN && i < SMALL_MAX ? SMALL_INTS[i - SMALL_MIN] : null;
+        }
+        if (value instanceof Long) {
+            long l = (Long) value;
+            return l >= SMALL_MIN && l < SMALL_MAX ? SMALL_LONGS[(int) l - SMALL_MIN] : null;
+        }
+        if (value instanceof String) {
+            return COMMON_STRINGS.get(value);
+        }
+        return null;
     }
 
     /**
@@ -194,18 +260,67 @@ public final class FlagValue {
     }
 
     /**
-     * Attempts to cast the wrapped value to the specified type.
+     * Returns the wrapped value as the specified type. The value is cast if it already has
+     * that type, and otherwise decoded by the codec {@link FlagCodecs} provides for the type.
      *
      * @param <T>  the target type
      * @param type the class object of the target type
-     * @return an {@code Optional} containing the cast value if possible, otherwise empty
+     * @return an {@code Optional} containing the value if it has or decodes to the type, otherwise empty
      */
+    @SuppressWarnings("unchecked")
     public <T> Optional<T> as(Class<T> type) {
         if (rawValue == null) return Optional.empty();
         if (type.isInstance(rawValue)) {
             return Optional.of(type.cast(rawValue));
         }
-        return Optional.empty();
+        return Optional.ofNullable((T) decode(type));
+    }
+
+    /**
+     * Returns the wrapped value decoded as a possibly generic type, such as
+     * {@code List<RetryPolicy>}. See {@link FlagCodecs} for how types are decoded.
+     *
+     * @param <T>  the target type
+     * @param type the target type
+     * @return an {@code Optional} containing the decoded value, or empty if it cannot be decoded
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> as(FlagType<T> type) {
+        if (rawValue == null) return Optional.empty();
+        if (type.getArguments().isEmpty()) {
+            return (Optional<T>) as(type.getRawType());
+        }
+        return Optional.ofNullable((T) decode(type));
+    }
+
+    /**
+     * Decodes the raw value, reusing the last result if it was decoded as the same type by
+     * the current codecs.
+     *
+     * @param key a {@code Class} or a parameterized {@link FlagType}
+     * @return the decoded value, or {@code null} if it cannot be decoded
+     */
+    private Object decode(Object key) {
+        int generation = FlagCodecs.generation();
+        Decoded cached = decoded;
+        if (cached != null && cached.generation == generation && (cached.key == key || cached.key.equals(key))) {
+            Object value = cached.get();
+            if (value != null) return value == Decoded.FAILED ? null : value;
+        }
+
+        FlagType<?> type = key instanceof Class ? FlagType.of((Class<?>) key) : (FlagType<?>) key;
+        FlagCodec<?> codec = FlagCodecs.codecFor(type);
+        Object value = null;
+        if (codec != null) {
+            try {
+                value = codec.decode(rawValue);
+            } catch (FlagTypeConversionException | IllegalArgumentException | ClassCastException e) {
+                value = null;
+            }
+        }
+        // Racing decodes produce equal results, so the last write may win
+        decoded = new Decoded(key, generation, value);
+        return value;
     }
 
     /**
@@ -226,6 +341,63 @@ public final class FlagValue {
         return rawValue != null;
     }
 
+    /**
+     * Checks if this wraps a value equal to the given raw value, e.g. to keep an existing
+     * instance when a reload delivers an unchanged value.
+     *
+     * @param value the raw value to compare with, may be null
+     * @return {@code true} if the wrapped value equals {@code value}
+     */
+    public boolean wraps(Object value) {
+        return Objects.equals(rawValue, value);
+    }
+
+    /**
+     * Compares by raw value: two instances are equal if their raw values are equal, so an
+     * {@code Integer} and a {@code Long} of the same number are not. Earlier versions compared
+     * by identity; code that used {@code equals} or hash-based collections to tell two loads of
+     * the same value apart should compare with {@code ==} instead.
+     *
+     * @param o the object to compare with
+     * @return {@code true} if {@code o} is a {@code FlagValue} wrapping an equal raw value
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FlagValue)) return false;
+        return Objects.equals(rawValue, ((FlagValue) o).rawValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(rawValue);
+    }
+
+    /**
+     * The last decode of a value: the type, the codec generation, and the result, held softly.
+     * Failed decodes are remembered too, so they are not retried on every read.
+     */
+    private static final class Decoded {
+        static final Object FAILED = new Object();
+
+        final Object key;
+        final int generation;
+        private final Object result;
+
+        Decoded(Object key, int generation, Object value) {
+            this.key = key;
+            this.generation = generation;
+            this.result = value != null ? new SoftReference<>(value) : FAILED;
+        }
+
+        /**
+         * @return the decoded value, {@link #FAILED}, or {@code null} if it was reclaimed
+         */
+        Object get() {
+            return result == FAILED ? FAILED : ((SoftReference<?>) result).get();
+        }
+    }
+
     /**
      * Returns a string representation of the {@code FlagValue}.
      */
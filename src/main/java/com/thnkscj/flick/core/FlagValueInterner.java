@@ -0,0 +1,86 @@
+package com.thnkscj.flick.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares {@link FlagValue} instances between flags with equal string values.
+ * <p>
+ * Values with a shared instance in {@link FlagValue#of(Object)} are returned as is. Other
+ * strings are kept in a table up to a fixed number of distinct values; once it is full, new
+ * strings are wrapped without interning. Useful when many flags carry the same few strings,
+ * such as variant names or regions.
+ * </p>
+ */
+public final class FlagValueInterner {
+
+    /**
+     * Maximum number of distinct strings held by {@link #FlagValueInterner()}.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 4_096;
+
+    private final Map<String, FlagValue> table = new ConcurrentHashMap<>();
+    private final int maximumSize;
+
+    /**
+     * Constructs an interner holding at most {@link #DEFAULT_MAXIMUM_SIZE} distinct strings.
+     */
+    public FlagValueInterner() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Constructs an interner.
+     *
+     * @param maximumSize the maximum number of distinct strings to hold
+     * @throws IllegalArgumentException if {@code maximumSize} is negative
+     */
+    public FlagValueInterner(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Wraps a value, returning a shared instance where one exists.
+     *
+     * @param value the value to wrap, may be null
+     * @return the wrapped value
+     */
+    public FlagValue intern(Object value) {
+        if (!(value instanceof String)) {
+            return FlagValue.of(value);
+        }
+        FlagValue shared = FlagValue.shared(value);
+        if (shared == null) {
+            shared = table.get(value);
+        }
+        if (shared != null) {
+            return shared;
+        }
+        FlagValue created = new FlagValue(value);
+        if (table.size() >= maximumSize) {
+            return created;
+        }
+        FlagValue raced = table.putIfAbsent((String) value, created);
+        return raced != null ? raced : created;
+    }
+
+    /**
+     * Returns the number of interned strings.
+     *
+     * @return the table size
+     */
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public String toString() {
+        return "FlagValueInterner{" +
+                "size=" + table.size() +
+                ", maximumSize=" + maximumSize +
+                '}';
+    }
+}
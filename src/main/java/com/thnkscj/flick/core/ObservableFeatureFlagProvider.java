@@ -19,4 +19,19 @@ public interface ObservableFeatureFlagProvider extends FeatureFlagProvider {
      * @param listener the {@link FlagChangeListener} to remove
      */
     void removeChangeListener(FlagChangeListener listener);
+
+    /**
+     * Checks whether this provider's key set is fully known: {@link #forEachFlag} visits every
+     * flag {@link #getValue(String)} can return a present value for, and every flag that is
+     * added, changed or removed is reported to the listeners. Indexes such as the routing of a
+     * {@link com.thnkscj.flick.providers.composite.CompositeFeatureFlagProvider} rely on this
+     * to rule out keys, so providers that load values lazily must not claim it. The answer may
+     * change over time, for example when a schema with defaults is set, and is checked again
+     * on every routed lookup.
+     *
+     * @return {@code true} if the key set is complete and every change is reported; {@code false} by default
+     */
+    default boolean reportsAllFlags() {
+        return false;
+    }
 }
@@ -0,0 +1,58 @@
+package com.thnkscj.flick.evaluation;
+
+/**
+ * Stable hashing used to assign subjects to rollout buckets.
+ * <p>
+ * The hash depends only on the characters of its input, so every node assigns a subject
+ * to the same bucket.
+ * </p>
+ */
+final class Buckets {
+
+    /**
+     * Number of buckets; percentages are resolved to one hundredth of a percent.
+     */
+    static final int COUNT = 10_000;
+
+    private Buckets() {}
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units, finished with {@link #mix(long)}.
+     *
+     * @param value the string to hash, may be null
+     * @return the hash, {@code 0} for null
+     */
+    static long hash(String value) {
+        if (value == null) return 0L;
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Returns the bucket of a subject for one flag.
+     *
+     * @param salt        the per-flag salt
+     * @param subjectHash the subject's hash
+     * @return a bucket between {@code 0} inclusive and {@link #COUNT} exclusive
+     */
+    static int bucket(long salt, long subjectHash) {
+        // Maps the top 32 bits onto [0, COUNT) by multiplication, avoiding a division
+        return (int) (((mix(salt ^ subjectHash) >>> 32) * COUNT) >>> 32);
+    }
+
+    /**
+     * The MurmurHash3 64-bit finalizer.
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
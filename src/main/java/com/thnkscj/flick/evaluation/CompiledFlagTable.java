@@ -0,0 +1,254 @@
+package com.thnkscj.flick.evaluation;
+
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * An immutable, array-laid-out snapshot of every flag, built for {@link FlagEvaluator}.
+ * <p>
+ * Boolean flags are numbered into a bitset and all other flags into a dense array of variant
+ * indexes, both in key order. Flags without a rule always serve their configured value, so
+ * their results are precomputed into base arrays; evaluating a context copies those arrays
+ * and then runs only the flags that have rules.
+ * </p>
+ */
+final class CompiledFlagTable {
+
+    final String[] booleanKeys;
+    final String[] variantKeys;
+    final Object[][] variants;
+    final Map<String, Integer> booleanSlots;
+    final Map<String, Integer> variantSlots;
+    private final Map<String, Object[]> variantLists;
+    private final Map<String, FlagRule> rules;
+
+    final long[] baseBits;
+    final int[] baseVariants;
+
+    final int[] ruledBooleanSlots;
+    final FlagRule[] ruledBooleanRules;
+    final Object[][] ruledBooleanVariants;
+    final long[] ruledBooleanSalts;
+
+    final int[] ruledVariantSlots;
+    final FlagRule[] ruledVariantRules;
+    final long[] ruledVariantSalts;
+
+    /**
+     * Identifies the layout, so serialized results are only decoded against the same table.
+     */
+    final int layoutHash;
+
+    private CompiledFlagTable(List<String> booleans, List<String> others, Map<String, Object[]> variantLists,
+                              Map<String, Object> configured, Map<String, FlagRule> rules) {
+        booleanKeys = booleans.toArray(new String[0]);
+        variantKeys = others.toArray(new String[0]);
+        booleanSlots = slots(booleanKeys);
+        variantSlots = slots(variantKeys);
+        this.variantLists = variantLists;
+        this.rules = new HashMap<>(rules);
+        baseBits = new long[(booleanKeys.length + 63) >>> 6];
+        baseVariants = new int[variantKeys.length];
+        variants = new Object[variantKeys.length][];
+
+        List<Integer> boolRuled = new ArrayList<>();
+        for (int slot = 0; slot < booleanKeys.length; slot++) {
+            String key = booleanKeys[slot];
+            if (rules.containsKey(key)) {
+                boolRuled.add(slot);
+            }
+            if (Boolean.TRUE.equals(configured.get(key))) {
+                baseBits[slot >>> 6] |= 1L << slot;
+            }
+        }
+        ruledBooleanSlots = new int[boolRuled.size()];
+        ruledBooleanRules = new FlagRule[boolRuled.size()];
+        ruledBooleanVariants = new Object[boolRuled.size()][];
+        ruledBooleanSalts = new long[boolRuled.size()];
+        for (int i = 0; i < boolRuled.size(); i++) {
+            String key = booleanKeys[boolRuled.get(i)];
+            ruledBooleanSlots[i] = boolRuled.get(i);
+            ruledBooleanRules[i] = rules.get(key);
+            ruledBooleanVariants[i] = variantLists.get(key);
+            ruledBooleanSalts[i] = Buckets.hash(key);
+        }
+
+        List<Integer> variantRuled = new ArrayList<>();
+        for (int slot = 0; slot < variantKeys.length; slot++) {
+            String key = variantKeys[slot];
+            variants[slot] = variantLists.get(key);
+            if (rules.containsKey(key)) {
+                variantRuled.add(slot);
+                baseVariants[slot] = Math.max(0, indexOf(variants[slot], configured.get(key)));
+            }
+        }
+        ruledVariantSlots = new int[variantRuled.size()];
+        ruledVariantRules = new FlagRule[variantRuled.size()];
+        ruledVariantSalts = new long[variantRuled.size()];
+        for (int i = 0; i < variantRuled.size(); i++) {
+            String key = variantKeys[variantRuled.get(i)];
+            ruledVariantSlots[i] = variantRuled.get(i);
+            ruledVariantRules[i] = rules.get(key);
+            ruledVariantSalts[i] = Buckets.hash(key);
+        }
+
+        int hash = 1;
+        for (String key : booleanKeys) hash = 31 * hash + key.hashCode();
+        hash = 31 * hash + booleanKeys.length;
+        for (int slot = 0; slot < variantKeys.length; slot++) {
+            hash = 31 * hash + variantKeys[slot].hashCode();
+            hash = 31 * hash + variants[slot].length;
+        }
+        layoutHash = hash;
+    }
+
+    /**
+     * Compiles a table from the provider's flags and the registered rules, visiting the flags
+     * once through {@link FeatureFlagProvider#forEachFlag} and keeping only their decoded values.
+     * A flag with a rule takes its variants from the rule; the configured value, if it is one
+     * of them, is served when the rule fails. Flags with a rule need not be configured.
+     *
+     * @param provider the provider holding every configured flag
+     * @param rules    rules by flag key
+     * @return the compiled table
+     */
+    static CompiledFlagTable compile(FeatureFlagProvider provider, Map<String, FlagRule> rules) {
+        Map<String, Object> configured = new HashMap<>();
+        provider.forEachFlag((key, value) -> {
+            Object raw = raw(value);
+            if (raw != null) {
+                configured.put(key, raw);
+            }
+        });
+        TreeSet<String> keys = new TreeSet<>(configured.keySet());
+        keys.addAll(rules.keySet());
+
+        List<String> booleans = new ArrayList<>();
+        List<String> others = new ArrayList<>();
+        Map<String, Object[]> variantLists = new HashMap<>();
+        for (String key : keys) {
+            FlagRule rule = rules.get(key);
+            Object[] values;
+            if (rule != null) {
+                values = rule.getVariants().toArray();
+            } else {
+                Object value = configured.get(key);
+                if (value == null) continue;
+                values = new Object[]{value};
+            }
+            variantLists.put(key, values);
+            (allBoolean(values) ? booleans : others).add(key);
+        }
+        return new CompiledFlagTable(booleans, others, variantLists, configured, rules);
+    }
+
+    /**
+     * Evaluates every flag for a context. A rule that throws or returns an index outside its
+     * variants leaves the flag at its configured value.
+     *
+     * @param context the evaluation context
+     * @return the results
+     */
+    EvaluationResult evaluate(EvaluationContext context) {
+        long[] bits = baseBits.clone();
+        int[] indexes = baseVariants.clone();
+
+        for (int i = 0; i < ruledBooleanSlots.length; i++) {
+            Object[] values = ruledBooleanVariants[i];
+            int chosen;
+            try {
+                chosen = ruledBooleanRules[i].evaluate(context, ruledBooleanSalts[i]);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            if (chosen < 0 || chosen >= values.length) continue;
+
+            int slot = ruledBooleanSlots[i];
+            if (Boolean.TRUE.equals(values[chosen])) {
+                bits[slot >>> 6] |= 1L << slot;
+            } else {
+                bits[slot >>> 6] &= ~(1L << slot);
+            }
+        }
+
+        for (int i = 0; i < ruledVariantSlots.length; i++) {
+            int slot = ruledVariantSlots[i];
+            int chosen;
+            try {
+                chosen = ruledVariantRules[i].evaluate(context, ruledVariantSalts[i]);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            if (chosen >= 0 && chosen < variants[slot].length) {
+                indexes[slot] = chosen;
+            }
+        }
+        return new EvaluationResult(this, bits, indexes);
+    }
+
+    /**
+     * Evaluates a single flag for a context, with the same fallbacks as {@link #evaluate(EvaluationContext)}.
+     *
+     * @param context the evaluation context
+     * @param key     the flag key
+     * @return the value, a {@link Boolean} for boolean flags, or {@code null} if the flag is unknown
+     */
+    Object evaluate(EvaluationContext context, String key) {
+        Object configured;
+        Integer slot = variantSlots.get(key);
+        if (slot != null) {
+            configured = variants[slot][baseVariants[slot]];
+        } else if ((slot = booleanSlots.get(key)) != null) {
+            configured = (baseBits[slot >>> 6] & (1L << slot)) != 0;
+        } else {
+            return null;
+        }
+
+        FlagRule rule = rules.get(key);
+        if (rule == null) {
+            return configured;
+        }
+        Object[] values = variantLists.get(key);
+        int chosen;
+        try {
+            chosen = rule.evaluate(context, Buckets.hash(key));
+        } catch (RuntimeException e) {
+            return configured;
+        }
+        return chosen >= 0 && chosen < values.length ? values[chosen] : configured;
+    }
+
+    private static boolean allBoolean(Object[] values) {
+        for (Object value : values) {
+            if (!(value instanceof Boolean)) return false;
+        }
+        return values.length > 0;
+    }
+
+    private static Object raw(FlagValue value) {
+        return value != null ? value.as(Object.class).orElse(null) : null;
+    }
+
+    private static int indexOf(Object[] values, Object value) {
+        for (int i = 0; i < values.length; i++) {
+            if (Objects.equals(values[i], value)) return i;
+        }
+        return -1;
+    }
+
+    private static Map<String, Integer> slots(String[] keys) {
+        Map<String, Integer> slots = new HashMap<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            slots.put(keys[i], i);
+        }
+        return Collections.unmodifiableMap(slots);
+    }
+}
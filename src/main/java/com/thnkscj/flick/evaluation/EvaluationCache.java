@@ -0,0 +1,166 @@
+package com.thnkscj.flick.evaluation;
+
+import com.thnkscj.flick.providers.caching.strategy.BoundedCache;
+import com.thnkscj.flick.providers.caching.strategy.Cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches single-flag evaluations by context and flag key.
+ * <p>
+ * Entries are hashed by the context's fingerprint but matched by context equality, so two
+ * contexts whose fingerprints collide never share a result.
+ * </p>
+ * <p>
+ * Every flag has a version, and each entry records the version it was computed at. Changing a
+ * flag bumps its version, which makes all of its entries stale at once without scanning the
+ * cache; stale entries are recomputed on their next lookup or evicted by the underlying
+ * {@link Cache}. Versions come from a single clock, so {@link #invalidateAll()} is a version
+ * bump as well.
+ * </p>
+ */
+public final class EvaluationCache {
+
+    /**
+     * Maximum number of entries held by {@link #EvaluationCache()}.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final Cache<Key, Entry> cache;
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong epoch = new AtomicLong();
+
+    /**
+     * Constructs a cache holding at most {@link #DEFAULT_MAXIMUM_SIZE} entries.
+     */
+    public EvaluationCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Constructs a cache backed by a {@link BoundedCache}.
+     *
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if {@code maximumSize} is not positive
+     */
+    public EvaluationCache(int maximumSize) {
+        this(new BoundedCache<>(maximumSize));
+    }
+
+    /**
+     * Constructs a cache backed by a custom caching strategy. The strategy decides how
+     * entries are bounded and evicted.
+     *
+     * @param cache the cache strategy
+     */
+    public EvaluationCache(Cache<Key, Entry> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the cached value of a flag for a context, evaluating and caching it if the
+     * entry is missing or stale.
+     *
+     * @param context   the evaluation context
+     * @param key       the flag key
+     * @param evaluator computes the value on a miss
+     * @return the value, may be null
+     */
+    public Object get(EvaluationContext context, String key, Supplier<?> evaluator) {
+        Key cacheKey = new Key(context, key);
+        // Read before evaluating, so a change during evaluation leaves the entry stale
+        long version = versionOf(key);
+        Entry entry = cache.getIfPresent(cacheKey);
+        if (entry != null && entry.version == version) {
+            return entry.value;
+        }
+        Object value = evaluator.get();
+        cache.put(cacheKey, new Entry(version, value));
+        return value;
+    }
+
+    /**
+     * Marks every cached evaluation of a flag as stale.
+     *
+     * @param key the flag key
+     */
+    public void invalidate(String key) {
+        versions.merge(key, clock.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * Marks every cached evaluation as stale and clears the underlying cache.
+     */
+    public void invalidateAll() {
+        epoch.accumulateAndGet(clock.incrementAndGet(), Math::max);
+        cache.invalidateAll();
+    }
+
+    private long versionOf(String key) {
+        Long version = versions.get(key);
+        long current = epoch.get();
+        return version != null && version > current ? version : current;
+    }
+
+    /**
+     * The key of a cached evaluation.
+     */
+    public static final class Key {
+
+        private final EvaluationContext context;
+        private final String flag;
+
+        Key(EvaluationContext context, String flag) {
+            this.context = context;
+            this.flag = flag;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return flag.equals(other.flag) && context.equals(other.context);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(context.fingerprint()) + flag.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" + Long.toHexString(context.fingerprint()) + ", " + flag + '}';
+        }
+    }
+
+    /**
+     * A cached value and the flag version it was computed at.
+     */
+    public static final class Entry {
+
+        private final long version;
+        private final Object value;
+
+        Entry(long version, Object value) {
+            this.version = version;
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" + value + " @" + version + '}';
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationCache{" +
+                "cache=" + cache +
+                '}';
+    }
+}
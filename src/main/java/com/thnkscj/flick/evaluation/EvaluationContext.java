@@ -0,0 +1,117 @@
+package com.thnkscj.flick.evaluation;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The subject a set of flags is evaluated for, such as a user or a request.
+ * <p>
+ * A context is immutable. The subject's hash is computed once on construction, so rollout
+ * rules evaluated against the same context do not rehash the subject ID.
+ * </p>
+ */
+public final class EvaluationContext {
+
+    private final String subjectId;
+    private final Map<String, Object> attributes;
+    private final long subjectHash;
+    private final long fingerprint;
+
+    /**
+     * Constructs a context with no attributes.
+     *
+     * @param subjectId the identifier rollouts are bucketed by, may be null
+     */
+    public EvaluationContext(String subjectId) {
+        this(subjectId, Collections.emptyMap());
+    }
+
+    /**
+     * Constructs a new context.
+     *
+     * @param subjectId  the identifier rollouts are bucketed by, may be null
+     * @param attributes additional attributes rules may inspect
+     */
+    public EvaluationContext(String subjectId, Map<String, ?> attributes) {
+        this.subjectId = subjectId;
+        this.attributes = attributes.isEmpty()
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new HashMap<>(attributes));
+        this.subjectHash = Buckets.hash(subjectId);
+        this.fingerprint = fingerprint(subjectHash, this.attributes);
+    }
+
+    public String getSubjectId() {
+        return subjectId;
+    }
+
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns an attribute value.
+     *
+     * @param name the attribute name
+     * @return the value, or {@code null} if not set
+     */
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    /**
+     * Returns the stable hash of the subject ID.
+     *
+     * @return the hash, {@code 0} if there is no subject ID
+     */
+    public long getSubjectHash() {
+        return subjectHash;
+    }
+
+    /**
+     * Returns a 64-bit digest of the subject ID and attributes, used to key cached evaluations.
+     * Equal contexts have equal fingerprints regardless of attribute order.
+     *
+     * @return the fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    private static long fingerprint(long subjectHash, Map<String, Object> attributes) {
+        // Attribute digests are summed so the result does not depend on iteration order
+        long attributeHash = 0;
+        for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+            long name = Buckets.hash(attribute.getKey());
+            Object raw = attribute.getValue();
+            long value = raw == null ? 0 : Buckets.hash(raw.toString()) ^ raw.getClass().getName().hashCode();
+            attributeHash += Buckets.mix(name * 31 + value);
+        }
+        return Buckets.mix(subjectHash * 0x9e3779b97f4a7c15L + attributeHash);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EvaluationContext)) return false;
+        EvaluationContext other = (EvaluationContext) o;
+        return fingerprint == other.fingerprint
+                && Objects.equals(subjectId, other.subjectId)
+                && attributes.equals(other.attributes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint);
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationContext{" +
+                "subjectId='" + subjectId + '\'' +
+                ", attributes=" + attributes +
+                '}';
+    }
+}
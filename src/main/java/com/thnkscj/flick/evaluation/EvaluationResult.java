@@ -0,0 +1,167 @@
+package com.thnkscj.flick.evaluation;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * The values of every flag for one {@link EvaluationContext}, as produced by
+ * {@link FlagEvaluator#evaluateAll(EvaluationContext)}.
+ * <p>
+ * Boolean flags are held in a bitset and all other flags as indexes into their variant lists,
+ * both laid out by the flag table the result was evaluated against. {@link #serialize()}
+ * encodes a result into a short URL-safe string, e.g. to forward it in a header; it is decoded
+ * with {@link FlagEvaluator#deserialize(String)} against the same flag table.
+ * </p>
+ */
+public final class EvaluationResult {
+
+    private final CompiledFlagTable table;
+    private final long[] bits;
+    private final int[] variantIndexes;
+
+    EvaluationResult(CompiledFlagTable table, long[] bits, int[] variantIndexes) {
+        this.table = table;
+        this.bits = bits;
+        this.variantIndexes = variantIndexes;
+    }
+
+    /**
+     * Returns whether a boolean flag is enabled.
+     *
+     * @param key the flag key
+     * @return {@code true} if the flag is a boolean flag and enabled, otherwise {@code false}
+     */
+    public boolean isEnabled(String key) {
+        Integer slot = table.booleanSlots.get(key);
+        return slot != null && (bits[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Returns the value served for a flag.
+     *
+     * @param key the flag key
+     * @return the value, a {@link Boolean} for boolean flags, or {@code null} if the flag is unknown
+     */
+    public Object getValue(String key) {
+        Integer slot = table.variantSlots.get(key);
+        if (slot != null) {
+            return table.variants[slot][variantIndexes[slot]];
+        }
+        return table.booleanSlots.containsKey(key) ? isEnabled(key) : null;
+    }
+
+    /**
+     * Returns the index of the variant served for a non-boolean flag.
+     *
+     * @param key the flag key
+     * @return the index into the flag's variants, or {@code -1} if the flag is unknown or boolean
+     */
+    public int getVariantIndex(String key) {
+        Integer slot = table.variantSlots.get(key);
+        return slot != null ? variantIndexes[slot] : -1;
+    }
+
+    /**
+     * Returns the number of boolean flags in the bitset.
+     *
+     * @return the boolean flag count
+     */
+    public int getBooleanCount() {
+        return table.booleanKeys.length;
+    }
+
+    /**
+     * Returns the number of non-boolean flags.
+     *
+     * @return the variant flag count
+     */
+    public int getVariantCount() {
+        return table.variantKeys.length;
+    }
+
+    /**
+     * Returns a copy of the bitset, where bit {@code i} belongs to the {@code i}-th boolean flag in key order.
+     *
+     * @return the bits
+     */
+    public long[] toBitArray() {
+        return bits.clone();
+    }
+
+    /**
+     * Encodes the result as unpadded URL-safe Base64: a four-byte layout hash, one bit per
+     * boolean flag, and one variable-length integer per variant index.
+     *
+     * @return the encoded result
+     */
+    public String serialize() {
+        int booleanBytes = (table.booleanKeys.length + 7) >>> 3;
+        byte[] out = new byte[4 + booleanBytes + 5 * variantIndexes.length];
+        int hash = table.layoutHash;
+        out[0] = (byte) (hash >>> 24);
+        out[1] = (byte) (hash >>> 16);
+        out[2] = (byte) (hash >>> 8);
+        out[3] = (byte) hash;
+        int pos = 4;
+        for (int i = 0; i < booleanBytes; i++) {
+            out[pos++] = (byte) (bits[i >>> 3] >>> ((i & 7) << 3));
+        }
+        for (int index : variantIndexes) {
+            while ((index & ~0x7f) != 0) {
+                out[pos++] = (byte) ((index & 0x7f) | 0x80);
+                index >>>= 7;
+            }
+            out[pos++] = (byte) index;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(out, pos));
+    }
+
+    /**
+     * Decodes a result produced by {@link #serialize()}.
+     *
+     * @throws IllegalArgumentException if the input is malformed or was encoded against a different table
+     */
+    static EvaluationResult deserialize(CompiledFlagTable table, String encoded) {
+        byte[] data = Base64.getUrlDecoder().decode(encoded);
+        int booleanBytes = (table.booleanKeys.length + 7) >>> 3;
+        if (data.length < 4 + booleanBytes) {
+            throw new IllegalArgumentException("Truncated evaluation result");
+        }
+        int hash = (data[0] & 0xff) << 24 | (data[1] & 0xff) << 16 | (data[2] & 0xff) << 8 | (data[3] & 0xff);
+        if (hash != table.layoutHash) {
+            throw new IllegalArgumentException("Evaluation result was encoded against a different flag table");
+        }
+
+        long[] bits = new long[table.baseBits.length];
+        for (int i = 0; i < booleanBytes; i++) {
+            bits[i >>> 3] |= (data[4 + i] & 0xffL) << ((i & 7) << 3);
+        }
+
+        int[] indexes = new int[table.variantKeys.length];
+        int pos = 4 + booleanBytes;
+        for (int slot = 0; slot < indexes.length; slot++) {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (pos >= data.length || shift > 28) {
+                    throw new IllegalArgumentException("Truncated evaluation result");
+                }
+                byte b = data[pos++];
+                value |= (b & 0x7f) << shift;
+                if (b >= 0) break;
+            }
+            if (value >= table.variants[slot].length) {
+                throw new IllegalArgumentException("Variant index out of range for " + table.variantKeys[slot]);
+            }
+            indexes[slot] = value;
+        }
+        return new EvaluationResult(table, bits, indexes);
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationResult{" +
+                "booleans=" + table.booleanKeys.length +
+                ", variants=" + table.variantKeys.length +
+                '}';
+    }
+}
@@ -0,0 +1,214 @@
+package com.thnkscj.flick.evaluation;
+
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagChangeListener;
+import com.thnkscj.flick.core.ObservableFeatureFlagProvider;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates every flag of a provider for a context in a single pass.
+ * <p>
+ * The provider's flags and the registered {@link FlagRule}s are compiled into an array-based
+ * flag table on first use. The table is recompiled lazily after a rule is changed, after an
+ * observable provider reports a change, or after {@link #invalidate()}. All providers in this
+ * library, including every {@code GenericFeatureFlagProvider}, report their changes, and
+ * decorators such as the composite pass on the changes of the providers they wrap. A custom
+ * provider that is not observable, or a decorator over one, is read once, and
+ * {@link #invalidate()} must be called after each of its reloads or evaluations keep serving
+ * the old flags. Evaluating a context
+ * copies the precomputed results of flags without rules and runs only the rules, so the cost
+ * is proportional to the number of rules rather than the number of flags.
+ * </p>
+ * <p>
+ * Single flags are evaluated with {@link #evaluate(EvaluationContext, String)}, which caches
+ * results per context in an {@link EvaluationCache}. A change to one flag or its rule only
+ * invalidates the cached results of that flag.
+ * </p>
+ * <p>
+ * Thread-scoped overrides from {@link com.thnkscj.flick.core.FlagScope} do not apply.
+ * </p>
+ */
+public final class FlagEvaluator implements AutoCloseable {
+
+    private final FeatureFlagProvider provider;
+    private final Map<String, FlagRule> rules = new ConcurrentHashMap<>();
+    private final AtomicLong modifications = new AtomicLong();
+    private final FlagChangeListener listener;
+    private final EvaluationCache cache;
+    private volatile CompiledFlagTable table;
+
+    /**
+     * Constructs an evaluator with no rules.
+     *
+     * @param provider the provider whose flags are evaluated
+     */
+    public FlagEvaluator(FeatureFlagProvider provider) {
+        this(provider, Collections.emptyMap());
+    }
+
+    /**
+     * Constructs an evaluator.
+     *
+     * @param provider the provider whose flags are evaluated
+     * @param rules    the initial rules by flag key
+     */
+    public FlagEvaluator(FeatureFlagProvider provider, Map<String, FlagRule> rules) {
+        this(provider, rules, new EvaluationCache());
+    }
+
+    /**
+     * Constructs an evaluator with a custom evaluation cache, e.g. to change its size.
+     *
+     * @param provider the provider whose flags are evaluated
+     * @param rules    the initial rules by flag key
+     * @param cache    the cache for single-flag evaluations
+     */
+    public FlagEvaluator(FeatureFlagProvider provider, Map<String, FlagRule> rules, EvaluationCache cache) {
+        this.provider = provider;
+        this.rules.putAll(rules);
+        this.cache = cache;
+
+        if (provider instanceof ObservableFeatureFlagProvider) {
+            listener = (key, value) -> {
+                discardTable();
+                cache.invalidate(key);
+            };
+            ((ObservableFeatureFlagProvider) provider).addChangeListener(listener);
+        } else {
+            listener = null;
+        }
+    }
+
+    /**
+     * Evaluates every flag for a context.
+     *
+     * @param context the evaluation context
+     * @return the results
+     */
+    public EvaluationResult evaluateAll(EvaluationContext context) {
+        return table().evaluate(context);
+    }
+
+    /**
+     * Evaluates a single flag for a context. Results are cached per context
+     * until the flag or its rule changes.
+     *
+     * @param context the evaluation context
+     * @param key     the flag key
+     * @return the value, a {@link Boolean} for boolean flags, or {@code null} if the flag is unknown
+     */
+    public Object evaluate(EvaluationContext context, String key) {
+        return cache.get(context, key, () -> table().evaluate(context, key));
+    }
+
+    /**
+     * Decodes a result produced by {@link EvaluationResult#serialize()} against the current flag table.
+     *
+     * @param encoded the encoded result
+     * @return the decoded result
+     * @throws IllegalArgumentException if the input is malformed or the flag table has changed since it was encoded
+     */
+    public EvaluationResult deserialize(String encoded) {
+        return EvaluationResult.deserialize(table(), encoded);
+    }
+
+    /**
+     * Registers or replaces the rule for a flag.
+     *
+     * @param key  the flag key
+     * @param rule the rule
+     */
+    public void setRule(String key, FlagRule rule) {
+        rules.put(key, rule);
+        discardTable();
+        cache.invalidate(key);
+    }
+
+    /**
+     * Removes the rule for a flag, so it serves its configured value again.
+     *
+     * @param key the flag key
+     */
+    public void removeRule(String key) {
+        if (rules.remove(key) != null) {
+            discardTable();
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Returns the registered rules.
+     *
+     * @return an unmodifiable copy of the rules by flag key
+     */
+    public Map<String, FlagRule> getRules() {
+        return Collections.unmodifiableMap(new HashMap<>(rules));
+    }
+
+    /**
+     * Returns the provider this evaluator reads from.
+     *
+     * @return the provider
+     */
+    public FeatureFlagProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Returns the cache used for single-flag evaluations.
+     *
+     * @return the evaluation cache
+     */
+    public EvaluationCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Discards the compiled flag table and all cached evaluations; the next evaluation
+     * recompiles the table. Call this after refreshing a provider that does not report its changes.
+     */
+    public void invalidate() {
+        discardTable();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Stops listening to the provider.
+     */
+    @Override
+    public void close() {
+        if (listener != null) {
+            ((ObservableFeatureFlagProvider) provider).removeChangeListener(listener);
+        }
+    }
+
+    private void discardTable() {
+        modifications.incrementAndGet();
+        table = null;
+    }
+
+    private CompiledFlagTable table() {
+        CompiledFlagTable current = table;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = table;
+            if (current != null) {
+                return current;
+            }
+            long seen = modifications.get();
+            current = CompiledFlagTable.compile(provider, rules);
+            // A change that raced with compilation leaves the table unpublished, to be rebuilt next time
+            if (modifications.get() == seen) {
+                table = current;
+            }
+            return current;
+        }
+    }
+}
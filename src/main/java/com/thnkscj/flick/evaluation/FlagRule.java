@@ -0,0 +1,33 @@
+package com.thnkscj.flick.evaluation;
+
+import java.util.List;
+
+/**
+ * A targeting rule that picks one of a fixed list of variants for each context.
+ * <p>
+ * The variants are fixed when the flag table is compiled, so results can be reported as
+ * indexes into that list. A rule whose variants are all {@link Boolean}s makes its flag
+ * a boolean flag.
+ * </p>
+ *
+ * @see PercentageRollout
+ * @see VariantSplit
+ */
+public interface FlagRule {
+
+    /**
+     * Returns the values this rule can serve.
+     *
+     * @return the variants, never empty
+     */
+    List<?> getVariants();
+
+    /**
+     * Picks the variant to serve.
+     *
+     * @param context the evaluation context
+     * @param salt    a per-flag salt derived from the flag key, for use when bucketing subjects
+     * @return an index into {@link #getVariants()}
+     */
+    int evaluate(EvaluationContext context, long salt);
+}
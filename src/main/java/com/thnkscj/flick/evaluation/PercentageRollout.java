@@ -0,0 +1,48 @@
+package com.thnkscj.flick.evaluation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Enables a boolean flag for a stable percentage of subjects.
+ * <p>
+ * Subjects are bucketed by a hash of their ID salted with the flag key, so a subject stays in
+ * or out of the rollout across evaluations and nodes, and raising the percentage only adds
+ * subjects. A context without a subject ID is never included.
+ * </p>
+ */
+public final class PercentageRollout implements FlagRule {
+
+    private static final List<Boolean> VARIANTS = Arrays.asList(Boolean.FALSE, Boolean.TRUE);
+
+    private final int threshold;
+
+    /**
+     * Constructs a rollout.
+     *
+     * @param percent the share of subjects to enable, between 0 and 100
+     * @throws IllegalArgumentException if the percentage is out of range
+     */
+    public PercentageRollout(double percent) {
+        if (!(percent >= 0 && percent <= 100)) {
+            throw new IllegalArgumentException("percent must be between 0 and 100: " + percent);
+        }
+        this.threshold = (int) Math.round(percent * Buckets.COUNT / 100);
+    }
+
+    @Override
+    public List<?> getVariants() {
+        return VARIANTS;
+    }
+
+    @Override
+    public int evaluate(EvaluationContext context, long salt) {
+        if (context.getSubjectId() == null) return 0;
+        return Buckets.bucket(salt, context.getSubjectHash()) < threshold ? 1 : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "PercentageRollout{" + (threshold * 100.0 / Buckets.COUNT) + "%}";
+    }
+}
@@ -0,0 +1,68 @@
+package com.thnkscj.flick.evaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits subjects between several variants by weight, e.g. for an A/B/C experiment.
+ * <p>
+ * Subjects are bucketed the same way as in {@link PercentageRollout}. A context without a
+ * subject ID gets the first variant.
+ * </p>
+ */
+public final class VariantSplit implements FlagRule {
+
+    private final List<Object> variants;
+    private final int[] upperBounds;
+
+    /**
+     * Constructs a split.
+     *
+     * @param variants the values to serve
+     * @param weights  the relative weight of each variant
+     * @throws IllegalArgumentException if the counts differ, a weight is negative, or all weights are zero
+     */
+    public VariantSplit(List<?> variants, double... weights) {
+        if (variants.isEmpty() || variants.size() != weights.length) {
+            throw new IllegalArgumentException("Need one weight per variant");
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0)) throw new IllegalArgumentException("Negative weight: " + weight);
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Weights must not all be zero");
+        }
+
+        this.variants = Collections.unmodifiableList(new ArrayList<>(variants));
+        this.upperBounds = new int[weights.length];
+        double cumulative = 0;
+        for (int i = 0; i < weights.length; i++) {
+            cumulative += weights[i];
+            upperBounds[i] = (int) Math.round(cumulative / total * Buckets.COUNT);
+        }
+        upperBounds[weights.length - 1] = Buckets.COUNT;
+    }
+
+    @Override
+    public List<?> getVariants() {
+        return variants;
+    }
+
+    @Override
+    public int evaluate(EvaluationContext context, long salt) {
+        if (context.getSubjectId() == null) return 0;
+        int bucket = Buckets.bucket(salt, context.getSubjectHash());
+        for (int i = 0; i < upperBounds.length; i++) {
+            if (bucket < upperBounds[i]) return i;
+        }
+        return upperBounds.length - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "VariantSplit{" + variants + '}';
+    }
+}
@@ -0,0 +1,57 @@
+package com.thnkscj.flick.exposure;
+
+import com.thnkscj.flick.core.FlagValue;
+
+/**
+ * Immutable record that a subject (typically a user) was served a flag value.
+ */
+public final class Exposure {
+    private final String flagKey;
+    private final String subjectId;
+    private final FlagValue value;
+    private final long timestampMillis;
+
+    /**
+     * Constructs a new exposure record.
+     *
+     * @param flagKey         the evaluated flag key
+     * @param subjectId       the identifier of the subject that saw the value
+     * @param value           the value that was served
+     * @param timestampMillis the wall-clock time of the evaluation
+     */
+    public Exposure(String flagKey, String subjectId, FlagValue value, long timestampMillis) {
+        this.flagKey = flagKey;
+        this.subjectId = subjectId;
+        this.value = value;
+        this.timestampMillis = timestampMillis;
+    }
+
+    public String getFlagKey() {
+        return flagKey;
+    }
+
+    public String getSubjectId() {
+        return subjectId;
+    }
+
+    public FlagValue getValue() {
+        return value;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Returns a string representation of the {@code Exposure}.
+     */
+    @Override
+    public String toString() {
+        return "Exposure{" +
+                "flagKey='" + flagKey + '\'' +
+                ", subjectId='" + subjectId + '\'' +
+                ", value=" + value +
+                ", timestampMillis=" + timestampMillis +
+                '}';
+    }
+}
@@ -0,0 +1,280 @@
+package com.thnkscj.flick.exposure;
+
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.metrics.FlickMetrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous pipeline that records which subject was served which flag value.
+ * <p>
+ * Request threads call {@link #record(String, String, FlagValue)}, which appends to an
+ * {@link ExposureRingBuffer} without locking or allocating and never blocks: if the buffer is full
+ * the exposure is dropped and counted. A daemon thread named "flick-exposure" drains the buffer in
+ * batches, suppresses repeats of the same (subject, flag, value) within the deduplication window,
+ * and hands each batch to the configured {@link ExposureSink}. The window is measured between the
+ * exposures' own timestamps, so a backlog drained late is deduplicated the same way.
+ * </p>
+ * <p>
+ * {@link #close()} stops accepting exposures and waits for calls to {@link #record} already in
+ * progress before the final drain, so every accepted exposure reaches the sink.
+ * </p>
+ */
+public class ExposurePipeline implements AutoCloseable {
+
+    private final ExposureRingBuffer buffer;
+    private final ExposureSink sink;
+    private final int batchSize;
+    private final long dedupWindowMillis;
+    private final long idleParkNanos;
+    private final Map<DedupKey, Long> lastSeen = new HashMap<>();
+    private final DedupKey probe = new DedupKey();
+    private final LongAdder activeWriters = new LongAdder();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder sinkFailures = new LongAdder();
+    private final Thread consumer;
+
+    private volatile boolean running = true;
+    private long lastEviction;
+
+    /**
+     * Constructs and starts a new exposure pipeline.
+     *
+     * @param sink              the sink receiving deduplicated batches
+     * @param bufferCapacity    the number of exposures that can be pending before new ones are dropped
+     * @param batchSize         the maximum number of exposures handed to the sink at once
+     * @param dedupWindow       the window within which repeated exposures are suppressed (0 to disable)
+     * @param flushInterval     how long the consumer waits when the buffer is empty
+     * @param timeUnit          the time unit for {@code dedupWindow} and {@code flushInterval}
+     * @throws IllegalArgumentException if {@code batchSize} is not positive or the capacity is out of range
+     */
+    public ExposurePipeline(ExposureSink sink,
+                            int bufferCapacity,
+                            int batchSize,
+                            long dedupWindow,
+                            long flushInterval,
+                            TimeUnit timeUnit) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.buffer = new ExposureRingBuffer(bufferCapacity);
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.dedupWindowMillis = timeUnit.toMillis(dedupWindow);
+        this.idleParkNanos = Math.max(1L, timeUnit.toNanos(flushInterval));
+        this.consumer = new Thread(this::consumeLoop, "flick-exposure");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Records that the given subject was served the given value.
+     * Never blocks; drops the exposure if the buffer is full or the pipeline is closed.
+     *
+     * @param flagKey   the evaluated flag key
+     * @param subjectId the subject that saw the value
+     * @param value     the value that was served
+     * @return {@code true} if the exposure was accepted, {@code false} if it was dropped
+     */
+    public boolean record(String flagKey, String subjectId, FlagValue value) {
+        activeWriters.increment();
+        try {
+            if (running && buffer.offer(flagKey, subjectId, value, System.currentTimeMillis())) {
+                recorded.increment();
+                return true;
+            }
+        } finally {
+            activeWriters.decrement();
+        }
+
+        dropped.increment();
+        if (FlickMetrics.isEnabled()) {
+            FlickMetrics.registry().counter(FlickMetrics.EXPOSURES_DROPPED).increment();
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of exposures accepted into the buffer.
+     *
+     * @return the accepted count
+     */
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    /**
+     * Returns the number of exposures dropped because the buffer was full or the pipeline closed.
+     *
+     * @return the dropped count
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of exposures suppressed as repeats within the deduplication window.
+     *
+     * @return the deduplicated count
+     */
+    public long getDeduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    /**
+     * Returns the number of batches the sink failed to write.
+     *
+     * @return the sink failure count
+     */
+    public long getSinkFailureCount() {
+        return sinkFailures.sum();
+    }
+
+    /**
+     * Returns an estimate of the number of exposures waiting to be drained.
+     *
+     * @return the approximate number of pending exposures
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Stops accepting exposures, drains everything still pending to the sink and closes it.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consumeLoop() {
+        List<Exposure> drained = new ArrayList<>(batchSize);
+        List<Exposure> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            if (drainBatch(drained, batch) == 0) {
+                LockSupport.parkNanos(this, idleParkNanos);
+            }
+        }
+
+        // A writer that saw running before close may still be appending; wait for it before the final drain
+        while (activeWriters.sum() != 0) {
+            Thread.yield();
+        }
+        while (drainBatch(drained, batch) > 0) {
+            // flush whatever was appended before close
+        }
+        sink.close();
+    }
+
+    private int drainBatch(List<Exposure> drained, List<Exposure> batch) {
+        drained.clear();
+        int count = buffer.drainTo(drained, batchSize);
+        if (count == 0) return 0;
+
+        batch.clear();
+        long now = System.currentTimeMillis();
+        for (Exposure exposure : drained) {
+            if (isFirstInWindow(exposure)) {
+                batch.add(exposure);
+            } else {
+                deduplicated.increment();
+            }
+        }
+        evictExpired(now);
+
+        if (!batch.isEmpty()) {
+            try {
+                sink.write(batch);
+            } catch (RuntimeException e) {
+                sinkFailures.increment();
+            }
+        }
+        return count;
+    }
+
+    private boolean isFirstInWindow(Exposure exposure) {
+        if (dedupWindowMillis <= 0) return true;
+
+        long timestamp = exposure.getTimestampMillis();
+        probe.set(exposure.getSubjectId(), exposure.getFlagKey(), exposure.getValue());
+        Long previous = lastSeen.get(probe);
+        if (previous != null && timestamp - previous < dedupWindowMillis) {
+            return false;
+        }
+        // Replacing an entry keeps its key, so the probe only needs copying for a new one
+        lastSeen.put(previous != null ? probe : probe.copy(), timestamp);
+        return true;
+    }
+
+    private void evictExpired(long now) {
+        if (dedupWindowMillis <= 0 || now - lastEviction < dedupWindowMillis) return;
+
+        lastEviction = now;
+        Iterator<Long> it = lastSeen.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next() >= dedupWindowMillis) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Identifies repeated exposures. One instance is reused to probe the map, so only the first
+     * exposure of a (subject, flag, value) allocates a key.
+     */
+    private static final class DedupKey {
+        private String subjectId;
+        private String flagKey;
+        private FlagValue value;
+        private int hash;
+
+        void set(String subjectId, String flagKey, FlagValue value) {
+            this.subjectId = subjectId;
+            this.flagKey = flagKey;
+            this.value = value;
+            this.hash = (Objects.hashCode(subjectId) * 31 + flagKey.hashCode()) * 31 + Objects.hashCode(value);
+        }
+
+        DedupKey copy() {
+            DedupKey copy = new DedupKey();
+            copy.subjectId = subjectId;
+            copy.flagKey = flagKey;
+            copy.value = value;
+            copy.hash = hash;
+            return copy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DedupKey)) return false;
+            DedupKey other = (DedupKey) o;
+            return hash == other.hash
+                    && flagKey.equals(other.flagKey)
+                    && Objects.equals(subjectId, other.subjectId)
+                    && Objects.equals(value, other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
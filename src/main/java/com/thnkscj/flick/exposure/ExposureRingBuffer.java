@@ -0,0 +1,137 @@
+package com.thnkscj.flick.exposure;
+
+import com.thnkscj.flick.core.FlagValue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free, multi-producer single-consumer ring buffer of exposure slots.
+ * <p>
+ * Slots are preallocated as parallel arrays and every slot carries a sequence number, so producers
+ * claim a slot with a single CAS and publish it with an ordered write, without locks or allocation.
+ * When the buffer is full, {@link #offer} fails immediately instead of waiting for the consumer.
+ * </p>
+ * <p>
+ * Only one thread may call {@link #drainTo(List, int)} at a time.
+ * </p>
+ */
+public final class ExposureRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final String[] flagKeys;
+    private final String[] subjectIds;
+    private final FlagValue[] values;
+    private final long[] timestamps;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * Constructs a ring buffer with at least the given capacity, rounded up to a power of two
+     * and to at least two slots. With a single slot, a published slot would carry the same
+     * sequence as a free slot of the next lap, so a second offer could overwrite it unread.
+     *
+     * @param requestedCapacity the minimum number of slots
+     */
+    public ExposureRingBuffer(int requestedCapacity) {
+        if (requestedCapacity <= 0 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + requestedCapacity);
+        }
+        this.capacity = requestedCapacity <= 2 ? 2 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.flagKeys = new String[capacity];
+        this.subjectIds = new String[capacity];
+        this.values = new FlagValue[capacity];
+        this.timestamps = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Attempts to append an exposure without blocking.
+     *
+     * @param flagKey         the evaluated flag key
+     * @param subjectId       the subject that saw the value
+     * @param value           the value that was served
+     * @param timestampMillis the wall-clock time of the evaluation
+     * @return {@code true} if the exposure was appended, {@code false} if the buffer is full
+     */
+    public boolean offer(String flagKey, String subjectId, FlagValue value, long timestampMillis) {
+        long position = tail.get();
+        int index;
+        for (;;) {
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+
+        flagKeys[index] = flagKey;
+        subjectIds[index] = subjectId;
+        values[index] = value;
+        timestamps[index] = timestampMillis;
+        sequences.lazySet(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Moves up to {@code maxElements} published exposures into the given list, in append order.
+     *
+     * @param batch       the list to add drained exposures to
+     * @param maxElements the maximum number of exposures to drain
+     * @return the number of exposures drained
+     */
+    public int drainTo(List<Exposure> batch, int maxElements) {
+        long position = head;
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+
+            batch.add(new Exposure(flagKeys[index], subjectIds[index], values[index], timestamps[index]));
+            flagKeys[index] = null;
+            subjectIds[index] = null;
+            values[index] = null;
+            sequences.lazySet(index, position + capacity);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * Returns an estimate of the number of exposures waiting to be drained.
+     *
+     * @return the approximate number of pending exposures
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    /**
+     * Returns the number of slots in this buffer.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+}
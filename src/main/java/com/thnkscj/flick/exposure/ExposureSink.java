@@ -0,0 +1,23 @@
+package com.thnkscj.flick.exposure;
+
+import java.util.List;
+
+/**
+ * Destination for batches of {@link Exposure} records drained by an {@link ExposurePipeline}.
+ * Sinks are only ever called from the pipeline's consumer thread.
+ */
+public interface ExposureSink {
+
+    /**
+     * Writes a batch of exposures. The list is only valid for the duration of the call.
+     *
+     * @param batch the exposures to write, never empty
+     */
+    void write(List<Exposure> batch);
+
+    /**
+     * Flushes and releases any resources held by the sink.
+     * Default implementation is a no-op.
+     */
+    default void close() {}
+}
@@ -0,0 +1,95 @@
+package com.thnkscj.flick.exposure;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * An {@link ExposureSink} that appends exposures to a file as JSON lines, one object per exposure:
+ * <pre>{"ts":1700000000000,"flag":"newCheckout","subject":"user-42","value":"true"}</pre>
+ * The file is flushed after every batch.
+ */
+public class FileExposureSink implements ExposureSink {
+
+    private final Path path;
+    private final BufferedWriter writer;
+    private final StringBuilder line = new StringBuilder(128);
+
+    /**
+     * Opens the given file for appending, creating it if it does not exist.
+     *
+     * @param path the file to append exposures to
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public FileExposureSink(Path path) {
+        this.path = path;
+        try {
+            this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open exposure file " + path, e);
+        }
+    }
+
+    @Override
+    public void write(List<Exposure> batch) {
+        try {
+            for (Exposure exposure : batch) {
+                line.setLength(0);
+                line.append("{\"ts\":").append(exposure.getTimestampMillis());
+                line.append(",\"flag\":");
+                appendQuoted(exposure.getFlagKey());
+                line.append(",\"subject\":");
+                appendQuoted(exposure.getSubjectId());
+                line.append(",\"value\":");
+                appendQuoted(exposure.getValue() != null ? exposure.getValue().asString(null) : null);
+                line.append('}');
+                writer.write(line.toString());
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write exposures to " + path, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close exposure file " + path, e);
+        }
+    }
+
+    private void appendQuoted(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,102 @@
+package com.thnkscj.flick.jfr;
+
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagValue;
+
+/**
+ * Entry point for emitting Java Flight Recorder events from flick.
+ * <p>
+ * This is the Java 8 implementation, in which every method is a no-op that the JIT removes entirely.
+ * On Java 11 and later the multi-release jar supplies a replacement from
+ * {@code META-INF/versions/11} that emits {@code jdk.jfr} events, only paying for an event
+ * when a recording has it enabled.
+ * </p>
+ * <p>
+ * Call sites follow a begin/end pattern: {@code beginXxx()} returns an opaque token,
+ * which is {@code null} when the event is disabled, and must be handed back to the matching
+ * {@code endXxx(...)} call.
+ * </p>
+ */
+public final class FlickEvents {
+
+    private FlickEvents() {}
+
+    /**
+     * Marks the start of a flag evaluation.
+     *
+     * @return an event token, or {@code null} if the event is disabled
+     */
+    public static Object beginEvaluation() {
+        return null;
+    }
+
+    /**
+     * Marks the end of a flag evaluation. Committed only if it exceeded the configured threshold.
+     *
+     * @param token    the token returned by {@link #beginEvaluation()}
+     * @param provider the provider that served the evaluation
+     * @param key      the evaluated flag key
+     * @param value    the resolved value, may be null
+     */
+    public static void endEvaluation(Object token, FeatureFlagProvider provider, String key, FlagValue value) {
+    }
+
+    /**
+     * Marks the start of a cache miss load.
+     *
+     * @return an event token, or {@code null} if the event is disabled
+     */
+    public static Object beginCacheLoad() {
+        return null;
+    }
+
+    /**
+     * Marks the end of a cache miss load.
+     *
+     * @param token the token returned by {@link #beginCacheLoad()}
+     * @param key   the loaded flag key
+     * @param value the loaded value, may be null
+     */
+    public static void endCacheLoad(Object token, String key, FlagValue value) {
+    }
+
+    /**
+     * Marks the start of a refresh cycle.
+     *
+     * @return an event token, or {@code null} if the event is disabled
+     */
+    public static Object beginRefresh() {
+        return null;
+    }
+
+    /**
+     * Marks the end of a refresh cycle.
+     *
+     * @param token    the token returned by {@link #beginRefresh()}
+     * @param provider the provider that was refreshed
+     * @param keyCount the number of flags loaded by the refresh
+     * @param success  whether the refresh completed without throwing
+     */
+    public static void endRefresh(Object token, Object provider, int keyCount, boolean success) {
+    }
+
+    /**
+     * Marks the start of a listener dispatch batch.
+     *
+     * @return an event token, or {@code null} if the event is disabled
+     */
+    public static Object beginListenerDispatch() {
+        return null;
+    }
+
+    /**
+     * Marks the end of a listener dispatch batch.
+     *
+     * @param token         the token returned by {@link #beginListenerDispatch()}
+     * @param source        the component dispatching the notifications
+     * @param key           the changed flag key
+     * @param listenerCount the number of listeners notified
+     */
+    public static void endListenerDispatch(Object token, Object source, String key, int listenerCount) {
+    }
+}
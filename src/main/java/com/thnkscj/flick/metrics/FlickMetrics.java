@@ -0,0 +1,237 @@
+package com.thnkscj.flick.metrics;
+
+import com.thnkscj.flick.core.FeatureFlagProvider;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Central entry point for flick's built-in instrumentation.
+ * <p>
+ * Metrics are disabled by default. While disabled, every instrumented call site costs a single
+ * read of a volatile flag and records nothing. Once enabled, evaluations, cache activity,
+ * refresh cycles and listener backlog are recorded into a shared {@link MetricsRegistry},
+ * which can be exported through JMX ({@link #registerMBean()}) or pushed to
+ * {@link MetricsSink}s on a fixed schedule ({@link #startPublishing(long, TimeUnit)}).
+ * </p>
+ */
+public final class FlickMetrics {
+
+    /** Total number of {@code FeatureFlags.get} calls. */
+    public static final String EVALUATIONS = "flick.evaluations";
+    /** Prefix of the per-provider evaluation counters, followed by the provider's fully qualified class name. */
+    public static final String PROVIDER_EVALUATIONS_PREFIX = "flick.evaluations.provider.";
+    /** Cache lookups served from the cache. */
+    public static final String CACHE_HITS = "flick.cache.hits";
+    /** Cache lookups that had to invoke the loader. */
+    public static final String CACHE_MISSES = "flick.cache.misses";
+    /** Latency of cache loads, i.e. of delegate {@code getValue} calls made on a miss. */
+    public static final String CACHE_LOAD_LATENCY = "flick.cache.load.latency";
+    /** Cache loads that threw. */
+    public static final String CACHE_LOAD_FAILURES = "flick.cache.load.failures";
+    /** Latency of full cache refresh cycles. */
+    public static final String REFRESH_LATENCY = "flick.refresh.latency";
+    /** Refresh cycles that threw. */
+    public static final String REFRESH_FAILURES = "flick.refresh.failures";
+    /** Composite lookups that skipped a layer because its circuit breaker was open. */
+    public static final String COMPOSITE_LAYER_SKIPS = "flick.composite.layer.skips";
+    /** Composite layer calls that threw. */
+    public static final String COMPOSITE_LAYER_FAILURES = "flick.composite.layer.failures";
+    /** Latency of individual composite layer calls made under a circuit breaker. */
+    public static final String COMPOSITE_LAYER_LATENCY = "flick.composite.layer.latency";
+    /** Times a composite layer's circuit breaker opened. */
+    public static final String COMPOSITE_CIRCUIT_OPENS = "flick.composite.circuit.opens";
+    /** Exposures dropped because the exposure buffer was full. */
+    public static final String EXPOSURES_DROPPED = "flick.exposures.dropped";
+    /** Number of change notifications waiting to be dispatched to global listeners. */
+    public static final String LISTENER_QUEUE_DEPTH = "flick.listener.queue.depth";
+
+    /** JMX object name under which {@link #registerMBean()} registers the metrics bean. */
+    public static final String OBJECT_NAME = "com.thnkscj.flick:type=Metrics";
+
+    private static final MetricsRegistry REGISTRY = new MetricsRegistry();
+    private static final List<MetricsSink> sinks = new CopyOnWriteArrayList<>();
+
+    // Named counters are never removed from the registry, so references to them can be held
+    private static final LongAdder EVALUATION_COUNTER = REGISTRY.counter(EVALUATIONS);
+    private static final LongAdder CACHE_HIT_COUNTER = REGISTRY.counter(CACHE_HITS);
+    private static final LongAdder CACHE_MISS_COUNTER = REGISTRY.counter(CACHE_MISSES);
+    private static final ClassValue<LongAdder> PROVIDER_COUNTERS = new ClassValue<LongAdder>() {
+        @Override
+        protected LongAdder computeValue(Class<?> type) {
+            return REGISTRY.counter(PROVIDER_EVALUATIONS_PREFIX + type.getName());
+        }
+    };
+
+    private static volatile boolean enabled = false;
+    private static ScheduledExecutorService publisher;
+
+    private FlickMetrics() {}
+
+    /**
+     * Returns whether metrics are currently being recorded.
+     * Instrumented call sites check this before doing any work.
+     *
+     * @return {@code true} if metrics are enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts recording metrics.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Stops recording metrics. Values recorded so far are kept.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Returns the shared registry that all built-in instrumentation records into.
+     *
+     * @return the global {@link MetricsRegistry}
+     */
+    public static MetricsRegistry registry() {
+        return REGISTRY;
+    }
+
+    /**
+     * Records one evaluation of the given key against the given provider.
+     * Callers are expected to check {@link #isEnabled()} first.
+     *
+     * @param provider the provider that served the evaluation
+     * @param key      the evaluated flag key
+     */
+    public static void recordEvaluation(FeatureFlagProvider provider, String key) {
+        EVALUATION_COUNTER.increment();
+        PROVIDER_COUNTERS.get(provider.getClass()).increment();
+        REGISTRY.keyCounter(key).increment();
+    }
+
+    /**
+     * Records one cache lookup. Callers are expected to check {@link #isEnabled()} first.
+     *
+     * @param hit {@code true} if the lookup was served from the cache
+     */
+    public static void recordCacheLookup(boolean hit) {
+        (hit ? CACHE_HIT_COUNTER : CACHE_MISS_COUNTER).increment();
+    }
+
+    /**
+     * Adds a sink that receives a snapshot every time metrics are published.
+     *
+     * @param sink the {@link MetricsSink} to add
+     */
+    public static void addSink(MetricsSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Removes a previously added sink.
+     *
+     * @param sink the {@link MetricsSink} to remove
+     */
+    public static void removeSink(MetricsSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Takes a snapshot and hands it to every registered sink.
+     * A failing sink does not prevent the others from receiving the snapshot.
+     */
+    public static void publish() {
+        if (sinks.isEmpty()) return;
+
+        MetricsSnapshot snapshot = REGISTRY.snapshot();
+        for (MetricsSink sink : sinks) {
+            try {
+                sink.publish(snapshot);
+            } catch (RuntimeException ignored) {
+                // a broken sink must not stop the others or kill the publisher thread
+            }
+        }
+    }
+
+    /**
+     * Publishes to all sinks at a fixed rate from a daemon thread named "flick-metrics".
+     * Replaces any schedule started previously.
+     *
+     * @param period   the publishing period
+     * @param timeUnit the time unit of the period
+     */
+    public static synchronized void startPublishing(long period, TimeUnit timeUnit) {
+        stopPublishing();
+        publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "flick-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        publisher.scheduleAtFixedRate(FlickMetrics::publish, period, period, timeUnit);
+    }
+
+    /**
+     * Stops scheduled publishing, if running.
+     */
+    public static synchronized void stopPublishing() {
+        if (publisher != null) {
+            publisher.shutdownNow();
+            publisher = null;
+        }
+    }
+
+    /**
+     * Registers the metrics MXBean with the platform MBean server under {@link #OBJECT_NAME}.
+     * Registering twice is a no-op.
+     *
+     * @throws IllegalStateException if the bean cannot be registered
+     */
+    public static void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new FlickMetricsJmx(REGISTRY), objectName());
+        } catch (InstanceAlreadyExistsException ignored) {
+            // already registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register flick metrics MBean", e);
+        }
+    }
+
+    /**
+     * Unregisters the metrics MXBean from the platform MBean server, if registered.
+     */
+    public static void unregisterMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName());
+        } catch (InstanceNotFoundException ignored) {
+            // not registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to unregister flick metrics MBean", e);
+        }
+    }
+
+    private static ObjectName objectName() {
+        try {
+            return new ObjectName(OBJECT_NAME);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
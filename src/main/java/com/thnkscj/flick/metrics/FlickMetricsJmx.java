@@ -0,0 +1,106 @@
+package com.thnkscj.flick.metrics;
+
+import java.util.Map;
+
+/**
+ * {@link FlickMetricsMXBean} implementation reading from a {@link MetricsRegistry}.
+ */
+class FlickMetricsJmx implements FlickMetricsMXBean {
+
+    private final MetricsRegistry registry;
+
+    FlickMetricsJmx(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return FlickMetrics.isEnabled();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        if (enabled) {
+            FlickMetrics.enable();
+        } else {
+            FlickMetrics.disable();
+        }
+    }
+
+    @Override
+    public long getEvaluationCount() {
+        return registry.counterValue(FlickMetrics.EVALUATIONS);
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return registry.counterValue(FlickMetrics.CACHE_HITS);
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        return registry.counterValue(FlickMetrics.CACHE_MISSES);
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        long hits = getCacheHitCount();
+        long total = hits + getCacheMissCount();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public long getCacheLoadFailureCount() {
+        return registry.counterValue(FlickMetrics.CACHE_LOAD_FAILURES);
+    }
+
+    @Override
+    public long getCacheLoadP99Nanos() {
+        return registry.histogram(FlickMetrics.CACHE_LOAD_LATENCY).getValueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getRefreshCount() {
+        return registry.histogram(FlickMetrics.REFRESH_LATENCY).getCount();
+    }
+
+    @Override
+    public long getRefreshFailureCount() {
+        return registry.counterValue(FlickMetrics.REFRESH_FAILURES);
+    }
+
+    @Override
+    public long getRefreshP50Nanos() {
+        return registry.histogram(FlickMetrics.REFRESH_LATENCY).getValueAtQuantile(0.50);
+    }
+
+    @Override
+    public long getRefreshP99Nanos() {
+        return registry.histogram(FlickMetrics.REFRESH_LATENCY).getValueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getRefreshMaxNanos() {
+        return registry.histogram(FlickMetrics.REFRESH_LATENCY).snapshot().getMax();
+    }
+
+    @Override
+    public long getListenerQueueDepth() {
+        return registry.gaugeValue(FlickMetrics.LISTENER_QUEUE_DEPTH);
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        return registry.snapshot().getCounters();
+    }
+
+    @Override
+    public Map<String, Long> getKeyEvaluationCounts() {
+        return registry.snapshot().getKeyEvaluations();
+    }
+
+    @Override
+    public void reset() {
+        registry.reset();
+    }
+}
@@ -0,0 +1,64 @@
+package com.thnkscj.flick.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX management interface exposing flick's built-in metrics.
+ * Latencies are reported in nanoseconds.
+ *
+ * @see FlickMetrics#registerMBean()
+ */
+public interface FlickMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getEvaluationCount();
+
+    long getCacheHitCount();
+
+    long getCacheMissCount();
+
+    /**
+     * Returns the fraction of cache lookups served from the cache.
+     *
+     * @return the hit ratio in {@code [0.0, 1.0]}, or 0 if the cache has not been used
+     */
+    double getCacheHitRatio();
+
+    long getCacheLoadFailureCount();
+
+    long getCacheLoadP99Nanos();
+
+    long getRefreshCount();
+
+    long getRefreshFailureCount();
+
+    long getRefreshP50Nanos();
+
+    long getRefreshP99Nanos();
+
+    long getRefreshMaxNanos();
+
+    long getListenerQueueDepth();
+
+    /**
+     * Returns every counter in the registry, including per-provider evaluation counts.
+     *
+     * @return counter values by metric name
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Returns evaluation counts by flag key.
+     *
+     * @return evaluation counts by flag key
+     */
+    Map<String, Long> getKeyEvaluationCounts();
+
+    /**
+     * Resets all counters and histograms.
+     */
+    void reset();
+}
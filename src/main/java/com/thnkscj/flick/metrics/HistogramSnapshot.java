@@ -0,0 +1,80 @@
+package com.thnkscj.flick.metrics;
+
+/**
+ * Immutable point-in-time view of a {@link LatencyHistogram}.
+ * All values are expressed in the unit that was recorded, nanoseconds for flick's built-in metrics.
+ */
+public final class HistogramSnapshot {
+    private final long count;
+    private final double mean;
+    private final long max;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+
+    /**
+     * Constructs a new histogram snapshot.
+     *
+     * @param count the number of recorded values
+     * @param mean  the arithmetic mean of recorded values
+     * @param max   the largest recorded value
+     * @param p50   the median
+     * @param p90   the 90th percentile
+     * @param p99   the 99th percentile
+     * @param p999  the 99.9th percentile
+     */
+    public HistogramSnapshot(long count, double mean, long max, long p50, long p90, long p99, long p999) {
+        this.count = count;
+        this.mean = mean;
+        this.max = max;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    /**
+     * Returns a string representation of the {@code HistogramSnapshot}.
+     */
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{" +
+                "count=" + count +
+                ", mean=" + mean +
+                ", max=" + max +
+                ", p50=" + p50 +
+                ", p90=" + p90 +
+                ", p99=" + p99 +
+                ", p999=" + p999 +
+                '}';
+    }
+}
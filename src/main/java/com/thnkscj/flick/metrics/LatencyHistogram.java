@@ -0,0 +1,154 @@
+package com.thnkscj.flick.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram using HDR-style log-linear bucketing.
+ * <p>
+ * Values are grouped into power-of-two ranges, each split into {@value #SUB_BUCKET_COUNT}
+ * linear sub-buckets, which bounds the relative error of any reported percentile to roughly 3%
+ * while keeping the footprint fixed regardless of how many values are recorded.
+ * Recording is a handful of arithmetic operations and a single atomic increment.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * Number of linear sub-buckets per power-of-two range.
+     */
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Records a single value, typically a duration in nanoseconds.
+     * Negative values are recorded as zero.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        buckets.getAndIncrement(indexOf(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * Records the time elapsed since the given {@link System#nanoTime()} start mark.
+     *
+     * @param startNanos the start mark obtained from {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the number of values recorded so far.
+     *
+     * @return the total count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the value below which the given fraction of recorded values fall.
+     * The result is the highest value equivalent to the bucket containing that rank.
+     *
+     * @param quantile the quantile in the range {@code [0.0, 1.0]}
+     * @return the value at the given quantile, or 0 if nothing has been recorded
+     */
+    public long getValueAtQuantile(double quantile) {
+        long[] counts = copyBuckets();
+        return valueAtQuantile(counts, totalOf(counts), quantile);
+    }
+
+    /**
+     * Takes a point-in-time snapshot of this histogram.
+     * Concurrent recordings may or may not be reflected in the result.
+     *
+     * @return an immutable {@link HistogramSnapshot}
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = copyBuckets();
+        long total = totalOf(counts);
+        long maxValue = max.get();
+        double mean = total == 0 ? 0.0 : (double) sum.sum() / total;
+        return new HistogramSnapshot(total, mean, maxValue,
+                Math.min(maxValue, valueAtQuantile(counts, total, 0.50)),
+                Math.min(maxValue, valueAtQuantile(counts, total, 0.90)),
+                Math.min(maxValue, valueAtQuantile(counts, total, 0.99)),
+                Math.min(maxValue, valueAtQuantile(counts, total, 0.999)));
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0L);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    private long[] copyBuckets() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    private static long totalOf(long[] counts) {
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        return total;
+    }
+
+    private static long valueAtQuantile(long[] counts, long total, double quantile) {
+        if (total == 0) return 0L;
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return highestEquivalentValue(counts.length - 1);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long lowest = (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,183 @@
+package com.thnkscj.flick.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe registry of named counters, gauges and latency histograms.
+ * <p>
+ * Counters are striped {@link LongAdder}s so concurrent increments from many reader threads
+ * do not contend on a single cache line. Metrics are created on first use and live for the
+ * lifetime of the registry; lookups of existing metrics do not allocate.
+ * </p>
+ * <p>
+ * Per-key evaluation counters are capped at {@link #getMaxKeyCounters()} distinct keys, so an
+ * unbounded key space cannot grow the registry without limit. Evaluations of keys beyond the
+ * cap are counted together under {@link #KEY_OVERFLOW}.
+ * </p>
+ */
+public final class MetricsRegistry {
+
+    /** Default cap on the number of distinct per-key evaluation counters. */
+    public static final int DEFAULT_MAX_KEY_COUNTERS = 1_000;
+
+    /** Counter of evaluations of keys that did not get a counter of their own because the cap was reached. */
+    public static final String KEY_OVERFLOW = "flick.evaluations.key.overflow";
+
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> keyEvaluations = new ConcurrentHashMap<>();
+    private final AtomicInteger keyCount = new AtomicInteger();
+    private volatile int maxKeyCounters = DEFAULT_MAX_KEY_COUNTERS;
+
+    /**
+     * Returns the counter with the given name, creating it if necessary.
+     *
+     * @param name the counter name
+     * @return the {@link LongAdder} backing the counter
+     */
+    public LongAdder counter(String name) {
+        LongAdder adder = counters.get(name);
+        return adder != null ? adder : counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /**
+     * Returns the evaluation counter for the given flag key, creating it if necessary.
+     * Per-key counters are kept apart from named counters so they can be reported separately.
+     * Once {@link #getMaxKeyCounters()} keys have counters, new keys share the
+     * {@link #KEY_OVERFLOW} counter instead.
+     *
+     * @param key the flag key
+     * @return the {@link LongAdder} counting evaluations of that key
+     */
+    public LongAdder keyCounter(String key) {
+        LongAdder adder = keyEvaluations.get(key);
+        if (adder != null) {
+            return adder;
+        }
+        if (keyCount.get() < maxKeyCounters) {
+            adder = keyEvaluations.computeIfAbsent(key, k -> {
+                // Reserve a slot atomically, so concurrent first lookups of different keys cannot exceed the cap
+                if (keyCount.incrementAndGet() > maxKeyCounters) {
+                    keyCount.decrementAndGet();
+                    return null;
+                }
+                return new LongAdder();
+            });
+        }
+        return adder != null ? adder : counter(KEY_OVERFLOW);
+    }
+
+    /**
+     * Sets the cap on distinct per-key evaluation counters. Existing counters are kept;
+     * {@code 0} counts every key under {@link #KEY_OVERFLOW}.
+     *
+     * @param maxKeyCounters the maximum number of per-key counters
+     * @throws IllegalArgumentException if {@code maxKeyCounters} is negative
+     */
+    public void setMaxKeyCounters(int maxKeyCounters) {
+        if (maxKeyCounters < 0) {
+            throw new IllegalArgumentException("maxKeyCounters must not be negative: " + maxKeyCounters);
+        }
+        this.maxKeyCounters = maxKeyCounters;
+    }
+
+    /**
+     * Returns the cap on distinct per-key evaluation counters.
+     *
+     * @return the maximum number of per-key counters, {@link #DEFAULT_MAX_KEY_COUNTERS} unless changed
+     */
+    public int getMaxKeyCounters() {
+        return maxKeyCounters;
+    }
+
+    /**
+     * Returns the histogram with the given name, creating it if necessary.
+     *
+     * @param name the histogram name
+     * @return the {@link LatencyHistogram}
+     */
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram : histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a gauge whose value is sampled from the supplier at snapshot time.
+     * Replaces any gauge previously registered under the same name.
+     *
+     * @param name     the gauge name
+     * @param supplier supplies the current reading
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Removes a previously registered gauge.
+     *
+     * @param name the gauge name
+     */
+    public void removeGauge(String name) {
+        gauges.remove(name);
+    }
+
+    /**
+     * Returns the current value of the named counter, or 0 if it does not exist.
+     *
+     * @param name the counter name
+     * @return the current counter value
+     */
+    public long counterValue(String name) {
+        LongAdder adder = counters.get(name);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    /**
+     * Returns the current reading of the named gauge, or 0 if it does not exist.
+     *
+     * @param name the gauge name
+     * @return the current gauge reading
+     */
+    public long gaugeValue(String name) {
+        LongSupplier supplier = gauges.get(name);
+        return supplier != null ? supplier.getAsLong() : 0L;
+    }
+
+    /**
+     * Takes a point-in-time snapshot of every metric in this registry.
+     *
+     * @return an immutable {@link MetricsSnapshot}
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, adder) -> counterValues.put(name, adder.sum()));
+
+        Map<String, Long> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, supplier) -> gaugeValues.put(name, supplier.getAsLong()));
+
+        Map<String, HistogramSnapshot> histogramValues = new TreeMap<>();
+        histograms.forEach((name, histogram) -> histogramValues.put(name, histogram.snapshot()));
+
+        Map<String, Long> keyValues = new TreeMap<>();
+        keyEvaluations.forEach((key, adder) -> keyValues.put(key, adder.sum()));
+
+        return new MetricsSnapshot(System.currentTimeMillis(), counterValues, gaugeValues, histogramValues, keyValues);
+    }
+
+    /**
+     * Resets every counter and histogram to zero and drops the per-key counters. Gauges are left registered.
+     */
+    public void reset() {
+        counters.values().forEach(LongAdder::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+        keyEvaluations.clear();
+        keyCount.set(0);
+    }
+}
@@ -0,0 +1,17 @@
+package com.thnkscj.flick.metrics;
+
+/**
+ * Functional interface for exporting metrics to an external system
+ * (e.g. a log, a time-series database or a monitoring agent).
+ * Sinks are invoked from the metrics publisher thread, never from the flag read path.
+ */
+@FunctionalInterface
+public interface MetricsSink {
+
+    /**
+     * Called with the latest snapshot each time metrics are published.
+     *
+     * @param snapshot the {@link MetricsSnapshot} to export
+     */
+    void publish(MetricsSnapshot snapshot);
+}
@@ -0,0 +1,92 @@
+package com.thnkscj.flick.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable point-in-time view of every metric held by a {@link MetricsRegistry}.
+ * Snapshots are what {@link MetricsSink}s receive and what the JMX bean reports.
+ */
+public final class MetricsSnapshot {
+    private final long timestampMillis;
+    private final Map<String, Long> counters;
+    private final Map<String, Long> gauges;
+    private final Map<String, HistogramSnapshot> histograms;
+    private final Map<String, Long> keyEvaluations;
+
+    /**
+     * Constructs a new metrics snapshot. The given maps are copied.
+     *
+     * @param timestampMillis the wall-clock time the snapshot was taken
+     * @param counters        counter values by metric name
+     * @param gauges          gauge readings by metric name
+     * @param histograms      histogram snapshots by metric name
+     * @param keyEvaluations  evaluation counts by flag key
+     */
+    public MetricsSnapshot(long timestampMillis,
+                           Map<String, Long> counters,
+                           Map<String, Long> gauges,
+                           Map<String, HistogramSnapshot> histograms,
+                           Map<String, Long> keyEvaluations) {
+        this.timestampMillis = timestampMillis;
+        this.counters = Collections.unmodifiableMap(new LinkedHashMap<>(counters));
+        this.gauges = Collections.unmodifiableMap(new LinkedHashMap<>(gauges));
+        this.histograms = Collections.unmodifiableMap(new LinkedHashMap<>(histograms));
+        this.keyEvaluations = Collections.unmodifiableMap(new LinkedHashMap<>(keyEvaluations));
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public Map<String, Long> getGauges() {
+        return gauges;
+    }
+
+    public Map<String, HistogramSnapshot> getHistograms() {
+        return histograms;
+    }
+
+    public Map<String, Long> getKeyEvaluations() {
+        return keyEvaluations;
+    }
+
+    /**
+     * Returns the value of the named counter, or 0 if it was never incremented.
+     *
+     * @param name the counter name
+     * @return the counter value
+     */
+    public long counter(String name) {
+        Long value = counters.get(name);
+        return value != null ? value : 0L;
+    }
+
+    /**
+     * Returns the snapshot of the named histogram, or {@code null} if nothing was recorded.
+     *
+     * @param name the histogram name
+     * @return the histogram snapshot, or {@code null}
+     */
+    public HistogramSnapshot histogram(String name) {
+        return histograms.get(name);
+    }
+
+    /**
+     * Returns a string representation of the {@code MetricsSnapshot}.
+     */
+    @Override
+    public String toString() {
+        return "MetricsSnapshot{" +
+                "timestampMillis=" + timestampMillis +
+                ", counters=" + counters +
+                ", gauges=" + gauges +
+                ", histograms=" + histograms +
+                '}';
+    }
+}
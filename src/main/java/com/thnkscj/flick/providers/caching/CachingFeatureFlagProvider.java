@@ -1,17 +1,26 @@
 package com.thnkscj.flick.providers.caching;
 
+import com.thnkscj.flick.core.AsyncFeatureFlagProvider;
 import com.thnkscj.flick.core.FeatureFlagProvider;
 import com.thnkscj.flick.core.FlagChangeListener;
 import com.thnkscj.flick.core.FlagValue;
 import com.thnkscj.flick.core.ObservableFeatureFlagProvider;
+import com.thnkscj.flick.jfr.FlickEvents;
+import com.thnkscj.flick.metrics.FlickMetrics;
 import com.thnkscj.flick.providers.caching.strategy.Cache;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 /**
  * A {@link FeatureFlagProvider} implementation that wraps another provider
@@ -20,13 +29,27 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * This is useful when the underlying provider is slow or expensive to query (e.g. network-based).
  * </p>
+ * <p>
+ * If the underlying provider is observable, its change events update the cache and are passed
+ * on to listeners as they happen, and a refresh only repopulates the cache. Otherwise a refresh
+ * notifies listeners of every flag it loads.
+ * </p>
+ * <p>
+ * The asynchronous methods complete immediately on a cache hit. Concurrent misses for the same
+ * key share a single in-flight load. Loads are non-blocking if the delegate implements
+ * {@link AsyncFeatureFlagProvider}; otherwise they run on the calling thread.
+ * </p>
  */
-public class CachingFeatureFlagProvider implements ObservableFeatureFlagProvider {
+public class CachingFeatureFlagProvider implements ObservableFeatureFlagProvider, AsyncFeatureFlagProvider {
 
     private final FeatureFlagProvider delegate;
+    private final AsyncFeatureFlagProvider asyncDelegate;
+    private final ConcurrentMap<String, CompletableFuture<FlagValue>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong cacheGeneration = new AtomicLong();
     private final Cache<String, FlagValue> flagCache;
     private final List<FlagChangeListener> listeners = new CopyOnWriteArrayList<>();
     private final ScheduledExecutorService scheduler;
+    private final boolean observableDelegate;
 
     /**
      * Constructs a new caching feature flag provider.
@@ -41,7 +64,9 @@ public class CachingFeatureFlagProvider implements ObservableFeatureFlagProvider
                                       long refreshInterval,
                                       TimeUnit timeUnit) {
         this.delegate = delegate;
+        this.asyncDelegate = AsyncFeatureFlagProvider.fromBlocking(delegate, Runnable::run);
         this.flagCache = cache;
+        this.observableDelegate = delegate instanceof ObservableFeatureFlagProvider;
         this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r, "flick-cache-refresh");
             t.setDaemon(true);
@@ -53,7 +78,7 @@ public class CachingFeatureFlagProvider implements ObservableFeatureFlagProvider
                     refreshInterval, refreshInterval, timeUnit);
         }
 
-        if (delegate instanceof ObservableFeatureFlagProvider) {
+        if (observableDelegate) {
             ((ObservableFeatureFlagProvider) delegate).addChangeListener(this::handleSourceChange);
         }
 
@@ -68,7 +93,7 @@ public class CachingFeatureFlagProvider implements ObservableFeatureFlagProvider
      */
     @Override
     public FlagValue getValue(String key) {
-        return flagCache.get(key, delegate::getValue);
+        return flagCache.get(key, this::loadFromDelegate);
     }
 
     /**
@@ -84,12 +109,102 @@ public class CachingFeatureFlagProvider implements ObservableFeatureFlagProvider
     }
 
     /**
-     * Refreshes the entire cache and underlying provider.
+     * Delegates directly to the underlying provider to visit every flag.
+     *
+     * @param action the visitor, called once per flag
+     */
+    @Override
+    public void forEachFlag(BiConsumer<? super String, ? super FlagValue> action) {
+        delegate.forEachFlag(action);
+    }
+
+    /**
+     * Delegates directly to the underlying provider to traverse every flag.
+     *
+     * @return a spliterator of flag entries
+     */
+    @Override
+    public Spliterator<Map.Entry<String, FlagValue>> flagSpliterator() {
+        return delegate.flagSpliterator();
+    }
+
+    /**
+     * Gets a flag value from the cache if present, completing immediately, or starts a load from
+     * the underlying provider. Concurrent calls for a key that is loading share the same future.
+     *
+     * @param key the flag key
+     * @return a future of the corresponding {@link FlagValue}
+     */
+    @Override
+    public CompletableFuture<FlagValue> getValueAsync(String key) {
+        FlagValue cached = flagCache.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<FlagValue> pending = inFlight.get(key);
+        if (pending != null) {
+            return pending;
+        }
+
+        CompletableFuture<FlagValue> load = new CompletableFuture<>();
+        pending = inFlight.putIfAbsent(key, load);
+        if (pending != null) {
+            return pending;
+        }
+
+        long generation = cacheGeneration.get();
+        Object event = FlickEvents.beginCacheLoad();
+        long start = FlickMetrics.isEnabled() ? System.nanoTime() : 0L;
+        asyncDelegate.getValueAsync(key).whenComplete((value, error) -> {
+            if (start != 0L) {
+                if (error != null) {
+                    FlickMetrics.registry().counter(FlickMetrics.CACHE_LOAD_FAILURES).increment();
+                }
+                FlickMetrics.registry().histogram(FlickMetrics.CACHE_LOAD_LATENCY).recordSince(start);
+            }
+            FlickEvents.endCacheLoad(event, key, value);
+            if (value != null && generation == cacheGeneration.get()) {
+                flagCache.put(key, value);
+            }
+            inFlight.remove(key, load);
+            if (error != null) {
+                load.completeExceptionally(error);
+            } else {
+                load.complete(value != null ? value : FlagValue.nullValue());
+            }
+        });
+        return load;
+    }
+
+    /**
+     * Delegates to the underlying provider to fetch child flags. Child values are not cached.
+     *
+     * @param prefix the prefix to search for
+     * @return a future of the child flag values
+     */
+    @Override
+    public CompletableFuture<Map<String, FlagValue>> getChildrenAsync(String prefix) {
+        return asyncDelegate.getChildrenAsync(prefix);
+    }
+
+    /**
+     * Refreshes the underlying provider and then repopulates the cache.
+     *
+     * @return a future that completes when the cache has been repopulated
+     */
+    @Override
+    public CompletableFuture<Void> refreshAsync() {
+        return asyncDelegate.refreshAsync().thenRun(this::refreshCache);
+    }
+
+    /**
+     * Refreshes the underlying provider and then repopulates the cache.
      */
     @Override
     public void refresh() {
-        refreshCache();
         delegate.refresh();
+        refreshCache();
     }
 
     /**
@@ -122,30 +237,93 @@ public class CachingFeatureFlagProvider implements ObservableFeatureFlagProvider
     }
 
     /**
-     * Clears and repopulates the cache from the underlying provider, and notifies listeners.
+     * Loads a missing value from the underlying provider, recording load latency and failures
+     * when metrics are enabled and emitting a flight recorder event when recording.
+     *
+     * @param key the flag key
+     * @return the value returned by the delegate
+     */
+    private FlagValue loadFromDelegate(String key) {
+        Object event = FlickEvents.beginCacheLoad();
+        FlagValue value = FlickMetrics.isEnabled() ? timedLoad(key) : delegate.getValue(key);
+        FlickEvents.endCacheLoad(event, key, value);
+        return value;
+    }
+
+    /**
+     * Loads a value from the underlying provider while recording its latency and failures.
+     *
+     * @param key the flag key
+     * @return the value returned by the delegate
+     */
+    private FlagValue timedLoad(String key) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getValue(key);
+        } catch (RuntimeException e) {
+            FlickMetrics.registry().counter(FlickMetrics.CACHE_LOAD_FAILURES).increment();
+            throw e;
+        } finally {
+            FlickMetrics.registry().histogram(FlickMetrics.CACHE_LOAD_LATENCY).recordSince(start);
+        }
+    }
+
+    /**
+     * Repopulates the cache, recording refresh latency and failures when metrics are enabled.
      */
     private void refreshCache() {
-        flagCache.invalidateAll();
+        boolean metrics = FlickMetrics.isEnabled();
+        long start = metrics ? System.nanoTime() : 0L;
+        Object event = FlickEvents.beginRefresh();
+        int keyCount = 0;
+        boolean success = false;
+        try {
+            keyCount = reloadCache();
+            success = true;
+        } finally {
+            FlickEvents.endRefresh(event, this, keyCount, success);
+            if (metrics) {
+                if (!success) {
+                    FlickMetrics.registry().counter(FlickMetrics.REFRESH_FAILURES).increment();
+                }
+                FlickMetrics.registry().histogram(FlickMetrics.REFRESH_LATENCY).recordSince(start);
+            }
+        }
+    }
 
-        Map<String, FlagValue> allFlags = delegate.getChildren("");
-        for (Map.Entry<String, FlagValue> entry : allFlags.entrySet()) {
-            String key = entry.getKey();
-            FlagValue value = entry.getValue();
+    /**
+     * Clears and repopulates the cache from the underlying provider. Listeners are notified of
+     * every loaded flag only if the underlying provider is not observable; otherwise they have
+     * already been told through {@link #handleSourceChange(String, FlagValue)}.
+     *
+     * @return the number of flags loaded into the cache
+     */
+    private int reloadCache() {
+        cacheGeneration.incrementAndGet();
+        flagCache.invalidateAll();
 
+        int[] loaded = new int[1];
+        delegate.forEachFlag((key, value) -> {
             flagCache.put(key, value);
-            notifyListeners(key, value);
-        }
+            if (!observableDelegate) {
+                notifyListeners(key, value);
+            }
+            loaded[0]++;
+        });
+        return loaded[0];
     }
 
     /**
-     * Handles flag change events from the source provider and notifies listeners.
-     * Note: changes from the delegate are not cached here to avoid stale data conflicts.
+     * Handles flag change events from the source provider: caches the new value, so listeners
+     * are never told of a value that {@link #getValue(String)} does not return, and notifies them.
+     * Asynchronous loads already in flight are discarded, since they may have read the old value.
      *
      * @param key      the changed flag key
      * @param newValue the new flag value
      */
     private void handleSourceChange(String key, FlagValue newValue) {
-        //flagCache.put(key, newValue); this line is commented out to avoid caching changes from the source
+        cacheGeneration.incrementAndGet();
+        flagCache.put(key, newValue != null ? newValue : FlagValue.nullValue());
         notifyListeners(key, newValue);
     }
 
@@ -156,8 +334,12 @@ public class CachingFeatureFlagProvider implements ObservableFeatureFlagProvider
      * @param value the new value
      */
     private void notifyListeners(String key, FlagValue value) {
+        Object event = FlickEvents.beginListenerDispatch();
+        int notified = 0;
         for (FlagChangeListener listener : listeners) {
             listener.onFlagChange(key, value);
+            notified++;
         }
+        FlickEvents.endListenerDispatch(event, this, key, notified);
     }
 }
@@ -0,0 +1,200 @@
+package com.thnkscj.flick.providers.caching.strategy;
+
+import com.thnkscj.flick.metrics.FlickMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache that holds at most a fixed number of entries, evicting the least
+ * recently used entry when full.
+ *
+ * <p>Entries are spread over independently locked segments by key hash, each with its own
+ * access-ordered {@link LinkedHashMap}, so concurrent lookups of different keys rarely contend.
+ * Eviction is per segment, which makes the recency order approximate across the whole cache.</p>
+ *
+ * <p>When {@link FlickMetrics} is enabled, hits and misses are counted in the global registry.</p>
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+public class BoundedCache<K, V> implements Cache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final Function<K, V> loader;
+    private final int maximumSize;
+
+    /**
+     * Constructs a new {@code BoundedCache} without a default loader.
+     *
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if {@code maximumSize} is not positive
+     */
+    public BoundedCache(int maximumSize) {
+        this(maximumSize, null);
+    }
+
+    /**
+     * Constructs a new {@code BoundedCache}.
+     *
+     * @param maximumSize the maximum number of entries
+     * @param loader      the default function used to compute a value for a key if not present, may be null
+     * @throws IllegalArgumentException if {@code maximumSize} is not positive
+     */
+    public BoundedCache(int maximumSize, Function<K, V> loader) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.loader = loader;
+
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maximumSize));
+        @SuppressWarnings("unchecked")
+        Segment<K, V>[] created = (Segment<K, V>[]) new Segment<?, ?>[count];
+        int perSegment = maximumSize / count;
+        for (int i = 0; i < count; i++) {
+            created[i] = new Segment<>(perSegment + (i < maximumSize % count ? 1 : 0));
+        }
+        segments = created;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, computing and caching
+     * it using the provided loader if necessary. The loader runs outside the segment lock,
+     * so concurrent misses on the same key may each compute it.
+     *
+     * @param key            the key whose associated value is to be returned
+     * @param loaderOverride an optional override loader (if {@code null}, the default loader is used)
+     * @return the current (existing or computed) value associated with the specified key
+     */
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loaderOverride) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Function<? super K, ? extends V> effectiveLoader = loaderOverride != null ? loaderOverride : loader;
+        V value = effectiveLoader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value cached for the specified key without computing it, marking it as recently used.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the cached value, or {@code null} if none is cached
+     */
+    @Override
+    public V getIfPresent(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        V cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (FlickMetrics.isEnabled()) {
+            FlickMetrics.recordCacheLookup(cached != null);
+        }
+        return cached;
+    }
+
+    /**
+     * Associates the specified value with the specified key, evicting the least recently
+     * used entry of its segment if the segment is full.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     */
+    @Override
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    /**
+     * Removes the mapping for a key from this cache if it is present.
+     *
+     * @param key key whose mapping is to be removed
+     */
+    @Override
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * Clears all entries from the cache.
+     */
+    @Override
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the entry count, at most {@link #getMaximumSize()}
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return the maximum size
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[h & (segments.length - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedCache{" +
+                "size=" + size() +
+                ", maximumSize=" + maximumSize +
+                '}';
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
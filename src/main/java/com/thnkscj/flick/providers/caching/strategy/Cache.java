@@ -22,6 +22,20 @@ public interface Cache<K, V> {
      */
     V get(K key, Function<? super K, ? extends V> loader);
 
+    /**
+     * Returns the value cached for the given key without loading it.
+     * The default implementation calls {@link #get(Object, Function)} with a loader that returns
+     * {@code null}, which caches nothing for an absent key as long as the implementation, like
+     * {@link java.util.Map#computeIfAbsent}, does not store {@code null} results. Implementations
+     * that cannot honor that should override this method.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the cached value, or {@code null} if none is cached
+     */
+    default V getIfPresent(K key) {
+        return get(key, k -> null);
+    }
+
     /**
      * Associates the specified value with the specified key in the cache.
      * If the cache previously contained a mapping for the key, it is replaced.
@@ -1,5 +1,7 @@
 package com.thnkscj.flick.providers.caching.strategy;
 
+import com.thnkscj.flick.metrics.FlickMetrics;
+
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
@@ -10,6 +12,8 @@ import java.util.function.Function;
  * <p>This cache supports lazy loading of values using a {@link Function} loader,
  * and also allows external population and invalidation of cache entries.</p>
  *
+ * <p>When {@link FlickMetrics} is enabled, hits and misses are counted in the global registry.</p>
+ *
  * @param <K> the type of keys maintained by this cache
  * @param <V> the type of mapped values
  */
@@ -37,7 +41,33 @@ public class ConcurrentCache<K, V> implements Cache<K, V> {
      */
     @Override
     public V get(K key, Function<? super K, ? extends V> loaderOverride) {
-        return cache.computeIfAbsent(key, loaderOverride != null ? loaderOverride : loader);
+        Function<? super K, ? extends V> effectiveLoader = loaderOverride != null ? loaderOverride : loader;
+        if (!FlickMetrics.isEnabled()) {
+            return cache.computeIfAbsent(key, effectiveLoader);
+        }
+
+        V cached = cache.get(key);
+        if (cached != null) {
+            FlickMetrics.recordCacheLookup(true);
+            return cached;
+        }
+        FlickMetrics.recordCacheLookup(false);
+        return cache.computeIfAbsent(key, effectiveLoader);
+    }
+
+    /**
+     * Returns the value cached for the specified key without computing it.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the cached value, or {@code null} if none is cached
+     */
+    @Override
+    public V getIfPresent(K key) {
+        V cached = cache.get(key);
+        if (FlickMetrics.isEnabled()) {
+            FlickMetrics.recordCacheLookup(cached != null);
+        }
+        return cached;
     }
 
     /**
@@ -0,0 +1,94 @@
+package com.thnkscj.flick.providers.composite;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for the per-layer circuit breakers of a {@link CompositeFeatureFlagProvider}.
+ * <p>
+ * Each layer keeps a sliding window of its most recent calls. A call counts as failed if it
+ * throws or takes longer than the slow-call threshold. Once the window holds at least the
+ * minimum number of calls and the failure rate reaches the threshold, the breaker opens and
+ * the layer is skipped for the cooldown. After the cooldown a single probe call is let through:
+ * if it succeeds the breaker closes, otherwise it opens for another cooldown.
+ * </p>
+ */
+public final class CircuitBreakerPolicy {
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long cooldownNanos;
+
+    /**
+     * Constructs a policy with a window of 100 calls, at least 20 calls before tripping,
+     * a 50% failure rate threshold, a 250 millisecond slow-call threshold and a 5 second cooldown.
+     */
+    public CircuitBreakerPolicy() {
+        this(100, 20, 0.5, 250, 5_000, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs a new policy.
+     *
+     * @param windowSize           the number of recent calls the failure rate is computed over
+     * @param minimumCalls         the number of calls required before the breaker can open
+     * @param failureRateThreshold the failure rate, between 0 and 1, at which the breaker opens
+     * @param slowCallThreshold    calls slower than this count as failures (set 0 to disable)
+     * @param cooldown             how long an open breaker skips its layer before probing
+     * @param timeUnit             the time unit for the slow-call threshold and cooldown
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public CircuitBreakerPolicy(int windowSize, int minimumCalls, double failureRateThreshold,
+                                long slowCallThreshold, long cooldown, TimeUnit timeUnit) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be positive: " + windowSize);
+        }
+        if (minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("minimumCalls must be between 1 and windowSize: " + minimumCalls);
+        }
+        if (!(failureRateThreshold > 0 && failureRateThreshold <= 1)) {
+            throw new IllegalArgumentException("failureRateThreshold must be in (0, 1]: " + failureRateThreshold);
+        }
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = timeUnit.toNanos(Math.max(0, slowCallThreshold));
+        this.cooldownNanos = timeUnit.toNanos(Math.max(0, cooldown));
+    }
+
+    /**
+     * @return the number of recent calls the failure rate is computed over
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * @return the number of calls required before the breaker can open
+     */
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /**
+     * @return the failure rate at which the breaker opens
+     */
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * @return the slow-call threshold in nanoseconds, {@code 0} if disabled
+     */
+    public long getSlowCallNanos() {
+        return slowCallNanos;
+    }
+
+    /**
+     * @return the cooldown in nanoseconds
+     */
+    public long getCooldownNanos() {
+        return cooldownNanos;
+    }
+}
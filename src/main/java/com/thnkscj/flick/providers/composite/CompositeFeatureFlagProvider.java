@@ -1,13 +1,28 @@
 package com.thnkscj.flick.providers.composite;
 
+import com.thnkscj.flick.core.AsyncFeatureFlagProvider;
 import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagChangeListener;
 import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.core.ObservableFeatureFlagProvider;
+import com.thnkscj.flick.metrics.FlickMetrics;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A {@link FeatureFlagProvider} implementation that aggregates multiple providers
@@ -17,21 +32,110 @@ import java.util.concurrent.ConcurrentHashMap;
  * Optionally supports "short-circuit" resolution, which stops at the first
  * provider that returns a non-null, present value.
  * </p>
+ * <p>
+ * The asynchronous methods chain the providers' futures in priority order, so no thread waits
+ * on a slow provider. Providers that do not implement {@link AsyncFeatureFlagProvider} are
+ * called on the thread that completes the previous stage.
+ * </p>
+ * <p>
+ * With a {@link CircuitBreakerPolicy}, each layer's error rate and latency are tracked over a
+ * sliding window. A layer that throws is treated as having no value, and a layer whose breaker
+ * is open is skipped until its cooldown ends, so resolution falls through to the remaining
+ * layers instead of paying for, or failing on, a degraded backend.
+ * </p>
+ * <p>
+ * With routing enabled, the composite indexes which layers define which keys and sends a
+ * lookup only to layers that may define it; a key no indexed layer defines costs no provider
+ * call at all. Only layers whose {@link ObservableFeatureFlagProvider#reportsAllFlags()} holds
+ * are indexed, which includes the providers built on
+ * {@link com.thnkscj.flick.providers.generic.GenericFeatureFlagProvider} while they have no
+ * schema; every other layer, such as a lazily loading cache, is always consulted.
+ * The index follows change events and is rebuilt on every refresh.
+ * </p>
+ * <p>
+ * Change events of observable layers are passed on to the composite's listeners with the
+ * composite's resolved value for the key, which may come from a higher-priority layer.
+ * Layers that are not observable are only reflected after a {@link #refresh()}, which reports
+ * nothing of its own.
+ * </p>
  */
-public class CompositeFeatureFlagProvider implements FeatureFlagProvider {
+public class CompositeFeatureFlagProvider implements ObservableFeatureFlagProvider, AsyncFeatureFlagProvider {
 
     private final List<FeatureFlagProvider> providers;
+    private final List<AsyncFeatureFlagProvider> asyncProviders;
     private final boolean shortCircuit;
+    private final List<LayerHealth> health;
+    private final boolean routed;
+    private final boolean[] indexable;
+    private final List<FlagChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile RoutingIndex routing;
+    private volatile RoutingIndex pendingRouting;
 
     /**
      * Constructs a composite provider with the given list of delegate providers.
+     * Exceptions thrown by a provider propagate to the caller.
      *
      * @param providers     the list of underlying providers to delegate to, in order of priority
      * @param shortCircuit  if {@code true}, resolution stops at the first present flag value
      */
     public CompositeFeatureFlagProvider(List<FeatureFlagProvider> providers, boolean shortCircuit) {
+        this(providers, shortCircuit, null);
+    }
+
+    /**
+     * Constructs a composite provider that guards each delegate with a circuit breaker.
+     *
+     * @param providers     the list of underlying providers to delegate to, in order of priority
+     * @param shortCircuit  if {@code true}, resolution stops at the first present flag value
+     * @param policy        the circuit breaker settings, or {@code null} to disable health tracking
+     */
+    public CompositeFeatureFlagProvider(List<FeatureFlagProvider> providers, boolean shortCircuit,
+                                        CircuitBreakerPolicy policy) {
+        this(providers, shortCircuit, policy, false);
+    }
+
+    /**
+     * Constructs a composite provider with optional circuit breakers and key routing.
+     *
+     * @param providers     the list of underlying providers to delegate to, in order of priority
+     * @param shortCircuit  if {@code true}, resolution stops at the first present flag value
+     * @param policy        the circuit breaker settings, or {@code null} to disable health tracking
+     * @param routed        if {@code true}, lookups are routed through an index of which layers define which keys
+     */
+    public CompositeFeatureFlagProvider(List<FeatureFlagProvider> providers, boolean shortCircuit,
+                                        CircuitBreakerPolicy policy, boolean routed) {
         this.providers = Collections.unmodifiableList(new ArrayList<>(providers));
         this.shortCircuit = shortCircuit;
+
+        List<LayerHealth> layers = new ArrayList<>(providers.size());
+        if (policy != null) {
+            for (int i = 0; i < providers.size(); i++) {
+                layers.add(new LayerHealth(policy));
+            }
+        }
+        this.health = Collections.unmodifiableList(layers);
+
+        this.routed = routed;
+        this.indexable = new boolean[this.providers.size()];
+        for (int i = 0; i < this.providers.size(); i++) {
+            FeatureFlagProvider provider = this.providers.get(i);
+            if (provider instanceof ObservableFeatureFlagProvider) {
+                indexable[i] = routed && RoutingIndex.isComplete(provider);
+                int layer = i;
+                ((ObservableFeatureFlagProvider) provider).addChangeListener(
+                        (key, value) -> onLayerChange(layer, key, value));
+            }
+        }
+        if (routed) {
+            rebuildRouting();
+        }
+
+        List<AsyncFeatureFlagProvider> async = new ArrayList<>(providers.size());
+        for (FeatureFlagProvider provider : this.providers) {
+            async.add(AsyncFeatureFlagProvider.fromBlocking(provider, Runnable::run));
+        }
+        this.asyncProviders = Collections.unmodifiableList(async);
     }
 
     /**
@@ -43,8 +147,13 @@ public class CompositeFeatureFlagProvider implements FeatureFlagProvider {
      */
     @Override
     public FlagValue getValue(String key) {
-        for (FeatureFlagProvider provider : providers) {
-            FlagValue value = provider.getValue(key);
+        RoutingIndex index = routing;
+        for (int i = 0; i < providers.size(); i++) {
+            if (index != null && !index.mayContain(i, key)) {
+                continue;
+            }
+            FeatureFlagProvider provider = providers.get(i);
+            FlagValue value = health.isEmpty() ? provider.getValue(key) : guarded(i, () -> provider.getValue(key));
 
             if (value == null || value.isNull()) {
                 continue;
@@ -72,8 +181,14 @@ public class CompositeFeatureFlagProvider implements FeatureFlagProvider {
         Map<String, FlagValue> result = new ConcurrentHashMap<>();
         String normalizedPrefix = prefix.endsWith(".") ? prefix : prefix + ".";
 
-        for (FeatureFlagProvider provider : providers) {
-            Map<String, FlagValue> children = provider.getChildren(prefix);
+        for (int i = 0; i < providers.size(); i++) {
+            FeatureFlagProvider provider = providers.get(i);
+            Map<String, FlagValue> children = health.isEmpty()
+                    ? provider.getChildren(prefix)
+                    : guarded(i, () -> provider.getChildren(prefix));
+            if (children == null) {
+                continue;
+            }
             if (shortCircuit && !children.isEmpty()) {
                 return children;
             }
@@ -82,12 +197,186 @@ public class CompositeFeatureFlagProvider implements FeatureFlagProvider {
         return Collections.unmodifiableMap(result);
     }
 
+    /**
+     * Visits every flag with the same precedence as {@link #getChildren(String)}, streaming each
+     * layer through {@link FeatureFlagProvider#forEachFlag}. To skip keys defined by an earlier
+     * layer, the keys visited so far are remembered; values are not collected.
+     *
+     * @param action the visitor, called once per flag
+     */
+    @Override
+    public void forEachFlag(BiConsumer<? super String, ? super FlagValue> action) {
+        if (shortCircuit) {
+            for (int i = 0; i < providers.size(); i++) {
+                int[] visited = new int[1];
+                boolean answered = visitLayer(i, (key, value) -> {
+                    visited[0]++;
+                    action.accept(key, value);
+                });
+                if (answered && visited[0] > 0) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < providers.size(); i++) {
+            boolean last = i == providers.size() - 1;
+            visitLayer(i, (key, value) -> {
+                if (last ? !seen.contains(key) : seen.add(key)) {
+                    action.accept(key, value);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns a spliterator over the same flags as {@link #forEachFlag}. The last layer, usually
+     * the largest, is traversed and split in place through its own
+     * {@link FeatureFlagProvider#flagSpliterator()}; the flags of the layers above it are
+     * collected first, as they are needed to skip the keys they shadow. In short-circuit mode the
+     * first layer with any flag is traversed in place on its own.
+     * <p>
+     * With a {@link CircuitBreakerPolicy}, every layer is enumerated up front through
+     * {@link #forEachFlag}, so that each enumeration is recorded by the layer's breaker.
+     * </p>
+     *
+     * @return a spliterator of read-only flag entries
+     */
+    @Override
+    public Spliterator<Map.Entry<String, FlagValue>> flagSpliterator() {
+        if (!health.isEmpty()) {
+            Map<String, FlagValue> flags = new HashMap<>();
+            forEachFlag(flags::put);
+            return Collections.unmodifiableMap(flags).entrySet().spliterator();
+        }
+        if (shortCircuit) {
+            for (FeatureFlagProvider provider : providers) {
+                Spliterator<Map.Entry<String, FlagValue>> layer = provider.flagSpliterator();
+                List<Map.Entry<String, FlagValue>> first = new ArrayList<>(1);
+                if (layer.tryAdvance(first::add)) {
+                    return Stream.concat(first.stream(), StreamSupport.stream(layer, false)).spliterator();
+                }
+            }
+            return Spliterators.emptySpliterator();
+        }
+        if (providers.isEmpty()) {
+            return Spliterators.emptySpliterator();
+        }
+
+        int last = providers.size() - 1;
+        Map<String, FlagValue> upper = new HashMap<>();
+        for (int i = 0; i < last; i++) {
+            providers.get(i).forEachFlag((key, value) -> {
+                if (!upper.containsKey(key)) upper.put(key, value);
+            });
+        }
+        Spliterator<Map.Entry<String, FlagValue>> base = providers.get(last).flagSpliterator();
+        if (upper.isEmpty()) {
+            return base;
+        }
+        return Stream.concat(
+                Collections.unmodifiableMap(upper).entrySet().stream(),
+                StreamSupport.stream(base, false).filter(entry -> !upper.containsKey(entry.getKey()))
+        ).spliterator();
+    }
+
+    /**
+     * Resolves a flag value from the first provider with a present value, asking each provider
+     * only after the previous one has answered.
+     *
+     * @param key the flag key to resolve
+     * @return a future of the resolved {@link FlagValue}, or {@link FlagValue#nullValue()} if not found
+     */
+    @Override
+    public CompletableFuture<FlagValue> getValueAsync(String key) {
+        return resolveFrom(routing, 0, key);
+    }
+
+    /**
+     * Merges child flags with the specified prefix from all underlying providers, with the same
+     * precedence as {@link #getChildren(String)}. Without short-circuiting, all providers are
+     * queried concurrently.
+     *
+     * @param prefix the prefix to filter child flags
+     * @return a future of an unmodifiable map of child flag keys and values
+     */
+    @Override
+    public CompletableFuture<Map<String, FlagValue>> getChildrenAsync(String prefix) {
+        if (shortCircuit) {
+            return childrenFrom(0, prefix);
+        }
+
+        List<CompletableFuture<Map<String, FlagValue>>> futures = new ArrayList<>(asyncProviders.size());
+        for (int i = 0; i < asyncProviders.size(); i++) {
+            futures.add(childrenAsync(i, prefix));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<String, FlagValue> result = new ConcurrentHashMap<>();
+            for (CompletableFuture<Map<String, FlagValue>> future : futures) {
+                Map<String, FlagValue> children = future.join();
+                if (children != null) {
+                    children.forEach(result::putIfAbsent);
+                }
+            }
+            return Collections.unmodifiableMap(result);
+        });
+    }
+
+    /**
+     * Refreshes all underlying providers concurrently.
+     *
+     * @return a future that completes when every provider has refreshed
+     */
+    @Override
+    public CompletableFuture<Void> refreshAsync() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[asyncProviders.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = asyncProviders.get(i).refreshAsync();
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures);
+        return routed ? all.thenRun(this::rebuildRouting) : all;
+    }
+
+    /**
+     * Returns the health of each layer, in priority order.
+     *
+     * @return the layer health, or an empty list if no circuit breaker policy was configured
+     */
+    public List<LayerHealth> getLayerHealth() {
+        return health;
+    }
+
     /**
      * Refreshes all underlying providers.
      */
     @Override
     public void refresh() {
         providers.forEach(FeatureFlagProvider::refresh);
+        if (routed) {
+            rebuildRouting();
+        }
+    }
+
+    /**
+     * Adds a listener notified when a flag of an observable layer changes.
+     *
+     * @param listener the listener to add
+     */
+    @Override
+    public void addChangeListener(FlagChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered change listener.
+     *
+     * @param listener the listener to remove
+     */
+    @Override
+    public void removeChangeListener(FlagChangeListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -97,4 +386,188 @@ public class CompositeFeatureFlagProvider implements FeatureFlagProvider {
     public void shutdown() {
         providers.forEach(FeatureFlagProvider::shutdown);
     }
+
+    private CompletableFuture<FlagValue> resolveFrom(RoutingIndex routes, int index, String key) {
+        while (index < asyncProviders.size() && routes != null && !routes.mayContain(index, key)) {
+            index++;
+        }
+        if (index >= asyncProviders.size()) {
+            return CompletableFuture.completedFuture(FlagValue.nullValue());
+        }
+        int next = index + 1;
+        return valueAsync(index, key).thenCompose(value ->
+                value != null && value.isPresent()
+                        ? CompletableFuture.completedFuture(value)
+                        : resolveFrom(routes, next, key));
+    }
+
+    private CompletableFuture<Map<String, FlagValue>> childrenFrom(int index, String prefix) {
+        if (index >= asyncProviders.size()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+        return childrenAsync(index, prefix).thenCompose(children ->
+                children != null && !children.isEmpty()
+                        ? CompletableFuture.completedFuture(children)
+                        : childrenFrom(index + 1, prefix));
+    }
+
+    /**
+     * Builds a fresh routing index. Changes reported while the layers are enumerated are applied
+     * to both the current and the new index, so none are lost in the swap.
+     */
+    private synchronized void rebuildRouting() {
+        RoutingIndex next = new RoutingIndex(providers.size());
+        pendingRouting = next;
+        next.populate(providers);
+        routing = next;
+        pendingRouting = null;
+    }
+
+    /**
+     * Applies a layer's change to the current index and to one being built. The pending index is
+     * read first: if it is already gone, the swap is done and {@code routing} is the new index;
+     * if the rebuild had not started yet, its enumeration runs after the change and includes it.
+     * Then passes the change on to the composite's listeners.
+     */
+    private void onLayerChange(int layer, String key, FlagValue value) {
+        if (indexable[layer]) {
+            RoutingIndex pending = pendingRouting;
+            RoutingIndex current = routing;
+            if (pending != null) {
+                pending.onChange(layer, key, value);
+            }
+            if (current != null && current != pending) {
+                current.onChange(layer, key, value);
+            }
+        }
+        if (!listeners.isEmpty()) {
+            // Resolved after the index was updated, so the new value is not routed around
+            FlagValue resolved = getValue(key);
+            for (FlagChangeListener listener : listeners) {
+                listener.onFlagChange(key, resolved);
+            }
+        }
+    }
+
+    private CompletableFuture<FlagValue> valueAsync(int index, String key) {
+        if (health.isEmpty()) {
+            return asyncProviders.get(index).getValueAsync(key);
+        }
+        return guardedAsync(index, () -> asyncProviders.get(index).getValueAsync(key));
+    }
+
+    private CompletableFuture<Map<String, FlagValue>> childrenAsync(int index, String prefix) {
+        if (health.isEmpty()) {
+            return asyncProviders.get(index).getChildrenAsync(prefix);
+        }
+        return guardedAsync(index, () -> asyncProviders.get(index).getChildrenAsync(prefix));
+    }
+
+    /**
+     * Calls a layer under its circuit breaker.
+     *
+     * @return the result, or {@code null} if the layer was skipped or threw
+     */
+    private <T> T guarded(int index, Supplier<T> call) {
+        LayerHealth layer = health.get(index);
+        int permit = layer.tryAcquire();
+        if (permit == LayerHealth.DENIED) {
+            recordSkip();
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            recordOutcome(layer, permit, start, false);
+            return result;
+        } catch (RuntimeException e) {
+            recordOutcome(layer, permit, start, true);
+            return null;
+        }
+    }
+
+    /**
+     * Asynchronous form of {@link #guarded(int, Supplier)}; the future never completes exceptionally.
+     */
+    private <T> CompletableFuture<T> guardedAsync(int index, Supplier<CompletableFuture<T>> call) {
+        LayerHealth layer = health.get(index);
+        int permit = layer.tryAcquire();
+        if (permit == LayerHealth.DENIED) {
+            recordSkip();
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            recordOutcome(layer, permit, start, true);
+            return CompletableFuture.completedFuture(null);
+        }
+        return future.handle((result, error) -> {
+            recordOutcome(layer, permit, start, error != null);
+            return error != null ? null : result;
+        });
+    }
+
+    /**
+     * Streams one layer's flags, guarded by its circuit breaker. Exceptions thrown by the visitor
+     * itself are rethrown; the enumeration did not complete, so it is recorded as failed and
+     * cannot close a half-open breaker.
+     *
+     * @return {@code false} if the layer was skipped or failed
+     */
+    private boolean visitLayer(int index, BiConsumer<String, FlagValue> visitor) {
+        FeatureFlagProvider provider = providers.get(index);
+        if (health.isEmpty()) {
+            provider.forEachFlag(visitor);
+            return true;
+        }
+        LayerHealth layer = health.get(index);
+        int permit = layer.tryAcquire();
+        if (permit == LayerHealth.DENIED) {
+            recordSkip();
+            return false;
+        }
+        RuntimeException[] visitorFailure = new RuntimeException[1];
+        long start = System.nanoTime();
+        try {
+            provider.forEachFlag((key, value) -> {
+                try {
+                    visitor.accept(key, value);
+                } catch (RuntimeException e) {
+                    visitorFailure[0] = e;
+                    throw e;
+                }
+            });
+        } catch (RuntimeException e) {
+            recordOutcome(layer, permit, start, true);
+            if (e == visitorFailure[0]) {
+                throw e;
+            }
+            return false;
+        }
+        // A full enumeration is not a slow lookup, so only its success counts towards the window
+        layer.record(permit, 0, false);
+        return true;
+    }
+
+    private static void recordSkip() {
+        if (FlickMetrics.isEnabled()) {
+            FlickMetrics.registry().counter(FlickMetrics.COMPOSITE_LAYER_SKIPS).increment();
+        }
+    }
+
+    private static void recordOutcome(LayerHealth layer, int permit, long start, boolean threw) {
+        boolean opened = layer.record(permit, System.nanoTime() - start, threw);
+        if (FlickMetrics.isEnabled()) {
+            FlickMetrics.registry().histogram(FlickMetrics.COMPOSITE_LAYER_LATENCY).recordSince(start);
+            if (threw) {
+                FlickMetrics.registry().counter(FlickMetrics.COMPOSITE_LAYER_FAILURES).increment();
+            }
+            if (opened) {
+                FlickMetrics.registry().counter(FlickMetrics.COMPOSITE_CIRCUIT_OPENS).increment();
+            }
+        }
+    }
 }
@@ -0,0 +1,180 @@
+package com.thnkscj.flick.providers.composite;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Health and circuit breaker state of one layer of a {@link CompositeFeatureFlagProvider}.
+ * <p>
+ * Outcomes are kept in a fixed ring of the most recent calls. Recording a call replaces the
+ * oldest slot and adjusts running totals by the difference, so the failure rate and average
+ * latency are available in constant time without locking.
+ * </p>
+ */
+public final class LayerHealth {
+
+    /**
+     * Circuit breaker states.
+     */
+    public enum State {
+        /** Calls go through and are recorded. */
+        CLOSED,
+        /** The layer is skipped until the cooldown ends. */
+        OPEN,
+        /** The cooldown has ended and one probe call is in flight. */
+        HALF_OPEN
+    }
+
+    /**
+     * One generation of the sliding window. Replaced wholesale when the breaker closes.
+     */
+    private static final class Window {
+        final AtomicLongArray slots;
+        final AtomicLong calls = new AtomicLong();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicLong latencySum = new AtomicLong();
+
+        Window(int size) {
+            this.slots = new AtomicLongArray(size);
+        }
+    }
+
+    /** Permit returned by {@link #tryAcquire()} when the layer must be skipped. */
+    static final int DENIED = 0;
+    /** Permit for an ordinary call, recorded into the sliding window. */
+    static final int ADMITTED = 1;
+    /** Permit for the single half-open probe, whose outcome closes or reopens the breaker. */
+    static final int PROBE = 2;
+
+    private final CircuitBreakerPolicy policy;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile Window window;
+    private volatile long openUntilNanos;
+
+    LayerHealth(CircuitBreakerPolicy policy) {
+        this.policy = policy;
+        this.window = new Window(policy.getWindowSize());
+    }
+
+    /**
+     * Returns whether a call to the layer may proceed. An open breaker whose cooldown has ended
+     * moves to half-open and hands the {@link #PROBE} permit to exactly one caller.
+     *
+     * @return {@link #DENIED} if the layer must be skipped; otherwise the permit to pass to {@link #record}
+     */
+    int tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return ADMITTED;
+        }
+        if (current == State.OPEN && System.nanoTime() - openUntilNanos >= 0
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return PROBE;
+        }
+        rejected.incrementAndGet();
+        return DENIED;
+    }
+
+    /**
+     * Records the outcome of a call admitted by {@link #tryAcquire()}. Only the probe decides a
+     * half-open breaker; calls admitted before the breaker opened that complete afterwards are
+     * recorded into the window like any other.
+     *
+     * @param permit       the permit the call was admitted with
+     * @param latencyNanos how long the call took
+     * @param threw        whether the call threw
+     * @return {@code true} if this call opened the breaker
+     */
+    boolean record(int permit, long latencyNanos, boolean threw) {
+        boolean failed = threw || (policy.getSlowCallNanos() > 0 && latencyNanos > policy.getSlowCallNanos());
+
+        if (permit == PROBE) {
+            if (failed) {
+                open();
+                state.set(State.OPEN);
+                return true;
+            }
+            window = new Window(policy.getWindowSize());
+            state.set(State.CLOSED);
+            return false;
+        }
+
+        Window w = window;
+        long encoded = (Math.max(0, latencyNanos) << 1) | (failed ? 1 : 0);
+        long index = w.calls.getAndIncrement();
+        long previous = w.slots.getAndSet((int) (index % w.slots.length()), encoded);
+        int failureDelta = (int) (encoded & 1) - (int) (previous & 1);
+        if (failureDelta != 0) {
+            w.failures.addAndGet(failureDelta);
+        }
+        w.latencySum.addAndGet((encoded >>> 1) - (previous >>> 1));
+
+        if (failed && index + 1 >= policy.getMinimumCalls()
+                && failureRate(w) >= policy.getFailureRateThreshold()) {
+            open();
+            return state.compareAndSet(State.CLOSED, State.OPEN);
+        }
+        return false;
+    }
+
+    /**
+     * Returns the current breaker state.
+     *
+     * @return the state
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Returns the share of failed calls in the current window.
+     *
+     * @return the failure rate between 0 and 1
+     */
+    public double getFailureRate() {
+        return failureRate(window);
+    }
+
+    /**
+     * Returns the average latency of the calls in the current window.
+     *
+     * @return the average latency in nanoseconds
+     */
+    public long getAverageLatencyNanos() {
+        Window w = window;
+        long filled = Math.min(w.calls.get(), w.slots.length());
+        return filled == 0 ? 0 : w.latencySum.get() / filled;
+    }
+
+    /**
+     * Returns the number of calls that skipped this layer because its breaker was open.
+     *
+     * @return the rejected call count
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return "LayerHealth{" +
+                "state=" + getState() +
+                ", failureRate=" + getFailureRate() +
+                ", averageLatencyNanos=" + getAverageLatencyNanos() +
+                ", rejected=" + getRejectedCount() +
+                '}';
+    }
+
+    private void open() {
+        openUntilNanos = System.nanoTime() + policy.getCooldownNanos();
+    }
+
+    private static double failureRate(Window w) {
+        long filled = Math.min(w.calls.get(), w.slots.length());
+        return filled == 0 ? 0 : (double) w.failures.get() / filled;
+    }
+}
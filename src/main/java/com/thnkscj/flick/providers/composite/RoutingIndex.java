@@ -0,0 +1,138 @@
+package com.thnkscj.flick.providers.composite;
+
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.core.ObservableFeatureFlagProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records which layers of a composite define which keys, so lookups can skip layers that
+ * cannot answer.
+ * <p>
+ * Only layers that enumerate every key and report every change, i.e. observable providers whose
+ * {@link ObservableFeatureFlagProvider#reportsAllFlags()} holds, are indexed. Any other layer may
+ * answer for keys the index never saw, such as values a cache loads lazily, and is therefore
+ * always consulted, as is an indexed layer that stops claiming it.
+ * Indexed layers with up to {@link #EXACT_KEY_LIMIT} keys are tracked exactly in a shared
+ * key-to-layer-mask map; larger layers get a {@link BloomFilter}, which may let an occasional
+ * lookup through but never rejects a key the layer defines. The first 64 layers can be indexed.
+ * </p>
+ */
+final class RoutingIndex {
+
+    /**
+     * Indexed layers with more keys than this are tracked with a Bloom filter instead.
+     */
+    static final int EXACT_KEY_LIMIT = 100_000;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MAX_INDEXED_LAYERS = 64;
+
+    private final ObservableFeatureFlagProvider[] indexed;
+    private final BloomFilter[] blooms;
+    private final Map<String, Long> owners = new ConcurrentHashMap<>();
+
+    RoutingIndex(int layerCount) {
+        this.indexed = new ObservableFeatureFlagProvider[layerCount];
+        this.blooms = new BloomFilter[layerCount];
+    }
+
+    /**
+     * Enumerates every layer that reports all its flags. A layer that fails to enumerate is left unindexed.
+     * Layers are streamed rather than copied; one that turns out to exceed
+     * {@link #EXACT_KEY_LIMIT} is enumerated a second time into its Bloom filter.
+     * Changes reported through {@link #onChange} while this runs are kept.
+     *
+     * @param providers the composite's layers, in priority order
+     */
+    void populate(List<FeatureFlagProvider> providers) {
+        for (int layer = 0; layer < providers.size() && layer < MAX_INDEXED_LAYERS; layer++) {
+            FeatureFlagProvider provider = providers.get(layer);
+            if (!isComplete(provider)) {
+                continue;
+            }
+
+            long bit = 1L << layer;
+            int[] count = new int[1];
+            try {
+                provider.forEachFlag((key, value) -> {
+                    if (++count[0] <= EXACT_KEY_LIMIT && value != null && value.isPresent()) {
+                        owners.merge(key, bit, (a, b) -> a | b);
+                    }
+                });
+                if (count[0] > EXACT_KEY_LIMIT) {
+                    // Too many keys to track exactly: drop this layer's entries and enumerate again into a Bloom filter
+                    owners.replaceAll((key, mask) -> mask & ~bit);
+                    owners.values().removeIf(mask -> mask == 0);
+                    BloomFilter bloom = new BloomFilter(2L * count[0], FALSE_POSITIVE_RATE);
+                    provider.forEachFlag((key, value) -> bloom.put(key));
+                    blooms[layer] = bloom;
+                }
+            } catch (RuntimeException e) {
+                continue;
+            }
+            indexed[layer] = (ObservableFeatureFlagProvider) provider;
+        }
+    }
+
+    /**
+     * Checks whether a layer's keys can be indexed.
+     *
+     * @param provider the layer
+     * @return {@code true} if the layer enumerates every key and reports every change
+     */
+    static boolean isComplete(FeatureFlagProvider provider) {
+        return provider instanceof ObservableFeatureFlagProvider
+                && ((ObservableFeatureFlagProvider) provider).reportsAllFlags();
+    }
+
+    /**
+     * Returns whether a layer may define a key.
+     *
+     * @param layer the layer's position
+     * @param key   the flag key
+     * @return {@code false} only if the layer is known not to define the key
+     */
+    boolean mayContain(int layer, String key) {
+        ObservableFeatureFlagProvider provider = indexed[layer];
+        if (provider == null || !provider.reportsAllFlags()) {
+            return true;
+        }
+        BloomFilter bloom = blooms[layer];
+        if (bloom != null && bloom.mightContain(key)) {
+            return true;
+        }
+        // Also covers changes recorded while a Bloom layer was still being enumerated
+        Long mask = owners.get(key);
+        return mask != null && (mask & (1L << layer)) != 0;
+    }
+
+    /**
+     * Applies a change reported by an observable layer.
+     *
+     * @param layer the layer's position
+     * @param key   the changed key
+     * @param value the new value, {@code null} or null-valued if the flag was removed
+     */
+    void onChange(int layer, String key, FlagValue value) {
+        if (layer >= MAX_INDEXED_LAYERS) {
+            return;
+        }
+        boolean present = value != null && value.isPresent();
+        BloomFilter bloom = blooms[layer];
+        if (bloom != null) {
+            if (present) bloom.put(key);
+            return;
+        }
+
+        long bit = 1L << layer;
+        if (present) {
+            owners.merge(key, bit, (a, b) -> a | b);
+        } else {
+            owners.computeIfPresent(key, (k, mask) -> (mask & ~bit) == 0 ? null : mask & ~bit);
+        }
+    }
+}
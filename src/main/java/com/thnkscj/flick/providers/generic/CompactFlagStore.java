@@ -0,0 +1,673 @@
+package com.thnkscj.flick.providers.generic;
+
+import com.thnkscj.flick.core.FlagValue;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A memory-compact flag store for {@link GenericFeatureFlagProvider}, for flag sets too large
+ * to hold comfortably as one {@link FlagValue} and boxed value per flag.
+ * <p>
+ * Flags live in an immutable snapshot: keys are packed into one character arena (one byte
+ * per character when every key is Latin-1) and indexed by an open-addressing hash table, and
+ * each flag's value is a single tagged {@code int}. Booleans and integers that fit are stored
+ * inline in that {@code int}; larger numbers live in a {@code long[]} or {@code double[]},
+ * strings in a deduplicated pool. Reads are lock-free.
+ * </p>
+ * <p>
+ * Writes first go to a small overlay map that is consulted before the snapshot. Once the
+ * overlay grows past an eighth of the snapshot, it is merged into a new snapshot, so each
+ * flag is rewritten a constant number of times on average. Values are decoded on read:
+ * booleans, small numbers and pooled strings return shared instances, other numbers a new
+ * {@link FlagValue}, so {@code get} does not preserve the identity of the value that was put.
+ * </p>
+ * <p>
+ * The store is thread-safe; writes are serialized. Iteration is weakly consistent, like
+ * that of {@link ConcurrentHashMap}. Null keys and values are not permitted.
+ * </p>
+ */
+public final class CompactFlagStore extends AbstractMap<String, FlagValue> {
+
+    private static final int MIN_PENDING = 1_024;
+
+    /**
+     * Marks a key removed in the overlay; compared by identity.
+     */
+    private static final FlagValue REMOVED = new FlagValue(null);
+
+    private volatile State state = new State(Snapshot.EMPTY);
+    private volatile int size;
+
+    /**
+     * Constructs an empty store.
+     */
+    public CompactFlagStore() {
+    }
+
+    /**
+     * Constructs a store holding the given flags, packed into a single snapshot.
+     *
+     * @param flags the initial flags
+     */
+    public CompactFlagStore(Map<String, FlagValue> flags) {
+        putAll(flags);
+    }
+
+    @Override
+    public FlagValue get(Object key) {
+        if (!(key instanceof String)) return null;
+        State current = state;
+        if (!current.pending.isEmpty()) {
+            FlagValue pending = current.pending.get(key);
+            if (pending != null) {
+                return pending == REMOVED ? null : pending;
+            }
+        }
+        Snapshot base = current.base;
+        int entry = base.find((String) key);
+        return entry >= 0 ? base.valueAt(entry) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized FlagValue put(String key, FlagValue value) {
+        if (key == null || value == null) throw new NullPointerException();
+        FlagValue previous = get(key);
+        State current = state;
+        current.pending.put(key, value);
+        if (previous == null) size++;
+        compactIfNeeded(current);
+        return previous;
+    }
+
+    @Override
+    public synchronized FlagValue remove(Object key) {
+        FlagValue previous = get(key);
+        if (previous != null) {
+            State current = state;
+            current.pending.put((String) key, REMOVED);
+            size--;
+            compactIfNeeded(current);
+        }
+        return previous;
+    }
+
+    /**
+     * Puts all flags, then packs them into a new snapshot in one pass.
+     *
+     * @param flags the flags to put
+     */
+    @Override
+    public synchronized void putAll(Map<? extends String, ? extends FlagValue> flags) {
+        State current = state;
+        flags.forEach((key, value) -> {
+            if (key == null || value == null) throw new NullPointerException();
+            if (get(key) == null) size++;
+            current.pending.put(key, value);
+        });
+        compact();
+    }
+
+    @Override
+    public synchronized void clear() {
+        state = new State(Snapshot.EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Merges all pending writes into a new snapshot. Normally this happens automatically.
+     */
+    public synchronized void compact() {
+        State current = state;
+        if (!current.pending.isEmpty()) {
+            state = new State(Snapshot.merge(current.base, current.pending));
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super FlagValue> action) {
+        for (Entry<String, FlagValue> entry : entrySet()) {
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Set<Entry<String, FlagValue>> entrySet() {
+        return new AbstractSet<Entry<String, FlagValue>>() {
+            @Override
+            public Iterator<Entry<String, FlagValue>> iterator() {
+                return new EntryIterator(state);
+            }
+
+            @Override
+            public Spliterator<Entry<String, FlagValue>> spliterator() {
+                State current = state;
+                return new EntrySpliterator(current, 0, current.base.size, true);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void compactIfNeeded(State current) {
+        if (current.pending.size() > Math.max(MIN_PENDING, current.base.size >>> 3)) {
+            compact();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompactFlagStore{" +
+                "size=" + size +
+                ", pending=" + state.pending.size() +
+                '}';
+    }
+
+    /**
+     * A snapshot and the writes made since it was built.
+     */
+    private static final class State {
+        final Snapshot base;
+        final ConcurrentHashMap<String, FlagValue> pending = new ConcurrentHashMap<>();
+
+        State(Snapshot base) {
+            this.base = base;
+        }
+    }
+
+    /**
+     * Iterates the snapshot, skipping keys shadowed by the overlay, then the overlay itself.
+     */
+    private final class EntryIterator implements Iterator<Entry<String, FlagValue>> {
+        private final State state;
+        private final Iterator<Entry<String, FlagValue>> pending;
+        private int entry = -1;
+        private Entry<String, FlagValue> next;
+        private String lastKey;
+
+        EntryIterator(State state) {
+            this.state = state;
+            this.pending = state.pending.entrySet().iterator();
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            Snapshot base = state.base;
+            while (++entry < base.size) {
+                String key = base.keyAt(entry);
+                if (!state.pending.containsKey(key)) {
+                    next = new SimpleImmutableEntry<>(key, base.valueAt(entry));
+                    return;
+                }
+            }
+            while (pending.hasNext()) {
+                Entry<String, FlagValue> candidate = pending.next();
+                if (candidate.getValue() != REMOVED) {
+                    next = new SimpleImmutableEntry<>(candidate);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, FlagValue> next() {
+            if (next == null) throw new NoSuchElementException();
+            Entry<String, FlagValue> current = next;
+            lastKey = current.getKey();
+            advance();
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) throw new IllegalStateException();
+            CompactFlagStore.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+
+    /**
+     * Traverses a range of snapshot entries, and the overlay if it covers the end of the
+     * snapshot. Splits halve the entry range.
+     */
+    private static final class EntrySpliterator implements Spliterator<Entry<String, FlagValue>> {
+        private static final int MIN_SPLIT = 1_024;
+
+        private final State state;
+        private int entry;
+        private final int end;
+        private Iterator<Entry<String, FlagValue>> pending;
+
+        EntrySpliterator(State state, int start, int end, boolean includePending) {
+            this.state = state;
+            this.entry = start;
+            this.end = end;
+            this.pending = includePending ? state.pending.entrySet().iterator() : null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<String, FlagValue>> action) {
+            Snapshot base = state.base;
+            while (entry < end) {
+                int current = entry++;
+                String key = base.keyAt(current);
+                if (!state.pending.containsKey(key)) {
+                    action.accept(new SimpleImmutableEntry<>(key, base.valueAt(current)));
+                    return true;
+                }
+            }
+            while (pending != null && pending.hasNext()) {
+                Entry<String, FlagValue> candidate = pending.next();
+                if (candidate.getValue() != REMOVED) {
+                    action.accept(new SimpleImmutableEntry<>(candidate));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<Entry<String, FlagValue>> trySplit() {
+            int remaining = end - entry;
+            if (remaining < 2 * MIN_SPLIT) return null;
+            int mid = entry + remaining / 2;
+            EntrySpliterator prefix = new EntrySpliterator(state, entry, mid, false);
+            entry = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - entry + (pending != null ? state.pending.size() : 0);
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL | CONCURRENT;
+        }
+    }
+
+    /**
+     * An immutable, array-packed set of flags.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Builder(0, true).build();
+
+        // Value tags, stored in the top three bits of each value
+        static final int BOOLEAN = 0;
+        static final int INT_INLINE = 1;
+        static final int LONG_INLINE = 2;
+        static final int INT = 3;
+        static final int LONG = 4;
+        static final int DOUBLE = 5;
+        static final int STRING = 6;
+        static final int OBJECT = 7;
+
+        static final int PAYLOAD_BITS = 29;
+        static final int PAYLOAD_MASK = (1 << PAYLOAD_BITS) - 1;
+        static final int INLINE_MIN = -(1 << (PAYLOAD_BITS - 1));
+        static final int INLINE_MAX = (1 << (PAYLOAD_BITS - 1)) - 1;
+
+        final int size;
+        final int[] slots;
+        final int[] hashes;
+        final int[] keyEnds;
+        final byte[] latin1Keys;
+        final char[] utf16Keys;
+        final int[] values;
+        final long[] longs;
+        final double[] doubles;
+        final FlagValue[] strings;
+        final FlagValue[] objects;
+
+        Snapshot(int size, int[] slots, int[] hashes, int[] keyEnds, byte[] latin1Keys, char[] utf16Keys,
+                 int[] values, long[] longs, double[] doubles, FlagValue[] strings, FlagValue[] objects) {
+            this.size = size;
+            this.slots = slots;
+            this.hashes = hashes;
+            this.keyEnds = keyEnds;
+            this.latin1Keys = latin1Keys;
+            this.utf16Keys = utf16Keys;
+            this.values = values;
+            this.longs = longs;
+            this.doubles = doubles;
+            this.strings = strings;
+            this.objects = objects;
+        }
+
+        int find(String key) {
+            int hash = key.hashCode();
+            int mask = slots.length - 1;
+            for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+                int entry = slots[i] - 1;
+                if (entry < 0) return -1;
+                if (hashes[entry] == hash && keyEquals(entry, key)) return entry;
+            }
+        }
+
+        private boolean keyEquals(int entry, String key) {
+            int start = entry == 0 ? 0 : keyEnds[entry - 1];
+            int length = keyEnds[entry] - start;
+            if (length != key.length()) return false;
+            if (latin1Keys != null) {
+                for (int i = 0; i < length; i++) {
+                    if ((latin1Keys[start + i] & 0xff) != key.charAt(i)) return false;
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    if (utf16Keys[start + i] != key.charAt(i)) return false;
+                }
+            }
+            return true;
+        }
+
+        String keyAt(int entry) {
+            int start = entry == 0 ? 0 : keyEnds[entry - 1];
+            int length = keyEnds[entry] - start;
+            if (latin1Keys != null) {
+                char[] chars = new char[length];
+                for (int i = 0; i < length; i++) {
+                    chars[i] = (char) (latin1Keys[start + i] & 0xff);
+                }
+                return new String(chars);
+            }
+            return new String(utf16Keys, start, length);
+        }
+
+        FlagValue valueAt(int entry) {
+            int value = values[entry];
+            int payload = value & PAYLOAD_MASK;
+            switch (value >>> PAYLOAD_BITS) {
+                case BOOLEAN:
+                    return FlagValue.of(payload != 0);
+                case INT_INLINE:
+                    return FlagValue.of(signExtend(payload));
+                case LONG_INLINE:
+                    return FlagValue.of((long) signExtend(payload));
+                case INT:
+                    return FlagValue.of((int) longs[payload]);
+                case LONG:
+                    return FlagValue.of(longs[payload]);
+                case DOUBLE:
+                    return FlagValue.of(doubles[payload]);
+                case STRING:
+                    return strings[payload];
+                default:
+                    return objects[payload];
+            }
+        }
+
+        /**
+         * Builds a snapshot of this snapshot's flags overlaid with the given writes,
+         * copying retained entries without materializing their keys.
+         */
+        static Snapshot merge(Snapshot base, Map<String, FlagValue> pending) {
+            BitSet shadowed = new BitSet(base.size);
+            boolean latin1 = base.latin1Keys != null;
+            int added = 0;
+            for (Entry<String, FlagValue> write : pending.entrySet()) {
+                int entry = base.find(write.getKey());
+                if (entry >= 0) shadowed.set(entry);
+                if (write.getValue() != REMOVED) added++;
+                latin1 &= isLatin1(write.getKey());
+            }
+
+            Builder builder = new Builder(base.size - shadowed.cardinality() + added, latin1);
+            for (int entry = 0; entry < base.size; entry++) {
+                if (!shadowed.get(entry)) {
+                    builder.copy(base, entry);
+                }
+            }
+            for (Entry<String, FlagValue> write : pending.entrySet()) {
+                if (write.getValue() != REMOVED) {
+                    builder.add(write.getKey(), write.getValue());
+                }
+            }
+            return builder.build();
+        }
+
+        static int spread(int hash) {
+            return (hash ^ (hash >>> 16)) * 0x9e3779b9;
+        }
+
+        private static int signExtend(int payload) {
+            return (payload << (32 - PAYLOAD_BITS)) >> (32 - PAYLOAD_BITS);
+        }
+
+        private static boolean isLatin1(String key) {
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) > 0xff) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Accumulates entries into growable arrays and packs them into a {@link Snapshot}.
+     */
+    private static final class Builder {
+        private final boolean latin1;
+        private int size;
+        private int[] hashes;
+        private int[] keyEnds;
+        private int[] values;
+        private byte[] latin1Keys;
+        private char[] utf16Keys;
+        private int keyLength;
+        private long[] longs = new long[0];
+        private int longCount;
+        private double[] doubles = new double[0];
+        private int doubleCount;
+        private FlagValue[] objects = new FlagValue[0];
+        private int objectCount;
+        private final Map<Object, Integer> stringPool = new HashMap<>();
+        private FlagValue[] strings = new FlagValue[0];
+
+        Builder(int expectedSize, boolean latin1) {
+            this.latin1 = latin1;
+            hashes = new int[expectedSize];
+            keyEnds = new int[expectedSize];
+            values = new int[expectedSize];
+            if (latin1) {
+                latin1Keys = new byte[expectedSize * 16];
+            } else {
+                utf16Keys = new char[expectedSize * 16];
+            }
+        }
+
+        void add(String key, FlagValue value) {
+            ensureEntryCapacity();
+            int length = key.length();
+            ensureKeyCapacity(length);
+            if (latin1) {
+                for (int i = 0; i < length; i++) {
+                    latin1Keys[keyLength + i] = (byte) key.charAt(i);
+                }
+            } else {
+                key.getChars(0, length, utf16Keys, keyLength);
+            }
+            keyLength += length;
+            hashes[size] = key.hashCode();
+            keyEnds[size] = keyLength;
+            values[size] = encode(value);
+            size++;
+        }
+
+        void copy(Snapshot source, int entry) {
+            ensureEntryCapacity();
+            int start = entry == 0 ? 0 : source.keyEnds[entry - 1];
+            int length = source.keyEnds[entry] - start;
+            ensureKeyCapacity(length);
+            if (latin1) {
+                System.arraycopy(source.latin1Keys, start, latin1Keys, keyLength, length);
+            } else if (source.utf16Keys != null) {
+                System.arraycopy(source.utf16Keys, start, utf16Keys, keyLength, length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    utf16Keys[keyLength + i] = (char) (source.latin1Keys[start + i] & 0xff);
+                }
+            }
+            keyLength += length;
+            hashes[size] = source.hashes[entry];
+            keyEnds[size] = keyLength;
+
+            int value = source.values[entry];
+            int payload = value & Snapshot.PAYLOAD_MASK;
+            int tag = value >>> Snapshot.PAYLOAD_BITS;
+            switch (tag) {
+                case Snapshot.INT:
+                case Snapshot.LONG:
+                    value = tag(tag, addLong(source.longs[payload]));
+                    break;
+                case Snapshot.DOUBLE:
+                    value = tag(tag, addDouble(source.doubles[payload]));
+                    break;
+                case Snapshot.STRING:
+                    value = tag(tag, addString(source.strings[payload]));
+                    break;
+                case Snapshot.OBJECT:
+                    value = tag(tag, addObject(source.objects[payload]));
+                    break;
+                default:
+                    break;
+            }
+            values[size] = value;
+            size++;
+        }
+
+        Snapshot build() {
+            int capacity = Integer.highestOneBit(Math.max(2, size + (size >>> 1)) - 1) << 1;
+            int[] slots = new int[capacity];
+            int mask = capacity - 1;
+            for (int entry = 0; entry < size; entry++) {
+                int i = Snapshot.spread(hashes[entry]) & mask;
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = entry + 1;
+            }
+            return new Snapshot(size, slots,
+                    Arrays.copyOf(hashes, size),
+                    Arrays.copyOf(keyEnds, size),
+                    latin1 ? Arrays.copyOf(latin1Keys, keyLength) : null,
+                    latin1 ? null : Arrays.copyOf(utf16Keys, keyLength),
+                    Arrays.copyOf(values, size),
+                    Arrays.copyOf(longs, longCount),
+                    Arrays.copyOf(doubles, doubleCount),
+                    Arrays.copyOf(strings, stringPool.size()),
+                    Arrays.copyOf(objects, objectCount));
+        }
+
+        private int encode(FlagValue value) {
+            Object raw = value.as(Object.class).orElse(null);
+            if (raw instanceof Boolean) {
+                return tag(Snapshot.BOOLEAN, (Boolean) raw ? 1 : 0);
+            }
+            if (raw instanceof Integer) {
+                int i = (Integer) raw;
+                return i >= Snapshot.INLINE_MIN && i <= Snapshot.INLINE_MAX
+                        ? tag(Snapshot.INT_INLINE, i & Snapshot.PAYLOAD_MASK)
+                        : tag(Snapshot.INT, addLong(i));
+            }
+            if (raw instanceof Long) {
+                long l = (Long) raw;
+                return l >= Snapshot.INLINE_MIN && l <= Snapshot.INLINE_MAX
+                        ? tag(Snapshot.LONG_INLINE, (int) l & Snapshot.PAYLOAD_MASK)
+                        : tag(Snapshot.LONG, addLong(l));
+            }
+            if (raw instanceof Double) {
+                return tag(Snapshot.DOUBLE, addDouble((Double) raw));
+            }
+            if (raw instanceof String) {
+                return tag(Snapshot.STRING, addString(value));
+            }
+            return tag(Snapshot.OBJECT, addObject(value));
+        }
+
+        private static int tag(int tag, int payload) {
+            return tag << Snapshot.PAYLOAD_BITS | payload;
+        }
+
+        private int addLong(long value) {
+            if (longCount == longs.length) longs = Arrays.copyOf(longs, grow(longs.length));
+            longs[longCount] = value;
+            return longCount++;
+        }
+
+        private int addDouble(double value) {
+            if (doubleCount == doubles.length) doubles = Arrays.copyOf(doubles, grow(doubles.length));
+            doubles[doubleCount] = value;
+            return doubleCount++;
+        }
+
+        private int addString(FlagValue value) {
+            Object raw = value.as(Object.class).orElse(null);
+            Integer index = stringPool.get(raw);
+            if (index != null) return index;
+            int next = stringPool.size();
+            if (next == strings.length) strings = Arrays.copyOf(strings, grow(strings.length));
+            strings[next] = value;
+            stringPool.put(raw, next);
+            return next;
+        }
+
+        private int addObject(FlagValue value) {
+            if (objectCount == objects.length) objects = Arrays.copyOf(objects, grow(objects.length));
+            objects[objectCount] = value;
+            return objectCount++;
+        }
+
+        private void ensureEntryCapacity() {
+            if (size == hashes.length) {
+                int capacity = grow(size);
+                hashes = Arrays.copyOf(hashes, capacity);
+                keyEnds = Arrays.copyOf(keyEnds, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+        }
+
+        private void ensureKeyCapacity(int length) {
+            int required = keyLength + length;
+            if (latin1 && required > latin1Keys.length) {
+                latin1Keys = Arrays.copyOf(latin1Keys, Math.max(required, grow(latin1Keys.length)));
+            } else if (!latin1 && required > utf16Keys.length) {
+                utf16Keys = Arrays.copyOf(utf16Keys, Math.max(required, grow(utf16Keys.length)));
+            }
+        }
+
+        private static int grow(int length) {
+            return Math.max(16, length + (length >>> 1));
+        }
+    }
+}
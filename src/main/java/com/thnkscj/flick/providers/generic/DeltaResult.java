@@ -0,0 +1,24 @@
+package com.thnkscj.flick.providers.generic;
+
+/**
+ * Outcome of {@link GenericFeatureFlagProvider#applyDelta(FlagDelta)}.
+ */
+public enum DeltaResult {
+
+    /**
+     * The delta was based on the current version and has been applied.
+     */
+    APPLIED,
+
+    /**
+     * The delta targets a version the provider already has, e.g. a redelivered or reordered
+     * message. It was ignored.
+     */
+    STALE,
+
+    /**
+     * The delta does not start at the current version, so intermediate changes were missed.
+     * It was rejected and the provider needs a full snapshot to catch up.
+     */
+    RESYNC_REQUIRED
+}
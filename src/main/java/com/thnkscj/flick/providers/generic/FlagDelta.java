@@ -0,0 +1,79 @@
+package com.thnkscj.flick.providers.generic;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An incremental change to a versioned flag set: the flags to put and the keys to remove
+ * in order to move from {@code baseVersion} to {@code targetVersion}.
+ *
+ * @see GenericFeatureFlagProvider#applyDelta(FlagDelta)
+ */
+public final class FlagDelta {
+    private final long baseVersion;
+    private final long targetVersion;
+    private final Map<String, Object> puts;
+    private final Set<String> removes;
+
+    /**
+     * Constructs a new delta. The given collections are copied.
+     *
+     * @param baseVersion   the version this delta must be applied on top of
+     * @param targetVersion the version the flag set is at after applying this delta
+     * @param puts          flags to add or replace; {@code null} values are treated as removals
+     * @param removes       keys of flags to remove
+     * @throws IllegalArgumentException if {@code targetVersion} is not greater than {@code baseVersion}
+     */
+    public FlagDelta(long baseVersion, long targetVersion, Map<String, ?> puts, Collection<String> removes) {
+        if (targetVersion <= baseVersion) {
+            throw new IllegalArgumentException("Target version " + targetVersion
+                    + " must be greater than base version " + baseVersion);
+        }
+        this.baseVersion = baseVersion;
+        this.targetVersion = targetVersion;
+        this.puts = Collections.unmodifiableMap(new HashMap<>(puts));
+        this.removes = Collections.unmodifiableSet(new HashSet<>(removes));
+    }
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public long getTargetVersion() {
+        return targetVersion;
+    }
+
+    public Map<String, Object> getPuts() {
+        return puts;
+    }
+
+    public Set<String> getRemoves() {
+        return removes;
+    }
+
+    /**
+     * Returns the number of changes carried by this delta.
+     *
+     * @return the number of puts plus removes
+     */
+    public int size() {
+        return puts.size() + removes.size();
+    }
+
+    /**
+     * Returns a string representation of the {@code FlagDelta}.
+     */
+    @Override
+    public String toString() {
+        return "FlagDelta{" +
+                "baseVersion=" + baseVersion +
+                ", targetVersion=" + targetVersion +
+                ", puts=" + puts.size() +
+                ", removes=" + removes.size() +
+                '}';
+    }
+}
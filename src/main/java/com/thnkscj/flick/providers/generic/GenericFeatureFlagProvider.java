@@ -1,11 +1,37 @@
 package com.thnkscj.flick.providers.generic;
 
 import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagChangeListener;
 import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.core.FlagValueInterner;
+import com.thnkscj.flick.core.ObservableFeatureFlagProvider;
+import com.thnkscj.flick.core.exceptions.FlagTypeConversionException;
+import com.thnkscj.flick.jfr.FlickEvents;
+import com.thnkscj.flick.providers.overlay.PersistentFlagMap;
+import com.thnkscj.flick.schema.FlagSchema;
+import com.thnkscj.flick.schema.FlagSpec;
+import com.thnkscj.flick.schema.FlagValidationListener;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Abstract base implementation of {@link FeatureFlagProvider} designed to be extended
@@ -14,19 +40,146 @@ import java.util.concurrent.ConcurrentHashMap;
  * This class handles lazy initialization, thread-safe flag storage,
  * and provides helper methods for updating flag values.
  * </p>
+ * <p>
+ * By default the first lookup runs {@link #initialize()} on the calling thread. Calling
+ * {@link #initializeAsync(long, TimeUnit)} instead starts it in the background, retrying
+ * failures with backoff, so that no request thread blocks on a slow or unavailable source
+ * for longer than the configured wait.
+ * </p>
+ * <p>
+ * With a {@link FlagSchema} set, every loaded value of a declared flag is converted to its
+ * typed form once, on update. Invalid values are rejected and reported to the
+ * {@link FlagValidationListener}s while the flag keeps its last valid value, and lookups of
+ * absent declared flags return the schema's default.
+ * </p>
+ * <p>
+ * Every flag that is added, changed or removed through the update helpers is reported to the
+ * registered {@link FlagChangeListener}s on the updating thread, once the change is visible.
+ * Reloading an unchanged value reports nothing. Subclasses must therefore change flags only
+ * through those helpers, never by writing {@link #flags} directly.
+ * </p>
  */
-public abstract class GenericFeatureFlagProvider implements FeatureFlagProvider {
+public abstract class GenericFeatureFlagProvider implements ObservableFeatureFlagProvider {
+
+    private static final long INIT_INITIAL_BACKOFF_MILLIS = 100;
+    private static final long INIT_MAX_BACKOFF_MILLIS = 30_000;
+
+    /**
+     * Marks a flag removed by a staged update, and a resolved change that removes a flag.
+     */
+    private static final FlagValue REMOVED = new FlagValue(null);
+
+    /**
+     * Marks a value the schema rejected while resolving a change.
+     */
+    private static final FlagValue REJECTED = new FlagValue(null);
 
     /**
-     * Internal thread-safe storage of flag key-value pairs.
+     * Internal thread-safe storage of flag key-value pairs; a {@link ConcurrentHashMap} unless
+     * another store was passed to the constructor.
      */
-    protected final Map<String, FlagValue> flags = new ConcurrentHashMap<>();
+    protected final Map<String, FlagValue> flags;
 
     /**
      * Indicates whether the provider has been initialized.
      */
     protected volatile boolean initialized = false;
 
+    /**
+     * Version of the flag set as last established by {@link #applyDelta(FlagDelta)} or
+     * {@link #applySnapshot(Map, long)}. Written only after the corresponding changes are visible.
+     */
+    private volatile long version = 0L;
+
+    /**
+     * Serializes all updates, so that an unversioned update cannot interleave with a delta or
+     * snapshot and a version is only ever published for a fully applied change.
+     */
+    private final Object versionLock = new Object();
+
+    /**
+     * The changes of the delta or snapshot being applied, published with a single write before
+     * the store is touched and cleared once the store holds them all, so lookups see either none
+     * or all of them. Removed flags map to {@link #REMOVED}. Empty while no update is in flight.
+     */
+    private volatile PersistentFlagMap staged = PersistentFlagMap.empty();
+
+    /**
+     * Held for writing while a staged update is copied into the store, and for reading while
+     * the store is enumerated, so enumerations also see either none or all of an update.
+     */
+    private final ReadWriteLock storeLock = new ReentrantReadWriteLock();
+
+    /**
+     * Guards {@link #initialize()}, so it runs at most once to completion whether triggered by a
+     * lookup or by a background attempt. Private, so subclasses synchronizing on the provider do
+     * not contend with a slow initialization.
+     */
+    private final Object initLock = new Object();
+
+    /**
+     * Guards starting background initialization; never held while {@link #initialize()} runs.
+     */
+    private final Object asyncLock = new Object();
+
+    /**
+     * Completed once {@link #initialize()} has returned successfully.
+     */
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    /**
+     * Runs background initialization attempts; {@code null} unless {@link #initializeAsync} was called.
+     */
+    private volatile ScheduledExecutorService initExecutor;
+
+    /**
+     * Until this {@link System#nanoTime()} deadline, lookups wait for background initialization.
+     */
+    private volatile long readyDeadlineNanos;
+
+    /**
+     * Shares instances between flags with equal string values; {@code null} if not interning.
+     */
+    private final FlagValueInterner interner;
+
+    /**
+     * Types and defaults of declared flags; {@code null} if no schema is set.
+     */
+    private volatile FlagSchema schema;
+
+    private final List<FlagValidationListener> validationListeners = new CopyOnWriteArrayList<>();
+
+    private final List<FlagChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs a provider that wraps values with {@link FlagValue#of(Object)}.
+     */
+    protected GenericFeatureFlagProvider() {
+        this(new ConcurrentHashMap<>(), null);
+    }
+
+    /**
+     * Constructs a provider that wraps string values through an interner, for flag sets in
+     * which many flags share the same strings.
+     *
+     * @param interner the interner to use, or {@code null} to use {@link FlagValue#of(Object)}
+     */
+    protected GenericFeatureFlagProvider(FlagValueInterner interner) {
+        this(new ConcurrentHashMap<>(), interner);
+    }
+
+    /**
+     * Constructs a provider that keeps its flags in the given store, such as a
+     * {@link CompactFlagStore} for very large flag sets.
+     *
+     * @param flags    the thread-safe map to store flags in
+     * @param interner the interner to use, or {@code null} to use {@link FlagValue#of(Object)}
+     */
+    protected GenericFeatureFlagProvider(Map<String, FlagValue> flags, FlagValueInterner interner) {
+        this.flags = flags;
+        this.interner = interner;
+    }
+
     /**
      * Initializes the provider by performing one-time setup and loading initial flags.
      * <p>
@@ -45,53 +198,157 @@ public abstract class GenericFeatureFlagProvider implements FeatureFlagProvider
     /**
      * Retrieves the value of a feature flag by key.
      * <p>
-     * Lazily initializes the provider on first use.
+     * Lazily initializes the provider on first use. If initialization was started with
+     * {@link #initializeAsync(long, TimeUnit)}, the lookup instead waits for it until the
+     * configured deadline and then answers from whatever flags are loaded.
      * </p>
      *
      * @param key the key of the flag
-     * @return the corresponding {@link FlagValue}, or {@link FlagValue#nullValue()} if not found
+     * @return the corresponding {@link FlagValue}, the schema's default if not found, or
+     * {@link FlagValue#nullValue()} if there is none
      */
     @Override
     public FlagValue getValue(String key) {
-        if (!initialized) {
-            synchronized (this) {
-                if (!initialized) {
-                    initialize();
-                    initialized = true;
-                }
+        ensureInitialized();
+        PersistentFlagMap pending = staged;
+        FlagValue value = pending.isEmpty() ? null : pending.get(key);
+        if (value == null) {
+            value = flags.get(key);
+        } else if (value == REMOVED) {
+            value = null;
+        }
+        if (value != null) return value;
+        FlagSchema current = schema;
+        return current != null ? current.getDefaultValue(key) : FlagValue.nullValue();
+    }
+
+    /**
+     * Starts initialization on a background thread and returns immediately.
+     * <p>
+     * Until initialization completes, lookups wait at most until {@code maxWait} after this call,
+     * then return the flags loaded so far, or {@link FlagValue#nullValue()} so that callers fall back
+     * to their defaults. If {@link #initialize()} throws, it is retried with exponential backoff
+     * between 100 milliseconds and 30 seconds until it succeeds or the provider is shut down.
+     * </p>
+     * <p>
+     * Has no effect if the provider is already initialized or initializing.
+     * </p>
+     *
+     * @param maxWait  how long lookups may wait for initialization, measured from this call
+     * @param timeUnit the time unit for the wait
+     * @return the future returned by {@link #ready()}
+     */
+    public CompletableFuture<Void> initializeAsync(long maxWait, TimeUnit timeUnit) {
+        synchronized (asyncLock) {
+            if (initialized || initExecutor != null) {
+                return ready;
             }
+
+            readyDeadlineNanos = System.nanoTime() + timeUnit.toNanos(maxWait);
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "flick-init");
+                t.setDaemon(true);
+                return t;
+            });
+            initExecutor = executor;
+            executor.execute(() -> attemptInitialize(executor, 0));
+            return ready;
         }
-        return flags.getOrDefault(key, FlagValue.nullValue());
+    }
+
+    /**
+     * Returns a future that completes once the provider has been initialized, for use by
+     * readiness probes. It never completes exceptionally; failed attempts are retried.
+     *
+     * @return the readiness future
+     */
+    public CompletableFuture<Void> ready() {
+        return ready;
     }
 
     /**
      * Returns a map of all flags whose keys start with the given prefix.
      * The returned keys are trimmed to remove the prefix.
+     * An empty or null prefix returns every flag. Initializes the provider like
+     * {@link #getValue(String)}.
      *
      * @param prefix the prefix to match
      * @return an unmodifiable map of child keys to values
      */
     @Override
     public Map<String, FlagValue> getChildren(String prefix) {
+        ensureInitialized();
+        if (prefix == null || prefix.isEmpty()) {
+            storeLock.readLock().lock();
+            try {
+                return Collections.unmodifiableMap(new ConcurrentHashMap<>(flags));
+            } finally {
+                storeLock.readLock().unlock();
+            }
+        }
+
         String normalizedPrefix = prefix.endsWith(".") ? prefix : prefix + ".";
         Map<String, FlagValue> result = new ConcurrentHashMap<>();
 
-        flags.forEach((key, value) -> {
-            if (key.startsWith(normalizedPrefix)) {
-                String childKey = key.substring(normalizedPrefix.length());
-                result.put(childKey, value);
-            }
-        });
+        storeLock.readLock().lock();
+        try {
+            flags.forEach((key, value) -> {
+                if (key.startsWith(normalizedPrefix)) {
+                    String childKey = key.substring(normalizedPrefix.length());
+                    result.put(childKey, value);
+                }
+            });
+        } finally {
+            storeLock.readLock().unlock();
+        }
 
         return Collections.unmodifiableMap(result);
     }
 
+    /**
+     * Visits every flag in place, without copying the flag map. Initializes the provider like
+     * {@link #getValue(String)}. A delta or snapshot is either visited in full or not at all;
+     * the visitor must therefore not apply one to this provider itself.
+     *
+     * @param action the visitor, called once per flag
+     */
+    @Override
+    public void forEachFlag(BiConsumer<? super String, ? super FlagValue> action) {
+        ensureInitialized();
+        storeLock.readLock().lock();
+        try {
+            flags.forEach(action);
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a spliterator over the flag map itself, which splits for parallel traversal.
+     * Like iteration of the map, it is weakly consistent with concurrent updates, and unlike
+     * {@link #forEachFlag} may see part of a delta applied during the traversal.
+     *
+     * @return a spliterator of read-only flag entries
+     */
+    @Override
+    public Spliterator<Map.Entry<String, FlagValue>> flagSpliterator() {
+        ensureInitialized();
+        return new ReadOnlyEntries(flags.entrySet().spliterator());
+    }
+
     /**
      * Reloads all flags by invoking {@link #loadFlags()}.
      */
     @Override
     public void refresh() {
-        loadFlags();
+        Object event = FlickEvents.beginRefresh();
+        boolean success = false;
+        try {
+            loadFlags();
+            success = true;
+        } finally {
+            FlickEvents.endRefresh(event, this, flags.size(), success);
+        }
     }
 
     /**
@@ -99,36 +356,379 @@ public abstract class GenericFeatureFlagProvider implements FeatureFlagProvider
      */
     @Override
     public void shutdown() {
+        ScheduledExecutorService executor = initExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
         flags.clear();
     }
 
+    /**
+     * Sets the schema that loaded values are validated against. Flags already loaded are
+     * validated immediately; declared flags holding invalid values are removed, so their
+     * defaults apply, and reported as rejected.
+     *
+     * @param schema the schema, or {@code null} to stop validating
+     */
+    public void setSchema(FlagSchema schema) {
+        this.schema = schema;
+        if (schema == null) return;
+        synchronized (versionLock) {
+            for (String key : schema.keys()) {
+                FlagValue current = flags.get(key);
+                if (current != null) {
+                    Object raw = current.as(Object.class).orElse(null);
+                    if (raw != null && !store(key, raw)) {
+                        store(key, null);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the schema loaded values are validated against, or {@code null} if there is none
+     */
+    public FlagSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Holds while no schema is set: every flag is then enumerated by {@link #forEachFlag} and
+     * every change goes through the update helpers, which report it. A schema answers lookups
+     * of absent declared flags with defaults that are never enumerated, so it turns this off.
+     *
+     * @return {@code true} if no schema is set
+     */
+    @Override
+    public boolean reportsAllFlags() {
+        return schema == null;
+    }
+
+    @Override
+    public void addChangeListener(FlagChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(FlagChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registers a listener notified of values rejected by the schema.
+     *
+     * @param listener the listener to add
+     */
+    public void addValidationListener(FlagValidationListener listener) {
+        validationListeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered validation listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeValidationListener(FlagValidationListener listener) {
+        validationListeners.remove(listener);
+    }
+
+    /**
+     * Returns the version of the flag set, as last set by a delta or snapshot.
+     *
+     * @return the current version, {@code 0} if no versioned update has been applied
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Applies an incremental update if it is based on the current version.
+     * <p>
+     * The cost is proportional to the size of the delta. Its changes are first collected into a
+     * persistent map and published with a single write, so a concurrent lookup sees either none
+     * or all of its puts and removes; only then are they copied into the flag store. Other
+     * updates wait until the delta is complete, and listeners are notified afterwards.
+     * </p>
+     * <p>
+     * A delta whose target version is not newer than the current version is ignored. A delta
+     * whose base version differs from the current version means changes were missed; it is
+     * rejected and {@link #onResyncRequired(long, FlagDelta)} is invoked so the subclass can
+     * fetch a full snapshot.
+     * </p>
+     *
+     * @param delta the delta to apply
+     * @return the outcome of the update
+     */
+    protected DeltaResult applyDelta(FlagDelta delta) {
+        long current;
+        synchronized (versionLock) {
+            current = version;
+            if (delta.getTargetVersion() <= current) {
+                return DeltaResult.STALE;
+            }
+            if (delta.getBaseVersion() == current) {
+                Map<String, FlagValue> changes = new LinkedHashMap<>();
+                for (String key : delta.getRemoves()) {
+                    resolveInto(changes, key, null);
+                }
+                delta.getPuts().forEach((key, value) -> resolveInto(changes, key, value));
+                publish(changes);
+                version = delta.getTargetVersion();
+                return DeltaResult.APPLIED;
+            }
+        }
+        onResyncRequired(current, delta);
+        return DeltaResult.RESYNC_REQUIRED;
+    }
+
+    /**
+     * Replaces the whole flag set with a full snapshot and sets the version.
+     * Flags absent from the snapshot are removed. Like {@link #applyDelta(FlagDelta)}, the
+     * changes become visible to lookups all at once, at a cost proportional to their number.
+     *
+     * @param snapshot the complete set of flags
+     * @param version  the version the snapshot represents
+     */
+    protected void applySnapshot(Map<String, Object> snapshot, long version) {
+        synchronized (versionLock) {
+            Map<String, FlagValue> changes = new LinkedHashMap<>();
+            snapshot.forEach((key, value) -> resolveInto(changes, key, value));
+            List<String> removed = new ArrayList<>();
+            for (String key : flags.keySet()) {
+                if (snapshot.get(key) == null) {
+                    removed.add(key);
+                }
+            }
+            for (String key : removed) {
+                resolveInto(changes, key, null);
+            }
+            publish(changes);
+            this.version = version;
+        }
+    }
+
+    /**
+     * Called when {@link #applyDelta(FlagDelta)} rejects a delta because it does not start at
+     * the current version. Subclasses backed by a versioned source should fetch a full snapshot
+     * and pass it to {@link #applySnapshot(Map, long)}. The default implementation does nothing.
+     *
+     * @param currentVersion the version the provider is at
+     * @param rejected       the delta that could not be applied
+     */
+    protected void onResyncRequired(long currentVersion, FlagDelta rejected) {
+    }
+
     /**
      * Updates or removes a single flag value in the internal map.
+     * An unchanged value keeps its existing {@link FlagValue}. A value the schema rejects is
+     * reported and leaves the flag unchanged.
      *
      * @param key   the flag key
      * @param value the new value (or {@code null} to remove the flag)
      */
     protected void updateFlag(String key, Object value) {
-        if (value == null) {
-            flags.remove(key);
-        } else {
-            flags.put(key, FlagValue.of(value));
+        synchronized (versionLock) {
+            store(key, value);
         }
     }
 
     /**
      * Updates multiple flags at once.
-     * Entries with {@code null} values will be removed.
+     * Entries with {@code null} values will be removed. Flags whose value is unchanged keep
+     * their existing {@link FlagValue}, so reloading an unchanged source allocates nothing per flag.
+     * Values the schema rejects are reported and skipped; the rest of the update still applies.
      *
      * @param newFlags a map of keys to new flag values
      */
-    protected void bulkUpdateFlags(Map<String, Object> newFlags) {
-        newFlags.forEach((key, value) -> {
-            if (value == null) {
-                flags.remove(key);
-            } else {
-                flags.put(key, FlagValue.of(value));
+    protected void bulkUpdateFlags(Map<String, ?> newFlags) {
+        synchronized (versionLock) {
+            newFlags.forEach(this::store);
+        }
+    }
+
+    /**
+     * Wraps a raw value for storage, through the interner if one was configured.
+     *
+     * @param value the raw value, not null
+     * @return the wrapped value
+     */
+    protected FlagValue wrap(Object value) {
+        return interner != null ? interner.intern(value) : FlagValue.of(value);
+    }
+
+    /**
+     * @return {@code false} if the schema rejected the value
+     */
+    private boolean store(String key, Object value) {
+        FlagValue next = resolve(key, value);
+        if (next == REJECTED) return false;
+        if (next == REMOVED) {
+            flags.remove(key);
+            notifyListeners(key, FlagValue.nullValue());
+        } else if (next != null) {
+            flags.put(key, next);
+            notifyListeners(key, next);
+        }
+        return true;
+    }
+
+    /**
+     * Works out what storing a value would change, without changing anything.
+     *
+     * @return the new value, {@link #REMOVED} if the flag would be removed, {@link #REJECTED} if
+     * the schema rejected the value, or {@code null} if nothing would change
+     */
+    private FlagValue resolve(String key, Object value) {
+        if (value == null) {
+            return flags.containsKey(key) ? REMOVED : null;
+        }
+        FlagSchema currentSchema = schema;
+        FlagSpec<?> spec = currentSchema != null ? currentSchema.getSpec(key) : null;
+        if (spec != null) {
+            try {
+                value = spec.convert(value);
+            } catch (FlagTypeConversionException e) {
+                for (FlagValidationListener listener : validationListeners) {
+                    listener.onRejected(key, value, e.getMessage());
+                }
+                return REJECTED;
+            }
+        }
+        FlagValue current = flags.get(key);
+        return current == null || !current.wraps(value) ? wrap(value) : null;
+    }
+
+    private void resolveInto(Map<String, FlagValue> changes, String key, Object value) {
+        FlagValue next = resolve(key, value);
+        if (next == null || next == REJECTED) {
+            // A later entry for the same key supersedes an earlier one
+            changes.remove(key);
+        } else {
+            changes.put(key, next);
+        }
+    }
+
+    /**
+     * Makes resolved changes visible to lookups all at once, copies them into the store and
+     * notifies listeners. Must be called under {@link #versionLock}.
+     *
+     * @param changes new values, or {@link #REMOVED} for removed flags
+     */
+    private void publish(Map<String, FlagValue> changes) {
+        if (changes.isEmpty()) return;
+        PersistentFlagMap next = PersistentFlagMap.empty();
+        for (Map.Entry<String, FlagValue> change : changes.entrySet()) {
+            next = next.with(change.getKey(), change.getValue());
+        }
+        staged = next;
+
+        storeLock.writeLock().lock();
+        try {
+            for (Map.Entry<String, FlagValue> change : changes.entrySet()) {
+                if (change.getValue() == REMOVED) {
+                    flags.remove(change.getKey());
+                } else {
+                    flags.put(change.getKey(), change.getValue());
+                }
+            }
+        } finally {
+            staged = PersistentFlagMap.empty();
+            storeLock.writeLock().unlock();
+        }
+
+        changes.forEach((key, value) -> notifyListeners(key, value == REMOVED ? FlagValue.nullValue() : value));
+    }
+
+    private void notifyListeners(String key, FlagValue value) {
+        for (FlagChangeListener listener : listeners) {
+            listener.onFlagChange(key, value);
+        }
+    }
+
+    /**
+     * Lazily initializes the provider on first use, or waits for background initialization
+     * until the configured deadline.
+     */
+    private void ensureInitialized() {
+        if (!initialized) {
+            if (initExecutor == null) {
+                initializeNow(false);
+            }
+            if (!initialized) {
+                awaitReady();
             }
-        });
+        }
+    }
+
+    /**
+     * Runs {@link #initialize()} unless it has already completed. A lookup that finds background
+     * initialization started while it waited for the lock leaves it to the background thread.
+     */
+    private void initializeNow(boolean background) {
+        synchronized (initLock) {
+            if (initialized || (!background && initExecutor != null)) return;
+            initialize();
+            initialized = true;
+            ready.complete(null);
+        }
+    }
+
+    private void attemptInitialize(ScheduledExecutorService executor, int attempt) {
+        try {
+            initializeNow(true);
+            executor.shutdown();
+        } catch (RuntimeException e) {
+            if (executor.isShutdown()) return;
+            // Equal jitter: half the delay is fixed, half is random
+            long cap = Math.min(INIT_MAX_BACKOFF_MILLIS, INIT_INITIAL_BACKOFF_MILLIS << Math.min(attempt, 20));
+            long half = Math.max(1, cap / 2);
+            long delay = half + ThreadLocalRandom.current().nextLong(half);
+            executor.schedule(() -> attemptInitialize(executor, attempt + 1), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void awaitReady() {
+        long remaining = readyDeadlineNanos - System.nanoTime();
+        if (remaining <= 0) return;
+        try {
+            ready.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+            // Serve what is loaded so far
+        }
+    }
+
+    /**
+     * Copies each entry, so callers cannot write through entries of the backing map.
+     */
+    private static final class ReadOnlyEntries implements Spliterator<Map.Entry<String, FlagValue>> {
+        private final Spliterator<Map.Entry<String, FlagValue>> source;
+
+        ReadOnlyEntries(Spliterator<Map.Entry<String, FlagValue>> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<String, FlagValue>> action) {
+            return source.tryAdvance(entry -> action.accept(new AbstractMap.SimpleImmutableEntry<>(entry)));
+        }
+
+        @Override
+        public Spliterator<Map.Entry<String, FlagValue>> trySplit() {
+            Spliterator<Map.Entry<String, FlagValue>> split = source.trySplit();
+            return split != null ? new ReadOnlyEntries(split) : null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics();
+        }
     }
 }
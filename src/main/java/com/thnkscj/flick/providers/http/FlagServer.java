@@ -0,0 +1,437 @@
+package com.thnkscj.flick.providers.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small reference flag server built on the JDK's {@code com.sun.net.httpserver}, for local
+ * testing and load testing of the HTTP providers.
+ * <p>
+ * It serves two endpoints:
+ * </p>
+ * <ul>
+ *     <li>{@code GET /flags} returns the full flag set as
+ *     {@code {"version":n,"flags":{...}}}, with an {@code ETag} and {@code Last-Modified}
+ *     header. Conditional requests for an unchanged flag set are answered with
+ *     {@code 304 Not Modified}.</li>
+ *     <li>{@code GET /flags/stream} is a server-sent event stream. A new client receives a
+ *     {@code snapshot} event carrying the full flag set, followed by a {@code patch} event
+ *     {@code {"base":n,"version":m,"puts":{...},"removes":[...]}} for every change.
+ *     Every event's {@code id} is the version it brings the client to. A client that reconnects
+ *     with a {@code Last-Event-ID} still covered by the server's history only receives the
+ *     patches it missed.</li>
+ * </ul>
+ * <p>
+ * Each event is serialized once and the same bytes are written to every connected client, so a
+ * single server can hold thousands of streams. Writes happen under the server lock, so a client
+ * that stops reading can delay the others until its socket write fails.
+ * </p>
+ */
+public class FlagServer implements AutoCloseable {
+
+    static final String SNAPSHOT_PATH = "/flags";
+    static final String STREAM_PATH = "/flags/stream";
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final InetSocketAddress address;
+    private final int historySize;
+    private final long heartbeatMillis;
+
+    private final Map<String, Object> flags = new TreeMap<>();
+    private final Deque<Patch> history = new ArrayDeque<>();
+    private final List<Client> clients = new ArrayList<>();
+    private long version;
+    private long lastModifiedMillis = System.currentTimeMillis();
+    private byte[] cachedSnapshot;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private ScheduledExecutorService heartbeat;
+
+    /**
+     * Constructs a server bound to the loopback interface with a history of 1024 patches
+     * and a 15 second heartbeat.
+     *
+     * @param port the port to listen on, or {@code 0} for an ephemeral port
+     */
+    public FlagServer(int port) {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024, 15, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Constructs a new flag server. Call {@link #start()} to begin accepting connections.
+     *
+     * @param address           the address to listen on
+     * @param historySize       the number of patches retained for resuming clients
+     * @param heartbeatInterval the interval between keep-alive comments on idle streams
+     * @param timeUnit          the time unit for the heartbeat interval
+     */
+    public FlagServer(InetSocketAddress address, int historySize, long heartbeatInterval, TimeUnit timeUnit) {
+        this.address = address;
+        this.historySize = historySize;
+        this.heartbeatMillis = timeUnit.toMillis(heartbeatInterval);
+    }
+
+    /**
+     * Binds the server and starts accepting connections.
+     *
+     * @return this server
+     * @throws IOException if the server cannot be bound
+     */
+    public synchronized FlagServer start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server already started");
+        }
+
+        executor = Executors.newFixedThreadPool(4, r -> {
+            Thread t = new Thread(r, "flick-server");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "flick-server-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+
+        server = HttpServer.create(address, 1024);
+        server.setExecutor(executor);
+        server.createContext(SNAPSHOT_PATH, this::handleSnapshot);
+        server.createContext(STREAM_PATH, this::handleStream);
+        server.start();
+
+        if (heartbeatMillis > 0) {
+            heartbeat.scheduleAtFixedRate(this::sendHeartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the bound port
+     */
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("Server not started");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the URL of the snapshot endpoint.
+     *
+     * @return the {@code /flags} URL
+     */
+    public URL getSnapshotUrl() {
+        return url(SNAPSHOT_PATH);
+    }
+
+    /**
+     * Returns the URL of the event stream endpoint.
+     *
+     * @return the {@code /flags/stream} URL
+     */
+    public URL getStreamUrl() {
+        return url(STREAM_PATH);
+    }
+
+    /**
+     * Sets a single flag and publishes the change.
+     *
+     * @param key   the flag key
+     * @param value the new value (or {@code null} to remove the flag)
+     * @return the new version
+     */
+    public long setFlag(String key, Object value) {
+        if (value == null) {
+            return removeFlag(key);
+        }
+        return publish(Collections.singletonMap(key, value), Collections.emptyList());
+    }
+
+    /**
+     * Removes a single flag and publishes the change.
+     *
+     * @param key the flag key
+     * @return the new version
+     */
+    public long removeFlag(String key) {
+        return publish(Collections.emptyMap(), Collections.singletonList(key));
+    }
+
+    /**
+     * Applies a set of changes as one version and pushes it to every connected client.
+     *
+     * @param puts    flags to add or replace
+     * @param removes keys of flags to remove
+     * @return the new version
+     */
+    public synchronized long publish(Map<String, ?> puts, Collection<String> removes) {
+        long base = version;
+        long target = ++version;
+        removes.forEach(flags::remove);
+        flags.putAll(puts);
+        lastModifiedMillis = System.currentTimeMillis();
+        cachedSnapshot = null;
+
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("base", base);
+        patch.put("version", target);
+        patch.put("puts", puts);
+        patch.put("removes", removes);
+        byte[] event = event("patch", target, patch);
+
+        history.addLast(new Patch(base, event));
+        while (history.size() > historySize) {
+            history.removeFirst();
+        }
+        broadcast(event);
+        return target;
+    }
+
+    /**
+     * Returns the current version of the flag set.
+     *
+     * @return the number of changes published so far
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of connected stream clients.
+     *
+     * @return the connected client count
+     */
+    public synchronized int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Closes every open stream, forcing clients to reconnect. Useful for simulating failover.
+     */
+    public synchronized void disconnectAll() {
+        clients.forEach(Client::close);
+        clients.clear();
+    }
+
+    /**
+     * Closes all streams and stops the server.
+     */
+    @Override
+    public synchronized void close() {
+        if (server == null) return;
+
+        disconnectAll();
+        server.stop(0);
+        heartbeat.shutdownNow();
+        executor.shutdownNow();
+        server = null;
+    }
+
+    private void handleSnapshot(HttpExchange exchange) throws IOException {
+        String etag;
+        String lastModified;
+        boolean modified;
+        byte[] body = null;
+        synchronized (this) {
+            etag = "\"" + version + "\"";
+            lastModified = HTTP_DATE.format(Instant.ofEpochMilli(lastModifiedMillis));
+            modified = isModified(exchange, etag);
+            if (modified) {
+                body = FlagJson.write(new StringBuilder(), snapshot()).toString().getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Last-Modified", lastModified);
+        if (!modified) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Evaluates conditional request headers. {@code If-None-Match} takes precedence over
+     * {@code If-Modified-Since}, which is compared at second precision.
+     */
+    private boolean isModified(HttpExchange exchange, String etag) {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            return !ifNoneMatch.trim().equals(etag) && !ifNoneMatch.trim().equals("*");
+        }
+
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if (ifModifiedSince != null) {
+            try {
+                long since = Instant.from(HTTP_DATE.parse(ifModifiedSince.trim())).getEpochSecond();
+                return lastModifiedMillis / 1000 > since;
+            } catch (DateTimeParseException ignored) {
+                // Invalid dates are ignored per RFC 7232
+            }
+        }
+        return true;
+    }
+
+    private void handleStream(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        Client client = new Client(exchange);
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        synchronized (this) {
+            List<byte[]> catchUp = catchUp(lastEventId);
+            for (byte[] event : catchUp) {
+                if (!client.send(event)) return;
+            }
+            clients.add(client);
+        }
+    }
+
+    /**
+     * Returns the events a client at the given version needs: nothing if it is current, the
+     * missed patches if they are still in history, or a full snapshot otherwise.
+     */
+    private List<byte[]> catchUp(String lastEventId) {
+        long clientVersion = -1;
+        if (lastEventId != null) {
+            try {
+                clientVersion = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException ignored) {
+                // Unknown ID, fall back to a snapshot
+            }
+        }
+
+        if (clientVersion == version) {
+            return Collections.emptyList();
+        }
+        if (clientVersion >= 0 && clientVersion < version
+                && !history.isEmpty() && history.peekFirst().base <= clientVersion) {
+            List<byte[]> patches = new ArrayList<>();
+            for (Patch patch : history) {
+                if (patch.base >= clientVersion) {
+                    patches.add(patch.event);
+                }
+            }
+            return patches;
+        }
+
+        if (cachedSnapshot == null) {
+            cachedSnapshot = event("snapshot", version, snapshot());
+        }
+        return Collections.singletonList(cachedSnapshot);
+    }
+
+    private Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("version", version);
+        snapshot.put("flags", flags);
+        return snapshot;
+    }
+
+    private synchronized void sendHeartbeat() {
+        broadcast(HEARTBEAT);
+    }
+
+    private void broadcast(byte[] event) {
+        for (Iterator<Client> it = clients.iterator(); it.hasNext(); ) {
+            if (!it.next().send(event)) {
+                it.remove();
+            }
+        }
+    }
+
+    private URL url(String path) {
+        try {
+            return new URL("http", address.getHostString(), getPort(), path);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] event(String type, long id, Map<String, Object> data) {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append("event: ").append(type).append('\n');
+        sb.append("id: ").append(id).append('\n');
+        sb.append("data: ");
+        FlagJson.write(sb, data);
+        sb.append("\n\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Patch {
+        final long base;
+        final byte[] event;
+
+        Patch(long base, byte[] event) {
+            this.base = base;
+            this.event = event;
+        }
+    }
+
+    private static final class Client {
+        private final HttpExchange exchange;
+        private final OutputStream out;
+
+        Client(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.out = exchange.getResponseBody();
+        }
+
+        boolean send(byte[] event) {
+            try {
+                out.write(event);
+                out.flush();
+                return true;
+            } catch (IOException e) {
+                close();
+                return false;
+            }
+        }
+
+        void close() {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // Connection already gone
+            }
+            exchange.close();
+        }
+    }
+}
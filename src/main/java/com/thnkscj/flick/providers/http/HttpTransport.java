@@ -0,0 +1,66 @@
+package com.thnkscj.flick.providers.http;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Performs the HTTP requests of a {@link PollingFeatureFlagProvider}. Plug in an implementation
+ * to reuse an existing HTTP client, add authentication, or stub the network in tests.
+ *
+ * @see UrlConnectionTransport
+ */
+@FunctionalInterface
+public interface HttpTransport {
+
+    /**
+     * Sends a GET request.
+     *
+     * @param url     the URL to request
+     * @param headers request headers, including any conditional headers
+     * @return the response; the body is only read for {@code 200} responses
+     * @throws IOException if the request fails
+     */
+    Response get(URL url, Map<String, String> headers) throws IOException;
+
+    /**
+     * The parts of an HTTP response the polling provider needs.
+     */
+    final class Response {
+        private final int status;
+        private final String etag;
+        private final String lastModified;
+        private final String body;
+
+        /**
+         * Constructs a new response.
+         *
+         * @param status       the HTTP status code
+         * @param etag         the {@code ETag} header, or {@code null}
+         * @param lastModified the {@code Last-Modified} header, or {@code null}
+         * @param body         the response body, or {@code null} if not read
+         */
+        public Response(int status, String etag, String lastModified, String body) {
+            this.status = status;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.thnkscj.flick.providers.http;
+
+import com.thnkscj.flick.providers.generic.GenericFeatureFlagProvider;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link GenericFeatureFlagProvider} that polls a flag endpoint with conditional requests.
+ * <p>
+ * Each poll sends the last seen {@code ETag} as {@code If-None-Match} and the last
+ * {@code Last-Modified} as {@code If-Modified-Since}, so an unchanged flag set costs a
+ * {@code 304 Not Modified} and no parsing. The poll interval starts at the minimum, doubles
+ * while the source stays quiet or unreachable, and drops back to the minimum after a change.
+ * Every delay is jittered by up to 20% either way so a fleet of nodes does not poll in step.
+ * </p>
+ * <p>
+ * The body is either {@code {"version":n,"flags":{...}}}, as served by {@link FlagServer},
+ * or a plain JSON object of flags. Nested objects are flattened into dotted keys. A plain body
+ * carries no version, so it is compared with the last one applied and only a different flag set
+ * advances the local version.
+ * </p>
+ */
+public class PollingFeatureFlagProvider extends GenericFeatureFlagProvider {
+
+    private static final double JITTER = 0.2;
+
+    private final URL url;
+    private final HttpTransport transport;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private volatile long intervalMillis;
+    private String etag;
+    private String lastModified;
+    private Map<String, Object> lastUnversioned;
+
+    /**
+     * Constructs a polling provider using {@link UrlConnectionTransport}.
+     *
+     * @param url         the flag endpoint
+     * @param minInterval the poll interval right after a change
+     * @param maxInterval the longest poll interval while the source is quiet
+     * @param timeUnit    the time unit for the intervals
+     */
+    public PollingFeatureFlagProvider(URL url, long minInterval, long maxInterval, TimeUnit timeUnit) {
+        this(url, new UrlConnectionTransport(), minInterval, maxInterval, timeUnit);
+    }
+
+    /**
+     * Constructs a new polling provider. Polling starts lazily on the first lookup.
+     *
+     * @param url         the flag endpoint
+     * @param transport   the transport used to send requests
+     * @param minInterval the poll interval right after a change
+     * @param maxInterval the longest poll interval while the source is quiet
+     * @param timeUnit    the time unit for the intervals
+     */
+    public PollingFeatureFlagProvider(URL url, HttpTransport transport,
+                                      long minInterval, long maxInterval, TimeUnit timeUnit) {
+        this.url = url;
+        this.transport = transport;
+        this.minIntervalMillis = Math.max(1, timeUnit.toMillis(minInterval));
+        this.maxIntervalMillis = Math.max(minIntervalMillis, timeUnit.toMillis(maxInterval));
+        this.intervalMillis = minIntervalMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "flick-poll");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Performs the first poll and schedules the following ones.
+     */
+    @Override
+    protected void initialize() {
+        loadFlags();
+        scheduleNext();
+    }
+
+    /**
+     * Polls the endpoint once. Failures are counted and otherwise ignored, keeping the
+     * last successfully loaded flags.
+     */
+    @Override
+    protected void loadFlags() {
+        poll();
+    }
+
+    /**
+     * Returns the number of polls sent.
+     *
+     * @return the poll count
+     */
+    public long getPollCount() {
+        return polls.get();
+    }
+
+    /**
+     * Returns the number of polls answered with {@code 304 Not Modified}.
+     *
+     * @return the not-modified count
+     */
+    public long getNotModifiedCount() {
+        return notModified.get();
+    }
+
+    /**
+     * Returns the number of polls that failed.
+     *
+     * @return the failure count
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Returns the current poll interval before jitter.
+     *
+     * @return the interval in milliseconds
+     */
+    public long getCurrentIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Stops polling and clears all flags.
+     */
+    @Override
+    public void shutdown() {
+        scheduler.shutdownNow();
+        super.shutdown();
+    }
+
+    private void scheduleNext() {
+        if (scheduler.isShutdown()) return;
+
+        double jitter = 1 + JITTER * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        long delay = Math.max(1, (long) (intervalMillis * jitter));
+        scheduler.schedule(() -> {
+            poll();
+            scheduleNext();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void poll() {
+        polls.incrementAndGet();
+        Map<String, String> headers = new HashMap<>();
+        if (etag != null) headers.put("If-None-Match", etag);
+        if (lastModified != null) headers.put("If-Modified-Since", lastModified);
+
+        boolean changed = false;
+        try {
+            HttpTransport.Response response = transport.get(url, headers);
+            if (response.getStatus() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                notModified.incrementAndGet();
+            } else if (response.getStatus() == HttpURLConnection.HTTP_OK) {
+                changed = apply(response.getBody());
+                etag = response.getEtag();
+                lastModified = response.getLastModified();
+            } else {
+                throw new IOException("Unexpected response " + response.getStatus() + " from " + url);
+            }
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+        }
+
+        intervalMillis = changed ? minIntervalMillis : Math.min(maxIntervalMillis, intervalMillis * 2);
+    }
+
+    /**
+     * Replaces the flag set with the response body.
+     *
+     * @return {@code true} if the flag set changed
+     */
+    @SuppressWarnings("unchecked")
+    private boolean apply(String body) {
+        Map<String, Object> payload = FlagJson.parseObject(body);
+        Object flagsObject = payload.get("flags");
+        Object versionObject = payload.get("version");
+
+        if (flagsObject instanceof Map && versionObject instanceof Number) {
+            long version = ((Number) versionObject).longValue();
+            if (version == getVersion()) {
+                return false;
+            }
+            applySnapshot(FlagJson.flatten((Map<String, ?>) flagsObject), version);
+            lastUnversioned = null;
+        } else {
+            Map<String, Object> flags = FlagJson.flatten(payload);
+            if (flags.equals(lastUnversioned)) {
+                return false;
+            }
+            applySnapshot(flags, getVersion() + 1);
+            lastUnversioned = flags;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,342 @@
+package com.thnkscj.flick.providers.http;
+
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.providers.generic.DeltaResult;
+import com.thnkscj.flick.providers.generic.FlagDelta;
+import com.thnkscj.flick.providers.generic.GenericFeatureFlagProvider;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link GenericFeatureFlagProvider} that keeps a long-lived server-sent event stream open
+ * to a flag server and applies changes as they are pushed.
+ * <p>
+ * The stream starts with a {@code snapshot} event carrying the full flag set and continues
+ * with {@code patch} events, each applied as a {@link FlagDelta}. After a dropped connection
+ * the provider reconnects with the last event ID so the server only needs to send what was
+ * missed. Reconnects are delayed by an exponential backoff with jitter, so a fleet of clients
+ * does not reconnect in lockstep after a server restart. If a patch does not line up with the
+ * local version, the provider reconnects without an event ID to receive a fresh snapshot.
+ * </p>
+ * <p>
+ * Every applied put and remove is reported to the registered change listeners. The stream is
+ * read through {@link HttpURLConnection}, whose streams cannot be closed from another thread
+ * while a read is blocked. A requested resync or {@link #shutdown()} therefore takes effect
+ * when the next line arrives, which is at the latest the server's next heartbeat.
+ * </p>
+ * <p>
+ * See {@link FlagServer} for the wire format and a reference server.
+ * </p>
+ */
+public class StreamingFeatureFlagProvider extends GenericFeatureFlagProvider {
+
+    /**
+     * How long the first flag lookup waits for the initial snapshot before returning
+     * whatever is available.
+     */
+    static final long INITIAL_SNAPSHOT_TIMEOUT_MILLIS = 5_000;
+
+    /**
+     * Read timeout on the stream; must comfortably exceed the server's heartbeat interval.
+     */
+    static final int READ_TIMEOUT_MILLIS = 60_000;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+
+    private final URL streamUrl;
+    private final long maxBackoffMillis;
+    private final CountDownLatch firstSnapshot = new CountDownLatch(1);
+    private final AtomicLong connects = new AtomicLong();
+
+    private volatile long initialBackoffMillis;
+    private volatile boolean running;
+    private volatile boolean resyncRequested;
+
+    /**
+     * Held while an event is applied and while shutting down, so no event is applied after
+     * {@link #shutdown()} has cleared the flags.
+     */
+    private final Object dispatchLock = new Object();
+    private volatile String lastEventId;
+    private volatile Thread worker;
+    private volatile long snapshotDeadlineNanos;
+
+    /**
+     * Constructs a streaming provider with a backoff between 250 milliseconds and 30 seconds.
+     *
+     * @param streamUrl the URL of the event stream
+     */
+    public StreamingFeatureFlagProvider(URL streamUrl) {
+        this(streamUrl, 250, 30_000, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs a new streaming provider. The connection is opened lazily on the first lookup.
+     *
+     * @param streamUrl      the URL of the event stream
+     * @param initialBackoff the reconnect delay after the first failure
+     * @param maxBackoff     the upper bound on the reconnect delay
+     * @param timeUnit       the time unit for the backoff values
+     */
+    public StreamingFeatureFlagProvider(URL streamUrl, long initialBackoff, long maxBackoff, TimeUnit timeUnit) {
+        this.streamUrl = streamUrl;
+        this.initialBackoffMillis = Math.max(1, timeUnit.toMillis(initialBackoff));
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, timeUnit.toMillis(maxBackoff));
+    }
+
+    /**
+     * Starts the stream without waiting for it; lookups wait for the initial snapshot instead.
+     */
+    @Override
+    protected void initialize() {
+        snapshotDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(INITIAL_SNAPSHOT_TIMEOUT_MILLIS);
+        running = true;
+        Thread thread = new Thread(this::run, "flick-stream");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    /**
+     * Retrieves a flag value, starting the stream on first use. Until the initial snapshot
+     * arrives, lookups wait for it, but never beyond {@link #INITIAL_SNAPSHOT_TIMEOUT_MILLIS}
+     * after the stream was started. The wait holds no lock.
+     *
+     * @param key the key of the flag
+     * @return the corresponding {@link FlagValue}
+     */
+    @Override
+    public FlagValue getValue(String key) {
+        FlagValue value = super.getValue(key);
+        if (firstSnapshot.getCount() == 0 || !awaitFirstSnapshot()) {
+            return value;
+        }
+        return super.getValue(key);
+    }
+
+    /**
+     * Requests a full resync: the current stream is dropped and reopened without an event ID,
+     * so the server answers with a fresh snapshot.
+     */
+    @Override
+    protected void loadFlags() {
+        requestResync();
+    }
+
+    @Override
+    protected void onResyncRequired(long currentVersion, FlagDelta rejected) {
+        requestResync();
+    }
+
+    /**
+     * Returns whether the initial snapshot has been received.
+     *
+     * @return {@code true} once the provider holds a complete flag set
+     */
+    public boolean isSynchronized() {
+        return firstSnapshot.getCount() == 0;
+    }
+
+    /**
+     * Returns the number of stream connections opened so far, including reconnects.
+     *
+     * @return the connection count
+     */
+    public long getConnectCount() {
+        return connects.get();
+    }
+
+    /**
+     * Stops reconnecting and clears all flags. An open stream is closed once its next line arrives;
+     * events that finish arriving after this call are discarded.
+     */
+    @Override
+    public void shutdown() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        synchronized (dispatchLock) {
+            super.shutdown();
+        }
+    }
+
+    private void requestResync() {
+        resyncRequested = true;
+    }
+
+    /**
+     * @return {@code true} if the snapshot arrived in time
+     */
+    private boolean awaitFirstSnapshot() {
+        long remaining = snapshotDeadlineNanos - System.nanoTime();
+        if (remaining <= 0) {
+            return false;
+        }
+        try {
+            return firstSnapshot.await(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void run() {
+        int attempt = 0;
+        while (running) {
+            try {
+                if (stream()) {
+                    attempt = 0;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Connection lost or unusable payload; fall through to reconnect
+            }
+
+            if (!running) break;
+            if (resyncRequested) continue;
+            try {
+                TimeUnit.MILLISECONDS.sleep(backoff(attempt++));
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Exponential backoff with equal jitter: half the delay is fixed, half is random.
+     */
+    private long backoff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt, 20));
+        long half = Math.max(1, cap / 2);
+        return half + ThreadLocalRandom.current().nextLong(half);
+    }
+
+    /**
+     * Reads one connection until it ends.
+     *
+     * @return {@code true} if at least one event was applied
+     */
+    private boolean stream() throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) streamUrl.openConnection();
+        conn.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        conn.setReadTimeout(READ_TIMEOUT_MILLIS);
+        conn.setUseCaches(false);
+        conn.setRequestProperty("Accept", "text/event-stream");
+        conn.setRequestProperty("Cache-Control", "no-cache");
+        if (resyncRequested) {
+            resyncRequested = false;
+            lastEventId = null;
+        } else if (lastEventId != null) {
+            conn.setRequestProperty("Last-Event-ID", lastEventId);
+        }
+        connects.incrementAndGet();
+
+        boolean applied = false;
+        try {
+            if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected response " + conn.getResponseCode() + " from " + streamUrl);
+            }
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8));
+
+            String eventType = "message";
+            String eventId = null;
+            StringBuilder data = new StringBuilder();
+            String line;
+            while (running && !resyncRequested && (line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    if (data.length() > 0) {
+                        synchronized (dispatchLock) {
+                            // The event may have finished arriving after shutdown() cleared the flags
+                            if (!running || !dispatch(eventType, data.toString())) {
+                                return applied;
+                            }
+                        }
+                        applied = true;
+                        if (eventId != null) {
+                            lastEventId = eventId;
+                        }
+                    }
+                    eventType = "message";
+                    eventId = null;
+                    data.setLength(0);
+                    continue;
+                }
+                if (line.charAt(0) == ':') continue;
+
+                int colon = line.indexOf(':');
+                String field = colon < 0 ? line : line.substring(0, colon);
+                String value = colon < 0 ? "" : line.substring(colon + 1);
+                if (value.startsWith(" ")) value = value.substring(1);
+
+                switch (field) {
+                    case "event":
+                        eventType = value;
+                        break;
+                    case "data":
+                        if (data.length() > 0) data.append('\n');
+                        data.append(value);
+                        break;
+                    case "id":
+                        eventId = value;
+                        break;
+                    case "retry":
+                        try {
+                            initialBackoffMillis = Math.max(1, Long.parseLong(value));
+                        } catch (NumberFormatException ignored) {
+                            // Ignored per the event stream specification
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            // Not kept alive: the response never ends, so the connection cannot be reused
+            conn.disconnect();
+        }
+        return applied;
+    }
+
+    /**
+     * Applies a single event.
+     *
+     * @return {@code false} if the stream must be reopened
+     */
+    @SuppressWarnings("unchecked")
+    private boolean dispatch(String eventType, String data) {
+        Map<String, Object> payload;
+        switch (eventType) {
+            case "snapshot":
+                payload = FlagJson.parseObject(data);
+                applySnapshot(FlagJson.flatten((Map<String, ?>) payload.get("flags")),
+                        ((Number) payload.get("version")).longValue());
+                firstSnapshot.countDown();
+                return true;
+            case "patch":
+                payload = FlagJson.parseObject(data);
+                Object removes = payload.get("removes");
+                FlagDelta delta = new FlagDelta(
+                        ((Number) payload.get("base")).longValue(),
+                        ((Number) payload.get("version")).longValue(),
+                        FlagJson.flatten((Map<String, ?>) payload.getOrDefault("puts", Collections.emptyMap())),
+                        removes != null ? (Collection<String>) removes : Collections.emptyList());
+                return applyDelta(delta) != DeltaResult.RESYNC_REQUIRED;
+            default:
+                return true;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.thnkscj.flick.providers.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * The default {@link HttpTransport}, built on {@link HttpURLConnection}.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    /** The most a declared {@code Content-Length} may preallocate; larger bodies grow as they arrive. */
+    private static final int MAX_PREALLOCATED_BODY = 1 << 20;
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    /**
+     * Constructs a transport with 10 second connect and read timeouts.
+     */
+    public UrlConnectionTransport() {
+        this(10_000, 10_000);
+    }
+
+    /**
+     * Constructs a new transport.
+     *
+     * @param connectTimeoutMillis the connect timeout in milliseconds
+     * @param readTimeoutMillis    the read timeout in milliseconds
+     */
+    public UrlConnectionTransport(int connectTimeoutMillis, int readTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public Response get(URL url, Map<String, String> headers) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        try {
+            conn.setConnectTimeout(connectTimeoutMillis);
+            conn.setReadTimeout(readTimeoutMillis);
+            conn.setRequestProperty("Accept", "application/json");
+            headers.forEach(conn::setRequestProperty);
+
+            int status = conn.getResponseCode();
+            String body = null;
+            if (status == HttpURLConnection.HTTP_OK) {
+                try (InputStream in = conn.getInputStream()) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(
+                            Math.min(MAX_PREALLOCATED_BODY, Math.max(256, conn.getContentLength())));
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                    body = new String(out.toByteArray(), StandardCharsets.UTF_8);
+                }
+            }
+            return new Response(status, conn.getHeaderField("ETag"), conn.getHeaderField("Last-Modified"), body);
+        } finally {
+            if (conn.getErrorStream() != null) {
+                conn.getErrorStream().close();
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.thnkscj.flick.providers.jdbc;
+
+import java.util.regex.Pattern;
+
+/**
+ * Describes the table a {@link JdbcFeatureFlagProvider} reads flags from.
+ * <p>
+ * Every row holds one flag. The version column must increase whenever a row is inserted or
+ * updated, for example from a sequence or a timestamp. Versions need not commit in order:
+ * pollers re-read a window below the highest version they have seen to pick up rows that
+ * committed late. Deletes are expressed as tombstones: set the deleted column to {@code true}
+ * and bump the version, so that pollers see the removal. Tombstones can be purged once every
+ * reader is past them; readers that miss one still drop the flag at their next full resync.
+ * </p>
+ */
+public final class FlagTable {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final String table;
+    private final String keyColumn;
+    private final String valueColumn;
+    private final String versionColumn;
+    private final String deletedColumn;
+
+    /**
+     * Describes a table with the default columns {@code flag_key}, {@code flag_value},
+     * {@code version} and {@code deleted}.
+     *
+     * @param table the table name, optionally schema-qualified
+     */
+    public FlagTable(String table) {
+        this(table, "flag_key", "flag_value", "version", "deleted");
+    }
+
+    /**
+     * Describes a table with custom column names.
+     *
+     * @param table         the table name, optionally schema-qualified
+     * @param keyColumn     the column holding the flag key
+     * @param valueColumn   the column holding the flag value
+     * @param versionColumn the column holding the row version
+     * @param deletedColumn the boolean tombstone column
+     * @throws IllegalArgumentException if a name is not a plain SQL identifier
+     */
+    public FlagTable(String table, String keyColumn, String valueColumn, String versionColumn, String deletedColumn) {
+        this.table = identifier(table);
+        this.keyColumn = identifier(keyColumn);
+        this.valueColumn = identifier(valueColumn);
+        this.versionColumn = identifier(versionColumn);
+        this.deletedColumn = identifier(deletedColumn);
+    }
+
+    /**
+     * Returns the query that loads every row.
+     *
+     * @return the full-load SQL
+     */
+    String selectAll() {
+        return "SELECT " + columns() + " FROM " + table;
+    }
+
+    /**
+     * Returns the query that loads rows with a version above a given one, in version order.
+     *
+     * @return the incremental SQL with one version parameter
+     */
+    String selectChanged() {
+        return "SELECT " + columns() + " FROM " + table
+                + " WHERE " + versionColumn + " > ? ORDER BY " + versionColumn;
+    }
+
+    private String columns() {
+        return keyColumn + ", " + valueColumn + ", " + versionColumn + ", " + deletedColumn;
+    }
+
+    private static String identifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid SQL identifier: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * Returns a string representation of the {@code FlagTable}.
+     */
+    @Override
+    public String toString() {
+        return "FlagTable{" +
+                "table='" + table + '\'' +
+                ", keyColumn='" + keyColumn + '\'' +
+                ", valueColumn='" + valueColumn + '\'' +
+                ", versionColumn='" + versionColumn + '\'' +
+                ", deletedColumn='" + deletedColumn + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,270 @@
+package com.thnkscj.flick.providers.jdbc;
+
+import com.thnkscj.flick.providers.generic.FlagDelta;
+import com.thnkscj.flick.providers.generic.GenericFeatureFlagProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link GenericFeatureFlagProvider} backed by a relational table.
+ * <p>
+ * The table is loaded once, then polled for rows whose version is above the highest version
+ * seen so far minus an overlap window. Versions from sequences or timestamps are assigned
+ * before their transaction commits, so a row can become visible after rows with higher
+ * versions; the overlap re-reads it, and the version remembered for each key decides which
+ * re-read rows are actually new. Changed rows are applied as a {@link FlagDelta}, so a poll
+ * that finds nothing new costs one indexed range query and no map work. Rows flagged as
+ * deleted are tombstones and remove the flag. See {@link FlagTable} for the expected layout.
+ * </p>
+ * <p>
+ * Rows that commit later than the overlap allows, and tombstones purged before a poll saw
+ * them, are repaired by a full reload, which runs every resync interval and on {@link #resync()}.
+ * </p>
+ * <p>
+ * Queries run as forward-only, read-only prepared statements with the configured fetch size.
+ * The full load runs with auto-commit off, which lets drivers such as PostgreSQL stream
+ * large tables through a cursor instead of buffering them.
+ * </p>
+ */
+public class JdbcFeatureFlagProvider extends GenericFeatureFlagProvider {
+
+    private final DataSource dataSource;
+    private final FlagTable table;
+    private final int fetchSize;
+    private final long pollIntervalMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private final long overlap;
+    private final long resyncIntervalNanos;
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private boolean loaded;
+    private long lastFullLoadNanos;
+
+    /**
+     * The version of the last applied row of each key, including tombstones; guarded by this.
+     */
+    private final Map<String, Long> rowVersions = new HashMap<>();
+
+    /**
+     * Constructs a JDBC provider with a fetch size of 500.
+     *
+     * @param dataSource   the data source to obtain connections from
+     * @param table        the flag table layout
+     * @param pollInterval the interval between change polls (set 0 to disable)
+     * @param timeUnit     the time unit for the poll interval
+     */
+    public JdbcFeatureFlagProvider(DataSource dataSource, FlagTable table, long pollInterval, TimeUnit timeUnit) {
+        this(dataSource, table, 500, pollInterval, timeUnit);
+    }
+
+    /**
+     * Constructs a new JDBC provider. The table is loaded lazily on the first lookup.
+     *
+     * @param dataSource   the data source to obtain connections from
+     * @param table        the flag table layout
+     * @param fetchSize    the number of rows fetched per round trip
+     * @param pollInterval the interval between change polls (set 0 to disable)
+     * @param timeUnit     the time unit for the poll interval
+     */
+    public JdbcFeatureFlagProvider(DataSource dataSource, FlagTable table, int fetchSize,
+                                   long pollInterval, TimeUnit timeUnit) {
+        this(dataSource, table, fetchSize, pollInterval, timeUnit, 1_000, TimeUnit.MINUTES.toMillis(10));
+    }
+
+    /**
+     * Constructs a new JDBC provider. The table is loaded lazily on the first lookup.
+     *
+     * @param dataSource     the data source to obtain connections from
+     * @param table          the flag table layout
+     * @param fetchSize      the number of rows fetched per round trip
+     * @param pollInterval   the interval between change polls (set 0 to disable)
+     * @param timeUnit       the time unit for the poll interval
+     * @param overlap        how far below the highest seen version each poll re-reads, in version
+     *                       units; cover the versions that can be assigned while a transaction is open
+     * @param resyncInterval the interval between full reloads, in milliseconds (set 0 to disable)
+     * @throws IllegalArgumentException if the overlap or resync interval is negative
+     */
+    public JdbcFeatureFlagProvider(DataSource dataSource, FlagTable table, int fetchSize,
+                                   long pollInterval, TimeUnit timeUnit, long overlap, long resyncInterval) {
+        if (overlap < 0) {
+            throw new IllegalArgumentException("overlap must not be negative: " + overlap);
+        }
+        if (resyncInterval < 0) {
+            throw new IllegalArgumentException("resyncInterval must not be negative: " + resyncInterval);
+        }
+        this.dataSource = dataSource;
+        this.table = table;
+        this.fetchSize = fetchSize;
+        this.pollIntervalMillis = timeUnit.toMillis(pollInterval);
+        this.overlap = overlap;
+        this.resyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(resyncInterval);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "flick-jdbc-poll");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Loads the table and starts polling for changes.
+     */
+    @Override
+    protected void initialize() {
+        loadFlags();
+        if (pollIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::loadFlags,
+                    pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Fetches rows changed since the last poll, or the whole table if it has not been
+     * loaded yet or the resync interval has passed. Failures are counted and the current
+     * flags are kept.
+     */
+    @Override
+    protected synchronized void loadFlags() {
+        polls.incrementAndGet();
+        try {
+            if (loaded && (resyncIntervalNanos == 0 || System.nanoTime() - lastFullLoadNanos < resyncIntervalNanos)) {
+                pollChanges();
+            } else {
+                loadAll();
+            }
+        } catch (SQLException | RuntimeException e) {
+            failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reloads the whole table now, removing flags whose rows or tombstones have disappeared.
+     * Failures are counted and the current flags are kept.
+     */
+    public synchronized void resync() {
+        loaded = false;
+        loadFlags();
+    }
+
+    /**
+     * Returns the number of polls, including the initial load.
+     *
+     * @return the poll count
+     */
+    public long getPollCount() {
+        return polls.get();
+    }
+
+    /**
+     * Returns the number of polls that failed.
+     *
+     * @return the failure count
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Stops polling and clears all flags.
+     */
+    @Override
+    public void shutdown() {
+        scheduler.shutdownNow();
+        super.shutdown();
+    }
+
+    private void loadAll() throws SQLException {
+        Map<String, Object> snapshot = new HashMap<>();
+        Map<String, Long> versions = new HashMap<>();
+        long maxVersion = 0;
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) connection.setAutoCommit(false);
+            try (PreparedStatement statement = prepare(connection, table.selectAll());
+                 ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    String key = rows.getString(1);
+                    long version = rows.getLong(3);
+                    maxVersion = Math.max(maxVersion, version);
+                    versions.put(key, version);
+                    if (!rows.getBoolean(4)) {
+                        snapshot.put(key, rows.getObject(2));
+                    }
+                }
+            } finally {
+                connection.rollback();
+                if (autoCommit) connection.setAutoCommit(true);
+            }
+        }
+        // Never move the version backwards, or later deltas would be rejected as gapped
+        applySnapshot(snapshot, Math.max(maxVersion, getVersion()));
+        rowVersions.clear();
+        rowVersions.putAll(versions);
+        loaded = true;
+        lastFullLoadNanos = System.nanoTime();
+    }
+
+    private void pollChanges() throws SQLException {
+        long base = getVersion();
+        long target = base;
+        Map<String, Object> puts = new HashMap<>();
+        Set<String> removes = new HashSet<>();
+        Map<String, Long> versions = new HashMap<>();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = prepare(connection, table.selectChanged())) {
+            statement.setLong(1, Math.max(0, base - overlap));
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    String key = rows.getString(1);
+                    long version = rows.getLong(3);
+                    Long seen = versions.getOrDefault(key, rowVersions.get(key));
+                    if (seen != null && version <= seen) {
+                        // Already applied, re-read through the overlap
+                        continue;
+                    }
+                    versions.put(key, version);
+                    target = Math.max(target, version);
+                    if (rows.getBoolean(4)) {
+                        puts.remove(key);
+                        removes.add(key);
+                    } else {
+                        puts.put(key, rows.getObject(2));
+                        removes.remove(key);
+                    }
+                }
+            }
+        }
+
+        if (target > base) {
+            applyDelta(new FlagDelta(base, target, puts, removes));
+        } else if (!versions.isEmpty()) {
+            // Only rows that committed late, below the current version
+            Map<String, Object> changes = new HashMap<>(puts);
+            removes.forEach(key -> changes.put(key, null));
+            bulkUpdateFlags(changes);
+        }
+        rowVersions.putAll(versions);
+    }
+
+    private PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+}
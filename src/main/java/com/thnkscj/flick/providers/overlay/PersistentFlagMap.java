@@ -0,0 +1,412 @@
+package com.thnkscj.flick.providers.overlay;
+
+import com.thnkscj.flick.core.FlagValue;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * An immutable map of flag keys to values, implemented as a hash array mapped trie.
+ * <p>
+ * {@link #with(String, FlagValue)} and {@link #without(String)} return a new map that shares
+ * every node off the modified path with this one, so an update copies at most a handful of
+ * small arrays regardless of the map's size, and any number of readers can keep using older
+ * versions. Lookups descend at most seven levels of a 32-way trie.
+ * </p>
+ */
+public final class PersistentFlagMap {
+
+    private static final PersistentFlagMap EMPTY = new PersistentFlagMap(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentFlagMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @return the empty map
+     */
+    public static PersistentFlagMap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the flag key
+     * @return the value, or {@code null} if absent
+     */
+    public FlagValue get(String key) {
+        return root.find(0, hash(key), key);
+    }
+
+    /**
+     * Returns a map with a key set to a value. If the key already maps to an equal value,
+     * this map is returned unchanged.
+     *
+     * @param key   the flag key
+     * @param value the value, not null
+     * @return the updated map
+     */
+    public PersistentFlagMap with(String key, FlagValue value) {
+        if (key == null || value == null) throw new NullPointerException();
+        boolean[] added = new boolean[1];
+        Node updated = root.put(0, hash(key), key, value, added);
+        return updated == root ? this : new PersistentFlagMap(updated, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without a key.
+     *
+     * @param key the flag key
+     * @return the updated map, or this map if the key is absent
+     */
+    public PersistentFlagMap without(String key) {
+        Node updated = root.remove(0, hash(key), key);
+        if (updated == root) return this;
+        return new PersistentFlagMap(updated != null ? updated : BitmapNode.EMPTY, size - 1);
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the map has no entries.
+     *
+     * @return {@code true} if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Visits every entry, in no particular order.
+     *
+     * @param action the visitor
+     */
+    public void forEach(BiConsumer<? super String, ? super FlagValue> action) {
+        root.forEach(action);
+    }
+
+    /**
+     * Returns a spliterator over the entries. It splits along the trie's branches, so large
+     * maps can be traversed in parallel.
+     *
+     * @return a spliterator of read-only entries
+     */
+    public Spliterator<Map.Entry<String, FlagValue>> spliterator() {
+        Object[] array = root.array();
+        return new EntrySpliterator(array, 0, array.length, size, true);
+    }
+
+    @Override
+    public String toString() {
+        return "PersistentFlagMap{" +
+                "size=" + size +
+                '}';
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private abstract static class Node {
+        abstract FlagValue find(int shift, int hash, String key);
+
+        abstract Node put(int shift, int hash, String key, FlagValue value, boolean[] added);
+
+        /**
+         * @return the updated node, this node if the key is absent, or {@code null} if the node became empty
+         */
+        abstract Node remove(int shift, int hash, String key);
+
+        abstract void forEach(BiConsumer<? super String, ? super FlagValue> action);
+
+        /**
+         * @return the node's key-value pairs; a {@code null} key marks a child node in the value position
+         */
+        abstract Object[] array();
+    }
+
+    /**
+     * Walks a range of one node's pairs depth first, descending into child nodes. Only a
+     * spliterator that has not yet descended splits, by halving its range or, if the range is a
+     * single child, by first stepping into that child.
+     */
+    private static final class EntrySpliterator implements Spliterator<Map.Entry<String, FlagValue>> {
+        // Deep enough for seven trie levels and a collision node
+        private static final int MAX_DEPTH = 9;
+
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] indexes = new int[MAX_DEPTH];
+        private final int[] ends = new int[MAX_DEPTH];
+        private int depth;
+        private long estimate;
+        private boolean sized;
+
+        EntrySpliterator(Object[] array, int start, int end, long estimate, boolean sized) {
+            arrays[0] = array;
+            indexes[0] = start;
+            ends[0] = end;
+            this.estimate = estimate;
+            this.sized = sized;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<String, FlagValue>> action) {
+            while (true) {
+                if (indexes[depth] < ends[depth]) {
+                    Object[] array = arrays[depth];
+                    int i = indexes[depth];
+                    indexes[depth] = i + 2;
+                    if (array[i] != null) {
+                        if (estimate > 0) estimate--;
+                        action.accept(new AbstractMap.SimpleImmutableEntry<>((String) array[i], (FlagValue) array[i + 1]));
+                        return true;
+                    }
+                    Object[] child = ((Node) array[i + 1]).array();
+                    depth++;
+                    arrays[depth] = child;
+                    indexes[depth] = 0;
+                    ends[depth] = child.length;
+                } else if (depth > 0) {
+                    depth--;
+                } else {
+                    return false;
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<Map.Entry<String, FlagValue>> trySplit() {
+            if (depth > 0) return null;
+            Object[] array = arrays[0];
+            int start = indexes[0];
+            int end = ends[0];
+            // A lone child holds everything that is left, so split inside it instead
+            while (end - start == 2 && array[start] == null) {
+                array = ((Node) array[start + 1]).array();
+                start = 0;
+                end = array.length;
+            }
+            int pairs = (end - start) / 2;
+            if (pairs < 2) return null;
+
+            int mid = start + (pairs / 2) * 2;
+            long half = estimate / 2;
+            EntrySpliterator prefix = new EntrySpliterator(array, start, mid, half, false);
+            arrays[0] = array;
+            indexes[0] = mid;
+            ends[0] = end;
+            estimate -= half;
+            sized = false;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL | IMMUTABLE | (sized ? SIZED : 0);
+        }
+    }
+
+    /**
+     * A trie node whose bitmap records which of its 32 slots are used. Used slots are packed
+     * into an array of pairs: a key and its value, or {@code null} and a child node.
+     */
+    private static final class BitmapNode extends Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        FlagValue find(int shift, int hash, String key) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ((bitmap & bit) == 0) return null;
+            int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object k = array[i];
+            if (k == null) return ((Node) array[i + 1]).find(shift + 5, hash, key);
+            return key.equals(k) ? (FlagValue) array[i + 1] : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, String key, FlagValue value, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[array.length + 2];
+                System.arraycopy(array, 0, copy, 0, i);
+                copy[i] = key;
+                copy[i + 1] = value;
+                System.arraycopy(array, i, copy, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).put(shift + 5, hash, key, value, added);
+                return child == v ? this : with(i + 1, child);
+            }
+            if (key.equals(k)) {
+                return value.equals(v) ? this : with(i + 1, value);
+            }
+            added[0] = true;
+            Node child = pair(shift + 5, (String) k, (FlagValue) v, hash, key, value);
+            Object[] copy = array.clone();
+            copy[i] = null;
+            copy[i + 1] = child;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        Node remove(int shift, int hash, String key) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ((bitmap & bit) == 0) return this;
+            int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object k = array[i];
+            if (k == null) {
+                Node child = ((Node) array[i + 1]).remove(shift + 5, hash, key);
+                if (child == array[i + 1]) return this;
+                if (child != null) return with(i + 1, child);
+            } else if (!key.equals(k)) {
+                return this;
+            }
+            if (bitmap == bit) return null;
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, i);
+            System.arraycopy(array, i + 2, copy, i, array.length - i - 2);
+            return new BitmapNode(bitmap ^ bit, copy);
+        }
+
+        @Override
+        Object[] array() {
+            return array;
+        }
+
+        @Override
+        void forEach(BiConsumer<? super String, ? super FlagValue> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept((String) array[i], (FlagValue) array[i + 1]);
+                }
+            }
+        }
+
+        private BitmapNode with(int index, Object value) {
+            Object[] copy = array.clone();
+            copy[index] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private static Node pair(int shift, String key1, FlagValue value1, int hash2, String key2, FlagValue value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            boolean[] ignored = new boolean[1];
+            return EMPTY.put(shift, hash1, key1, value1, ignored).put(shift, hash2, key2, value2, ignored);
+        }
+    }
+
+    /**
+     * Holds keys whose hashes are fully equal.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        FlagValue find(int shift, int hash, String key) {
+            int i = indexOf(key);
+            return i >= 0 ? (FlagValue) array[i + 1] : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, String key, FlagValue value, boolean[] added) {
+            if (hash != this.hash) {
+                // Push this node one level down next to the new key
+                int bit = 1 << ((this.hash >>> shift) & 31);
+                return new BitmapNode(bit, new Object[]{null, this}).put(shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (value.equals(array[i + 1])) return this;
+                Object[] copy = array.clone();
+                copy[i + 1] = value;
+                return new CollisionNode(hash, copy);
+            }
+            Object[] copy = Arrays.copyOf(array, array.length + 2);
+            copy[array.length] = key;
+            copy[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Node remove(int shift, int hash, String key) {
+            int i = indexOf(key);
+            if (i < 0) return this;
+            if (array.length == 2) return null;
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, i);
+            System.arraycopy(array, i + 2, copy, i, array.length - i - 2);
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Object[] array() {
+            return array;
+        }
+
+        @Override
+        void forEach(BiConsumer<? super String, ? super FlagValue> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept((String) array[i], (FlagValue) array[i + 1]);
+            }
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) return i;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.thnkscj.flick.providers.overlay;
+
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagChangeListener;
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.core.ObservableFeatureFlagProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * The flag set shared by every {@link TenantOverlayProvider} built on it.
+ * <p>
+ * Flags are held in a {@link PersistentFlagMap}. An update publishes a new version that shares
+ * all unchanged nodes with the previous one, so it costs time proportional to the number of
+ * changed flags, and every tenant sees it at once through this single reference instead of
+ * each holding its own copy.
+ * </p>
+ * <p>
+ * A base either is updated directly through {@link #update(Map)} or mirrors a source provider,
+ * which {@link #refresh()} reloads and diffs against the current version. Listeners are
+ * notified of every flag that changed.
+ * </p>
+ */
+public class SharedFlagBase implements ObservableFeatureFlagProvider {
+
+    private final FeatureFlagProvider source;
+    private final List<FlagChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile PersistentFlagMap flags = PersistentFlagMap.empty();
+
+    /**
+     * Constructs an empty base that is updated through {@link #update(Map)}.
+     */
+    public SharedFlagBase() {
+        this.source = null;
+    }
+
+    /**
+     * Constructs a base holding the given flags.
+     *
+     * @param flags the initial flags
+     */
+    public SharedFlagBase(Map<String, ?> flags) {
+        this.source = null;
+        update(flags);
+    }
+
+    /**
+     * Constructs a base that mirrors a source provider and loads it immediately.
+     *
+     * @param source the provider to load all flags from on {@link #refresh()}
+     */
+    public SharedFlagBase(FeatureFlagProvider source) {
+        this.source = source;
+        refresh();
+    }
+
+    @Override
+    public FlagValue getValue(String key) {
+        FlagValue value = flags.get(key);
+        return value != null ? value : FlagValue.nullValue();
+    }
+
+    @Override
+    public Map<String, FlagValue> getChildren(String prefix) {
+        Map<String, FlagValue> result = new HashMap<>();
+        if (prefix == null || prefix.isEmpty()) {
+            flags.forEach(result::put);
+            return Collections.unmodifiableMap(result);
+        }
+
+        String normalizedPrefix = prefix.endsWith(".") ? prefix : prefix + ".";
+        flags.forEach((key, value) -> {
+            if (key.startsWith(normalizedPrefix)) {
+                result.put(key.substring(normalizedPrefix.length()), value);
+            }
+        });
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Visits every flag of the current version in place.
+     *
+     * @param action the visitor, called once per flag
+     */
+    @Override
+    public void forEachFlag(BiConsumer<? super String, ? super FlagValue> action) {
+        flags.forEach(action);
+    }
+
+    /**
+     * Returns a spliterator over the current version, which splits along the trie for
+     * parallel traversal and is unaffected by later updates.
+     *
+     * @return a spliterator of read-only flag entries
+     */
+    @Override
+    public Spliterator<Map.Entry<String, FlagValue>> flagSpliterator() {
+        return flags.spliterator();
+    }
+
+    /**
+     * The flag set is held in full and every change is notified.
+     *
+     * @return {@code true}
+     */
+    @Override
+    public boolean reportsAllFlags() {
+        return true;
+    }
+
+    /**
+     * Returns the current version of the flag set. It never changes, so it can be read
+     * consistently while the base is being updated.
+     *
+     * @return the current flags
+     */
+    public PersistentFlagMap snapshot() {
+        return flags;
+    }
+
+    /**
+     * Sets or removes flags in one new version. Entries with {@code null} values are removed.
+     * Listeners are notified before the next update starts, on the updating thread.
+     *
+     * @param changes the flags to change
+     */
+    public void update(Map<String, ?> changes) {
+        Map<String, FlagValue> changed = new LinkedHashMap<>();
+        synchronized (this) {
+            PersistentFlagMap next = flags;
+            for (Map.Entry<String, ?> change : changes.entrySet()) {
+                next = apply(next, change.getKey(), change.getValue(), changed);
+            }
+            flags = next;
+            // Notified under the lock, so listeners see the changes of concurrent updates in version order
+            changed.forEach(this::notifyListeners);
+        }
+    }
+
+    /**
+     * Sets or removes a single flag.
+     *
+     * @param key   the flag key
+     * @param value the new value, or {@code null} to remove the flag
+     */
+    public void put(String key, Object value) {
+        update(Collections.singletonMap(key, value));
+    }
+
+    /**
+     * Reloads every flag from the source provider, if there is one. Flags missing from the
+     * source are removed; unchanged flags keep their nodes.
+     */
+    @Override
+    public void refresh() {
+        if (source == null) return;
+        source.refresh();
+
+        Map<String, FlagValue> changed = new LinkedHashMap<>();
+        synchronized (this) {
+            // Stream the source straight into the new version instead of copying it first
+            PersistentFlagMap[] next = {flags};
+            Set<String> loaded = new HashSet<>(Math.max(16, next[0].size() * 4 / 3 + 1));
+            source.forEachFlag((key, value) -> {
+                loaded.add(key);
+                next[0] = apply(next[0], key, value, changed);
+            });
+            List<String> removed = new ArrayList<>();
+            next[0].forEach((key, value) -> {
+                if (!loaded.contains(key)) removed.add(key);
+            });
+            for (String key : removed) {
+                next[0] = apply(next[0], key, null, changed);
+            }
+            flags = next[0];
+            changed.forEach(this::notifyListeners);
+        }
+    }
+
+    @Override
+    public void addChangeListener(FlagChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(FlagChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private static PersistentFlagMap apply(PersistentFlagMap map, String key, Object value,
+                                           Map<String, FlagValue> changed) {
+        PersistentFlagMap next;
+        if (value == null) {
+            next = map.without(key);
+        } else {
+            next = map.with(key, value instanceof FlagValue ? (FlagValue) value : FlagValue.of(value));
+        }
+        if (next != map) {
+            FlagValue current = next.get(key);
+            changed.put(key, current != null ? current : FlagValue.nullValue());
+        }
+        return next;
+    }
+
+    private void notifyListeners(String key, FlagValue value) {
+        for (FlagChangeListener listener : listeners) {
+            listener.onFlagChange(key, value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SharedFlagBase{" +
+                "flags=" + flags.size() +
+                ", source=" + source +
+                '}';
+    }
+}
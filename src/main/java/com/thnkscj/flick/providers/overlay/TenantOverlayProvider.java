@@ -0,0 +1,272 @@
+package com.thnkscj.flick.providers.overlay;
+
+import com.thnkscj.flick.core.FlagChangeListener;
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.core.ObservableFeatureFlagProvider;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * One tenant's view of a {@link SharedFlagBase}: the base's flags plus the tenant's own overrides.
+ * <p>
+ * A tenant stores only its differences from the base, as a small {@link PersistentFlagMap} of
+ * overridden and hidden flags, so thousands of tenants over one base cost memory proportional
+ * to their overrides rather than to the size of the base. A lookup checks the overrides and
+ * then the base, independent of the number of tenants.
+ * </p>
+ * <p>
+ * Listeners are notified of changes to the tenant's overrides and of base changes to flags the
+ * tenant does not override. The tenant listens to the base only while it has listeners itself.
+ * </p>
+ */
+public class TenantOverlayProvider implements ObservableFeatureFlagProvider {
+
+    /**
+     * Marks a base flag hidden for this tenant; compared by identity.
+     */
+    private static final FlagValue HIDDEN = new FlagValue(null);
+
+    private final String tenantId;
+    private final SharedFlagBase base;
+    private final List<FlagChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final FlagChangeListener baseListener = this::onBaseChange;
+    private volatile PersistentFlagMap overrides = PersistentFlagMap.empty();
+
+    /**
+     * Constructs a tenant without overrides.
+     *
+     * @param tenantId the tenant's identifier
+     * @param base     the shared base
+     */
+    public TenantOverlayProvider(String tenantId, SharedFlagBase base) {
+        this(tenantId, base, Collections.emptyMap());
+    }
+
+    /**
+     * Constructs a tenant.
+     *
+     * @param tenantId  the tenant's identifier
+     * @param base      the shared base
+     * @param overrides the initial overrides; {@code null} values hide the base flag
+     */
+    public TenantOverlayProvider(String tenantId, SharedFlagBase base, Map<String, ?> overrides) {
+        this.tenantId = tenantId;
+        this.base = base;
+        PersistentFlagMap initial = PersistentFlagMap.empty();
+        for (Map.Entry<String, ?> entry : overrides.entrySet()) {
+            initial = initial.with(entry.getKey(), wrap(entry.getValue()));
+        }
+        this.overrides = initial;
+    }
+
+    @Override
+    public FlagValue getValue(String key) {
+        PersistentFlagMap current = overrides;
+        if (!current.isEmpty()) {
+            FlagValue override = current.get(key);
+            if (override != null) {
+                return override == HIDDEN ? FlagValue.nullValue() : override;
+            }
+        }
+        return base.getValue(key);
+    }
+
+    @Override
+    public Map<String, FlagValue> getChildren(String prefix) {
+        PersistentFlagMap current = overrides;
+        Map<String, FlagValue> result = new HashMap<>(base.getChildren(prefix));
+        String normalizedPrefix = prefix == null || prefix.isEmpty() || prefix.endsWith(".") ? prefix : prefix + ".";
+        current.forEach((key, value) -> {
+            if (normalizedPrefix == null || key.startsWith(normalizedPrefix)) {
+                String childKey = normalizedPrefix == null ? key : key.substring(normalizedPrefix.length());
+                if (value == HIDDEN) {
+                    result.remove(childKey);
+                } else {
+                    result.put(childKey, value);
+                }
+            }
+        });
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Visits the base flags this tenant does not override, then the tenant's own overrides,
+     * without building a merged map.
+     *
+     * @param action the visitor, called once per visible flag
+     */
+    @Override
+    public void forEachFlag(BiConsumer<? super String, ? super FlagValue> action) {
+        PersistentFlagMap current = overrides;
+        if (current.isEmpty()) {
+            base.forEachFlag(action);
+            return;
+        }
+        base.forEachFlag((key, value) -> {
+            if (current.get(key) == null) action.accept(key, value);
+        });
+        current.forEach((key, value) -> {
+            if (value != HIDDEN) action.accept(key, value);
+        });
+    }
+
+    /**
+     * Returns a spliterator over the same flags as {@link #forEachFlag}: the base flags this tenant
+     * does not override, split along the base's trie, followed by the tenant's own overrides.
+     * Nothing is copied, and later updates to the base or the overrides are not seen.
+     *
+     * @return a spliterator of read-only flag entries
+     */
+    @Override
+    public Spliterator<Map.Entry<String, FlagValue>> flagSpliterator() {
+        PersistentFlagMap current = overrides;
+        if (current.isEmpty()) {
+            return base.flagSpliterator();
+        }
+        return Stream.concat(
+                StreamSupport.stream(base.flagSpliterator(), false)
+                        .filter(entry -> current.get(entry.getKey()) == null),
+                StreamSupport.stream(current.spliterator(), false)
+                        .filter(entry -> entry.getValue() != HIDDEN)
+        ).spliterator();
+    }
+
+    /**
+     * Complete if the base is: overrides are held in full and their changes are notified.
+     *
+     * @return whether the base reports all flags
+     */
+    @Override
+    public boolean reportsAllFlags() {
+        return base.reportsAllFlags();
+    }
+
+    /**
+     * Overrides a flag for this tenant.
+     *
+     * @param key   the flag key
+     * @param value the value to serve instead of the base value, not null
+     * @throws IllegalArgumentException if the value is null; use {@link #hide(String)} instead
+     */
+    public void setOverride(String key, Object value) {
+        FlagValue wrapped = wrap(value);
+        if (wrapped == HIDDEN) {
+            throw new IllegalArgumentException("Override value must not be null; use hide() to remove a flag");
+        }
+        if (change(key, wrapped)) {
+            notifyListeners(key, wrapped);
+        }
+    }
+
+    /**
+     * Hides a base flag from this tenant, as if it did not exist.
+     *
+     * @param key the flag key
+     */
+    public void hide(String key) {
+        if (change(key, HIDDEN)) {
+            notifyListeners(key, FlagValue.nullValue());
+        }
+    }
+
+    /**
+     * Removes this tenant's override or hiding of a flag, so the base value applies again.
+     *
+     * @param key the flag key
+     */
+    public void clearOverride(String key) {
+        if (change(key, null)) {
+            notifyListeners(key, base.getValue(key));
+        }
+    }
+
+    /**
+     * Returns this tenant's overrides. Hidden flags map to {@link FlagValue#nullValue()}.
+     *
+     * @return an unmodifiable copy of the overrides
+     */
+    public Map<String, FlagValue> getOverrides() {
+        Map<String, FlagValue> result = new HashMap<>();
+        overrides.forEach((key, value) -> result.put(key, value == HIDDEN ? FlagValue.nullValue() : value));
+        return Collections.unmodifiableMap(result);
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public SharedFlagBase getBase() {
+        return base;
+    }
+
+    /**
+     * Refreshes the shared base, which affects every tenant built on it.
+     */
+    @Override
+    public void refresh() {
+        base.refresh();
+    }
+
+    @Override
+    public synchronized void addChangeListener(FlagChangeListener listener) {
+        if (listeners.isEmpty()) {
+            base.addChangeListener(baseListener);
+        }
+        listeners.add(listener);
+    }
+
+    @Override
+    public synchronized void removeChangeListener(FlagChangeListener listener) {
+        if (listeners.remove(listener) && listeners.isEmpty()) {
+            base.removeChangeListener(baseListener);
+        }
+    }
+
+    /**
+     * Stops listening to the base.
+     */
+    @Override
+    public void shutdown() {
+        base.removeChangeListener(baseListener);
+    }
+
+    private synchronized boolean change(String key, FlagValue value) {
+        PersistentFlagMap current = overrides;
+        PersistentFlagMap next = value != null ? current.with(key, value) : current.without(key);
+        overrides = next;
+        return next != current;
+    }
+
+    private void onBaseChange(String key, FlagValue value) {
+        if (overrides.get(key) == null) {
+            notifyListeners(key, value);
+        }
+    }
+
+    private void notifyListeners(String key, FlagValue value) {
+        for (FlagChangeListener listener : listeners) {
+            listener.onFlagChange(key, value);
+        }
+    }
+
+    private static FlagValue wrap(Object value) {
+        FlagValue wrapped = value instanceof FlagValue ? (FlagValue) value : FlagValue.of(value);
+        return wrapped.isNull() ? HIDDEN : wrapped;
+    }
+
+    @Override
+    public String toString() {
+        return "TenantOverlayProvider{" +
+                "tenantId='" + tenantId + '\'' +
+                ", overrides=" + overrides.size() +
+                '}';
+    }
+}
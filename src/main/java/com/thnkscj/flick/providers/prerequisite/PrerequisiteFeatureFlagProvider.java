@@ -0,0 +1,401 @@
+package com.thnkscj.flick.providers.prerequisite;
+
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagChangeListener;
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.core.ObservableFeatureFlagProvider;
+import com.thnkscj.flick.core.exceptions.FlagTypeConversionException;
+import com.thnkscj.flick.providers.overlay.PersistentFlagMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * A decorator that gates flags on prerequisite flags: a gated flag serves its own value only
+ * while every one of its prerequisites is on, and the off value otherwise.
+ * <p>
+ * The prerequisites form a dependency graph that is checked for cycles and sorted
+ * topologically once, at construction. The effective values of all gated flags are then
+ * computed in that order and kept, so lookups of gated flags are map reads. Each underlying
+ * value is read once per pass, so a flag and the flags downstream of it agree on the
+ * prerequisite values they were computed with. The reads are separate lookups on the delegate,
+ * though, so a pass that overlaps an update of the delegate may combine values from before and
+ * after it; an observable delegate then reports the update, which recomputes the affected flags.
+ * </p>
+ * <p>
+ * A gated flag has an effective value even if the delegate does not define it, namely the off
+ * value while a prerequisite is off. Lookups, {@link #getChildren(String)} and
+ * {@link #forEachFlag(BiConsumer)} all include it.
+ * </p>
+ * <p>
+ * On an observable delegate, a change to a flag recomputes only the gated flags downstream of
+ * it, in their precomputed order, and listeners are notified only of those whose effective
+ * value changed. Other delegates are recomputed on {@link #refresh()}, which also compares the
+ * delegate's flags before and after, so listeners hear of every flag that changed.
+ * </p>
+ * <pre>
+ * Map&lt;String, List&lt;String&gt;&gt; prerequisites = new HashMap&lt;&gt;();
+ * prerequisites.put("checkout.express", Arrays.asList("checkout.new-flow"));
+ * FeatureFlagProvider provider = new PrerequisiteFeatureFlagProvider(source, prerequisites);
+ * </pre>
+ */
+public class PrerequisiteFeatureFlagProvider implements ObservableFeatureFlagProvider {
+
+    private static final String[] NONE = new String[0];
+
+    private final FeatureFlagProvider delegate;
+    private final FlagValue offValue;
+    private final Map<String, String[]> prerequisites;
+    private final String[] order;
+    private final Map<String, String[]> downstream;
+    private final List<FlagChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final FlagChangeListener delegateListener = this::onDelegateChange;
+    private volatile PersistentFlagMap effective = PersistentFlagMap.empty();
+
+    /**
+     * Constructs a provider that serves {@code false} for gated flags whose prerequisites are off.
+     *
+     * @param delegate      the provider holding the flags' own values
+     * @param prerequisites the prerequisites of each gated flag
+     * @throws IllegalArgumentException if the prerequisites contain a cycle
+     */
+    public PrerequisiteFeatureFlagProvider(FeatureFlagProvider delegate,
+                                           Map<String, ? extends Collection<String>> prerequisites) {
+        this(delegate, prerequisites, FlagValue.of(false));
+    }
+
+    /**
+     * Constructs a new provider.
+     * A prerequisite is on if its effective value converts to {@code true} with
+     * {@link FlagValue#asBoolean()}; absent and non-boolean values are off.
+     *
+     * @param delegate      the provider holding the flags' own values
+     * @param prerequisites the prerequisites of each gated flag
+     * @param offValue      the value of a gated flag while a prerequisite is off
+     * @throws IllegalArgumentException if the prerequisites contain a cycle
+     */
+    public PrerequisiteFeatureFlagProvider(FeatureFlagProvider delegate,
+                                           Map<String, ? extends Collection<String>> prerequisites,
+                                           FlagValue offValue) {
+        this.delegate = delegate;
+        this.offValue = offValue != null ? offValue : FlagValue.nullValue();
+
+        Map<String, String[]> edges = new HashMap<>();
+        for (Map.Entry<String, ? extends Collection<String>> entry : prerequisites.entrySet()) {
+            if (entry.getKey() == null || entry.getValue().contains(null)) {
+                throw new IllegalArgumentException("Flag keys must not be null");
+            }
+            edges.put(entry.getKey(), new LinkedHashSet<>(entry.getValue()).toArray(NONE));
+        }
+        this.prerequisites = Collections.unmodifiableMap(edges);
+        this.order = sort(edges);
+        this.downstream = downstream(edges, order);
+
+        // Listen first, so a change between the initial evaluation and registering is not lost
+        if (delegate instanceof ObservableFeatureFlagProvider) {
+            ((ObservableFeatureFlagProvider) delegate).addChangeListener(delegateListener);
+        }
+        synchronized (this) {
+            effective = evaluate(effective, order, new HashMap<>());
+        }
+    }
+
+    @Override
+    public FlagValue getValue(String key) {
+        FlagValue gated = effective.get(key);
+        return gated != null ? gated : delegate.getValue(key);
+    }
+
+    @Override
+    public Map<String, FlagValue> getChildren(String prefix) {
+        PersistentFlagMap current = effective;
+        String normalizedPrefix = prefix == null || prefix.isEmpty() || prefix.endsWith(".") ? prefix : prefix + ".";
+        boolean all = normalizedPrefix == null || normalizedPrefix.isEmpty();
+        Map<String, FlagValue> result = new HashMap<>(delegate.getChildren(prefix));
+        for (String key : order) {
+            if (all || key.startsWith(normalizedPrefix)) {
+                String childKey = all ? key : key.substring(normalizedPrefix.length());
+                FlagValue gated = current.get(key);
+                if (gated != null && gated.isPresent()) {
+                    result.put(childKey, gated);
+                } else {
+                    result.remove(childKey);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Visits the delegate's flags, substituting the effective values of gated flags, then the
+     * gated flags the delegate does not define but that have an effective value.
+     *
+     * @param action the visitor, called once per flag
+     */
+    @Override
+    public void forEachFlag(BiConsumer<? super String, ? super FlagValue> action) {
+        PersistentFlagMap current = effective;
+        Set<String> visited = new HashSet<>();
+        delegate.forEachFlag((key, value) -> {
+            FlagValue gated = current.get(key);
+            if (gated == null) {
+                action.accept(key, value);
+            } else if (visited.add(key) && gated.isPresent()) {
+                action.accept(key, gated);
+            }
+        });
+        for (String key : order) {
+            FlagValue gated = current.get(key);
+            if (!visited.contains(key) && gated != null && gated.isPresent()) {
+                action.accept(key, gated);
+            }
+        }
+    }
+
+    /**
+     * Returns the prerequisites of a flag.
+     *
+     * @param key the flag key
+     * @return the prerequisite keys, empty if the flag is not gated
+     */
+    public List<String> getPrerequisites(String key) {
+        String[] keys = prerequisites.get(key);
+        return keys != null ? Collections.unmodifiableList(Arrays.asList(keys)) : Collections.emptyList();
+    }
+
+    /**
+     * Returns the gated flags in evaluation order: every flag comes after its prerequisites.
+     *
+     * @return the gated flag keys
+     */
+    public List<String> getEvaluationOrder() {
+        return Collections.unmodifiableList(Arrays.asList(order));
+    }
+
+    /**
+     * Refreshes the delegate and recomputes every gated flag, notifying listeners of those
+     * whose effective value changed. If the delegate is not observable, listeners are also
+     * notified of the other flags that changed, found by comparing the delegate's flags
+     * before and after the refresh.
+     */
+    @Override
+    public void refresh() {
+        Map<String, FlagValue> before = null;
+        if (!(delegate instanceof ObservableFeatureFlagProvider) && !listeners.isEmpty()) {
+            before = ungatedFlags();
+        }
+        delegate.refresh();
+
+        Map<String, FlagValue> changed = new LinkedHashMap<>();
+        if (before != null) {
+            Map<String, FlagValue> after = ungatedFlags();
+            for (Map.Entry<String, FlagValue> entry : after.entrySet()) {
+                if (!entry.getValue().equals(before.get(entry.getKey()))) {
+                    changed.put(entry.getKey(), entry.getValue());
+                }
+            }
+            for (String key : before.keySet()) {
+                if (!after.containsKey(key)) changed.put(key, FlagValue.nullValue());
+            }
+        }
+        synchronized (this) {
+            effective = evaluate(effective, order, changed);
+        }
+        changed.forEach(this::notifyListeners);
+    }
+
+    @Override
+    public void addChangeListener(FlagChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(FlagChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops listening to the delegate and shuts it down.
+     */
+    @Override
+    public void shutdown() {
+        if (delegate instanceof ObservableFeatureFlagProvider) {
+            ((ObservableFeatureFlagProvider) delegate).removeChangeListener(delegateListener);
+        }
+        delegate.shutdown();
+    }
+
+    private void onDelegateChange(String key, FlagValue value) {
+        String[] affected = downstream.getOrDefault(key, NONE);
+        Map<String, FlagValue> changed = new LinkedHashMap<>();
+        if (affected.length > 0) {
+            synchronized (this) {
+                effective = evaluate(effective, affected, changed);
+            }
+        }
+        if (!prerequisites.containsKey(key)) {
+            notifyListeners(key, value);
+        }
+        changed.forEach(this::notifyListeners);
+    }
+
+    /**
+     * Recomputes gated flags, which must be in evaluation order. Each underlying value is read
+     * at most once per call.
+     *
+     * @param changed receives the flags whose effective value changed
+     * @return the updated effective values
+     */
+    private PersistentFlagMap evaluate(PersistentFlagMap current, String[] keys, Map<String, FlagValue> changed) {
+        Map<String, FlagValue> reads = new HashMap<>();
+        PersistentFlagMap next = current;
+        for (String key : keys) {
+            boolean met = true;
+            for (String prerequisite : prerequisites.get(key)) {
+                FlagValue upstream = prerequisites.containsKey(prerequisite)
+                        ? next.get(prerequisite)
+                        : reads.computeIfAbsent(prerequisite, this::read);
+                if (!isOn(upstream)) {
+                    met = false;
+                    break;
+                }
+            }
+            FlagValue value = met ? reads.computeIfAbsent(key, this::read) : offValue;
+            PersistentFlagMap updated = next.with(key, value);
+            if (updated != next) {
+                changed.put(key, value);
+                next = updated;
+            }
+        }
+        return next;
+    }
+
+    private Map<String, FlagValue> ungatedFlags() {
+        Map<String, FlagValue> flags = new HashMap<>();
+        delegate.forEachFlag((key, value) -> {
+            if (!prerequisites.containsKey(key)) flags.put(key, value != null ? value : FlagValue.nullValue());
+        });
+        return flags;
+    }
+
+    private FlagValue read(String key) {
+        FlagValue value = delegate.getValue(key);
+        return value != null ? value : FlagValue.nullValue();
+    }
+
+    private static boolean isOn(FlagValue value) {
+        try {
+            return value != null && value.asBoolean(false);
+        } catch (FlagTypeConversionException e) {
+            return false;
+        }
+    }
+
+    private void notifyListeners(String key, FlagValue value) {
+        for (FlagChangeListener listener : listeners) {
+            listener.onFlagChange(key, value);
+        }
+    }
+
+    /**
+     * Orders the gated flags so that each comes after its gated prerequisites.
+     *
+     * @throws IllegalArgumentException if there is a cycle
+     */
+    private static String[] sort(Map<String, String[]> edges) {
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (Map.Entry<String, String[]> entry : edges.entrySet()) {
+            int count = 0;
+            for (String prerequisite : entry.getValue()) {
+                if (edges.containsKey(prerequisite)) {
+                    dependents.computeIfAbsent(prerequisite, k -> new ArrayList<>()).add(entry.getKey());
+                    count++;
+                }
+            }
+            pending.put(entry.getKey(), count);
+        }
+
+        // Kahn's algorithm, taking ready flags in key order so the result is deterministic
+        TreeSet<String> ready = new TreeSet<>();
+        pending.forEach((key, count) -> {
+            if (count == 0) ready.add(key);
+        });
+        List<String> sorted = new ArrayList<>(edges.size());
+        while (!ready.isEmpty()) {
+            String key = ready.pollFirst();
+            sorted.add(key);
+            for (String dependent : dependents.getOrDefault(key, Collections.emptyList())) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (sorted.size() < edges.size()) {
+            Set<String> cyclic = new TreeSet<>(edges.keySet());
+            cyclic.removeAll(sorted);
+            // Includes flags that only depend on a cycle
+            throw new IllegalArgumentException("Prerequisites contain a cycle; cannot order " + cyclic);
+        }
+        return sorted.toArray(NONE);
+    }
+
+    /**
+     * Computes, for every flag that is a prerequisite or gated, the gated flags whose value
+     * depends on it, in evaluation order.
+     */
+    private static Map<String, String[]> downstream(Map<String, String[]> edges, String[] order) {
+        Map<String, Integer> rank = new HashMap<>();
+        for (int i = 0; i < order.length; i++) {
+            rank.put(order[i], i);
+        }
+        Map<String, List<String>> dependents = new HashMap<>();
+        edges.forEach((key, keys) -> {
+            for (String prerequisite : keys) {
+                dependents.computeIfAbsent(prerequisite, k -> new ArrayList<>()).add(key);
+            }
+        });
+
+        Set<String> nodes = new HashSet<>(edges.keySet());
+        nodes.addAll(dependents.keySet());
+        Map<String, String[]> result = new HashMap<>();
+        for (String node : nodes) {
+            Set<String> reached = new HashSet<>();
+            if (edges.containsKey(node)) reached.add(node);
+            ArrayDeque<String> queue = new ArrayDeque<>();
+            queue.add(node);
+            while (!queue.isEmpty()) {
+                for (String dependent : dependents.getOrDefault(queue.poll(), Collections.emptyList())) {
+                    if (reached.add(dependent)) queue.add(dependent);
+                }
+            }
+            String[] keys = reached.toArray(NONE);
+            Arrays.sort(keys, Comparator.comparingInt(rank::get));
+            result.put(node, keys);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public String toString() {
+        return "PrerequisiteFeatureFlagProvider{" +
+                "delegate=" + delegate +
+                ", gated=" + order.length +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package com.thnkscj.flick.schema;
+
+import com.thnkscj.flick.core.FlagValue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link FlagSpec}s of a set of flags, keyed by flag key.
+ * <p>
+ * Registered with a provider, a schema is applied whenever a value is loaded: values of
+ * declared flags are converted to their typed form or rejected, and lookups of absent
+ * declared flags return the spec's default. Flags without a spec are passed through unchanged.
+ * </p>
+ * <pre>
+ * Map&lt;String, FlagSpec&lt;?&gt;&gt; specs = new HashMap&lt;&gt;();
+ * specs.put("checkout.max-items", FlagSpec.ofInt(50, 1, 500));
+ * specs.put("checkout.new-flow", FlagSpec.ofBoolean(false));
+ * provider.setSchema(new FlagSchema(specs));
+ * </pre>
+ */
+public final class FlagSchema {
+
+    private final Map<String, FlagSpec<?>> specs;
+
+    /**
+     * Constructs a schema.
+     *
+     * @param specs the spec of each declared flag
+     * @throws IllegalArgumentException if a key or spec is null
+     */
+    public FlagSchema(Map<String, ? extends FlagSpec<?>> specs) {
+        Map<String, FlagSpec<?>> copy = new HashMap<>();
+        for (Map.Entry<String, ? extends FlagSpec<?>> entry : specs.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new IllegalArgumentException("Schema keys and specs must not be null");
+            }
+            copy.put(entry.getKey(), entry.getValue());
+        }
+        this.specs = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Returns the spec of a flag.
+     *
+     * @param key the flag key
+     * @return the spec, or {@code null} if the flag is not declared
+     */
+    public FlagSpec<?> getSpec(String key) {
+        return specs.get(key);
+    }
+
+    /**
+     * Returns the default of a flag.
+     *
+     * @param key the flag key
+     * @return the declared default, or {@link FlagValue#nullValue()} if the flag is not declared or has none
+     */
+    public FlagValue getDefaultValue(String key) {
+        FlagSpec<?> spec = specs.get(key);
+        return spec != null ? spec.getDefaultValue() : FlagValue.nullValue();
+    }
+
+    /**
+     * @return the keys of the declared flags
+     */
+    public Set<String> keys() {
+        return specs.keySet();
+    }
+
+    @Override
+    public String toString() {
+        return "FlagSchema{" +
+                "specs=" + specs.size() +
+                '}';
+    }
+}
@@ -0,0 +1,261 @@
+package com.thnkscj.flick.schema;
+
+import com.thnkscj.flick.core.FlagCodec;
+import com.thnkscj.flick.core.FlagCodecs;
+import com.thnkscj.flick.core.FlagType;
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.core.exceptions.FlagTypeConversionException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The declared type, default and allowed values of one flag.
+ * <p>
+ * {@link #convert(Object)} turns a raw value from a source into the flag's final typed form,
+ * such as an {@code Integer} for an int flag given as the string {@code "42"}, and rejects
+ * values of the wrong type or outside the allowed values. Providers convert once, when a value
+ * is loaded, so reads of a {@link FlagValue} holding the converted value never parse.
+ * </p>
+ * <pre>
+ * FlagSpec&lt;Integer&gt; maxItems = FlagSpec.ofInt(50, 1, 500);
+ * FlagSpec&lt;String&gt; region = FlagSpec.ofString("eu-west", "eu-west", "us-east");
+ * </pre>
+ *
+ * @param <T> the flag's type
+ */
+public final class FlagSpec<T> {
+
+    private final Class<?> type;
+    private final Function<Object, T> converter;
+    private final Predicate<? super T> constraint;
+    private final String description;
+    private final FlagValue defaultValue;
+
+    /**
+     * Constructs a spec whose values are decoded by the codec {@link FlagCodecs} provides for
+     * the type.
+     *
+     * @param type         the flag's type
+     * @param defaultValue the value served while the flag is absent, or {@code null} for none
+     * @throws IllegalArgumentException if no codec decodes the type
+     */
+    public FlagSpec(FlagType<T> type, T defaultValue) {
+        this(type, defaultValue, value -> true, type.toString());
+    }
+
+    /**
+     * Constructs a spec whose values are decoded by the codec {@link FlagCodecs} provides for
+     * the type and must satisfy a constraint.
+     *
+     * @param type         the flag's type
+     * @param defaultValue the value served while the flag is absent, or {@code null} for none
+     * @param constraint   the check every decoded value must pass
+     * @param description  what the constraint allows, for error messages
+     * @throws IllegalArgumentException if no codec decodes the type or the default violates the constraint
+     */
+    public FlagSpec(FlagType<T> type, T defaultValue, Predicate<? super T> constraint, String description) {
+        this(type.getRawType(), codec(type), defaultValue, constraint, description);
+    }
+
+    private FlagSpec(Class<?> type, Function<Object, T> converter, T defaultValue,
+                     Predicate<? super T> constraint, String description) {
+        if (defaultValue != null && !constraint.test(defaultValue)) {
+            throw new IllegalArgumentException("Default " + defaultValue + " is not " + description);
+        }
+        this.type = type;
+        this.converter = converter;
+        this.constraint = constraint;
+        this.description = description;
+        this.defaultValue = FlagValue.of(defaultValue);
+    }
+
+    /**
+     * Returns a spec for a boolean flag. Accepts what {@link FlagValue#asBoolean()} accepts.
+     *
+     * @param defaultValue the default
+     * @return the spec
+     */
+    public static FlagSpec<Boolean> ofBoolean(boolean defaultValue) {
+        return new FlagSpec<>(Boolean.class, raw -> FlagValue.of(raw).asBoolean(), defaultValue,
+                value -> true, "a boolean");
+    }
+
+    /**
+     * Returns a spec for an int flag without bounds.
+     *
+     * @param defaultValue the default
+     * @return the spec
+     */
+    public static FlagSpec<Integer> ofInt(int defaultValue) {
+        return ofInt(defaultValue, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a spec for an int flag. Fractional numbers are rejected rather than truncated.
+     *
+     * @param defaultValue the default
+     * @param min          the smallest allowed value
+     * @param max          the largest allowed value
+     * @return the spec
+     * @throws IllegalArgumentException if the default is outside the bounds
+     */
+    public static FlagSpec<Integer> ofInt(int defaultValue, int min, int max) {
+        return new FlagSpec<>(Integer.class, raw -> {
+            long value = integral(raw);
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new FlagTypeConversionException("Value " + raw + " does not fit an int");
+            }
+            return (int) value;
+        }, defaultValue, value -> value >= min && value <= max, "an int in [" + min + ", " + max + "]");
+    }
+
+    /**
+     * Returns a spec for a long flag. Fractional numbers are rejected rather than truncated.
+     *
+     * @param defaultValue the default
+     * @param min          the smallest allowed value
+     * @param max          the largest allowed value
+     * @return the spec
+     * @throws IllegalArgumentException if the default is outside the bounds
+     */
+    public static FlagSpec<Long> ofLong(long defaultValue, long min, long max) {
+        return new FlagSpec<>(Long.class, FlagSpec::integral, defaultValue,
+                value -> value >= min && value <= max, "a long in [" + min + ", " + max + "]");
+    }
+
+    /**
+     * Returns a spec for a double flag.
+     *
+     * @param defaultValue the default
+     * @param min          the smallest allowed value
+     * @param max          the largest allowed value
+     * @return the spec
+     * @throws IllegalArgumentException if the default is outside the bounds
+     */
+    public static FlagSpec<Double> ofDouble(double defaultValue, double min, double max) {
+        return new FlagSpec<>(Double.class, raw -> FlagValue.of(raw).asDouble(), defaultValue,
+                value -> value >= min && value <= max, "a double in [" + min + ", " + max + "]");
+    }
+
+    /**
+     * Returns a spec for a string flag.
+     *
+     * @param defaultValue the default, or {@code null} for none
+     * @param allowed      the allowed values; none allows any string
+     * @return the spec
+     * @throws IllegalArgumentException if the default is not allowed
+     */
+    public static FlagSpec<String> ofString(String defaultValue, String... allowed) {
+        if (allowed.length == 0) {
+            return new FlagSpec<>(String.class, raw -> FlagValue.of(raw).asString(), defaultValue,
+                    value -> true, "a string");
+        }
+        Set<String> values = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(allowed)));
+        return new FlagSpec<>(String.class, raw -> FlagValue.of(raw).asString(), defaultValue,
+                values::contains, "one of " + values);
+    }
+
+    /**
+     * Returns a spec for an enum flag. Constant names match exactly or in upper case.
+     *
+     * @param type         the enum class
+     * @param defaultValue the default, or {@code null} for none
+     * @param <E>          the enum type
+     * @return the spec
+     */
+    public static <E extends Enum<E>> FlagSpec<E> ofEnum(Class<E> type, E defaultValue) {
+        return new FlagSpec<>(type, raw -> {
+            String name = raw.toString().trim();
+            for (E constant : type.getEnumConstants()) {
+                if (constant.name().equals(name) || constant.name().equals(name.toUpperCase(Locale.ROOT))) {
+                    return constant;
+                }
+            }
+            throw new FlagTypeConversionException("Cannot convert '" + raw + "' to " + type.getSimpleName());
+        }, defaultValue, value -> true, "one of " + Arrays.toString(type.getEnumConstants()));
+    }
+
+    /**
+     * Converts a raw value into the flag's typed form.
+     *
+     * @param raw the raw value, not null
+     * @return the typed value
+     * @throws FlagTypeConversionException if the value has the wrong type or is not allowed
+     */
+    public T convert(Object raw) {
+        T value;
+        try {
+            value = converter.apply(raw);
+        } catch (FlagTypeConversionException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new FlagTypeConversionException("Cannot convert '" + raw + "' to " + description, e);
+        }
+        if (value == null || !constraint.test(value)) {
+            throw new FlagTypeConversionException("Value '" + raw + "' is not " + description);
+        }
+        return value;
+    }
+
+    /**
+     * @return the value served while the flag is absent, {@link FlagValue#nullValue()} if there is none
+     */
+    public FlagValue getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * @return the raw class of the flag's type
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return a description of the allowed values
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    private static <T> Function<Object, T> codec(FlagType<T> type) {
+        FlagCodec<T> codec = FlagCodecs.codecFor(type);
+        if (codec == null) {
+            throw new IllegalArgumentException("No codec for " + type);
+        }
+        return codec::decode;
+    }
+
+    private static long integral(Object raw) {
+        if (raw instanceof Double || raw instanceof Float) {
+            double d = ((Number) raw).doubleValue();
+            if (d != Math.rint(d) || Math.abs(d) > 0x1p53) {
+                throw new FlagTypeConversionException("Value " + raw + " is not a whole number");
+            }
+            return (long) d;
+        }
+        if (raw instanceof Number) {
+            return ((Number) raw).longValue();
+        }
+        try {
+            return Long.parseLong(raw.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new FlagTypeConversionException("Cannot convert '" + raw + "' to a whole number", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FlagSpec{" +
+                "type=" + type.getSimpleName() +
+                ", allowed=" + description +
+                ", default=" + defaultValue +
+                '}';
+    }
+}
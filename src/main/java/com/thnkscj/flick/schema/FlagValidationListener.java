@@ -0,0 +1,17 @@
+package com.thnkscj.flick.schema;
+
+/**
+ * Listener notified when a provider rejects a value that violates its {@link FlagSchema}.
+ */
+@FunctionalInterface
+public interface FlagValidationListener {
+
+    /**
+     * Called when an update of a flag is rejected. The flag keeps its previous value.
+     *
+     * @param key      the flag key
+     * @param rejected the raw value that was rejected
+     * @param reason   why the value was rejected
+     */
+    void onRejected(String key, Object rejected, String reason);
+}
@@ -0,0 +1,27 @@
+package com.thnkscj.flick.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Emitted when {@code CachingFeatureFlagProvider} loads a missing key from its delegate.
+ */
+@Name("com.thnkscj.flick.CacheLoad")
+@Label("Flag Cache Load")
+@Category({"Flick", "Cache"})
+@Description("A cache miss in CachingFeatureFlagProvider that was loaded from the delegate provider")
+@Threshold("0 ms")
+@StackTrace(false)
+final class CacheLoadEvent extends Event {
+
+    @Label("Key")
+    String key;
+
+    @Label("Found")
+    boolean found;
+}
@@ -0,0 +1,30 @@
+package com.thnkscj.flick.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Emitted for flag evaluations through {@code FeatureFlags.get} that take longer than the threshold.
+ */
+@Name("com.thnkscj.flick.FlagEvaluation")
+@Label("Slow Flag Evaluation")
+@Category({"Flick", "Evaluation"})
+@Description("A feature flag evaluation that exceeded the configured threshold")
+@Threshold("1 ms")
+@StackTrace(true)
+final class FlagEvaluationEvent extends Event {
+
+    @Label("Provider")
+    String provider;
+
+    @Label("Key")
+    String key;
+
+    @Label("Found")
+    boolean found;
+}
@@ -0,0 +1,149 @@
+package com.thnkscj.flick.jfr;
+
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagValue;
+
+/**
+ * Entry point for emitting Java Flight Recorder events from flick.
+ * <p>
+ * This is the Java 11+ implementation loaded from the multi-release jar. Each {@code beginXxx()}
+ * creates its event and returns {@code null} straight away unless a recording has the event enabled,
+ * so the allocation is removed by escape analysis and disabled events cost nothing.
+ * Thresholds are honoured through {@link jdk.jfr.Event#shouldCommit()} and can be tuned in
+ * the recording settings.
+ * </p>
+ */
+public final class FlickEvents {
+
+    private FlickEvents() {}
+
+    /**
+     * Marks the start of a flag evaluation.
+     *
+     * @return a {@link FlagEvaluationEvent} token, or {@code null} if the event is disabled
+     */
+    public static Object beginEvaluation() {
+        FlagEvaluationEvent event = new FlagEvaluationEvent();
+        if (!event.isEnabled()) return null;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Marks the end of a flag evaluation. Committed only if it exceeded the configured threshold.
+     *
+     * @param token    the token returned by {@link #beginEvaluation()}
+     * @param provider the provider that served the evaluation
+     * @param key      the evaluated flag key
+     * @param value    the resolved value, may be null
+     */
+    public static void endEvaluation(Object token, FeatureFlagProvider provider, String key, FlagValue value) {
+        if (token == null) return;
+
+        FlagEvaluationEvent event = (FlagEvaluationEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.provider = provider.getClass().getName();
+            event.key = key;
+            event.found = value != null && value.isPresent();
+            event.commit();
+        }
+    }
+
+    /**
+     * Marks the start of a cache miss load.
+     *
+     * @return a {@link CacheLoadEvent} token, or {@code null} if the event is disabled
+     */
+    public static Object beginCacheLoad() {
+        CacheLoadEvent event = new CacheLoadEvent();
+        if (!event.isEnabled()) return null;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Marks the end of a cache miss load.
+     *
+     * @param token the token returned by {@link #beginCacheLoad()}
+     * @param key   the loaded flag key
+     * @param value the loaded value, may be null
+     */
+    public static void endCacheLoad(Object token, String key, FlagValue value) {
+        if (token == null) return;
+
+        CacheLoadEvent event = (CacheLoadEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.key = key;
+            event.found = value != null && value.isPresent();
+            event.commit();
+        }
+    }
+
+    /**
+     * Marks the start of a refresh cycle.
+     *
+     * @return a {@link RefreshEvent} token, or {@code null} if the event is disabled
+     */
+    public static Object beginRefresh() {
+        RefreshEvent event = new RefreshEvent();
+        if (!event.isEnabled()) return null;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Marks the end of a refresh cycle.
+     *
+     * @param token    the token returned by {@link #beginRefresh()}
+     * @param provider the provider that was refreshed
+     * @param keyCount the number of flags loaded by the refresh
+     * @param success  whether the refresh completed without throwing
+     */
+    public static void endRefresh(Object token, Object provider, int keyCount, boolean success) {
+        if (token == null) return;
+
+        RefreshEvent event = (RefreshEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.provider = provider.getClass().getName();
+            event.keyCount = keyCount;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    /**
+     * Marks the start of a listener dispatch batch.
+     *
+     * @return a {@link ListenerDispatchEvent} token, or {@code null} if the event is disabled
+     */
+    public static Object beginListenerDispatch() {
+        ListenerDispatchEvent event = new ListenerDispatchEvent();
+        if (!event.isEnabled()) return null;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Marks the end of a listener dispatch batch.
+     *
+     * @param token         the token returned by {@link #beginListenerDispatch()}
+     * @param source        the component dispatching the notifications
+     * @param key           the changed flag key
+     * @param listenerCount the number of listeners notified
+     */
+    public static void endListenerDispatch(Object token, Object source, String key, int listenerCount) {
+        if (token == null) return;
+
+        ListenerDispatchEvent event = (ListenerDispatchEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = source.getClass().getName();
+            event.key = key;
+            event.listenerCount = listenerCount;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.thnkscj.flick.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Emitted when a flag change is dispatched to a batch of registered listeners.
+ */
+@Name("com.thnkscj.flick.ListenerDispatch")
+@Label("Flag Listener Dispatch")
+@Category({"Flick", "Listeners"})
+@Description("Delivery of one flag change to all registered change listeners")
+@Threshold("0 ms")
+@StackTrace(false)
+final class ListenerDispatchEvent extends Event {
+
+    @Label("Source")
+    String source;
+
+    @Label("Key")
+    String key;
+
+    @Label("Listener Count")
+    int listenerCount;
+}
@@ -0,0 +1,30 @@
+package com.thnkscj.flick.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Emitted for every provider refresh cycle.
+ */
+@Name("com.thnkscj.flick.Refresh")
+@Label("Flag Refresh")
+@Category({"Flick", "Refresh"})
+@Description("A provider refresh cycle, with the number of flags it loaded")
+@Threshold("0 ms")
+@StackTrace(false)
+final class RefreshEvent extends Event {
+
+    @Label("Provider")
+    String provider;
+
+    @Label("Key Count")
+    int keyCount;
+
+    @Label("Success")
+    boolean success;
+}
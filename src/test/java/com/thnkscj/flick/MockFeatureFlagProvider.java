@@ -57,6 +57,11 @@ public class MockFeatureFlagProvider implements ObservableFeatureFlagProvider {
         return Collections.unmodifiableMap(result);
     }
 
+    @Override
+    public boolean reportsAllFlags() {
+        return true;
+    }
+
     @Override
     public void addChangeListener(FlagChangeListener listener) {
         listeners.add(listener);
@@ -0,0 +1,176 @@
+package com.thnkscj.flick.binding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.MockFeatureFlagProvider;
+import com.thnkscj.flick.core.FeatureFlags;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.thnkscj.flick.core.FlagValue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FlagBindingTest {
+
+    enum Mode { FAST, SAFE }
+
+    static class Timeouts {
+        private final long connectMillis;
+        private final long readMillis;
+
+        Timeouts() {
+            connectMillis = 1000;
+            readMillis = 5000;
+        }
+    }
+
+    static class Replica {
+        private final String host;
+        private final int port;
+
+        Replica() {
+            host = null;
+            port = 5432;
+        }
+    }
+
+    static class PoolConfig {
+        private final int maxSize;
+        private final boolean enabled;
+        private final Mode mode = Mode.SAFE;
+        private final Timeouts timeouts = new Timeouts();
+        private final List<String> tags = Collections.emptyList();
+        private final List<Integer> weights = Collections.emptyList();
+        private final List<Replica> replicas = Collections.emptyList();
+
+        PoolConfig() {
+            maxSize = 10;
+            enabled = false;
+        }
+    }
+
+    static class MutableConfig {
+        private int maxSize = 10;
+    }
+
+    private MockFeatureFlagProvider provider;
+
+    @BeforeEach
+    void setup() {
+        provider = new MockFeatureFlagProvider();
+        provider.setFlag("db.pool.maxSize", "32");
+        provider.setFlag("db.pool.mode", "fast");
+        provider.setFlag("db.pool.timeouts.readMillis", 250);
+        provider.setFlag("db.pool.tags", "primary, eu-west");
+        provider.setFlag("db.pool.weights", Arrays.asList(3, 1));
+        provider.setFlag("db.pool.replicas.0.host", "a.example");
+        provider.setFlag("db.pool.replicas.1.host", "b.example");
+        provider.setFlag("db.pool.replicas.1.port", 6432);
+        FeatureFlags.setProvider(provider);
+    }
+
+    @AfterEach
+    void cleanup() {
+        FeatureFlags.shutdown();
+    }
+
+    @Test
+    void testBindingWithDefaultsNestingAndLists() {
+        PoolConfig config = FeatureFlags.bind("db.pool", PoolConfig.class).get();
+
+        assertEquals(32, config.maxSize);
+        assertFalse(config.enabled);
+        assertEquals(Mode.FAST, config.mode);
+        assertEquals(1000, config.timeouts.connectMillis);
+        assertEquals(250, config.timeouts.readMillis);
+        assertEquals(Arrays.asList("primary", "eu-west"), config.tags);
+        assertEquals(Arrays.asList(3, 1), config.weights);
+        assertEquals(2, config.replicas.size());
+        assertEquals("a.example", config.replicas.get(0).host);
+        assertEquals(5432, config.replicas.get(0).port);
+        assertEquals(6432, config.replicas.get(1).port);
+    }
+
+    @Test
+    void testRebindsOnlyForChangesUnderPrefix() {
+        FlagBinding<PoolConfig> binding = FeatureFlags.bind("db.pool", PoolConfig.class);
+        PoolConfig first = binding.get();
+
+        provider.setFlag("db.other", 1);
+        provider.setFlag("db.poolish", 1);
+        assertSame(first, binding.get());
+
+        provider.setFlag("db.pool.enabled", true);
+        PoolConfig second = binding.get();
+        assertNotSame(first, second);
+        assertTrue(second.enabled);
+        assertFalse(first.enabled);
+
+        provider.setFlag("db.pool.maxSize", "not a number");
+        assertEquals(10, binding.get().maxSize);
+
+        binding.close();
+        provider.setFlag("db.pool.maxSize", 64);
+        assertEquals(10, binding.get().maxSize);
+    }
+
+    @Test
+    void testRejectsClassWithoutNoArgConstructor() {
+        assertThrows(IllegalArgumentException.class, () -> FeatureFlags.bind("db.pool", Integer.class));
+    }
+
+    @Test
+    void testRejectsMutableFields() {
+        assertThrows(IllegalArgumentException.class, () -> FeatureFlags.bind("db.pool", MutableConfig.class));
+    }
+
+    @Test
+    void testBurstOfChangesRebindsOnce() {
+        AtomicInteger reads = new AtomicInteger();
+        MockFeatureFlagProvider counting = new MockFeatureFlagProvider() {
+            @Override
+            public Map<String, FlagValue> getChildren(String prefix) {
+                reads.incrementAndGet();
+                return super.getChildren(prefix);
+            }
+        };
+        counting.setFlag("db.pool.maxSize", 16);
+        FlagBinding<PoolConfig> binding = FlagBinding.of(counting, "db.pool", PoolConfig.class);
+        assertEquals(1, reads.get());
+
+        for (int i = 0; i < 100; i++) {
+            counting.setFlag("db.pool.maxSize", 17 + i);
+        }
+        assertEquals(1, reads.get());
+        assertEquals(116, binding.get().maxSize);
+        assertEquals(116, binding.get().maxSize);
+        assertEquals(2, reads.get());
+        binding.close();
+    }
+
+    @Test
+    void testFailingRebindDoesNotReachListeners() {
+        AtomicInteger notified = new AtomicInteger();
+        MockFeatureFlagProvider failing = new MockFeatureFlagProvider() {
+            @Override
+            public Map<String, FlagValue> getChildren(String prefix) {
+                if (notified.get() > 0) throw new IllegalStateException("source unavailable");
+                return super.getChildren(prefix);
+            }
+        };
+        failing.setFlag("db.pool.maxSize", 16);
+        FlagBinding<PoolConfig> binding = FlagBinding.of(failing, "db.pool", PoolConfig.class);
+        failing.addChangeListener((key, value) -> notified.incrementAndGet());
+
+        failing.setFlag("db.pool.maxSize", 32);
+        assertEquals(1, notified.get());
+        assertEquals(16, binding.get().maxSize);
+        binding.close();
+    }
+}
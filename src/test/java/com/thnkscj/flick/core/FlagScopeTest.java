@@ -0,0 +1,122 @@
+package com.thnkscj.flick.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.MockFeatureFlagProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class FlagScopeTest {
+
+    @BeforeEach
+    void setup() {
+        MockFeatureFlagProvider provider = new MockFeatureFlagProvider();
+        provider.setFlag("feature.enabled", false);
+        provider.setFlag("feature.limit", 10);
+        FeatureFlags.setProvider(provider);
+    }
+
+    @AfterEach
+    void cleanup() {
+        FeatureFlags.shutdown();
+    }
+
+    @Test
+    void testNestedOverrides() {
+        try (FlagScope outer = FeatureFlags.override("feature.enabled", true)) {
+            assertTrue(FeatureFlags.get("feature.enabled").asBoolean(false));
+
+            try (FlagScope inner = FeatureFlags.override("feature.enabled", null)) {
+                assertTrue(FeatureFlags.get("feature.enabled").isNull());
+                assertEquals(10, FeatureFlags.get("feature.limit").asInt(0));
+            }
+
+            assertTrue(FeatureFlags.get("feature.enabled").asBoolean(false));
+        }
+
+        assertFalse(FeatureFlags.get("feature.enabled").asBoolean(true));
+        assertFalse(FlagScope.anyActive());
+    }
+
+    @Test
+    void testChildrenOverlay() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("feature.limit", 99);
+        overrides.put("feature.extra", "x");
+        overrides.put("other.flag", true);
+
+        try (FlagScope scope = FeatureFlags.override(overrides)) {
+            Map<String, FlagValue> children = FeatureFlags.getChildren("feature");
+            assertEquals(3, children.size());
+            assertEquals(99, children.get("limit").asInt(0));
+            assertEquals("x", children.get("extra").asString(null));
+        }
+    }
+
+    @Test
+    void testIsolationBetweenThreads() throws InterruptedException {
+        int threads = 8;
+        CountDownLatch ready = new CountDownLatch(threads);
+        AtomicBoolean leaked = new AtomicBoolean(false);
+        Thread[] workers = new Thread[threads];
+
+        for (int i = 0; i < threads; i++) {
+            final int limit = i;
+            workers[i] = new Thread(() -> {
+                try (FlagScope scope = FeatureFlags.override("feature.limit", limit)) {
+                    ready.countDown();
+                    ready.await();
+                    for (int j = 0; j < 1000; j++) {
+                        if (FeatureFlags.get("feature.limit").asInt(-1) != limit) {
+                            leaked.set(true);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertFalse(leaked.get());
+        assertEquals(10, FeatureFlags.get("feature.limit").asInt(0));
+    }
+
+    @Test
+    void testPropagationToExecutor() throws Exception {
+        ExecutorService executor = FlagScope.propagating(Executors.newSingleThreadExecutor());
+        try {
+            try (FlagScope scope = FeatureFlags.override("feature.enabled", true)) {
+                assertTrue(executor.submit(() -> FeatureFlags.get("feature.enabled").asBoolean(false))
+                        .get(2, TimeUnit.SECONDS));
+            }
+            assertFalse(executor.submit(() -> FeatureFlags.get("feature.enabled").asBoolean(true))
+                    .get(2, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCloseOutOfOrder() {
+        FlagScope outer = FeatureFlags.override("feature.enabled", true);
+        FlagScope inner = FeatureFlags.override("feature.limit", 1);
+
+        assertThrows(IllegalStateException.class, outer::close);
+        inner.close();
+        outer.close();
+        assertFalse(FlagScope.anyActive());
+    }
+}
@@ -5,6 +5,13 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.thnkscj.flick.core.exceptions.FlagTypeConversionException;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class FlagValueTest {
     @Test
     void testBooleanConversion() {
@@ -54,4 +61,90 @@ public class FlagValueTest {
         assertThrows(FlagTypeConversionException.class,
                 () -> invalid.asBoolean(false));
     }
+
+    @Test
+    void testSharedInstances() {
+        assertSame(FlagValue.of(true), FlagValue.of(Boolean.TRUE));
+        assertSame(FlagValue.of(7), FlagValue.of(7));
+        assertSame(FlagValue.of(7L), FlagValue.of(7L));
+        assertNotSame(FlagValue.of(7), FlagValue.of(7L));
+        assertSame(FlagValue.of("on"), FlagValue.of(new String("on")));
+        assertNotSame(FlagValue.of(5000), FlagValue.of(5000));
+        assertEquals(FlagValue.of(5000), FlagValue.of(5000));
+        assertEquals(FlagValue.of(5000).hashCode(), FlagValue.of(5000).hashCode());
+        assertNotEquals(FlagValue.of(7), FlagValue.of(7L));
+        assertEquals(FlagValue.nullValue(), FlagValue.of(null));
+        assertEquals(FlagValue.of(5000), FlagValue.of(5000));
+        assertTrue(FlagValue.of(5000).wraps(5000));
+        assertFalse(FlagValue.of(5000).wraps(5000L));
+
+        FlagValueInterner interner = new FlagValueInterner(1);
+        assertSame(interner.intern("eu-west"), interner.intern(new String("eu-west")));
+        assertSame(FlagValue.of(false), interner.intern(false));
+        assertNotSame(interner.intern("us-east"), interner.intern("us-east"));
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    void testDecodesOncePerValueWithRegisteredCodec() {
+        AtomicInteger decodes = new AtomicInteger();
+        FlagCodecs.register(RetryPolicy.class, raw -> {
+            decodes.incrementAndGet();
+            Map<?, ?> map = (Map<?, ?>) raw;
+            return new RetryPolicy(FlagValue.of(map.get("attempts")).asInt());
+        });
+        try {
+            Map<String, Object> raw = new HashMap<>();
+            raw.put("attempts", 3L);
+            FlagValue value = FlagValue.of(raw);
+
+            RetryPolicy first = value.as(RetryPolicy.class).orElse(null);
+            assertNotNull(first);
+            assertEquals(3, first.attempts);
+            assertSame(first, value.as(RetryPolicy.class).orElse(null));
+            assertEquals(1, decodes.get());
+
+            // An equal value is a different flag version and decodes again
+            assertNotSame(first, FlagValue.of(new HashMap<>(raw)).as(RetryPolicy.class).orElse(null));
+            assertEquals(2, decodes.get());
+
+            assertFalse(FlagValue.of("bad").as(RetryPolicy.class).isPresent());
+
+            FlagCodecs.register(RetryPolicy.class, ignored -> new RetryPolicy(5));
+            assertEquals(5, value.as(RetryPolicy.class).map(policy -> policy.attempts).orElse(0));
+        } finally {
+            FlagCodecs.unregister(FlagType.of(RetryPolicy.class));
+        }
+        assertFalse(FlagValue.of(new HashMap<>()).as(RetryPolicy.class).isPresent());
+    }
+
+    @Test
+    void testTypedListsAndMaps() {
+        FlagValue list = FlagValue.of(Arrays.asList(1L, 2L, 3L));
+        assertEquals(Arrays.asList(1, 2, 3), list.as(FlagType.listOf(Integer.class)).orElse(null));
+        assertEquals(Arrays.asList("1", "2", "3"), list.as(new FlagType<List<String>>() {}).orElse(null));
+        assertSame(list.as(FlagType.listOf(Integer.class)).orElse(null), list.as(FlagType.listOf(Integer.class)).orElse(null));
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("eu", Arrays.asList("ON", "off"));
+        raw.put("us", Collections.singletonList("on"));
+        Map<String, List<Mode>> modes = FlagValue.of(raw).as(new FlagType<Map<String, List<Mode>>>() {}).orElse(null);
+        assertNotNull(modes);
+        assertEquals(Arrays.asList(Mode.ON, Mode.OFF), modes.get("eu"));
+        assertEquals(Collections.singletonList(Mode.ON), modes.get("us"));
+
+        assertFalse(FlagValue.of(Arrays.asList("a", "b")).as(FlagType.listOf(Integer.class)).isPresent());
+        assertFalse(FlagValue.of("a,b").as(FlagType.listOf(String.class)).isPresent());
+        assertEquals(Long.valueOf(42), FlagValue.of("42").as(Long.class).orElse(null));
+    }
+
+    enum Mode {ON, OFF}
+
+    static final class RetryPolicy {
+        final int attempts;
+
+        RetryPolicy(int attempts) {
+            this.attempts = attempts;
+        }
+    }
 }
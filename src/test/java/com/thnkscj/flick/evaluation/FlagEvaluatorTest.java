@@ -0,0 +1,246 @@
+package com.thnkscj.flick.evaluation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.MockFeatureFlagProvider;
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FeatureFlags;
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.providers.generic.GenericFeatureFlagProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+public class FlagEvaluatorTest {
+
+    private MockFeatureFlagProvider provider;
+
+    @BeforeEach
+    void setup() {
+        provider = new MockFeatureFlagProvider();
+        provider.setFlag("checkout.enabled", true);
+        provider.setFlag("search.enabled", false);
+        provider.setFlag("search.limit", 50);
+        provider.setFlag("theme", "light");
+        FeatureFlags.setProvider(provider);
+    }
+
+    @AfterEach
+    void cleanup() {
+        FeatureFlags.shutdown();
+    }
+
+    @Test
+    void testStaticFlagsAndRules() {
+        FlagEvaluator evaluator = FeatureFlags.evaluator();
+        evaluator.setRule("beta", new PercentageRollout(25));
+        evaluator.setRule("theme", new VariantSplit(Arrays.asList("light", "dark"), 1, 1));
+
+        EvaluationResult anonymous = FeatureFlags.evaluateAll(new EvaluationContext(null));
+        assertTrue(anonymous.isEnabled("checkout.enabled"));
+        assertFalse(anonymous.isEnabled("search.enabled"));
+        assertFalse(anonymous.isEnabled("beta"));
+        assertEquals(50L, ((Number) anonymous.getValue("search.limit")).longValue());
+        assertEquals("light", anonymous.getValue("theme"));
+        assertNull(anonymous.getValue("missing"));
+        assertEquals(3, anonymous.getBooleanCount());
+        assertEquals(2, anonymous.getVariantCount());
+
+        int enabled = 0;
+        int dark = 0;
+        for (int i = 0; i < 10_000; i++) {
+            EvaluationContext context = new EvaluationContext("user-" + i);
+            EvaluationResult result = evaluator.evaluateAll(context);
+            if (result.isEnabled("beta")) enabled++;
+            if ("dark".equals(result.getValue("theme"))) dark++;
+            assertEquals(result.isEnabled("beta"), evaluator.evaluateAll(context).isEnabled("beta"));
+        }
+        assertEquals(2_500, enabled, 250);
+        assertEquals(5_000, dark, 300);
+    }
+
+    @Test
+    void testSerializationRoundTrip() {
+        FlagEvaluator evaluator = new FlagEvaluator(provider);
+        evaluator.setRule("beta", new PercentageRollout(50));
+        evaluator.setRule("theme", new VariantSplit(Arrays.asList("light", "dark", "contrast"), 1, 1, 1));
+
+        for (int i = 0; i < 100; i++) {
+            EvaluationResult result = evaluator.evaluateAll(new EvaluationContext("user-" + i));
+            String encoded = result.serialize();
+            EvaluationResult decoded = evaluator.deserialize(encoded);
+
+            assertArrayEquals(result.toBitArray(), decoded.toBitArray());
+            assertEquals(result.getVariantIndex("theme"), decoded.getVariantIndex("theme"));
+            assertEquals(result.getValue("search.limit"), decoded.getValue("search.limit"));
+            assertTrue(encoded.length() <= 10, encoded);
+        }
+
+        String encoded = evaluator.evaluateAll(new EvaluationContext("user-1")).serialize();
+        provider.setFlag("new.flag", true);
+        assertThrows(IllegalArgumentException.class, () -> evaluator.deserialize(encoded));
+        evaluator.close();
+    }
+
+    @Test
+    void testTableFollowsProviderChanges() {
+        FlagEvaluator evaluator = FeatureFlags.evaluator();
+        EvaluationContext context = new EvaluationContext("user-1");
+        assertFalse(evaluator.evaluateAll(context).isEnabled("search.enabled"));
+
+        provider.setFlag("search.enabled", true);
+        assertTrue(evaluator.evaluateAll(context).isEnabled("search.enabled"));
+
+        evaluator.setRule("search.enabled", new PercentageRollout(0));
+        assertFalse(evaluator.evaluateAll(context).isEnabled("search.enabled"));
+        evaluator.removeRule("search.enabled");
+        assertTrue(evaluator.evaluateAll(context).isEnabled("search.enabled"));
+    }
+
+    @Test
+    void testTableFollowsGenericProviderReloads() {
+        AtomicInteger limit = new AtomicInteger(10);
+        GenericFeatureFlagProvider generic = new GenericFeatureFlagProvider() {
+            @Override
+            protected void initialize() {
+                loadFlags();
+            }
+
+            @Override
+            protected void loadFlags() {
+                bulkUpdateFlags(Collections.singletonMap("search.limit", limit.get()));
+            }
+        };
+        generic.getValue("search.limit");
+        FlagEvaluator evaluator = new FlagEvaluator(generic);
+        EvaluationContext context = new EvaluationContext("user-1");
+        assertEquals(10L, ((Number) evaluator.evaluateAll(context).getValue("search.limit")).longValue());
+        assertEquals(10L, ((Number) evaluator.evaluate(context, "search.limit")).longValue());
+
+        limit.set(20);
+        generic.refresh();
+        assertEquals(20L, ((Number) evaluator.evaluateAll(context).getValue("search.limit")).longValue());
+        assertEquals(20L, ((Number) evaluator.evaluate(context, "search.limit")).longValue());
+        evaluator.close();
+    }
+
+    @Test
+    void testEvaluationCacheInvalidatesPerFlag() {
+        FlagEvaluator evaluator = FeatureFlags.evaluator();
+        CountingRule beta = new CountingRule(true);
+        CountingRule theme = new CountingRule("dark");
+        evaluator.setRule("beta", beta);
+        evaluator.setRule("theme", theme);
+
+        EvaluationContext user = new EvaluationContext("user-1", Collections.singletonMap("plan", "pro"));
+        EvaluationContext sameUser = new EvaluationContext("user-1", Collections.singletonMap("plan", "pro"));
+        EvaluationContext otherPlan = new EvaluationContext("user-1", Collections.singletonMap("plan", "free"));
+        assertEquals(user.fingerprint(), sameUser.fingerprint());
+        assertNotEquals(user.fingerprint(), otherPlan.fingerprint());
+
+        assertEquals(true, FeatureFlags.evaluate(user, "beta"));
+        assertEquals(true, FeatureFlags.evaluate(sameUser, "beta"));
+        assertEquals(true, FeatureFlags.evaluate(otherPlan, "beta"));
+        assertEquals("dark", FeatureFlags.evaluate(user, "theme"));
+        assertEquals("dark", FeatureFlags.evaluate(user, "theme"));
+        assertEquals(50L, ((Number) FeatureFlags.evaluate(user, "search.limit")).longValue());
+        assertNull(FeatureFlags.evaluate(user, "missing"));
+        assertEquals(2, beta.calls.get());
+        assertEquals(1, theme.calls.get());
+
+        // Changing one flag leaves the cached results of other flags intact
+        provider.setFlag("beta", false);
+        assertEquals(true, FeatureFlags.evaluate(user, "beta"));
+        assertEquals("dark", FeatureFlags.evaluate(user, "theme"));
+        assertEquals(3, beta.calls.get());
+        assertEquals(1, theme.calls.get());
+
+        provider.setFlag("search.limit", 75);
+        assertEquals(75L, ((Number) FeatureFlags.evaluate(user, "search.limit")).longValue());
+
+        evaluator.invalidate();
+        assertEquals("dark", FeatureFlags.evaluate(user, "theme"));
+        assertEquals(2, theme.calls.get());
+    }
+
+    @Test
+    void testFingerprintCollisionDoesNotShareResult() {
+        FlagEvaluator evaluator = FeatureFlags.evaluator();
+        CountingRule beta = new CountingRule(true);
+        evaluator.setRule("beta", beta);
+
+        // Attribute values are fingerprinted by class and string form, so these two collide
+        EvaluationContext first = new EvaluationContext("user-1", Collections.singletonMap("token", new Token()));
+        EvaluationContext second = new EvaluationContext("user-1", Collections.singletonMap("token", new Token()));
+        assertEquals(first.fingerprint(), second.fingerprint());
+        assertNotEquals(first, second);
+
+        FeatureFlags.evaluate(first, "beta");
+        FeatureFlags.evaluate(second, "beta");
+        FeatureFlags.evaluate(first, "beta");
+        assertEquals(2, beta.calls.get());
+    }
+
+    private static final class Token {
+        @Override
+        public String toString() {
+            return "token";
+        }
+    }
+
+    private static final class CountingRule implements FlagRule {
+
+        final AtomicInteger calls = new AtomicInteger();
+        private final Object value;
+
+        CountingRule(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public List<?> getVariants() {
+            return Collections.singletonList(value);
+        }
+
+        @Override
+        public int evaluate(EvaluationContext context, long salt) {
+            calls.incrementAndGet();
+            return 0;
+        }
+    }
+
+    @Test
+    void testTableIsCompiledFromForEachFlag() {
+        Map<String, FlagValue> flags = new HashMap<>();
+        flags.put("checkout.enabled", new FlagValue(true));
+        flags.put("theme", new FlagValue("dark"));
+        FeatureFlagProvider streaming = new FeatureFlagProvider() {
+            @Override
+            public FlagValue getValue(String key) {
+                return flags.getOrDefault(key, FlagValue.nullValue());
+            }
+
+            @Override
+            public Map<String, FlagValue> getChildren(String prefix) {
+                throw new UnsupportedOperationException("the table must not copy the flags");
+            }
+
+            @Override
+            public void forEachFlag(BiConsumer<? super String, ? super FlagValue> action) {
+                flags.forEach(action);
+            }
+        };
+
+        EvaluationResult result = new FlagEvaluator(streaming).evaluateAll(new EvaluationContext("user-1"));
+        assertTrue(result.isEnabled("checkout.enabled"));
+        assertEquals("dark", result.getValue("theme"));
+    }
+}
@@ -0,0 +1,159 @@
+package com.thnkscj.flick.exposure;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.MockFeatureFlagProvider;
+import com.thnkscj.flick.core.FeatureFlags;
+import com.thnkscj.flick.core.FlagValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExposurePipelineTest {
+
+    @AfterEach
+    void cleanup() {
+        FeatureFlags.setExposurePipeline(null);
+        FeatureFlags.shutdown();
+    }
+
+    @Test
+    void testDeduplicationWithinWindow() {
+        List<Exposure> written = Collections.synchronizedList(new ArrayList<>());
+        ExposurePipeline pipeline = new ExposurePipeline(written::addAll, 1024, 64,
+                TimeUnit.HOURS.toMillis(1), 1, TimeUnit.MILLISECONDS);
+
+        try {
+            pipeline.record("checkout", "user-1", FlagValue.of(true));
+            pipeline.record("checkout", "user-1", FlagValue.of(true));
+            pipeline.record("checkout", "user-2", FlagValue.of(true));
+            pipeline.record("checkout", "user-1", FlagValue.of(false));
+        } finally {
+            pipeline.close();
+        }
+
+        assertEquals(4, pipeline.getRecordedCount());
+        assertEquals(0, pipeline.getDroppedCount());
+        assertEquals(1, pipeline.getDeduplicatedCount());
+        assertEquals(3, written.size());
+    }
+
+    @Test
+    void testDeduplicationUsesExposureTimestamps() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Exposure> written = Collections.synchronizedList(new ArrayList<>());
+        ExposurePipeline pipeline = new ExposurePipeline(batch -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.addAll(batch);
+        }, 64, 1, 50, 1, TimeUnit.MILLISECONDS);
+
+        try {
+            pipeline.record("flag", "blocker", FlagValue.of(1));
+            await().atMost(2, TimeUnit.SECONDS).until(() -> pipeline.getPendingCount() == 0);
+
+            // Both are drained together after the release, but were served further apart than the window
+            pipeline.record("checkout", "user-1", FlagValue.of(true));
+            Thread.sleep(100);
+            pipeline.record("checkout", "user-1", FlagValue.of(true));
+            release.countDown();
+        } finally {
+            pipeline.close();
+        }
+
+        assertEquals(0, pipeline.getDeduplicatedCount());
+        assertEquals(3, written.size());
+    }
+
+    @Test
+    void testCloseDeliversEveryAcceptedExposure() throws InterruptedException {
+        AtomicLong written = new AtomicLong();
+        ExposurePipeline pipeline = new ExposurePipeline(batch -> written.addAndGet(batch.size()),
+                1 << 16, 256, 0, 1, TimeUnit.MILLISECONDS);
+
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String subject = "user-" + t;
+            Thread writer = new Thread(() -> {
+                while (pipeline.record("flag", subject, FlagValue.of(true))
+                        || pipeline.getPendingCount() > 0) {
+                    Thread.yield();
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        Thread.sleep(20);
+        pipeline.close();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(pipeline.getRecordedCount(), written.get());
+    }
+
+    @Test
+    void testOverflowIsDroppedNotBlocked() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        ExposurePipeline pipeline = new ExposurePipeline(batch -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 4, 1, 0, 1, TimeUnit.MILLISECONDS);
+
+        pipeline.record("flag", "first", FlagValue.of(1));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> pipeline.getPendingCount() == 0);
+
+        for (int i = 0; i < 10; i++) {
+            pipeline.record("flag", "user-" + i, FlagValue.of(1));
+        }
+        assertEquals(6, pipeline.getDroppedCount());
+
+        release.countDown();
+        pipeline.close();
+    }
+
+    @Test
+    void testRejectsNonPositiveBatchSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExposurePipeline(batch -> { }, 16, 0, 0, 1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testFileSinkThroughFeatureFlags(@TempDir Path dir) throws Exception {
+        MockFeatureFlagProvider provider = new MockFeatureFlagProvider();
+        provider.setFlag("new.checkout", true);
+        FeatureFlags.setProvider(provider);
+
+        Path file = dir.resolve("exposures.jsonl");
+        ExposurePipeline pipeline = new ExposurePipeline(new FileExposureSink(file), 1024, 64,
+                1, 5, TimeUnit.MINUTES);
+        FeatureFlags.setExposurePipeline(pipeline);
+
+        assertTrue(FeatureFlags.get("new.checkout", "user-\"7\"").asBoolean(false));
+        FeatureFlags.get("new.checkout", "user-\"7\"");
+        pipeline.close();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"flag\":\"new.checkout\""));
+        assertTrue(lines.get(0).contains("\"subject\":\"user-\\\"7\\\"\""));
+        assertTrue(lines.get(0).contains("\"value\":\"true\""));
+    }
+}
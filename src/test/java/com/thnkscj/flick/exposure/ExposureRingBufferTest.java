@@ -0,0 +1,95 @@
+package com.thnkscj.flick.exposure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.core.FlagValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+public class ExposureRingBufferTest {
+
+    @Test
+    void testOverflowIsRejected() {
+        ExposureRingBuffer buffer = new ExposureRingBuffer(3);
+        assertEquals(4, buffer.capacity());
+
+        FlagValue value = FlagValue.of(true);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer("flag", "user-" + i, value, i));
+        }
+        assertFalse(buffer.offer("flag", "overflow", value, 4));
+
+        List<Exposure> drained = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(drained, 2));
+        assertEquals("user-0", drained.get(0).getSubjectId());
+        assertEquals("user-1", drained.get(1).getSubjectId());
+
+        assertTrue(buffer.offer("flag", "user-4", value, 5));
+        assertEquals(3, buffer.drainTo(drained, 10));
+        assertEquals("user-4", drained.get(4).getSubjectId());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testSingleSlotRequestGetsTwoSlots() {
+        ExposureRingBuffer buffer = new ExposureRingBuffer(1);
+        assertEquals(2, buffer.capacity());
+
+        FlagValue value = FlagValue.of(true);
+        assertTrue(buffer.offer("flag", "user-0", value, 0));
+        assertTrue(buffer.offer("flag", "user-1", value, 1));
+        assertFalse(buffer.offer("flag", "overflow", value, 2));
+
+        List<Exposure> drained = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(drained, 10));
+        assertEquals("user-0", drained.get(0).getSubjectId());
+        assertEquals("user-1", drained.get(1).getSubjectId());
+        for (int i = 2; i < 10; i++) {
+            assertTrue(buffer.offer("flag", "user-" + i, value, i));
+            assertEquals(1, buffer.drainTo(drained, 10));
+            assertEquals("user-" + i, drained.get(i).getSubjectId());
+        }
+    }
+
+    @Test
+    void testConcurrentProducers() throws InterruptedException {
+        ExposureRingBuffer buffer = new ExposureRingBuffer(1 << 16);
+        int producers = 8;
+        int perProducer = 5000;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        FlagValue value = FlagValue.of(1);
+
+        for (int p = 0; p < producers; p++) {
+            final int id = p;
+            threads[p] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    assertTrue(buffer.offer("flag", id + ":" + i, value, i));
+                }
+            });
+            threads[p].start();
+        }
+
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        List<Exposure> drained = new ArrayList<>();
+        buffer.drainTo(drained, Integer.MAX_VALUE);
+        Set<String> unique = new HashSet<>();
+        drained.forEach(e -> unique.add(e.getSubjectId()));
+        assertEquals(producers * perProducer, drained.size());
+        assertEquals(producers * perProducer, unique.size());
+    }
+}
@@ -0,0 +1,118 @@
+package com.thnkscj.flick.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.MockFeatureFlagProvider;
+import com.thnkscj.flick.core.FeatureFlags;
+import com.thnkscj.flick.providers.caching.CachingFeatureFlagProvider;
+import com.thnkscj.flick.providers.caching.strategy.ConcurrentCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class FlickMetricsTest {
+
+    @BeforeEach
+    void setup() {
+        FlickMetrics.registry().reset();
+        FlickMetrics.enable();
+    }
+
+    @AfterEach
+    void cleanup() {
+        FlickMetrics.disable();
+        FlickMetrics.unregisterMBean();
+        FeatureFlags.shutdown();
+    }
+
+    @Test
+    void testEvaluationCounts() {
+        MockFeatureFlagProvider provider = new MockFeatureFlagProvider();
+        provider.setFlag("feature.enabled", true);
+        FeatureFlags.setProvider(provider);
+
+        FeatureFlags.get("feature.enabled");
+        FeatureFlags.get("feature.enabled");
+        FeatureFlags.get("missing");
+
+        MetricsSnapshot snapshot = FlickMetrics.registry().snapshot();
+        assertEquals(3, snapshot.counter(FlickMetrics.EVALUATIONS));
+        assertEquals(3, snapshot.counter(FlickMetrics.PROVIDER_EVALUATIONS_PREFIX + MockFeatureFlagProvider.class.getName()));
+        assertEquals(2L, snapshot.getKeyEvaluations().get("feature.enabled"));
+    }
+
+    @Test
+    void testKeyCountersAreCapped() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.setMaxKeyCounters(2);
+
+        registry.keyCounter("a").increment();
+        registry.keyCounter("b").increment();
+        registry.keyCounter("c").increment();
+        registry.keyCounter("d").increment();
+        registry.keyCounter("a").increment();
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        assertEquals(2, snapshot.getKeyEvaluations().size());
+        assertEquals(2L, snapshot.getKeyEvaluations().get("a"));
+        assertEquals(2, snapshot.counter(MetricsRegistry.KEY_OVERFLOW));
+
+        registry.reset();
+        registry.keyCounter("c").increment();
+        assertEquals(1L, registry.snapshot().getKeyEvaluations().get("c"));
+    }
+
+    @Test
+    void testDisabledRecordsNothing() {
+        FlickMetrics.disable();
+        FeatureFlags.setProvider(new MockFeatureFlagProvider());
+
+        FeatureFlags.get("anything");
+
+        assertEquals(0, FlickMetrics.registry().counterValue(FlickMetrics.EVALUATIONS));
+    }
+
+    @Test
+    void testCacheAndRefreshMetrics() {
+        MockFeatureFlagProvider source = new MockFeatureFlagProvider();
+        source.setFlag("cached.flag", "value");
+
+        CachingFeatureFlagProvider caching = new CachingFeatureFlagProvider(
+                source, new ConcurrentCache<>(null), 0, TimeUnit.SECONDS);
+
+        caching.getValue("cached.flag");
+        caching.getValue("not.cached");
+
+        MetricsRegistry registry = FlickMetrics.registry();
+        assertEquals(1, registry.counterValue(FlickMetrics.CACHE_HITS));
+        assertEquals(1, registry.counterValue(FlickMetrics.CACHE_MISSES));
+        assertEquals(1, registry.histogram(FlickMetrics.CACHE_LOAD_LATENCY).getCount());
+        assertEquals(1, registry.histogram(FlickMetrics.REFRESH_LATENCY).getCount());
+        caching.shutdown();
+    }
+
+    @Test
+    void testSinkAndJmxExport() throws Exception {
+        FlickMetrics.registry().counter(FlickMetrics.CACHE_HITS).add(3);
+        FlickMetrics.registry().counter(FlickMetrics.CACHE_MISSES).add(1);
+
+        AtomicReference<MetricsSnapshot> published = new AtomicReference<>();
+        MetricsSink sink = published::set;
+        FlickMetrics.addSink(sink);
+        FlickMetrics.publish();
+        FlickMetrics.removeSink(sink);
+        assertEquals(3, published.get().counter(FlickMetrics.CACHE_HITS));
+
+        FlickMetrics.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(FlickMetrics.OBJECT_NAME);
+        assertEquals(0.75, (Double) server.getAttribute(name, "CacheHitRatio"), 1e-9);
+        assertEquals(true, server.getAttribute(name, "Enabled"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.thnkscj.flick.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testBucketBoundsContainValue() {
+        long[] samples = {0, 1, 31, 32, 33, 1000, 123_456, 10_000_000_000L, Long.MAX_VALUE};
+        for (long sample : samples) {
+            long upper = LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(sample));
+            assertTrue(upper >= sample, "bucket upper bound below " + sample);
+            assertTrue(upper - sample <= Math.max(1, sample / LatencyHistogram.SUB_BUCKET_COUNT),
+                    "bucket too wide for " + sample);
+        }
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1_000_000L, snapshot.getMax());
+        assertEquals(500_000, snapshot.getP50(), 500_000 * 0.04);
+        assertEquals(990_000, snapshot.getP99(), 990_000 * 0.04);
+        assertEquals(500_500, snapshot.getMean(), 1.0);
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.getValueAtQuantile(0.5));
+    }
+}
@@ -1,24 +1,51 @@
 package com.thnkscj.flick.providers.caching;
 
+import com.thnkscj.flick.core.AsyncFeatureFlagProvider;
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.providers.caching.strategy.Cache;
 import com.thnkscj.flick.providers.caching.strategy.ConcurrentCache;
 import com.thnkscj.flick.MockFeatureFlagProvider;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class CachingFeatureFlagProviderTest {
     @Test
     void testCachingBehavior() {
         MockFeatureFlagProvider mockProvider = new MockFeatureFlagProvider();
         mockProvider.setFlag("cached.flag", "initial");
+        // Hides the mock's change events, so only a refresh updates the cache
+        FeatureFlagProvider source = new FeatureFlagProvider() {
+            @Override
+            public FlagValue getValue(String key) {
+                return mockProvider.getValue(key);
+            }
+
+            @Override
+            public Map<String, FlagValue> getChildren(String prefix) {
+                return mockProvider.getChildren(prefix);
+            }
+        };
 
         // Create cache with manual refresh
         CachingFeatureFlagProvider cachingProvider = new CachingFeatureFlagProvider(
-                mockProvider,
+                source,
                 new ConcurrentCache<>(null),
                 0, // No auto-refresh
                 TimeUnit.SECONDS
@@ -66,4 +93,109 @@ public class CachingFeatureFlagProviderTest {
                 .pollInterval(100, TimeUnit.MILLISECONDS)
                 .until(() -> cachingProvider.getValue("observable.flag").asInt(0) == 2);
     }
+
+    @Test
+    void testSourceChangesUpdateCacheAndNotifyOnce() {
+        MockFeatureFlagProvider mockProvider = new MockFeatureFlagProvider();
+        mockProvider.setFlag("observable.flag", 1);
+        CachingFeatureFlagProvider cachingProvider = new CachingFeatureFlagProvider(
+                mockProvider, new ConcurrentCache<>(null), 0, TimeUnit.SECONDS);
+        assertEquals(1, cachingProvider.getValue("observable.flag").asInt(0));
+
+        List<String> events = new ArrayList<>();
+        cachingProvider.addChangeListener((key, value) -> {
+            events.add(key + "=" + value.asInt(0));
+            // Listeners see the new value through the cache
+            assertEquals(value.asInt(0), cachingProvider.getValue(key).asInt(0));
+        });
+
+        mockProvider.setFlag("observable.flag", 2);
+        assertEquals(Collections.singletonList("observable.flag=2"), events);
+
+        cachingProvider.refresh();
+        assertEquals(Collections.singletonList("observable.flag=2"), events);
+        cachingProvider.shutdown();
+    }
+
+    @Test
+    void testAsyncHitsCompleteImmediatelyAndMissesShareOneLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<FlagValue> remote = new CompletableFuture<>();
+        AsyncFeatureFlagProvider source = new AsyncFeatureFlagProvider() {
+            @Override
+            public CompletableFuture<FlagValue> getValueAsync(String key) {
+                loads.incrementAndGet();
+                return remote;
+            }
+
+            @Override
+            public CompletableFuture<Map<String, FlagValue>> getChildrenAsync(String prefix) {
+                return CompletableFuture.completedFuture(Collections.emptyMap());
+            }
+        };
+
+        CachingFeatureFlagProvider cachingProvider = new CachingFeatureFlagProvider(
+                AsyncFeatureFlagProvider.toBlocking(source),
+                new ConcurrentCache<>(null),
+                0,
+                TimeUnit.SECONDS
+        );
+
+        CompletableFuture<FlagValue> first = cachingProvider.getValueAsync("remote.flag");
+        CompletableFuture<FlagValue> second = cachingProvider.getValueAsync("remote.flag");
+        assertSame(first, second);
+        assertFalse(first.isDone());
+        assertEquals(1, loads.get());
+
+        remote.complete(FlagValue.of("loaded"));
+        assertEquals("loaded", first.join().asString(null));
+
+        CompletableFuture<FlagValue> hit = cachingProvider.getValueAsync("remote.flag");
+        assertTrue(hit.isDone());
+        assertEquals("loaded", hit.join().asString(null));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testCustomCacheServesAsyncHits() {
+        AtomicInteger loads = new AtomicInteger();
+        MockFeatureFlagProvider source = new MockFeatureFlagProvider() {
+            @Override
+            public FlagValue getValue(String key) {
+                loads.incrementAndGet();
+                return super.getValue(key);
+            }
+        };
+        source.setFlag("custom.flag", "cached");
+
+        // Implements only the required methods, so getIfPresent falls back to the default
+        Map<String, FlagValue> entries = new ConcurrentHashMap<>();
+        Cache<String, FlagValue> cache = new Cache<String, FlagValue>() {
+            @Override
+            public FlagValue get(String key, Function<? super String, ? extends FlagValue> loader) {
+                return entries.computeIfAbsent(key, loader);
+            }
+
+            @Override
+            public void put(String key, FlagValue value) {
+                entries.put(key, value);
+            }
+
+            @Override
+            public void invalidate(String key) {
+                entries.remove(key);
+            }
+
+            @Override
+            public void invalidateAll() {
+                entries.clear();
+            }
+        };
+
+        CachingFeatureFlagProvider cachingProvider = new CachingFeatureFlagProvider(source, cache, 0, TimeUnit.SECONDS);
+        assertEquals("cached", cachingProvider.getValueAsync("custom.flag").join().asString(null));
+        assertTrue(cachingProvider.getValueAsync("missing").join().isNull());
+        assertEquals(1, loads.get());
+        cachingProvider.shutdown();
+    }
 }
@@ -0,0 +1,42 @@
+package com.thnkscj.flick.providers.caching.strategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class BoundedCacheTest {
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(4, String::valueOf);
+        assertEquals(4, cache.getMaximumSize());
+
+        // Four entries fit into four single-entry segments; touching a key keeps it in its segment
+        for (int i = 0; i < 4; i++) {
+            cache.put(i, "v" + i);
+        }
+        assertEquals(4, cache.size());
+        assertEquals("v0", cache.getIfPresent(0));
+
+        cache.put(4, "v4");
+        assertEquals(4, cache.size());
+        assertNull(cache.getIfPresent(0));
+        assertEquals("v4", cache.getIfPresent(4));
+
+        // Falls back to the loader after eviction or invalidation
+        assertEquals("0", cache.get(0, null));
+        cache.invalidate(0);
+        assertNull(cache.getIfPresent(0));
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testNeverExceedsMaximumSize() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(cache.size() <= 100);
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(0));
+    }
+}
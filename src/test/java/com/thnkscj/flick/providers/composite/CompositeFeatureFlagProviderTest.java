@@ -2,10 +2,27 @@ package com.thnkscj.flick.providers.composite;
 
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
+import com.thnkscj.flick.core.AsyncFeatureFlagProvider;
 import com.thnkscj.flick.core.FlagValue;
 import com.thnkscj.flick.MockFeatureFlagProvider;
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.evaluation.EvaluationContext;
+import com.thnkscj.flick.evaluation.FlagEvaluator;
+import com.thnkscj.flick.providers.caching.CachingFeatureFlagProvider;
+import com.thnkscj.flick.providers.caching.strategy.ConcurrentCache;
+import com.thnkscj.flick.providers.generic.GenericFeatureFlagProvider;
+import com.thnkscj.flick.schema.FlagSchema;
+import com.thnkscj.flick.schema.FlagSpec;
 import org.junit.jupiter.api.Test;
 
 public class CompositeFeatureFlagProviderTest {
@@ -59,4 +76,301 @@ public class CompositeFeatureFlagProviderTest {
         assertTrue(children.get("login").asBoolean(false)); // From first provider
         assertFalse(children.get("register").asBoolean(true)); // From second provider
     }
+
+    @Test
+    void testForEachFlagMatchesChildrenPrecedence() {
+        MockFeatureFlagProvider first = new MockFeatureFlagProvider();
+        first.setFlag("auth.login", true);
+
+        MockFeatureFlagProvider second = new MockFeatureFlagProvider();
+        second.setFlag("auth.login", false);
+        second.setFlag("auth.register", false);
+
+        for (boolean shortCircuit : new boolean[]{false, true}) {
+            CompositeFeatureFlagProvider composite = new CompositeFeatureFlagProvider(
+                    Arrays.asList(first, second), shortCircuit
+            );
+            Map<String, FlagValue> visited = new HashMap<>();
+            composite.forEachFlag((key, value) -> assertNull(visited.put(key, value)));
+            assertEquals(composite.getChildren(""), visited);
+            assertTrue(visited.get("auth.login").asBoolean(false));
+        }
+    }
+
+    @Test
+    void testFlagSpliteratorMatchesChildrenPrecedence() {
+        MockFeatureFlagProvider first = new MockFeatureFlagProvider();
+        first.setFlag("auth.login", true);
+        first.setFlag("top.only", 1);
+
+        Map<String, Object> defaults = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            defaults.put("flag." + i, i);
+        }
+        defaults.put("auth.login", false);
+        GenericLayer second = new GenericLayer(defaults);
+
+        for (boolean shortCircuit : new boolean[]{false, true}) {
+            CompositeFeatureFlagProvider composite = new CompositeFeatureFlagProvider(
+                    Arrays.asList(first, second), shortCircuit
+            );
+            Map<String, FlagValue> traversed = StreamSupport.stream(composite.flagSpliterator(), true)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            assertEquals(composite.getChildren(""), traversed);
+            assertTrue(traversed.get("auth.login").asBoolean(false));
+            assertEquals(shortCircuit ? 2 : 1_002, traversed.size());
+        }
+    }
+
+    @Test
+    void testAsyncResolutionChainsByPriority() {
+        CompletableFuture<FlagValue> remote = new CompletableFuture<>();
+        AsyncFeatureFlagProvider slow = new AsyncFeatureFlagProvider() {
+            @Override
+            public CompletableFuture<FlagValue> getValueAsync(String key) {
+                return remote;
+            }
+
+            @Override
+            public CompletableFuture<Map<String, FlagValue>> getChildrenAsync(String prefix) {
+                return CompletableFuture.completedFuture(Collections.emptyMap());
+            }
+        };
+
+        MockFeatureFlagProvider fallback = new MockFeatureFlagProvider();
+        fallback.setFlag("feature", "fallback");
+
+        CompositeFeatureFlagProvider composite = new CompositeFeatureFlagProvider(
+                Arrays.asList(AsyncFeatureFlagProvider.toBlocking(slow), fallback), true
+        );
+
+        CompletableFuture<FlagValue> result = composite.getValueAsync("feature");
+        assertFalse(result.isDone());
+
+        remote.complete(FlagValue.nullValue());
+        assertEquals("fallback", result.join().asString(null));
+        assertTrue(composite.getValueAsync("missing").join().isNull());
+    }
+
+    @Test
+    void testCircuitBreakerSkipsFailingLayerAndRecovers() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        FeatureFlagProvider flaky = new FeatureFlagProvider() {
+            @Override
+            public FlagValue getValue(String key) {
+                calls.incrementAndGet();
+                if (failing.get()) throw new IllegalStateException("backend down");
+                return FlagValue.of("primary");
+            }
+
+            @Override
+            public Map<String, FlagValue> getChildren(String prefix) {
+                return Collections.emptyMap();
+            }
+        };
+        MockFeatureFlagProvider fallback = new MockFeatureFlagProvider();
+        fallback.setFlag("feature", "fallback");
+
+        CompositeFeatureFlagProvider composite = new CompositeFeatureFlagProvider(
+                Arrays.asList(flaky, fallback), true,
+                new CircuitBreakerPolicy(10, 5, 0.5, 0, 100, TimeUnit.MILLISECONDS)
+        );
+        LayerHealth health = composite.getLayerHealth().get(0);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("fallback", composite.getValue("feature").asString(null));
+        }
+        assertEquals(5, calls.get());
+        assertEquals(LayerHealth.State.OPEN, health.getState());
+        assertEquals(15, health.getRejectedCount());
+        assertEquals("fallback", composite.getValueAsync("feature").join().asString(null));
+
+        failing.set(false);
+        Thread.sleep(150);
+        assertEquals("primary", composite.getValue("feature").asString(null));
+        assertEquals(LayerHealth.State.CLOSED, health.getState());
+        assertEquals(0.0, health.getFailureRate());
+    }
+
+    static class CountingProvider extends MockFeatureFlagProvider {
+        final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        public FlagValue getValue(String key) {
+            lookups.incrementAndGet();
+            return super.getValue(key);
+        }
+    }
+
+    @Test
+    void testRoutingSkipsLayersThatDoNotDefineKey() {
+        CountingProvider first = new CountingProvider();
+        CountingProvider second = new CountingProvider();
+        second.setFlag("only.in.second", 42);
+
+        CompositeFeatureFlagProvider composite = new CompositeFeatureFlagProvider(
+                Arrays.asList(first, second), true, null, true
+        );
+
+        assertTrue(composite.getValue("missing").isNull());
+        assertEquals(0, first.lookups.get() + second.lookups.get());
+
+        assertEquals(42, composite.getValue("only.in.second").asInt(0));
+        assertEquals(42, composite.getValueAsync("only.in.second").join().asInt(0));
+        assertEquals(0, first.lookups.get());
+
+        first.setFlag("only.in.second", 7);
+        assertEquals(7, composite.getValue("only.in.second").asInt(0));
+
+        first.clearFlag("only.in.second");
+        assertEquals(42, composite.getValue("only.in.second").asInt(0));
+        assertEquals(1, first.lookups.get());
+    }
+
+    static class GenericLayer extends GenericFeatureFlagProvider {
+        final AtomicInteger lookups = new AtomicInteger();
+        private final Map<String, Object> initial;
+
+        GenericLayer(Map<String, Object> initial) {
+            this.initial = initial;
+        }
+
+        @Override
+        protected void initialize() {
+            bulkUpdateFlags(initial);
+        }
+
+        @Override
+        protected void loadFlags() {
+        }
+
+        @Override
+        public FlagValue getValue(String key) {
+            lookups.incrementAndGet();
+            return super.getValue(key);
+        }
+
+        void put(String key, Object value) {
+            updateFlag(key, value);
+        }
+    }
+
+    @Test
+    void testRoutingIndexesGenericProviders() {
+        GenericLayer first = new GenericLayer(Collections.singletonMap("only.in.first", "a"));
+        GenericLayer second = new GenericLayer(Collections.singletonMap("only.in.second", "b"));
+
+        // The layers are initialized by the index's enumeration, not by a lookup
+        CompositeFeatureFlagProvider composite = new CompositeFeatureFlagProvider(
+                Arrays.asList(first, second), true, null, true
+        );
+
+        assertTrue(composite.getValue("missing").isNull());
+        assertEquals("b", composite.getValue("only.in.second").asString(null));
+        assertEquals(0, first.lookups.get());
+        assertEquals(1, second.lookups.get());
+
+        first.put("only.in.second", "override");
+        assertEquals("override", composite.getValue("only.in.second").asString(null));
+
+        // Schema defaults are never enumerated, so a layer with a schema is always consulted
+        first.setSchema(new FlagSchema(Collections.singletonMap("declared.only", FlagSpec.ofInt(5))));
+        assertEquals(5, composite.getValue("declared.only").asInt(0));
+    }
+
+    @Test
+    void testForwardsLayerChangesWithResolvedValues() {
+        MockFeatureFlagProvider first = new MockFeatureFlagProvider();
+        MockFeatureFlagProvider second = new MockFeatureFlagProvider();
+        first.setFlag("shadowed", "top");
+        second.setFlag("shadowed", "bottom");
+
+        CompositeFeatureFlagProvider composite = new CompositeFeatureFlagProvider(
+                Arrays.asList(first, second), true, null, true
+        );
+        Map<String, String> events = new HashMap<>();
+        composite.addChangeListener((key, value) -> events.put(key, value.asString(null)));
+
+        second.setFlag("fresh", "new");
+        second.setFlag("shadowed", "changed");
+        assertEquals("new", events.get("fresh"));
+        assertEquals("top", events.get("shadowed"));
+
+        first.clearFlag("shadowed");
+        assertEquals("changed", events.get("shadowed"));
+    }
+
+    @Test
+    void testEvaluatorRecompilesAfterLayerChange() {
+        MockFeatureFlagProvider layer = new MockFeatureFlagProvider();
+        layer.setFlag("beta", false);
+        CompositeFeatureFlagProvider composite = new CompositeFeatureFlagProvider(
+                Collections.singletonList(layer), true);
+
+        try (FlagEvaluator evaluator = new FlagEvaluator(composite)) {
+            EvaluationContext context = new EvaluationContext("user-1");
+            assertEquals(false, evaluator.evaluate(context, "beta"));
+            layer.setFlag("beta", true);
+            assertEquals(true, evaluator.evaluate(context, "beta"));
+        }
+    }
+
+    @Test
+    void testRoutingAlwaysConsultsNonObservableLayers() {
+        AtomicInteger calls = new AtomicInteger();
+        FeatureFlagProvider opaque = new FeatureFlagProvider() {
+            @Override
+            public FlagValue getValue(String key) {
+                calls.incrementAndGet();
+                return "late.flag".equals(key) ? FlagValue.of(true) : FlagValue.nullValue();
+            }
+
+            @Override
+            public Map<String, FlagValue> getChildren(String prefix) {
+                return Collections.emptyMap();
+            }
+        };
+
+        CompositeFeatureFlagProvider composite = new CompositeFeatureFlagProvider(
+                Arrays.asList(new CountingProvider(), opaque), true, null, true
+        );
+
+        assertTrue(composite.getValue("late.flag").asBoolean(false));
+        assertTrue(composite.getValue("missing").isNull());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testRoutingConsultsLazilyLoadingCache() {
+        class Source extends GenericFeatureFlagProvider {
+            @Override
+            protected void initialize() {
+                updateFlag("early.flag", 1);
+            }
+
+            @Override
+            protected void loadFlags() {
+            }
+
+            void put(String key, Object value) {
+                updateFlag(key, value);
+            }
+        }
+        Source source = new Source();
+        source.initializeAsync(1, TimeUnit.SECONDS).join();
+
+        CachingFeatureFlagProvider caching = new CachingFeatureFlagProvider(
+                source, new ConcurrentCache<>(null), 0, TimeUnit.SECONDS
+        );
+        CompositeFeatureFlagProvider composite = new CompositeFeatureFlagProvider(
+                Arrays.asList(new CountingProvider(), caching), true, null, true
+        );
+
+        // Added to the source after the index was built; the cache is not indexed, so it is still consulted
+        source.put("late.flag", 2);
+
+        assertEquals(1, composite.getValue("early.flag").asInt(0));
+        assertEquals(2, composite.getValue("late.flag").asInt(0));
+    }
 }
@@ -0,0 +1,45 @@
+package com.thnkscj.flick.providers.composite;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class LayerHealthTest {
+
+    private static LayerHealth openBreaker() {
+        LayerHealth health = new LayerHealth(new CircuitBreakerPolicy(2, 1, 0.5, 0, 0, TimeUnit.MILLISECONDS));
+        assertTrue(health.record(health.tryAcquire(), 0, true));
+        assertEquals(LayerHealth.State.OPEN, health.getState());
+        return health;
+    }
+
+    @Test
+    void testOnlyProbeClosesHalfOpenBreaker() {
+        LayerHealth health = new LayerHealth(new CircuitBreakerPolicy(2, 1, 0.5, 0, 0, TimeUnit.MILLISECONDS));
+        int straggler = health.tryAcquire();
+        assertTrue(health.record(health.tryAcquire(), 0, true));
+
+        int probe = health.tryAcquire();
+        assertEquals(LayerHealth.PROBE, probe);
+        assertEquals(LayerHealth.DENIED, health.tryAcquire());
+
+        // A call admitted before the breaker opened completes first; it must not decide the probe
+        health.record(straggler, 0, false);
+        assertEquals(LayerHealth.State.HALF_OPEN, health.getState());
+
+        health.record(probe, 0, false);
+        assertEquals(LayerHealth.State.CLOSED, health.getState());
+    }
+
+    @Test
+    void testFailedProbeReopensBreaker() {
+        LayerHealth health = openBreaker();
+        int probe = health.tryAcquire();
+        assertEquals(LayerHealth.PROBE, probe);
+
+        assertTrue(health.record(probe, 0, true));
+        assertEquals(LayerHealth.State.OPEN, health.getState());
+    }
+}
@@ -0,0 +1,127 @@
+package com.thnkscj.flick.providers.generic;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.core.FlagValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+public class CompactFlagStoreTest {
+
+    @Test
+    void testValuesKeepTheirTypes() {
+        CompactFlagStore store = new CompactFlagStore();
+        store.put("bool", FlagValue.of(true));
+        store.put("int", FlagValue.of(42));
+        store.put("int.large", FlagValue.of(Integer.MAX_VALUE));
+        store.put("long", FlagValue.of(-7L));
+        store.put("long.large", FlagValue.of(Long.MIN_VALUE));
+        store.put("double", FlagValue.of(2.5));
+        store.put("string", FlagValue.of("eu-west"));
+        store.put("list", FlagValue.of(Arrays.asList("a", "b")));
+        store.put("schlüssel.ключ", FlagValue.of("unicode"));
+        store.compact();
+
+        assertEquals(9, store.size());
+        assertEquals(Boolean.TRUE, store.get("bool").as(Object.class).orElse(null));
+        assertEquals(42, store.get("int").as(Object.class).orElse(null));
+        assertEquals(Integer.MAX_VALUE, store.get("int.large").as(Object.class).orElse(null));
+        assertEquals(-7L, store.get("long").as(Object.class).orElse(null));
+        assertEquals(Long.MIN_VALUE, store.get("long.large").as(Object.class).orElse(null));
+        assertEquals(2.5, store.get("double").as(Object.class).orElse(null));
+        assertEquals("eu-west", store.get("string").asString());
+        assertEquals(Arrays.asList("a", "b"), store.get("list").as(Object.class).orElse(null));
+        assertEquals("unicode", store.get("schlüssel.ключ").asString());
+        assertNull(store.get("missing"));
+        assertNull(store.get("bool."));
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomUpdates() {
+        CompactFlagStore store = new CompactFlagStore();
+        Map<String, FlagValue> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            String key = "svc" + random.nextInt(20) + ".flag" + random.nextInt(2_000);
+            if (random.nextInt(5) == 0) {
+                assertEquals(expected.remove(key), store.remove(key));
+            } else {
+                FlagValue value = FlagValue.of(random.nextBoolean() ? (Object) random.nextLong() : "v" + random.nextInt(10));
+                assertEquals(expected.put(key, value), store.put(key, value));
+            }
+        }
+        assertEquals(expected.size(), store.size());
+        assertEquals(expected, new HashMap<>(store));
+
+        store.compact();
+        assertEquals(expected, new HashMap<>(store));
+
+        for (Iterator<String> it = store.keySet().iterator(); it.hasNext(); ) {
+            if (it.next().startsWith("svc1")) it.remove();
+        }
+        expected.keySet().removeIf(key -> key.startsWith("svc1"));
+        assertEquals(expected, new HashMap<>(store));
+        assertEquals(expected.size(), store.size());
+    }
+
+    @Test
+    void testSpliteratorCoversSnapshotAndPendingUpdates() {
+        CompactFlagStore store = new CompactFlagStore();
+        Map<String, FlagValue> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            expected.put("flag" + i, FlagValue.of(i));
+        }
+        store.putAll(expected);
+        store.compact();
+
+        // Shadow and remove snapshot entries without compacting
+        for (int i = 0; i < 100; i++) {
+            expected.put("flag" + i, FlagValue.of("updated"));
+            expected.remove("flag" + (i + 100));
+            expected.put("new" + i, FlagValue.of(true));
+        }
+        for (int i = 0; i < 100; i++) {
+            store.put("flag" + i, FlagValue.of("updated"));
+            store.remove("flag" + (i + 100));
+            store.put("new" + i, FlagValue.of(true));
+        }
+
+        Spliterator<Map.Entry<String, FlagValue>> spliterator = store.entrySet().spliterator();
+        assertNotNull(spliterator.trySplit());
+        Map<String, FlagValue> parallel = StreamSupport.stream(store.entrySet().spliterator(), true)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertEquals(expected, parallel);
+    }
+
+    @Test
+    void testBackingGenericProvider() {
+        GenericFeatureFlagProvider provider = new GenericFeatureFlagProvider(new CompactFlagStore(), null) {
+            @Override
+            protected void initialize() {
+                Map<String, Object> flags = new HashMap<>();
+                for (int i = 0; i < 10_000; i++) {
+                    flags.put("mod" + (i % 10) + ".flag" + i, i % 3 == 0);
+                }
+                bulkUpdateFlags(flags);
+            }
+
+            @Override
+            protected void loadFlags() {
+            }
+        };
+
+        assertTrue(provider.getValue("mod0.flag0").asBoolean());
+        assertFalse(provider.getValue("mod1.flag1").asBoolean());
+        assertEquals(1_000, provider.getChildren("mod3.").size());
+        assertTrue(provider.getValue("mod3.flag10000").isNull());
+    }
+}
@@ -3,8 +3,22 @@ package com.thnkscj.flick.providers.generic;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.core.FlagValueInterner;
+import com.thnkscj.flick.schema.FlagSchema;
+import com.thnkscj.flick.schema.FlagSpec;
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GenericFeatureFlagProviderTest {
 
@@ -22,6 +36,37 @@ public class GenericFeatureFlagProviderTest {
         }
     }
 
+    static class VersionedProvider extends TestProvider {
+        long resyncRequestedAt = -1;
+
+        @Override
+        protected void onResyncRequired(long currentVersion, FlagDelta rejected) {
+            resyncRequestedAt = currentVersion;
+        }
+    }
+
+    static class SlowStartingProvider extends GenericFeatureFlagProvider {
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        protected void initialize() {
+            if (attempts.incrementAndGet() <= 2) {
+                throw new IllegalStateException("source unavailable");
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            updateFlag("test.flag", true);
+        }
+
+        @Override
+        protected void loadFlags() {
+        }
+    }
+
     @Test
     void testBasicFunctionality() {
         TestProvider provider = new TestProvider();
@@ -79,4 +124,258 @@ public class GenericFeatureFlagProviderTest {
         // No assertions needed - just verifying no exceptions occur
         assertTrue(provider.getValue("test.flag").asBoolean(false));
     }
+
+    @Test
+    void testDeltaApplication() {
+        VersionedProvider provider = new VersionedProvider();
+        Map<String, Object> puts = new HashMap<>();
+        puts.put("delta.a", 1);
+        puts.put("delta.b", "x");
+
+        assertEquals(DeltaResult.APPLIED, provider.applyDelta(new FlagDelta(0, 1, puts, Collections.emptyList())));
+        assertEquals(1, provider.getVersion());
+        assertEquals(1, provider.getValue("delta.a").asInt(0));
+
+        FlagDelta second = new FlagDelta(1, 2, Collections.singletonMap("delta.a", 2), Arrays.asList("delta.b"));
+        assertEquals(DeltaResult.APPLIED, provider.applyDelta(second));
+        assertEquals(2, provider.getValue("delta.a").asInt(0));
+        assertTrue(provider.getValue("delta.b").isNull());
+
+        assertEquals(DeltaResult.STALE, provider.applyDelta(second));
+        assertEquals(2, provider.getVersion());
+        assertEquals(-1, provider.resyncRequestedAt);
+    }
+
+    @Test
+    void testDeltaIsVisibleAtOnce() throws InterruptedException {
+        CountDownLatch halfApplied = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Map<String, FlagValue> store = new ConcurrentHashMap<String, FlagValue>() {
+            @Override
+            public FlagValue put(String key, FlagValue value) {
+                if ("delta.b".equals(key) && value.asInt(0) == 2) {
+                    // Pauses the copy into the store after some of the delta's changes
+                    halfApplied.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.put(key, value);
+            }
+        };
+        GenericFeatureFlagProvider provider = new GenericFeatureFlagProvider(store, null) {
+            @Override
+            protected void initialize() {
+            }
+
+            @Override
+            protected void loadFlags() {
+            }
+        };
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("delta.a", 1);
+        first.put("delta.b", 1);
+        first.put("delta.c", 1);
+        provider.applySnapshot(first, 1);
+
+        Map<String, Object> puts = new LinkedHashMap<>();
+        puts.put("delta.a", 2);
+        puts.put("delta.b", 2);
+        Thread writer = new Thread(() -> provider.applyDelta(
+                new FlagDelta(1, 2, puts, Collections.singletonList("delta.c"))));
+        writer.start();
+        assertTrue(halfApplied.await(5, TimeUnit.SECONDS));
+
+        assertEquals(2, provider.getValue("delta.a").asInt(0));
+        assertEquals(2, provider.getValue("delta.b").asInt(0));
+        assertTrue(provider.getValue("delta.c").isNull());
+
+        release.countDown();
+        writer.join(5000);
+        assertEquals(2, provider.getValue("delta.b").asInt(0));
+        assertEquals(2, provider.getVersion());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testUnversionedUpdateWaitsForDelta() throws InterruptedException {
+        VersionedProvider provider = new VersionedProvider();
+        provider.getValue("test.flag");
+
+        Thread[] writer = new Thread[1];
+        provider.addChangeListener((key, value) -> {
+            if (key.equals("first") && writer[0] == null) {
+                writer[0] = new Thread(() -> provider.updateFlag("second", "unversioned"));
+                writer[0].start();
+                try {
+                    writer[0].join(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                assertTrue(writer[0].isAlive());
+            }
+        });
+
+        Map<String, Object> puts = new LinkedHashMap<>();
+        puts.put("first", 1);
+        puts.put("second", "delta");
+        assertEquals(DeltaResult.APPLIED, provider.applyDelta(new FlagDelta(0, 1, puts, Collections.emptyList())));
+        writer[0].join();
+
+        assertEquals("unversioned", provider.getValue("second").asString(null));
+    }
+
+    @Test
+    void testGappedDeltaRequestsResync() {
+        VersionedProvider provider = new VersionedProvider();
+        provider.applySnapshot(Collections.singletonMap("snap.flag", true), 5);
+
+        FlagDelta gapped = new FlagDelta(7, 8, Collections.singletonMap("snap.flag", false), Collections.emptyList());
+        assertEquals(DeltaResult.RESYNC_REQUIRED, provider.applyDelta(gapped));
+        assertEquals(5, provider.resyncRequestedAt);
+        assertEquals(5, provider.getVersion());
+        assertTrue(provider.getValue("snap.flag").asBoolean(false));
+
+        provider.applySnapshot(Collections.singletonMap("other.flag", 1), 8);
+        assertEquals(8, provider.getVersion());
+        assertTrue(provider.getValue("snap.flag").isNull());
+        assertEquals(1, provider.getValue("other.flag").asInt(0));
+    }
+
+    @Test
+    void testAsyncInitializationServesDefaultsAndRetries() throws Exception {
+        SlowStartingProvider provider = new SlowStartingProvider();
+        provider.updateFlag("cached.flag", "last-known-good");
+        provider.initializeAsync(50, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        assertTrue(provider.getValue("test.flag").isNull());
+        assertEquals("last-known-good", provider.getValue("cached.flag").asString(null));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertFalse(provider.ready().isDone());
+
+        provider.release.countDown();
+        provider.ready().get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, provider.attempts.get());
+        assertTrue(provider.getValue("test.flag").asBoolean(false));
+        provider.shutdown();
+    }
+
+    @Test
+    void testLookupRacingAsyncInitializationInitializesOnce() throws Exception {
+        AtomicInteger initializations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        GenericFeatureFlagProvider provider = new GenericFeatureFlagProvider() {
+            @Override
+            protected void initialize() {
+                initializations.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                updateFlag("test.flag", true);
+            }
+
+            @Override
+            protected void loadFlags() {
+            }
+        };
+
+        Thread lookup = new Thread(() -> provider.getValue("test.flag"));
+        lookup.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Neither starting background initialization nor locking the provider waits on initialize()
+        long start = System.nanoTime();
+        provider.initializeAsync(5, TimeUnit.SECONDS);
+        synchronized (provider) {
+            assertFalse(provider.ready().isDone());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+
+        release.countDown();
+        lookup.join(5000);
+        provider.ready().get(5, TimeUnit.SECONDS);
+        assertTrue(provider.getValue("test.flag").asBoolean(false));
+        assertEquals(1, initializations.get());
+        provider.shutdown();
+    }
+
+    @Test
+    void testReloadReusesUnchangedValues() {
+        GenericFeatureFlagProvider interning = new GenericFeatureFlagProvider(new FlagValueInterner()) {
+            @Override
+            protected void initialize() {
+            }
+
+            @Override
+            protected void loadFlags() {
+            }
+        };
+
+        Map<String, Object> source = new HashMap<>();
+        source.put("region", new String("eu-west"));
+        source.put("other.region", new String("eu-west"));
+        source.put("limit", 50_000);
+        interning.bulkUpdateFlags(source);
+
+        FlagValue region = interning.getValue("region");
+        FlagValue limit = interning.getValue("limit");
+        assertSame(region, interning.getValue("other.region"));
+
+        // Reloading equal values, even as new objects, keeps the stored instances
+        Map<String, Object> reloaded = new HashMap<>();
+        reloaded.put("region", new String("eu-west"));
+        reloaded.put("limit", Integer.valueOf(50_000));
+        interning.bulkUpdateFlags(reloaded);
+        assertSame(region, interning.getValue("region"));
+        assertSame(limit, interning.getValue("limit"));
+
+        reloaded.put("limit", 60_000);
+        interning.bulkUpdateFlags(reloaded);
+        assertEquals(60_000, interning.getValue("limit").asInt());
+    }
+
+    @Test
+    void testSchemaValidatesOnLoadAndKeepsLastGoodValue() {
+        TestProvider provider = new TestProvider();
+        provider.getValue("test.flag");
+        provider.updateFlag("checkout.max-items", "500");
+
+        Map<String, FlagSpec<?>> specs = new HashMap<>();
+        specs.put("checkout.max-items", FlagSpec.ofInt(50, 1, 100));
+        specs.put("checkout.region", FlagSpec.ofString("eu-west", "eu-west", "us-east"));
+        specs.put("test.flag", FlagSpec.ofBoolean(false));
+
+        List<String> rejected = new ArrayList<>();
+        provider.addValidationListener((key, value, reason) -> rejected.add(key + "=" + value));
+        provider.setSchema(new FlagSchema(specs));
+
+        // The loaded value was out of range, so the default applies
+        assertEquals(Collections.singletonList("checkout.max-items=500"), rejected);
+        assertEquals(50, provider.getValue("checkout.max-items").asInt());
+        assertEquals("eu-west", provider.getValue("checkout.region").asString());
+        assertTrue(provider.getValue("missing").isNull());
+
+        Map<String, Object> update = new HashMap<>();
+        update.put("checkout.max-items", "20");
+        update.put("checkout.region", "mars");
+        update.put("test.flag", "yes-ish");
+        provider.bulkUpdateFlags(update);
+        assertEquals(Integer.valueOf(20), provider.getValue("checkout.max-items").as(Object.class).orElse(null));
+        assertEquals("eu-west", provider.getValue("checkout.region").asString());
+        assertTrue(provider.getValue("test.flag").asBoolean());
+        assertEquals(3, rejected.size());
+
+        provider.updateFlag("checkout.max-items", 2.5);
+        assertEquals(20, provider.getValue("checkout.max-items").asInt());
+        provider.updateFlag("checkout.max-items", null);
+        assertEquals(50, provider.getValue("checkout.max-items").asInt());
+    }
 }
@@ -0,0 +1,36 @@
+package com.thnkscj.flick.providers.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class FlagJsonTest {
+
+    @Test
+    void testRoundTrip() {
+        String json = "{\"a\":{\"b\":true,\"c\":-12,\"d\":1.5e2},\"e\":\"x\\\"y\\u0041\",\"f\":[1,null],\"g\":null}";
+        Map<String, Object> parsed = FlagJson.parseObject(json);
+        Map<String, Object> flat = FlagJson.flatten(parsed);
+
+        assertEquals(true, flat.get("a.b"));
+        assertEquals(-12L, flat.get("a.c"));
+        assertEquals(150.0, flat.get("a.d"));
+        assertEquals("x\"yA", flat.get("e"));
+        assertEquals(Arrays.asList(1L, null), flat.get("f"));
+        assertTrue(flat.containsKey("g"));
+
+        assertEquals(parsed, FlagJson.parse(FlagJson.write(new StringBuilder(), parsed).toString()));
+    }
+
+    @Test
+    void testMalformedInput() {
+        List<String> malformed = Arrays.asList("{", "{\"a\":}", "[1,]", "\"open", "{\"a\":1} x", "tru");
+        for (String json : malformed) {
+            assertThrows(IllegalArgumentException.class, () -> FlagJson.parse(json), json);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.thnkscj.flick.providers.http;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PollingFeatureFlagProviderTest {
+
+    @Test
+    void testConditionalRequestsAgainstServer() throws Exception {
+        try (FlagServer server = new FlagServer(0).start()) {
+            server.setFlag("feature.enabled", true);
+            PollingFeatureFlagProvider provider = new PollingFeatureFlagProvider(
+                    server.getSnapshotUrl(), 1, 2, TimeUnit.HOURS);
+
+            assertTrue(provider.getValue("feature.enabled").asBoolean(false));
+            provider.refresh();
+            provider.refresh();
+            assertEquals(3, provider.getPollCount());
+            assertEquals(2, provider.getNotModifiedCount());
+
+            server.setFlag("feature.limit", 7);
+            provider.refresh();
+            assertEquals(7, provider.getValue("feature.limit").asInt(0));
+            assertEquals(2, provider.getNotModifiedCount());
+            assertEquals(0, provider.getFailureCount());
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    void testAdaptiveInterval() throws Exception {
+        AtomicReference<HttpTransport.Response> next = new AtomicReference<>(
+                new HttpTransport.Response(200, "\"1\"", null, "{\"version\":1,\"flags\":{\"a\":{\"b\":1}}}"));
+        PollingFeatureFlagProvider provider = new PollingFeatureFlagProvider(new URL("http://localhost/flags"),
+                (url, headers) -> next.get(), 100, 800, TimeUnit.SECONDS);
+
+        assertEquals(1, provider.getValue("a.b").asInt(0));
+        assertEquals(100_000, provider.getCurrentIntervalMillis());
+
+        next.set(new HttpTransport.Response(304, "\"1\"", null, null));
+        provider.refresh();
+        assertEquals(200_000, provider.getCurrentIntervalMillis());
+        provider.refresh();
+        provider.refresh();
+        provider.refresh();
+        assertEquals(800_000, provider.getCurrentIntervalMillis());
+
+        next.set(new HttpTransport.Response(200, "\"2\"", null, "{\"version\":2,\"flags\":{\"a.b\":2}}"));
+        provider.refresh();
+        assertEquals(100_000, provider.getCurrentIntervalMillis());
+        assertEquals(2, provider.getValue("a.b").asInt(0));
+        provider.shutdown();
+    }
+
+    @Test
+    void testUnchangedPlainBodyKeepsVersion() throws Exception {
+        AtomicReference<String> body = new AtomicReference<>("{\"feature\":{\"limit\":1}}");
+        PollingFeatureFlagProvider provider = new PollingFeatureFlagProvider(new URL("http://localhost/flags"),
+                (url, headers) -> new HttpTransport.Response(200, null, null, body.get()), 100, 800, TimeUnit.SECONDS);
+
+        assertEquals(1, provider.getValue("feature.limit").asInt(0));
+        long version = provider.getVersion();
+
+        body.set("{ \"feature.limit\": 1 }");
+        provider.refresh();
+        assertEquals(version, provider.getVersion());
+        assertEquals(200_000, provider.getCurrentIntervalMillis());
+
+        body.set("{\"feature\":{\"limit\":2}}");
+        provider.refresh();
+        assertEquals(version + 1, provider.getVersion());
+        assertEquals(2, provider.getValue("feature.limit").asInt(0));
+        provider.shutdown();
+    }
+
+    @Test
+    void testFailureKeepsLastFlags() throws Exception {
+        AtomicReference<Boolean> fail = new AtomicReference<>(false);
+        PollingFeatureFlagProvider provider = new PollingFeatureFlagProvider(new URL("http://localhost/flags"),
+                (url, headers) -> {
+                    if (fail.get()) throw new IOException("unreachable");
+                    return new HttpTransport.Response(200, null, null, "{\"feature\":{\"enabled\":true}}");
+                }, 10, 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(provider.getValue("feature.enabled").asBoolean(false));
+        fail.set(true);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> provider.getFailureCount() >= 2);
+        assertTrue(provider.getValue("feature.enabled").asBoolean(false));
+        provider.shutdown();
+    }
+}
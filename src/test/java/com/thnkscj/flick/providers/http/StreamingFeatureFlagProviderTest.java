@@ -0,0 +1,162 @@
+package com.thnkscj.flick.providers.http;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+import com.thnkscj.flick.core.FlagValue;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StreamingFeatureFlagProviderTest {
+
+    private FlagServer server;
+    private StreamingFeatureFlagProvider provider;
+
+    @BeforeEach
+    void setup() throws Exception {
+        server = new FlagServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                2, 100, TimeUnit.MILLISECONDS).start();
+        server.setFlag("feature.enabled", true);
+        provider = new StreamingFeatureFlagProvider(server.getStreamUrl(), 10, 50, TimeUnit.MILLISECONDS);
+    }
+
+    @AfterEach
+    void cleanup() {
+        provider.shutdown();
+        server.close();
+    }
+
+    @Test
+    void testSnapshotThenPatches() {
+        assertTrue(provider.getValue("feature.enabled").asBoolean(false));
+        assertTrue(provider.isSynchronized());
+        assertEquals(1, provider.getVersion());
+
+        Map<String, Object> puts = new HashMap<>();
+        puts.put("feature.limit", 10);
+        puts.put("feature.name", "beta");
+        server.publish(puts, Collections.singletonList("feature.enabled"));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> provider.getVersion() == 2);
+        assertTrue(provider.getValue("feature.enabled").isNull());
+        assertEquals(10, provider.getValue("feature.limit").asInt(0));
+        assertEquals(2, provider.getChildren("feature").size());
+    }
+
+    @Test
+    void testResumeAfterDisconnect() {
+        provider.getValue("feature.enabled");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> server.getClientCount() == 1);
+
+        server.disconnectAll();
+        server.setFlag("feature.limit", 5);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> provider.getVersion() == server.getVersion());
+        assertEquals(5, provider.getValue("feature.limit").asInt(0));
+        assertTrue(provider.getConnectCount() >= 2);
+    }
+
+    @Test
+    void testSnapshotWhenHistoryExhausted() {
+        provider.getValue("feature.enabled");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> server.getClientCount() == 1);
+
+        server.disconnectAll();
+        for (int i = 0; i < 5; i++) {
+            server.setFlag("counter", i);
+        }
+        server.removeFlag("feature.enabled");
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> provider.getVersion() == server.getVersion());
+        assertEquals(4, provider.getValue("counter").asInt(-1));
+        assertTrue(provider.getValue("feature.enabled").isNull());
+    }
+
+    @Test
+    void testListenersSeeAppliedPatches() {
+        Map<String, FlagValue> changes = new ConcurrentHashMap<>();
+        provider.addChangeListener(changes::put);
+        assertTrue(provider.getValue("feature.enabled").asBoolean(false));
+        assertTrue(changes.get("feature.enabled").asBoolean(false));
+
+        server.publish(Collections.singletonMap("feature.limit", 10), Collections.singletonList("feature.enabled"));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> changes.containsKey("feature.limit"));
+        assertEquals(10, changes.get("feature.limit").asInt(0));
+        assertTrue(changes.get("feature.enabled").isNull());
+    }
+
+    @Test
+    void testRefreshReopensStreamForSnapshot() {
+        provider.getValue("feature.enabled");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> server.getClientCount() == 1);
+
+        provider.refresh();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> provider.getConnectCount() >= 2);
+        server.setFlag("feature.limit", 3);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> provider.getValue("feature.limit").asInt(0) == 3);
+    }
+
+    @Test
+    void testEventCompletedAfterShutdownIsDiscarded() throws Exception {
+        CountDownLatch headerSent = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        HttpServer stalling = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        stalling.createContext("/stream", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(("event: snapshot\nid: 1\ndata: {\"version\":1,\"flags\":{\"a\":true}}\n\n"
+                        + "event: patch\nid: 2\ndata: {\"base\":1,\"version\":2,\"puts\":{\"b\":true},\"removes\":[]}\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                headerSent.countDown();
+                // Hold back the blank line that completes the patch until the client has shut down
+                finish.await(5, TimeUnit.SECONDS);
+                out.write('\n');
+                out.flush();
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stalling.start();
+        StreamingFeatureFlagProvider stalled = new StreamingFeatureFlagProvider(
+                new URL("http", "127.0.0.1", stalling.getAddress().getPort(), "/stream"), 10, 50, TimeUnit.MILLISECONDS);
+        try {
+            AtomicInteger changes = new AtomicInteger();
+            stalled.addChangeListener((key, value) -> changes.incrementAndGet());
+            assertTrue(stalled.getValue("a").asBoolean(false));
+            assertTrue(headerSent.await(5, TimeUnit.SECONDS));
+            int before = changes.get();
+
+            stalled.shutdown();
+            finish.countDown();
+            Thread.sleep(300);
+
+            assertEquals(1, stalled.getVersion());
+            assertTrue(stalled.getValue("b").isNull());
+            assertEquals(before, changes.get());
+        } finally {
+            stalled.shutdown();
+            stalling.stop(0);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.thnkscj.flick.providers.jdbc;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+public class JdbcFeatureFlagProviderTest {
+
+    private JdbcDataSource dataSource;
+    private Connection keepAlive;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:flags_" + System.nanoTime());
+        keepAlive = dataSource.getConnection();
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE SEQUENCE flag_version");
+            statement.execute("CREATE TABLE feature_flags (flag_key VARCHAR(255) PRIMARY KEY, "
+                    + "flag_value VARCHAR(1024), version BIGINT NOT NULL, deleted BOOLEAN DEFAULT FALSE NOT NULL)");
+            statement.execute("CREATE INDEX feature_flags_version ON feature_flags (version)");
+        }
+        upsert("feature.enabled", "true", false);
+        upsert("feature.limit", "10", false);
+        upsert("feature.old", "x", true);
+    }
+
+    @AfterEach
+    void cleanup() throws SQLException {
+        keepAlive.close();
+    }
+
+    @Test
+    void testInitialLoadSkipsTombstones() {
+        JdbcFeatureFlagProvider provider = new JdbcFeatureFlagProvider(
+                dataSource, new FlagTable("feature_flags"), 0, TimeUnit.SECONDS);
+
+        assertTrue(provider.getValue("feature.enabled").asBoolean(false));
+        assertEquals(10, provider.getValue("feature.limit").asInt(0));
+        assertTrue(provider.getValue("feature.old").isNull());
+        assertEquals(3, provider.getVersion());
+        provider.shutdown();
+    }
+
+    @Test
+    void testIncrementalChangesAndDeletes() throws SQLException {
+        JdbcFeatureFlagProvider provider = new JdbcFeatureFlagProvider(
+                dataSource, new FlagTable("feature_flags"), 2, 0, TimeUnit.SECONDS);
+        provider.getValue("feature.enabled");
+
+        upsert("feature.limit", "20", false);
+        upsert("feature.enabled", null, true);
+        upsert("feature.new", "beta", false);
+        provider.refresh();
+
+        assertEquals(20, provider.getValue("feature.limit").asInt(0));
+        assertTrue(provider.getValue("feature.enabled").isNull());
+        assertEquals("beta", provider.getValue("feature.new").asString(null));
+        assertEquals(6, provider.getVersion());
+
+        provider.refresh();
+        assertEquals(6, provider.getVersion());
+        assertEquals(0, provider.getFailureCount());
+        provider.shutdown();
+    }
+
+    @Test
+    void testScheduledPolling() throws SQLException {
+        JdbcFeatureFlagProvider provider = new JdbcFeatureFlagProvider(
+                dataSource, new FlagTable("feature_flags"), 10, TimeUnit.MILLISECONDS);
+        provider.getValue("feature.enabled");
+
+        upsert("feature.limit", "30", false);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> provider.getValue("feature.limit").asInt(0) == 30);
+        provider.shutdown();
+    }
+
+    @Test
+    void testRowsCommittedOutOfOrderAreNotLost() throws SQLException {
+        JdbcFeatureFlagProvider provider = new JdbcFeatureFlagProvider(
+                dataSource, new FlagTable("feature_flags"), 0, TimeUnit.SECONDS);
+        provider.getValue("feature.enabled");
+
+        try (Connection early = dataSource.getConnection(); Connection late = dataSource.getConnection()) {
+            early.setAutoCommit(false);
+            late.setAutoCommit(false);
+            // The early transaction takes version 4, the late one version 5 and commits first
+            upsert(early, "feature.slow", "early", false);
+            upsert(late, "feature.limit", "50", false);
+            late.commit();
+
+            provider.refresh();
+            assertEquals(50, provider.getValue("feature.limit").asInt(0));
+            assertTrue(provider.getValue("feature.slow").isNull());
+            assertEquals(5, provider.getVersion());
+
+            early.commit();
+        }
+        provider.refresh();
+        assertEquals("early", provider.getValue("feature.slow").asString(null));
+        assertEquals(50, provider.getValue("feature.limit").asInt(0));
+        assertEquals(5, provider.getVersion());
+        assertEquals(0, provider.getFailureCount());
+        provider.shutdown();
+    }
+
+    @Test
+    void testResyncDropsPurgedRows() throws SQLException {
+        JdbcFeatureFlagProvider provider = new JdbcFeatureFlagProvider(
+                dataSource, new FlagTable("feature_flags"), 0, TimeUnit.SECONDS);
+        assertTrue(provider.getValue("feature.enabled").asBoolean(false));
+
+        // Deleted and purged without a poll ever seeing the tombstone
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("DELETE FROM feature_flags WHERE flag_key = 'feature.enabled'");
+        }
+        provider.refresh();
+        assertTrue(provider.getValue("feature.enabled").asBoolean(false));
+
+        provider.resync();
+        assertTrue(provider.getValue("feature.enabled").isNull());
+        assertEquals(10, provider.getValue("feature.limit").asInt(0));
+        provider.shutdown();
+    }
+
+    @Test
+    void testRejectsInvalidIdentifiers() {
+        assertThrows(IllegalArgumentException.class, () -> new FlagTable("flags; DROP TABLE x"));
+    }
+
+    private void upsert(String key, String value, boolean deleted) throws SQLException {
+        upsert(keepAlive, key, value, deleted);
+    }
+
+    private static void upsert(Connection connection, String key, String value, boolean deleted) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "MERGE INTO feature_flags KEY (flag_key) VALUES (?, ?, NEXT VALUE FOR flag_version, ?)")) {
+            statement.setString(1, key);
+            statement.setString(2, value);
+            statement.setBoolean(3, deleted);
+            statement.executeUpdate();
+        }
+    }
+}
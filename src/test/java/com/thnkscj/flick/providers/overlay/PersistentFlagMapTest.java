@@ -0,0 +1,92 @@
+package com.thnkscj.flick.providers.overlay;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.core.FlagValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+public class PersistentFlagMapTest {
+
+    @Test
+    void testMatchesHashMapAndKeepsOldVersions() {
+        Random random = new Random(7);
+        PersistentFlagMap map = PersistentFlagMap.empty();
+        Map<String, FlagValue> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            String key = "flag" + random.nextInt(5_000);
+            if (random.nextInt(4) == 0) {
+                map = map.without(key);
+                expected.remove(key);
+            } else {
+                FlagValue value = FlagValue.of(random.nextInt(100));
+                map = map.with(key, value);
+                expected.put(key, value);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, toMap(map));
+
+        PersistentFlagMap before = map;
+        PersistentFlagMap after = map.with("flag1", FlagValue.of("changed")).without("flag2");
+        assertEquals(expected, toMap(before));
+        assertEquals("changed", after.get("flag1").asString());
+        assertNull(after.get("flag2"));
+        assertSame(after, after.with("flag1", FlagValue.of("changed")));
+        assertSame(after, after.without("missing"));
+    }
+
+    @Test
+    void testHashCollisions() {
+        // "Aa" and "BB" have the same hash code
+        PersistentFlagMap map = PersistentFlagMap.empty()
+                .with("Aa", FlagValue.of(1))
+                .with("BB", FlagValue.of(2))
+                .with("AaAa", FlagValue.of(3))
+                .with("BBBB", FlagValue.of(4))
+                .with("AaBB", FlagValue.of(5));
+        assertEquals(5, map.size());
+        assertEquals(1, map.get("Aa").asInt());
+        assertEquals(2, map.get("BB").asInt());
+        assertEquals(5, map.get("AaBB").asInt());
+
+        map = map.without("Aa").without("AaAa");
+        assertNull(map.get("Aa"));
+        assertEquals(2, map.get("BB").asInt());
+        assertEquals(4, map.get("BBBB").asInt());
+        assertEquals(3, map.size());
+        assertEquals(0, map.without("BB").without("BBBB").without("AaBB").size());
+    }
+
+    @Test
+    void testSpliteratorSplitsForParallelTraversal() {
+        PersistentFlagMap map = PersistentFlagMap.empty()
+                .with("Aa", FlagValue.of(-1))
+                .with("BB", FlagValue.of(-2));
+        for (int i = 0; i < 50_000; i++) {
+            map = map.with("flag" + i, FlagValue.of(i));
+        }
+
+        Spliterator<Map.Entry<String, FlagValue>> spliterator = map.spliterator();
+        assertEquals(map.size(), spliterator.getExactSizeIfKnown());
+        assertNotNull(spliterator.trySplit());
+
+        Map<String, FlagValue> parallel = StreamSupport.stream(map.spliterator(), true)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertEquals(toMap(map), parallel);
+        assertEquals(-2, parallel.get("BB").asInt());
+    }
+
+    private static Map<String, FlagValue> toMap(PersistentFlagMap map) {
+        Map<String, FlagValue> result = new HashMap<>();
+        map.forEach(result::put);
+        return result;
+    }
+}
@@ -0,0 +1,151 @@
+package com.thnkscj.flick.providers.overlay;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.MockFeatureFlagProvider;
+import com.thnkscj.flick.core.FlagValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+public class TenantOverlayProviderTest {
+
+    @Test
+    void testTenantsShareBaseAndKeepOwnOverrides() {
+        Map<String, Object> flags = new HashMap<>();
+        flags.put("checkout.enabled", true);
+        flags.put("checkout.limit", 10);
+        flags.put("search.enabled", false);
+        SharedFlagBase base = new SharedFlagBase(flags);
+
+        TenantOverlayProvider acme = new TenantOverlayProvider("acme", base,
+                Collections.singletonMap("checkout.limit", 50));
+        TenantOverlayProvider globex = new TenantOverlayProvider("globex", base);
+        globex.hide("search.enabled");
+
+        assertEquals(50, acme.getValue("checkout.limit").asInt());
+        assertEquals(10, globex.getValue("checkout.limit").asInt());
+        assertFalse(acme.getValue("search.enabled").isNull());
+        assertTrue(globex.getValue("search.enabled").isNull());
+        assertEquals(2, acme.getChildren("checkout.").size());
+        assertEquals(50, acme.getChildren("checkout").get("limit").asInt());
+        assertEquals(10, base.getChildren("checkout").get("limit").asInt());
+        assertEquals(2, globex.getChildren("").size());
+        assertTrue(globex.getChildren("").containsKey("checkout.limit"));
+
+        // A base update reaches every tenant that does not override the flag
+        base.put("checkout.limit", 20);
+        base.put("checkout.enabled", false);
+        assertEquals(50, acme.getValue("checkout.limit").asInt());
+        assertEquals(20, globex.getValue("checkout.limit").asInt());
+        assertFalse(acme.getValue("checkout.enabled").asBoolean(true));
+        assertFalse(globex.getValue("checkout.enabled").asBoolean(true));
+
+        acme.clearOverride("checkout.limit");
+        assertEquals(20, acme.getValue("checkout.limit").asInt());
+        assertTrue(acme.getOverrides().isEmpty());
+        assertEquals(Collections.singletonMap("search.enabled", FlagValue.nullValue()), globex.getOverrides());
+    }
+
+    @Test
+    void testFlagSpliteratorMatchesChildren() {
+        Map<String, Object> flags = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            flags.put("flag." + i, i);
+        }
+        SharedFlagBase base = new SharedFlagBase(flags);
+        TenantOverlayProvider plain = new TenantOverlayProvider("plain", base);
+        TenantOverlayProvider acme = new TenantOverlayProvider("acme", base,
+                Collections.singletonMap("flag.1", "overridden"));
+        acme.setOverride("acme.only", true);
+        acme.hide("flag.2");
+
+        for (TenantOverlayProvider tenant : new TenantOverlayProvider[]{plain, acme}) {
+            Map<String, FlagValue> traversed = StreamSupport.stream(tenant.flagSpliterator(), true)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            assertEquals(tenant.getChildren(""), traversed);
+        }
+        Map<String, FlagValue> traversed = StreamSupport.stream(acme.flagSpliterator(), true)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertEquals("overridden", traversed.get("flag.1").asString(null));
+        assertFalse(traversed.containsKey("flag.2"));
+        assertEquals(1_000, traversed.size());
+    }
+
+    @Test
+    void testChangeEventsAndSourceRefresh() {
+        MockFeatureFlagProvider source = new MockFeatureFlagProvider();
+        source.setFlag("a", 1);
+        source.setFlag("b", 2);
+        SharedFlagBase base = new SharedFlagBase(source);
+        PersistentFlagMap before = base.snapshot();
+
+        TenantOverlayProvider tenant = new TenantOverlayProvider("t1", base,
+                Collections.singletonMap("b", 20));
+        List<String> events = new ArrayList<>();
+        tenant.addChangeListener((key, value) -> events.add(key + "=" + value.asString()));
+
+        source.setFlag("a", 2);
+        source.setFlag("b", 3);
+        source.setFlag("c", 4);
+        base.refresh();
+        // "b" is overridden, so only the flags the tenant sees from the base are reported
+        assertEquals(2, events.size());
+        assertTrue(events.contains("a=2"));
+        assertTrue(events.contains("c=4"));
+        assertEquals(1, before.get("a").asInt());
+
+        tenant.setOverride("a", 5);
+        tenant.setOverride("a", 5);
+        assertEquals("a=5", events.get(events.size() - 1));
+        assertEquals(3, events.size());
+
+        base.refresh();
+        assertEquals(3, events.size());
+        assertThrows(IllegalArgumentException.class, () -> tenant.setOverride("a", null));
+    }
+
+    @Test
+    void testConcurrentUpdatesAreNotifiedInVersionOrder() throws InterruptedException {
+        SharedFlagBase base = new SharedFlagBase();
+        AtomicReference<FlagValue> lastNotified = new AtomicReference<>();
+        CountDownLatch firstNotifying = new CountDownLatch(1);
+        CountDownLatch secondDone = new CountDownLatch(1);
+        base.addChangeListener((key, value) -> {
+            if (value.asInt() == 1) {
+                firstNotifying.countDown();
+                try {
+                    // Gives the second update every chance to overtake this notification
+                    secondDone.await(200, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            lastNotified.set(value);
+        });
+
+        Thread first = new Thread(() -> base.put("shared", 1));
+        first.start();
+        assertTrue(firstNotifying.await(5, TimeUnit.SECONDS));
+        Thread second = new Thread(() -> {
+            base.put("shared", 2);
+            secondDone.countDown();
+        });
+        second.start();
+        first.join();
+        second.join();
+
+        // The last event delivered is the value the base ended up with
+        assertEquals(2, base.getValue("shared").asInt());
+        assertEquals(2, lastNotified.get().asInt());
+    }
+}
@@ -0,0 +1,161 @@
+package com.thnkscj.flick.providers.prerequisite;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.MockFeatureFlagProvider;
+import com.thnkscj.flick.core.FeatureFlagProvider;
+import com.thnkscj.flick.core.FlagValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PrerequisiteFeatureFlagProviderTest {
+
+    @Test
+    void testGatesOnPrerequisitesInTopologicalOrder() {
+        MockFeatureFlagProvider source = new MockFeatureFlagProvider();
+        source.setFlag("checkout.new-flow", true);
+        source.setFlag("checkout.express", true);
+        source.setFlag("checkout.express.limit", 5);
+        source.setFlag("search.v2", true);
+
+        Map<String, List<String>> prerequisites = new HashMap<>();
+        prerequisites.put("checkout.express.limit", Collections.singletonList("checkout.express"));
+        prerequisites.put("checkout.express", Collections.singletonList("checkout.new-flow"));
+        prerequisites.put("search.v2", Collections.singletonList("search.enabled"));
+
+        PrerequisiteFeatureFlagProvider provider = new PrerequisiteFeatureFlagProvider(source, prerequisites);
+        List<String> order = provider.getEvaluationOrder();
+        assertTrue(order.indexOf("checkout.express") < order.indexOf("checkout.express.limit"));
+
+        assertTrue(provider.getValue("checkout.express").asBoolean());
+        assertEquals(5, provider.getValue("checkout.express.limit").asInt());
+        assertFalse(provider.getValue("search.v2").asBoolean(true));
+        assertEquals(5, provider.getChildren("checkout.express").get("limit").asInt());
+
+        List<String> events = new ArrayList<>();
+        provider.addChangeListener((key, value) -> events.add(key + "=" + value.asString()));
+
+        // Turning off the root recomputes and notifies only its downstream flags
+        source.setFlag("checkout.new-flow", false);
+        assertEquals(Arrays.asList("checkout.new-flow=false", "checkout.express=false", "checkout.express.limit=false"), events);
+        assertFalse(provider.getValue("checkout.express").asBoolean());
+        assertTrue(provider.getValue("search.v2").isPresent());
+
+        // A gated flag changing behind an off prerequisite does not change its effective value
+        events.clear();
+        source.setFlag("checkout.express.limit", 10);
+        assertTrue(events.isEmpty());
+
+        source.setFlag("checkout.new-flow", true);
+        assertEquals(10, provider.getValue("checkout.express.limit").asInt());
+        assertEquals("checkout.express.limit=10", events.get(events.size() - 1));
+
+        Map<String, FlagValue> visited = new HashMap<>();
+        source.setFlag("search.enabled", false);
+        provider.forEachFlag(visited::put);
+        assertFalse(visited.get("search.v2").asBoolean(true));
+    }
+
+    @Test
+    void testUndefinedGatedFlagIsEnumeratedWithItsOffValue() {
+        MockFeatureFlagProvider source = new MockFeatureFlagProvider();
+        source.setFlag("checkout.new-flow", false);
+
+        PrerequisiteFeatureFlagProvider provider = new PrerequisiteFeatureFlagProvider(source,
+                Collections.singletonMap("checkout.express", Collections.singletonList("checkout.new-flow")));
+        assertFalse(provider.getValue("checkout.express").asBoolean(true));
+        assertFalse(provider.getChildren("checkout").get("express").asBoolean(true));
+        assertFalse(provider.getChildren("").get("checkout.express").asBoolean(true));
+
+        Map<String, FlagValue> visited = new HashMap<>();
+        provider.forEachFlag(visited::put);
+        assertEquals(2, visited.size());
+        assertFalse(visited.get("checkout.express").asBoolean(true));
+
+        // Once the prerequisite is on, the flag has no value of its own and disappears
+        source.setFlag("checkout.new-flow", true);
+        assertTrue(provider.getValue("checkout.express").isNull());
+        assertFalse(provider.getChildren("checkout").containsKey("express"));
+        visited.clear();
+        provider.forEachFlag(visited::put);
+        assertFalse(visited.containsKey("checkout.express"));
+    }
+
+    @Test
+    void testRefreshOfPlainDelegateNotifiesEveryChange() {
+        Map<String, FlagValue> flags = new HashMap<>();
+        flags.put("checkout.new-flow", FlagValue.of(true));
+        flags.put("checkout.express", FlagValue.of(true));
+        flags.put("search.v2", FlagValue.of(false));
+        flags.put("search.legacy", FlagValue.of(true));
+        Map<String, FlagValue> pending = new HashMap<>();
+        FeatureFlagProvider source = new FeatureFlagProvider() {
+            @Override
+            public FlagValue getValue(String key) {
+                return flags.getOrDefault(key, FlagValue.nullValue());
+            }
+
+            @Override
+            public Map<String, FlagValue> getChildren(String prefix) {
+                return new HashMap<>(flags);
+            }
+
+            @Override
+            public void refresh() {
+                pending.forEach((key, value) -> {
+                    if (value == null) flags.remove(key);
+                    else flags.put(key, value);
+                });
+                pending.clear();
+            }
+        };
+
+        PrerequisiteFeatureFlagProvider provider = new PrerequisiteFeatureFlagProvider(source,
+                Collections.singletonMap("checkout.express", Collections.singletonList("checkout.new-flow")));
+        List<String> events = new ArrayList<>();
+        provider.addChangeListener((key, value) -> events.add(key + "=" + value.asString()));
+
+        pending.put("checkout.new-flow", FlagValue.of(false));
+        pending.put("search.v2", FlagValue.of(true));
+        pending.put("search.legacy", null);
+        pending.put("checkout.express", FlagValue.of(false));
+        provider.refresh();
+        // Ungated changes arrive in no particular order, followed by the gated ones
+        assertEquals(Arrays.asList("checkout.new-flow=false", "search.legacy=null", "search.v2=true", "checkout.express=false"),
+                sorted(events));
+
+        events.clear();
+        provider.refresh();
+        assertTrue(events.isEmpty());
+    }
+
+    private static List<String> sorted(List<String> events) {
+        List<String> copy = new ArrayList<>(events.subList(0, events.size() - 1));
+        Collections.sort(copy);
+        copy.add(events.get(events.size() - 1));
+        return copy;
+    }
+
+    @Test
+    void testRejectsCycles() {
+        MockFeatureFlagProvider source = new MockFeatureFlagProvider();
+
+        Map<String, List<String>> cycle = new HashMap<>();
+        cycle.put("a", Collections.singletonList("b"));
+        cycle.put("b", Collections.singletonList("c"));
+        cycle.put("c", Collections.singletonList("a"));
+        cycle.put("d", Collections.singletonList("a"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new PrerequisiteFeatureFlagProvider(source, cycle));
+        assertTrue(e.getMessage().contains("[a, b, c, d]"));
+
+        assertThrows(IllegalArgumentException.class, () -> new PrerequisiteFeatureFlagProvider(source,
+                Collections.singletonMap("self", Collections.singletonList("self"))));
+    }
+}
@@ -0,0 +1,47 @@
+package com.thnkscj.flick.schema;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.core.FlagType;
+import com.thnkscj.flick.core.exceptions.FlagTypeConversionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class FlagSpecTest {
+
+    enum Tier {FREE, PRO}
+
+    @Test
+    void testConvertsToTypedForm() {
+        assertEquals(Integer.valueOf(42), FlagSpec.ofInt(0).convert("42"));
+        assertEquals(Integer.valueOf(7), FlagSpec.ofInt(0).convert(7L));
+        assertEquals(Integer.valueOf(3), FlagSpec.ofInt(0).convert(3.0));
+        assertEquals(Long.valueOf(9), FlagSpec.ofLong(0, 0, 10).convert(" 9 "));
+        assertEquals(0.25, FlagSpec.ofDouble(0, 0, 1).convert("0.25"));
+        assertEquals(Boolean.TRUE, FlagSpec.ofBoolean(false).convert("true"));
+        assertEquals(Tier.PRO, FlagSpec.ofEnum(Tier.class, Tier.FREE).convert("pro"));
+        assertEquals("42", FlagSpec.ofString(null).convert(42));
+        assertEquals(Arrays.asList(1, 2),
+                new FlagSpec<>(new FlagType<List<Integer>>() {}, null).convert(Arrays.asList(1L, 2L)));
+        assertEquals(Tier.FREE, FlagSpec.ofEnum(Tier.class, Tier.FREE).getDefaultValue().as(Tier.class).orElse(null));
+    }
+
+    @Test
+    void testRejectsInvalidValues() {
+        assertThrows(FlagTypeConversionException.class, () -> FlagSpec.ofInt(0).convert("abc"));
+        assertThrows(FlagTypeConversionException.class, () -> FlagSpec.ofInt(0).convert(2.5));
+        assertThrows(FlagTypeConversionException.class, () -> FlagSpec.ofInt(0).convert(1L << 40));
+        assertThrows(FlagTypeConversionException.class, () -> FlagSpec.ofInt(5, 1, 10).convert(11));
+        assertThrows(FlagTypeConversionException.class, () -> FlagSpec.ofDouble(0, 0, 1).convert(1.5));
+        assertThrows(FlagTypeConversionException.class, () -> FlagSpec.ofBoolean(false).convert("maybe"));
+        assertThrows(FlagTypeConversionException.class, () -> FlagSpec.ofEnum(Tier.class, null).convert("gold"));
+        assertThrows(FlagTypeConversionException.class, () -> FlagSpec.ofString("a", "a", "b").convert("c"));
+        assertThrows(FlagTypeConversionException.class,
+                () -> new FlagSpec<>(FlagType.listOf(Integer.class), null).convert("1,2"));
+
+        assertThrows(IllegalArgumentException.class, () -> FlagSpec.ofInt(0, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> FlagSpec.ofString("c", "a", "b"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.thnkscj.flick.stress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.core.FlagChangeListener;
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.providers.caching.CachingFeatureFlagProvider;
+import com.thnkscj.flick.providers.caching.strategy.ConcurrentCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CachingProviderStressTest {
+
+    private static final int PROBES = 64;
+
+    @Test
+    void testReadersRefreshesAndListenerChurn() throws Exception {
+        SyntheticFlags flags = new SyntheticFlags(StressConfig.FLAGS);
+        SyntheticFlags.Provider source = new SyntheticFlags.Provider(flags);
+        source.getValue(flags.key(0));
+
+        CachingFeatureFlagProvider provider = new CachingFeatureFlagProvider(
+                source, new ConcurrentCache<>(null), 0, TimeUnit.SECONDS);
+        int baseGeneration = source.currentGeneration();
+
+        LongAdder delivered = new LongAdder();
+        provider.addChangeListener((key, value) -> delivered.increment());
+        LongAdder churned = new LongAdder();
+
+        int[][] lastGenerations = new int[StressConfig.READERS][PROBES];
+        StressHarness harness = new StressHarness();
+        harness.readers(StressConfig.READERS, (thread, iteration) -> {
+            int index = (iteration & 1) == 0
+                    ? (int) (iteration >>> 1) % PROBES
+                    : ThreadLocalRandom.current().nextInt(flags.size());
+            FlagValue value = provider.getValue(flags.key(index));
+
+            assertNotNull(value, "cache returned null for " + flags.key(index));
+            assertEquals(index, SyntheticFlags.indexOf(value), "torn read on " + flags.key(index));
+            if (index < PROBES) {
+                int generation = SyntheticFlags.generationOf(value);
+                assertTrue(generation >= lastGenerations[thread][index], "generation went backwards");
+                lastGenerations[thread][index] = generation;
+            }
+        });
+        harness.writers(1, (thread, iteration) -> provider.refresh());
+        harness.writers(2, (thread, iteration) -> {
+            FlagChangeListener transientListener = (key, value) -> churned.increment();
+            provider.addChangeListener(transientListener);
+            Thread.yield();
+            provider.removeChangeListener(transientListener);
+        });
+        harness.run(StressConfig.SECONDS);
+
+        long refreshes = source.currentGeneration() - baseGeneration;
+        long expected = refreshes * flags.size();
+        List<Throwable> failures = harness.failures();
+        new StressReport("caching-provider")
+                .put("reads", harness.reads())
+                .put("refreshes", refreshes)
+                .put("expectedNotifications", expected)
+                .put("deliveredNotifications", delivered.sum())
+                .put("churnedNotifications", churned.sum())
+                .put("failures", failures.size())
+                .write();
+        provider.shutdown();
+
+        assertTrue(failures.isEmpty(), () -> "consistency violations: " + failures);
+        assertTrue(refreshes > 0, "no refresh completed");
+        assertEquals(expected, delivered.sum(), "lost change notifications");
+    }
+}
@@ -0,0 +1,94 @@
+package com.thnkscj.flick.stress;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.MockFeatureFlagProvider;
+import com.thnkscj.flick.core.FeatureFlags;
+import com.thnkscj.flick.core.FlagValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class FeatureFlagsStressTest {
+
+    @AfterEach
+    void cleanup() {
+        FeatureFlags.shutdown();
+    }
+
+    @Test
+    void testGlobalReadsDuringRefresh() throws Exception {
+        SyntheticFlags flags = new SyntheticFlags(StressConfig.FLAGS);
+        SyntheticFlags.Provider provider = new SyntheticFlags.Provider(flags);
+        FeatureFlags.setProvider(provider);
+        FeatureFlags.get(flags.key(0));
+
+        int reads = 1_000_000;
+        long[] sink = new long[1];
+        Runnable loop = () -> {
+            for (int i = 0; i < reads; i++) {
+                sink[0] += FeatureFlags.get(flags.key(i % flags.size())).asLong();
+            }
+        };
+        loop.run();
+        long allocated = StressHarness.allocatedBytes(loop);
+        double bytesPerRead = allocated < 0 ? 0.0 : (double) allocated / reads;
+
+        StressHarness harness = new StressHarness();
+        harness.readers(StressConfig.READERS, (thread, iteration) -> {
+            int index = ThreadLocalRandom.current().nextInt(flags.size());
+            FlagValue value = FeatureFlags.get(flags.key(index));
+            assertEquals(index, SyntheticFlags.indexOf(value), "torn read on " + flags.key(index));
+        });
+        harness.writers(1, (thread, iteration) -> FeatureFlags.refresh());
+        harness.run(StressConfig.SECONDS);
+
+        List<Throwable> failures = harness.failures();
+        new StressReport("feature-flags-reads")
+                .put("reads", harness.reads())
+                .put("refreshes", harness.writes())
+                .put("bytesPerRead", bytesPerRead)
+                .put("failures", failures.size())
+                .write();
+
+        assertTrue(failures.isEmpty(), () -> "consistency violations: " + failures);
+        assertTrue(bytesPerRead <= StressConfig.MAX_BYTES_PER_READ, "allocation per read: " + bytesPerRead);
+    }
+
+    @Test
+    void testNoLostGlobalNotifications() throws Exception {
+        MockFeatureFlagProvider provider = new MockFeatureFlagProvider();
+        FeatureFlags.setProvider(provider);
+
+        LongAdder delivered = new LongAdder();
+        FeatureFlags.addGlobalChangeListener((key, value) -> delivered.increment());
+
+        int writers = Math.max(2, StressConfig.READERS / 8);
+        StressHarness harness = new StressHarness();
+        harness.writers(writers, (thread, iteration) ->
+                provider.setFlag("writer" + thread + ".flag" + (iteration % 1000), iteration));
+        harness.readers(StressConfig.READERS, (thread, iteration) ->
+                FeatureFlags.get("writer0.flag" + (iteration % 1000)));
+        harness.run(StressConfig.SECONDS);
+
+        long expected = harness.writes();
+        await().atMost(60, TimeUnit.SECONDS)
+                .pollInterval(100, TimeUnit.MILLISECONDS)
+                .until(() -> delivered.sum() >= expected);
+
+        List<Throwable> failures = harness.failures();
+        new StressReport("feature-flags-notifications")
+                .put("writes", expected)
+                .put("delivered", delivered.sum())
+                .put("failures", failures.size())
+                .write();
+
+        assertTrue(failures.isEmpty(), () -> "failures: " + failures);
+        assertEquals(expected, delivered.sum(), "lost or duplicated notifications");
+    }
+}
@@ -0,0 +1,86 @@
+package com.thnkscj.flick.stress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.providers.generic.CompactFlagStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+public class GenericProviderStressTest {
+
+    private static final int PROBES = 64;
+
+    @Test
+    void testReadersDuringContinuousBulkUpdates() throws Exception {
+        run("generic-provider", SyntheticFlags.Provider::new, StressConfig.MAX_BYTES_PER_READ);
+    }
+
+    @Test
+    void testCompactStoreReadersDuringContinuousBulkUpdates() throws Exception {
+        // Large values are decoded into a new FlagValue per read, so only heap per flag is bounded here
+        run("generic-provider-compact", flags -> new SyntheticFlags.Provider(flags, new CompactFlagStore()), Long.MAX_VALUE);
+    }
+
+    private static void run(String scenario, Function<SyntheticFlags, SyntheticFlags.Provider> factory,
+                            long maxBytesPerRead) throws Exception {
+        // Includes the key strings, which the test keeps for lookups in both scenarios
+        long heapBefore = StressHarness.usedHeapAfterGc();
+        SyntheticFlags flags = new SyntheticFlags(StressConfig.FLAGS);
+        SyntheticFlags.Provider provider = factory.apply(flags);
+        provider.getValue(flags.key(0));
+        long bytesPerFlag = (StressHarness.usedHeapAfterGc() - heapBefore) / flags.size();
+
+        double bytesPerRead = measureBytesPerRead(provider, flags);
+
+        int[][] lastGenerations = new int[StressConfig.READERS][PROBES];
+        StressHarness harness = new StressHarness();
+        harness.readers(StressConfig.READERS, (thread, iteration) -> {
+            int index = (iteration & 1) == 0
+                    ? (int) (iteration >>> 1) % PROBES
+                    : ThreadLocalRandom.current().nextInt(flags.size());
+            FlagValue value = provider.getValue(flags.key(index));
+
+            assertTrue(value.isPresent(), "flag vanished: " + flags.key(index));
+            assertEquals(index, SyntheticFlags.indexOf(value), "torn read on " + flags.key(index));
+            if (index < PROBES) {
+                int generation = SyntheticFlags.generationOf(value);
+                assertTrue(generation >= lastGenerations[thread][index], "generation went backwards");
+                lastGenerations[thread][index] = generation;
+            }
+        });
+        harness.writers(1, (thread, iteration) -> provider.refresh());
+        harness.run(StressConfig.SECONDS);
+
+        List<Throwable> failures = harness.failures();
+        new StressReport(scenario)
+                .put("reads", harness.reads())
+                .put("refreshes", harness.writes())
+                .put("finalGeneration", provider.currentGeneration())
+                .put("bytesPerFlag", bytesPerFlag)
+                .put("bytesPerRead", bytesPerRead)
+                .put("failures", failures.size())
+                .write();
+
+        assertTrue(failures.isEmpty(), () -> "consistency violations: " + failures);
+        assertTrue(harness.writes() > 0, "no refresh completed");
+        assertTrue(bytesPerFlag <= StressConfig.MAX_BYTES_PER_FLAG, "heap per flag: " + bytesPerFlag);
+        assertTrue(bytesPerRead <= maxBytesPerRead, "allocation per read: " + bytesPerRead);
+    }
+
+    static double measureBytesPerRead(SyntheticFlags.Provider provider, SyntheticFlags flags) {
+        int reads = 1_000_000;
+        long[] sink = new long[1];
+        Runnable loop = () -> {
+            for (int i = 0; i < reads; i++) {
+                sink[0] += provider.getValue(flags.key(i % flags.size())).asLong();
+            }
+        };
+        loop.run();
+        long allocated = StressHarness.allocatedBytes(loop);
+        return allocated < 0 ? 0.0 : (double) allocated / reads;
+    }
+}
@@ -0,0 +1,69 @@
+package com.thnkscj.flick.stress;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thnkscj.flick.providers.http.FlagServer;
+import com.thnkscj.flick.providers.http.StreamingFeatureFlagProvider;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class StreamingProviderStressTest {
+
+    private static final int CLIENTS = Integer.getInteger("flick.stress.streamClients", 2000);
+
+    @Test
+    void testFanOutToConnectedClients() throws Exception {
+        FlagServer server = new FlagServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                4096, 5, TimeUnit.SECONDS).start();
+        server.setFlag("counter", 0);
+
+        List<StreamingFeatureFlagProvider> providers = new ArrayList<>(CLIENTS);
+        long connectStart = System.nanoTime();
+        for (int i = 0; i < CLIENTS; i++) {
+            StreamingFeatureFlagProvider provider = new StreamingFeatureFlagProvider(
+                    server.getStreamUrl(), 50, 2000, TimeUnit.MILLISECONDS);
+            providers.add(provider);
+            new Thread(() -> provider.getValue("counter"), "stress-connect").start();
+        }
+        await().atMost(2, TimeUnit.MINUTES).until(() -> server.getClientCount() == CLIENTS);
+        long connectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(StressConfig.SECONDS);
+        int published = 0;
+        while (System.nanoTime() < deadline) {
+            server.setFlag("counter", ++published);
+            if (published % 10 == 0) {
+                server.disconnectAll();
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+
+        long convergeStart = System.nanoTime();
+        long finalVersion = server.getVersion();
+        await().atMost(2, TimeUnit.MINUTES).until(() ->
+                providers.stream().allMatch(p -> p.getVersion() == finalVersion));
+        long convergeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - convergeStart);
+
+        long connects = providers.stream().mapToLong(StreamingFeatureFlagProvider::getConnectCount).sum();
+        int finalValue = published;
+        boolean consistent = providers.stream().allMatch(p -> p.getValue("counter").asInt(-1) == finalValue);
+
+        new StressReport("streaming-provider")
+                .put("clients", CLIENTS)
+                .put("published", published)
+                .put("connectMillis", connectMillis)
+                .put("convergeMillis", convergeMillis)
+                .put("connects", connects)
+                .write();
+        providers.forEach(StreamingFeatureFlagProvider::shutdown);
+        server.close();
+
+        assertTrue(consistent, "clients diverged from the server");
+    }
+}
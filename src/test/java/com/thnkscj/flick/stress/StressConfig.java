@@ -0,0 +1,20 @@
+package com.thnkscj.flick.stress;
+
+/**
+ * Scale parameters of the stress suite, read from system properties so the same tests can run
+ * as a quick smoke check or at full release scale:
+ * <pre>
+ * mvn -Pstress test -Dflick.stress.flags=1000000 -Dflick.stress.readers=64 -Dflick.stress.seconds=30
+ * </pre>
+ */
+final class StressConfig {
+
+    static final int FLAGS = Integer.getInteger("flick.stress.flags", 1_000_000);
+    static final int READERS = Integer.getInteger("flick.stress.readers", 64);
+    static final int SECONDS = Integer.getInteger("flick.stress.seconds", 10);
+    static final long MAX_BYTES_PER_FLAG = Long.getLong("flick.stress.maxBytesPerFlag", 512);
+    static final long MAX_BYTES_PER_READ = Long.getLong("flick.stress.maxBytesPerRead", 8);
+    static final String REPORT_DIR = System.getProperty("flick.stress.reportDir", "target/stress-reports");
+
+    private StressConfig() {}
+}
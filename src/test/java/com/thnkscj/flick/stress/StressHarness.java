@@ -0,0 +1,130 @@
+package com.thnkscj.flick.stress;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives reader and writer threads for a fixed duration and collects any consistency violations.
+ */
+final class StressHarness {
+
+    /**
+     * A unit of work repeated by a thread until the run ends. Implementations report
+     * consistency violations by throwing {@link AssertionError}.
+     */
+    @FunctionalInterface
+    interface Worker {
+        void step(int threadIndex, long iteration);
+    }
+
+    private final List<Thread> threads = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final CountDownLatch start = new CountDownLatch(1);
+    private final LongAdder readOps = new LongAdder();
+    private final LongAdder writeOps = new LongAdder();
+
+    void readers(int count, Worker worker) {
+        spawn("stress-reader-", count, worker, readOps);
+    }
+
+    void writers(int count, Worker worker) {
+        spawn("stress-writer-", count, worker, writeOps);
+    }
+
+    /**
+     * Starts all threads, lets them run for the given duration, then stops and joins them.
+     *
+     * @param seconds the run duration
+     */
+    void run(int seconds) throws InterruptedException {
+        start.countDown();
+        TimeUnit.SECONDS.sleep(seconds);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    long reads() {
+        return readOps.sum();
+    }
+
+    long writes() {
+        return writeOps.sum();
+    }
+
+    List<Throwable> failures() {
+        return new ArrayList<>(failures);
+    }
+
+    private void spawn(String prefix, int count, Worker worker, LongAdder ops) {
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    long iteration = 0;
+                    while (running.get()) {
+                        worker.step(index, iteration++);
+                        ops.increment();
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }, prefix + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Returns the heap currently in use after asking the JVM to collect garbage.
+     *
+     * @return used heap in bytes
+     */
+    static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(50);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Measures the bytes allocated by the current thread while running the given action,
+     * or returns -1 if the JVM does not expose per-thread allocation counters.
+     *
+     * @param action the action to measure
+     * @return allocated bytes, or -1 if unsupported
+     */
+    static long allocatedBytes(Runnable action) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            action.run();
+            return -1;
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            action.run();
+            return -1;
+        }
+
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        action.run();
+        return threads.getThreadAllocatedBytes(id) - before;
+    }
+}
@@ -0,0 +1,58 @@
+package com.thnkscj.flick.stress;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Machine-readable result of one stress scenario, written as a flat JSON object to
+ * {@code <reportDir>/<scenario>.json} so results can be compared across releases.
+ */
+final class StressReport {
+
+    private final String scenario;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    StressReport(String scenario) {
+        this.scenario = scenario;
+        put("scenario", scenario);
+        put("timestamp", System.currentTimeMillis());
+        put("javaVersion", System.getProperty("java.version"));
+        put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        put("flags", StressConfig.FLAGS);
+        put("readers", StressConfig.READERS);
+        put("seconds", StressConfig.SECONDS);
+    }
+
+    StressReport put(String name, Object value) {
+        values.put(name, value);
+        return this;
+    }
+
+    Path write() throws IOException {
+        Path dir = Paths.get(StressConfig.REPORT_DIR);
+        Files.createDirectories(dir);
+
+        StringBuilder json = new StringBuilder("{\n");
+        int i = 0;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            json.append("  \"").append(entry.getKey()).append("\": ");
+            Object value = entry.getValue();
+            if (value instanceof Number || value instanceof Boolean) {
+                json.append(value);
+            } else {
+                json.append('"').append(String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            }
+            json.append(++i < values.size() ? ",\n" : "\n");
+        }
+        json.append("}\n");
+
+        Path file = dir.resolve(scenario + ".json");
+        Files.write(file, json.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,90 @@
+package com.thnkscj.flick.stress;
+
+import com.thnkscj.flick.core.FlagValue;
+import com.thnkscj.flick.providers.generic.GenericFeatureFlagProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Synthetic flag hierarchy of the form {@code svc<a>.mod<b>.flag<i>}.
+ * <p>
+ * Every value encodes its own flag index and the generation that wrote it
+ * ({@code index * GENERATIONS + generation}), so readers can detect torn or misplaced reads
+ * and generations going backwards without any shared bookkeeping.
+ * </p>
+ */
+final class SyntheticFlags {
+
+    static final long GENERATIONS = 1_000_000L;
+
+    private final String[] keys;
+
+    SyntheticFlags(int count) {
+        keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = "svc" + (i % 100) + ".mod" + (i / 100 % 100) + ".flag" + i;
+        }
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    String key(int index) {
+        return keys[index];
+    }
+
+    Map<String, Object> generation(int generation) {
+        Map<String, Object> values = new HashMap<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            values.put(keys[i], encode(i, generation));
+        }
+        return values;
+    }
+
+    static long encode(int index, int generation) {
+        return index * GENERATIONS + generation;
+    }
+
+    static int indexOf(FlagValue value) {
+        return (int) (value.asLong() / GENERATIONS);
+    }
+
+    static int generationOf(FlagValue value) {
+        return (int) (value.asLong() % GENERATIONS);
+    }
+
+    /**
+     * A {@link GenericFeatureFlagProvider} that publishes a new generation of every flag on each refresh.
+     */
+    static final class Provider extends GenericFeatureFlagProvider {
+        private final SyntheticFlags flags;
+        private volatile int generation;
+
+        Provider(SyntheticFlags flags) {
+            this.flags = flags;
+        }
+
+        Provider(SyntheticFlags flags, Map<String, FlagValue> store) {
+            super(store, null);
+            this.flags = flags;
+        }
+
+        int currentGeneration() {
+            return generation;
+        }
+
+        @Override
+        protected void initialize() {
+            bulkUpdateFlags(flags.generation(0));
+        }
+
+        @Override
+        protected synchronized void loadFlags() {
+            int next = generation + 1;
+            bulkUpdateFlags(flags.generation(next));
+            generation = next;
+        }
+    }
+}
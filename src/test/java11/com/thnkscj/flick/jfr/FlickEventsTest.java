@@ -0,0 +1,98 @@
+package com.thnkscj.flick.jfr;
+
+import com.thnkscj.flick.MockFeatureFlagProvider;
+import com.thnkscj.flick.core.FeatureFlags;
+import com.thnkscj.flick.providers.caching.CachingFeatureFlagProvider;
+import com.thnkscj.flick.providers.caching.strategy.ConcurrentCache;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlickEventsTest {
+
+    private static final String[] EVENTS = {
+            "com.thnkscj.flick.FlagEvaluation",
+            "com.thnkscj.flick.CacheLoad",
+            "com.thnkscj.flick.Refresh",
+            "com.thnkscj.flick.ListenerDispatch"
+    };
+
+    @AfterEach
+    void cleanup() {
+        FeatureFlags.shutdown();
+    }
+
+    @Test
+    void testDisabledEventsReturnNoToken() {
+        assertNull(FlickEvents.beginEvaluation());
+        assertNull(FlickEvents.beginCacheLoad());
+        assertNull(FlickEvents.beginRefresh());
+        assertNull(FlickEvents.beginListenerDispatch());
+    }
+
+    @Test
+    void testProvidersEmitEvents() throws Exception {
+        MockFeatureFlagProvider source = new MockFeatureFlagProvider();
+        source.setFlag("feature.enabled", true);
+        CachingFeatureFlagProvider provider = new CachingFeatureFlagProvider(
+                source, new ConcurrentCache<>(null), 0, TimeUnit.SECONDS);
+        provider.addChangeListener((key, value) -> {});
+
+        List<RecordedEvent> events;
+        Path file = Files.createTempFile("flick", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : EVENTS) {
+                recording.enable(name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+
+            FeatureFlags.setProvider(provider);
+            assertTrue(FeatureFlags.get("feature.enabled").asBoolean(false));
+            // Not preloaded by the cache, so the lookup goes to the source
+            assertTrue(FeatureFlags.get("feature.missing").isNull());
+            provider.refresh();
+            source.setFlag("feature.enabled", false);
+
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        List<String> names = events.stream()
+                .map(event -> event.getEventType().getName())
+                .collect(Collectors.toList());
+        for (String name : EVENTS) {
+            assertTrue(names.contains(name), name + " was not recorded");
+        }
+
+        RecordedEvent load = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.thnkscj.flick.CacheLoad"))
+                .findFirst()
+                .get();
+        assertEquals("feature.missing", load.getString("key"));
+        assertFalse(load.getBoolean("found"));
+
+        RecordedEvent dispatch = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.thnkscj.flick.ListenerDispatch"))
+                .findFirst()
+                .get();
+        assertEquals(CachingFeatureFlagProvider.class.getName(), dispatch.getString("source"));
+        assertEquals(1, dispatch.getInt("listenerCount"));
+    }
+}